@@ -0,0 +1,42 @@
+package main.java.api;
+
+import main.java.util.Logs;
+
+import java.net.HttpURLConnection;
+import java.util.Map;
+
+/**
+ * One request to the drone API and its response, as performed live or served by a {@link ResponseSource}.
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #bodyOf(ApiExchange) bodyOf}: Returns the body of a successful exchange, null otherwise.</li>
+ * </ul>
+ * </p>
+ *
+ * @param url           domain and endpoint of the request.
+ * @param status        HTTP status code of the response.
+ * @param headers       response headers, multiple values joined by commas.
+ * @param body          response body, null unless the status is 200.
+ * @param startedAt     epoch milliseconds when the request was started.
+ * @param durationNanos time until the body was read.
+ */
+
+public record ApiExchange(String url, int status, Map<String, String> headers, String body, long startedAt,
+                          long durationNanos) {
+
+    public ApiExchange {
+        headers = Map.copyOf(headers);
+    }
+
+    public static String bodyOf(ApiExchange exchange) {
+        if (exchange == null) {
+            return null;
+        }
+        if (exchange.status() != HttpURLConnection.HTTP_OK) {
+            Logs.error("The GET request encountered an error. Response Code: " + exchange.status());
+            return null;
+        }
+        return exchange.body();
+    }
+}
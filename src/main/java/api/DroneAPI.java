@@ -2,12 +2,13 @@ package main.java.api;
 
 import main.java.util.Logs;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.ProtocolException;
 import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * The {@code DroneAPI} class provides an interface for establishing HTTP connection
@@ -19,14 +20,15 @@ import java.net.URL;
  *   <li>{@link #DroneAPI(String, String, String, String)} - Constructor used to create a configured DroneAPI instance.
  *   <li>{@link #createConnection()} - Establishes an HTTP connection to the drone API.
  *   <li>{@link #retrieveResponse()} - Retrieves and processes the HTTP response from the connected API.
+ *   <li>{@link #exchange()} - Performs the request and returns the captured {@link ApiExchange}.
  * </ul></p>
  *
  * <p>Helper methods that support the functionalities of main methods:
  * <ul>
  *   <li>{@link #validateInput(String, String)} - Validates input data prior to establishing a connection to the drone API.
  *   <li>{@link #setConnectionProperties(HttpURLConnection)} - Sets properties for an established HTTP connection.
- *   <li>{@link #processResponse(HttpURLConnection)} - Handles the response from the connected API.
- *   <li>{@link #readResponse(HttpURLConnection)} - Reads the API response and converts it into a string.
+ *   <li>{@link #processResponse(HttpURLConnection, long, long)} - Captures the response from the connected API.
+ *   <li>{@link #readResponse(HttpURLConnection)} - Reads the API response into a pooled buffer and converts it into a string.
  *   <li>{@link #handleException(Exception)} - Error handling during response retrieval and processing.
  * </ul></p>
  *
@@ -81,41 +83,46 @@ public class DroneAPI {
         connection.setRequestMethod("GET");
     }
 
+    public String getUrl() {
+        return domain + endpoint;
+    }
+
     public String retrieveResponse() {
+        return ApiExchange.bodyOf(exchange());
+    }
+
+    /**
+     * Performs the request and captures status, headers, body and timing of the response.
+     */
+    public ApiExchange exchange() {
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         HttpURLConnection connection = createConnection();
         try {
-            if (connection != null) {
-                return processResponse(connection);
-            }
+            return processResponse(connection, startTime, startNanos);
         } catch (Exception e) {
             handleException(e);
             return null;
         } finally {
-            if (connection != null) {
-                connection.disconnect();
-            }
+            connection.disconnect();
         }
-        return null;
     }
 
-    private String processResponse(HttpURLConnection connection) throws IOException {
+    private ApiExchange processResponse(HttpURLConnection connection, long startTime, long startNanos) throws IOException {
         int responseCode = connection.getResponseCode();
-        if (responseCode == HttpURLConnection.HTTP_OK) {
-            return readResponse(connection);
-        } else {
-            Logs.error("The GET request encountered an error. Response Code: " + responseCode);
-            return null;
-        }
+        String body = responseCode == HttpURLConnection.HTTP_OK ? readResponse(connection) : null;
+        Map<String, String> headers = new LinkedHashMap<>();
+        connection.getHeaderFields().forEach((name, values) -> {
+            if (name != null && values != null) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new ApiExchange(getUrl(), responseCode, headers, body, startTime, System.nanoTime() - startNanos);
     }
 
     private String readResponse(HttpURLConnection connection) throws IOException {
-        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-            String inputLine;
-            StringBuilder response = new StringBuilder();
-            while ((inputLine = bufferedReader.readLine()) != null) {
-                response.append(inputLine);
-            }
-            return response.toString();
+        try (InputStream inputStream = connection.getInputStream()) {
+            return ResponseBuffers.readFully(inputStream, connection.getContentLengthLong());
         }
     }
 
@@ -0,0 +1,183 @@
+package main.java.api;
+
+import main.java.util.Logs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The {@code ExchangeLog} class appends {@link ApiExchange}s to a compact, append-only file and reads them back.
+ * <p>
+ * File layout (big endian): magic and version, followed by records {@code [length:int][payload][crc32:int]}.
+ * The payload holds URL, status, start time, duration, headers and the deflated body. Reading stops at the first
+ * incomplete or corrupt record, so a log cut short by a crash stays usable.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #append(ApiExchange) append}: Appends an exchange.</li>
+ *     <li>{@link #read(Path) read}: Returns the exchanges of a log in the order they were recorded.</li>
+ *     <li>{@link #close() close}: Flushes and closes the log.</li>
+ * </ul>
+ * </p>
+ */
+
+public class ExchangeLog implements Closeable {
+    private static final int MAGIC = 0x444D4152;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 8;
+
+    private final FileChannel channel;
+
+    public ExchangeLog(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0) {
+            write(ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip());
+        }
+    }
+
+    public synchronized void append(ApiExchange exchange) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeUTF(exchange.url());
+        data.writeShort(exchange.status());
+        data.writeLong(exchange.startedAt());
+        data.writeLong(exchange.durationNanos());
+        data.writeShort(exchange.headers().size());
+        for (Map.Entry<String, String> header : exchange.headers().entrySet()) {
+            data.writeUTF(header.getKey());
+            data.writeUTF(header.getValue());
+        }
+        writeBody(data, exchange.body());
+        data.flush();
+
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        write(ByteBuffer.allocate(bytes.length + 8).putInt(bytes.length).put(bytes).putInt((int) crc.getValue()).flip());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    public static List<ApiExchange> read(Path file) throws IOException {
+        List<ApiExchange> exchanges = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < FILE_HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not an exchange log or unsupported version: " + file);
+            }
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= 8) {
+                int length = buffer.getInt();
+                if (length < 0 || buffer.remaining() < length + 4) {
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != buffer.getInt()) {
+                    break;
+                }
+                exchanges.add(readExchange(payload));
+            }
+            if (buffer.hasRemaining()) {
+                Logs.warning("Ignoring the incomplete end of exchange log " + file);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt body in exchange log " + file, e);
+        }
+        return exchanges;
+    }
+
+    private static void writeBody(DataOutputStream data, String body) throws IOException {
+        if (body == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] raw = body.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] chunk = new byte[8192];
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 16);
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            data.writeInt(raw.length);
+            data.writeInt(compressed.size());
+            compressed.writeTo(data);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static ApiExchange readExchange(ByteBuffer payload) throws DataFormatException {
+        String url = readUtf(payload);
+        int status = payload.getShort();
+        long startedAt = payload.getLong();
+        long durationNanos = payload.getLong();
+        int headerCount = payload.getShort();
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            headers.put(readUtf(payload), readUtf(payload));
+        }
+        String body = null;
+        int rawLength = payload.getInt();
+        if (rawLength >= 0) {
+            byte[] compressed = new byte[payload.getInt()];
+            payload.get(compressed);
+            byte[] raw = new byte[rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                inflater.inflate(raw);
+            } finally {
+                inflater.end();
+            }
+            body = new String(raw, StandardCharsets.UTF_8);
+        }
+        return new ApiExchange(url, status, headers, body, startedAt, durationNanos);
+    }
+
+    /**
+     * Reads a string written by {@link DataOutputStream#writeUTF(String)}, which is UTF-8 for the ASCII URLs and
+     * headers of the API.
+     */
+    private static String readUtf(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getShort() & 0xFFFF];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+}
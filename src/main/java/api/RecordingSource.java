@@ -0,0 +1,39 @@
+package main.java.api;
+
+import main.java.util.Logs;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * {@link ResponseSource} that performs every request against the API and appends the exchange to an
+ * {@link ExchangeLog}, so the session can later be served by a {@link ReplaySource}. Requests that got no
+ * exchange at all, e.g. because the connection failed, are not recorded.
+ */
+
+public class RecordingSource implements ResponseSource, Closeable {
+    private final ExchangeLog log;
+
+    public RecordingSource(ExchangeLog log) {
+        this.log = log;
+    }
+
+    @Override
+    public ApiExchange exchange(DroneAPI request) {
+        ApiExchange exchange = request.exchange();
+        if (exchange == null) {
+            return null;
+        }
+        try {
+            log.append(exchange);
+        } catch (IOException e) {
+            Logs.error("Error occurred in RecordingSource.exchange() : " + e.getMessage());
+        }
+        return exchange;
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+}
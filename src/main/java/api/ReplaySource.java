@@ -0,0 +1,59 @@
+package main.java.api;
+
+import main.java.util.Logs;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ResponseSource} serving recorded {@link ApiExchange}s instead of calling the API.
+ * <p>
+ * Requests are matched by URL. Repeated requests for a URL get its recorded responses in order and start over
+ * when they are used up, so a recording of one refresh can drive any number of refreshes. Each response is
+ * delayed by its recorded duration divided by the speed: 1 replays at the original speed, 10 ten times faster
+ * and 0 without any delay.
+ * </p>
+ */
+
+public class ReplaySource implements ResponseSource {
+    private final Map<String, Recorded> byUrl = new HashMap<>();
+    private final double speed;
+
+    public ReplaySource(List<ApiExchange> exchanges, double speed) {
+        this.speed = speed;
+        for (ApiExchange exchange : exchanges) {
+            byUrl.computeIfAbsent(exchange.url(), url -> new Recorded()).responses.add(exchange);
+        }
+    }
+
+    @Override
+    public ApiExchange exchange(DroneAPI request) {
+        Recorded recorded = byUrl.get(request.getUrl());
+        if (recorded == null) {
+            Logs.warning("No recorded response for " + request.getUrl());
+            return new ApiExchange(request.getUrl(), 404, Map.of(), null, System.currentTimeMillis(), 0);
+        }
+        ApiExchange exchange = recorded.next();
+        if (speed > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep((long) (exchange.durationNanos() / speed));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return exchange;
+    }
+
+    private static final class Recorded {
+        private final List<ApiExchange> responses = new ArrayList<>();
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        ApiExchange next() {
+            return responses.get(Math.floorMod(cursor.getAndIncrement(), responses.size()));
+        }
+    }
+}
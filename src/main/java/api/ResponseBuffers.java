@@ -0,0 +1,72 @@
+package main.java.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of reusable byte buffers that response bodies are read into.
+ * <p>
+ * A body is read in bulk into a pooled buffer and decoded into its String once, instead of line by line through a
+ * {@code BufferedReader} and a growing {@code StringBuilder}. Buffers are returned to the pool after each response,
+ * so continuous polling reuses the same few arrays. Buffers grown beyond {@value #MAX_POOLED_CAPACITY} bytes
+ * for an unusually large response are not kept.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #readFully(InputStream, long) readFully}: Reads a UTF-8 body into a String using a pooled buffer.</li>
+ * </ul>
+ * </p>
+ */
+
+final class ResponseBuffers {
+    private static final int POOL_SIZE = 16;
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+    private static final int MAX_POOLED_CAPACITY = 8 * 1024 * 1024;
+    private static final BlockingQueue<byte[]> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private ResponseBuffers() {
+    }
+
+    /**
+     * @param lengthHint content length of the body, -1 if unknown.
+     */
+    static String readFully(InputStream input, long lengthHint) throws IOException {
+        byte[] buffer = acquire(lengthHint);
+        int length = 0;
+        try {
+            int read;
+            while ((read = input.read(buffer, length, buffer.length - length)) != -1) {
+                length += read;
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        } finally {
+            release(buffer);
+        }
+    }
+
+    private static byte[] acquire(long lengthHint) {
+        byte[] buffer = POOL.poll();
+        if (buffer == null) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+        if (lengthHint >= buffer.length && lengthHint < Integer.MAX_VALUE) {
+            release(buffer);
+            buffer = new byte[(int) lengthHint + 1];
+        }
+        return buffer;
+    }
+
+    private static void release(byte[] buffer) {
+        if (buffer.length <= MAX_POOLED_CAPACITY) {
+            POOL.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package main.java.api;
+
+/**
+ * Source of the responses to drone API requests.
+ * <p>
+ * Implementations:
+ * <ul>
+ *     <li>{@link ResponseSources#LIVE}: Performs the request against the API.</li>
+ *     <li>{@link RecordingSource}: Performs the request and appends the exchange to an {@link ExchangeLog}.</li>
+ *     <li>{@link ReplaySource}: Serves the exchanges of an {@link ExchangeLog} without network access.</li>
+ * </ul>
+ * </p>
+ */
+
+@FunctionalInterface
+public interface ResponseSource {
+
+    ApiExchange exchange(DroneAPI request);
+
+    /**
+     * @return the body of a successful response, null otherwise.
+     */
+    default String retrieveResponse(DroneAPI request) {
+        return ApiExchange.bodyOf(exchange(request));
+    }
+}
@@ -0,0 +1,97 @@
+package main.java.api;
+
+import main.java.util.ConfigurationLoader;
+import main.java.util.Logs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * The {@code ResponseSources} class selects the {@link ResponseSource} of the API requests according to the
+ * {@code source} section of the configuration.
+ * <p>
+ * Modes:
+ * <ul>
+ *     <li>{@code live}: Requests go to the API (default).</li>
+ *     <li>{@code record}: Requests go to the API and the exchanges are appended to {@code source.log}.</li>
+ *     <li>{@code replay}: Responses are served from {@code source.log} at {@code source.speed}
+ *         (1 original, greater than 1 accelerated, 0 maximum speed).</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #configure(ConfigurationLoader) configure}: Selects the source; unchanged settings keep the current one.</li>
+ *     <li>{@link #current() current}: Returns the selected source.</li>
+ *     <li>{@link #close() close}: Closes the recording log, if any, and returns to live requests.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class ResponseSources {
+    public static final String LIVE_MODE = "live";
+    public static final String RECORD_MODE = "record";
+    public static final String REPLAY_MODE = "replay";
+    public static final ResponseSource LIVE = DroneAPI::exchange;
+    private static final String DEFAULT_LOG = "recordings/api.rec";
+
+    private static volatile ResponseSource current = LIVE;
+    private static String settings = LIVE_MODE;
+
+    private ResponseSources() {
+    }
+
+    public static synchronized void configure(ConfigurationLoader configLoader) {
+        String mode = Objects.requireNonNullElse(configLoader.read("source", "mode"), LIVE_MODE).trim().toLowerCase();
+        Path log = Paths.get(Objects.requireNonNullElse(configLoader.read("source", "log"), DEFAULT_LOG));
+        double speed = parseSpeed(configLoader.read("source", "speed"));
+        String requested = LIVE_MODE.equals(mode) ? LIVE_MODE : mode + "|" + log + "|" + speed;
+        if (requested.equals(settings)) {
+            return;
+        }
+        close();
+        try {
+            switch (mode) {
+                case RECORD_MODE -> current = new RecordingSource(new ExchangeLog(log));
+                case REPLAY_MODE -> current = new ReplaySource(ExchangeLog.read(log), speed);
+                case LIVE_MODE -> current = LIVE;
+                default -> {
+                    Logs.warning("Unknown response source '" + mode + "', using " + LIVE_MODE);
+                    return;
+                }
+            }
+            settings = requested;
+            Logs.info("Response source : " + mode + (LIVE_MODE.equals(mode) ? "" : " " + log));
+        } catch (IOException e) {
+            Logs.error("Error occurred in ResponseSources.configure() : " + e.getMessage());
+        }
+    }
+
+    public static ResponseSource current() {
+        return current;
+    }
+
+    public static synchronized void close() {
+        if (current instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                Logs.error("Error occurred in ResponseSources.close() : " + e.getMessage());
+            }
+        }
+        current = LIVE;
+        settings = LIVE_MODE;
+    }
+
+    private static double parseSpeed(String value) {
+        try {
+            return value != null ? Math.max(0, Double.parseDouble(value.trim())) : 1;
+        } catch (NumberFormatException e) {
+            Logs.warning("Invalid replay speed '" + value + "', using 1");
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package main.java.gui.components.factory;
+
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import main.java.gui.components.buttons.CustomButton;
+import main.java.gui.components.gauges.CharacterGauge;
+import main.java.model.FleetAsOf;
+import main.java.model.FleetSnapshot;
+import main.java.util.Logs;
+import main.java.util.Timestamps;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.function.Consumer;
+
+/**
+ * Factory class for the controls that switch a view between the live fleet and the fleet as of a past point in time.
+ * <p>
+ * The point in time is a date and an optional time ({@code HH}, {@code HH:MM} or {@code HH:MM:SS}) in the
+ * {@link Timestamps#sourceOffset() source offset}, in which the views display the samples. Showing it builds a {@link FleetAsOf} of the fleet and hands it to the view; going back to live hands
+ * null to the view.
+ * </p>
+ * <p>
+ * This class provides methods to:
+ * <ul>
+ *     <li>{@link #createPicker() createPicker}: Create the date and time inputs with the show and live buttons.</li>
+ *     <li>{@link #parseTime(LocalDate, String) parseTime}: Convert the inputs to epoch milliseconds.</li>
+ * </ul>
+ * </p>
+ */
+
+public class AsOfPicker {
+    private final FleetSnapshot fleet;
+    private final Consumer<FleetAsOf> onChange;
+    private final DatePicker datePicker = new DatePicker();
+    private final TextField timePicker = new TextField();
+    private final Label stateLabel = new Label("Live");
+
+    /**
+     * @param onChange called with the historic state, or null for live data.
+     */
+    public AsOfPicker(FleetSnapshot fleet, Consumer<FleetAsOf> onChange) {
+        this.fleet = fleet;
+        this.onChange = onChange;
+    }
+
+    public Node createPicker() {
+        datePicker.setPromptText("YYYY-MM-DD");
+        datePicker.getStyleClass().add("datePicker");
+        timePicker.setPromptText("HH:MM:SS");
+        timePicker.getStyleClass().add("timePicker");
+        stateLabel.getStyleClass().add("message");
+
+        CustomButton showButton = new CustomButton("Show As Of", "search.png");
+        showButton.setOnAction(event -> showAsOf());
+        CustomButton liveButton = new CustomButton("Live", "refresh.png");
+        liveButton.setOnAction(event -> showLive());
+
+        HBox picker = new HBox(10, datePicker, timePicker, showButton, liveButton, stateLabel);
+        picker.setAlignment(Pos.CENTER);
+        picker.getStyleClass().add("inputAndButton");
+        return picker;
+    }
+
+    /**
+     * @return epoch milliseconds of the end of the given second, minute or hour, or of the day without a time,
+     * so the samples taken within it are included; null if the inputs are invalid.
+     */
+    public static Long parseTime(LocalDate date, String time) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            String[] parts = time == null || time.isBlank() ? new String[0] : time.trim().split(":");
+            LocalTime start = LocalTime.of(parts.length > 0 ? Integer.parseInt(parts[0]) : 0,
+                    parts.length > 1 ? Integer.parseInt(parts[1]) : 0, parts.length > 2 ? Integer.parseInt(parts[2]) : 0);
+            ZoneId zone = Timestamps.sourceOffset();
+            return switch (parts.length) {
+                case 0 -> date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli() - 1;
+                case 1 -> date.atTime(start).plusHours(1).atZone(zone).toInstant().toEpochMilli() - 1;
+                case 2 -> date.atTime(start).plusMinutes(1).atZone(zone).toInstant().toEpochMilli() - 1;
+                default -> date.atTime(start).plusSeconds(1).atZone(zone).toInstant().toEpochMilli() - 1;
+            };
+        } catch (RuntimeException e) {
+            Logs.warning("Invalid as-of time '" + time + "' : " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void showAsOf() {
+        Long epochMillis = parseTime(datePicker.getValue(), timePicker.getText());
+        if (epochMillis == null) {
+            stateLabel.setText("Enter a date and an optional time");
+            return;
+        }
+        FleetAsOf asOf = fleet.asOf(epochMillis);
+        stateLabel.setText("As of " + CharacterGauge.convertDateTimeFormat(epochMillis) + " ("
+                + asOf.reportingCount() + " of " + fleet.size() + " drones reporting)");
+        onChange.accept(asOf);
+    }
+
+    private void showLive() {
+        stateLabel.setText("Live");
+        onChange.accept(null);
+    }
+}
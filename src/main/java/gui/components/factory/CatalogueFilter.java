@@ -1,5 +1,4 @@
 package main.java.gui.components.factory;
-import javafx.collections.ObservableList;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.TextField;
@@ -9,16 +8,22 @@ import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.HBox;
 import main.java.gui.components.buttons.CustomButton;
 import main.java.gui.interfaces.FilterAction;
+import main.java.model.CatalogueIndex;
 import main.java.model.DroneBase;
-import main.java.util.Constants;
 import main.java.util.Logs;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Factory class for creating and managing filters for a drone catalogue.
  * <p>
+ * Queries are answered by the {@link CatalogueIndex} of the model store, and the profile node of a drone is
+ * created once and reused by later queries.
+ * </p>
+ * <p>
  * This class provides methods to:
  * <ul>
  *     <li>{@link #createFilter() createFilter}: Create a filter interface with specified stage.</li>
@@ -36,29 +41,26 @@ import java.util.List;
 
 public class CatalogueFilter implements FilterAction {
     private final FlowPane contentPane;
-    private final ObservableList<DroneBase> droneModels;
+    private final CatalogueIndex catalogueIndex;
+    private final Map<DroneBase, Node> profiles = new HashMap<>();
     private final TextField filterById = new TextField();
     private final TextField filterBySNumber = new TextField();
     private final TextField filterByManufacturer = new TextField();
     private final TextField filterByTypeName = new TextField();
     private final TextField filterByCarriageType = new TextField();
 
-    public CatalogueFilter(FlowPane contentPane, ObservableList<DroneBase> droneModels) {
+    public CatalogueFilter(FlowPane contentPane, CatalogueIndex catalogueIndex) {
         this.contentPane = contentPane;
-        this.droneModels = droneModels;
+        this.catalogueIndex = catalogueIndex;
     }
 
     @Override
     public void executeQuery(String droneId, String serialNumber, String manufacturer, String typeName, String carriageType) {
-        contentPane.getChildren().clear();
-        droneModels.stream()
-                .filter(drone -> droneId.isEmpty() || drone.getDroneDetails().get(Constants.DRONE_ID).toString().equals(droneId))
-                .filter(drone -> serialNumber.isEmpty() || drone.getDroneDetails().get(Constants.SERIAL_NUMBER).toString().equals(serialNumber))
-                .filter(drone -> manufacturer.isEmpty() || drone.getDroneTypeInfo().get(Constants.MANUFACTURER).toString().equals(manufacturer))
-                .filter(drone -> typeName.isEmpty() || drone.getDroneTypeInfo().get(Constants.TYPE_NAME).toString().equals(typeName))
-                .filter(drone -> carriageType.isEmpty() || drone.getDroneDetails().get(Constants.CARRIAGE_TYPE).toString().equals(carriageType))
-                .map(DroneProfile::new)
-                .forEach(droneProfile -> contentPane.getChildren().add(new AnchorPane(droneProfile)));
+        List<DroneBase> matches = catalogueIndex.query(droneId, serialNumber, manufacturer, typeName, carriageType);
+        List<Node> nodes = matches.stream()
+                .map(drone -> profiles.computeIfAbsent(drone, match -> new AnchorPane(new DroneProfile(match))))
+                .toList();
+        contentPane.getChildren().setAll(nodes);
     }
 
     @Override
@@ -2,6 +2,7 @@ package main.java.gui.components.factory;
 
 import javafx.scene.layout.Pane;
 import main.java.gui.components.panels.CustomPanel;
+import main.java.gui.controllers.DroneStatus;
 import main.java.util.Logs;
 
 /**
@@ -12,7 +13,7 @@ import main.java.util.Logs;
  */
 
 public class DronePanel {
-    public Pane createDronePanel(String droneName, String status) {
+    public Pane createDronePanel(String droneName, DroneStatus.State status) {
         try {
             return new CustomPanel(droneName, status);
         } catch (Exception e) {
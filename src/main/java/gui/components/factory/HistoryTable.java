@@ -5,6 +5,7 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.util.Pair;
+import main.java.model.RollupBucket;
 import main.java.util.Constants;
 import main.java.util.Logs;
 
@@ -24,6 +25,8 @@ import java.util.stream.Collectors;
  * This class provides methods to:
  * <ul>
  *     <li>{@link #HistoryTable() HistoryTable constructor}: Initialize a new instance of HistoryTable.</li>
+ *     <li>{@link #showSamples(List) showSamples}: Show raw dynamics samples.</li>
+ *     <li>{@link #showRollups(List) showRollups}: Show rollup buckets with the rollup columns.</li>
  *     <li>{@link #createTableColumn(String, String) createTableColumn}: Create a TableColumn based on provided title and data key.</li>
  * </ul>
  * </p>
@@ -31,6 +34,9 @@ import java.util.stream.Collectors;
  * </p>
  */
 public final class HistoryTable extends TableView<Map<String, Object>> {
+    private final List<TableColumn<Map<String, Object>, String>> sampleColumns;
+    private final List<TableColumn<Map<String, Object>, String>> rollupColumns;
+
     public HistoryTable() {
         final var columnsData = Arrays.asList(
                 new Pair<>("Timestamp", Constants.TIMESTAMP),
@@ -44,19 +50,45 @@ public final class HistoryTable extends TableView<Map<String, Object>> {
                 new Pair<>("Battery (mAh)", Constants.BATTERY_STATUS),
                 new Pair<>("Last seen", Constants.LAST_SEEN)
         );
+        final var rollupData = Arrays.asList(
+                new Pair<>("Timestamp", Constants.BUCKET_START),
+                new Pair<>("Samples", Constants.SAMPLE_COUNT),
+                new Pair<>("Status counts", Constants.STATUS_COUNTS),
+                new Pair<>("Speed min / avg / max", Constants.SPEED_SUMMARY),
+                new Pair<>("Battery first -> last", Constants.BATTERY_SUMMARY),
+                new Pair<>("Longitude range", Constants.LONGITUDE_RANGE),
+                new Pair<>("Latitude range", Constants.LATITUDE_RANGE)
+        );
 
-        List<TableColumn<Map<String, Object>, String>> columnList = columnsData.stream()
+        sampleColumns = columnsData.stream()
+                .map(data -> createTableColumn(data.getKey(), data.getValue()))
+                .collect(Collectors.toList());
+        rollupColumns = rollupData.stream()
                 .map(data -> createTableColumn(data.getKey(), data.getValue()))
                 .collect(Collectors.toList());
 
-        getColumns().setAll(columnList);
-
-        getColumns().setAll(columnList);
+        getColumns().setAll(sampleColumns);
         this.setEditable(false);
         this.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         this.getStyleClass().add("table");
     }
 
+    /**
+     * Shows raw dynamics samples, one row per sample.
+     */
+    public void showSamples(List<Map<String, Object>> samples) {
+        getColumns().setAll(sampleColumns);
+        getItems().setAll(samples);
+    }
+
+    /**
+     * Shows rollup buckets, one row per bucket.
+     */
+    public void showRollups(List<RollupBucket> buckets) {
+        getColumns().setAll(rollupColumns);
+        getItems().setAll(buckets.stream().map(RollupBucket::asMap).collect(Collectors.toList()));
+    }
+
     private TableColumn<Map<String, Object>, String> createTableColumn(String title, String dataKey) {
         try {
             TableColumn<Map<String, Object>, String> column = new TableColumn<>(title);
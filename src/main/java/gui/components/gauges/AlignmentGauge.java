@@ -15,11 +15,11 @@ import main.java.util.Logs;
 
 public class AlignmentGauge {
     private final Tile alignmentTile;
-    private final String yawValue;
-    private final String rollValue;
-    private final String pitchValue;
+    private final double yawValue;
+    private final double rollValue;
+    private final double pitchValue;
 
-    public AlignmentGauge(String yawValue, String rollValue, String pitchValue) {
+    public AlignmentGauge(double yawValue, double rollValue, double pitchValue) {
         this.yawValue = yawValue;
         this.rollValue = rollValue;
         this.pitchValue = pitchValue;
@@ -37,9 +37,9 @@ public class AlignmentGauge {
                     .minSize(200, 200)
                     .decimals(0)
                     .barChartItems(
-                            new BarChartItem("Yaw", Double.parseDouble(yawValue), Tile.BLUE),
-                            new BarChartItem("Pitch", Double.parseDouble(pitchValue), Tile.GREEN),
-                            new BarChartItem("Roll", Double.parseDouble(rollValue), Tile.RED))
+                            new BarChartItem("Yaw", yawValue, Tile.BLUE),
+                            new BarChartItem("Pitch", pitchValue, Tile.GREEN),
+                            new BarChartItem("Roll", rollValue, Tile.RED))
                     .build();
         } catch (Exception e) {
             Logs.error("Error occurred in AlignmentGauge.createAlignmentTile() : " + e.getMessage());
@@ -3,7 +3,9 @@ package main.java.gui.components.gauges;
 import eu.hansolo.tilesfx.Tile;
 import eu.hansolo.tilesfx.TileBuilder;
 import main.java.util.Logs;
+import main.java.util.Timestamps;
 
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -13,13 +15,16 @@ import java.time.format.DateTimeFormatter;
  * This class provides methods to:
  * <ul>
  *     <li>{@link #CharacterGauge(String, String, boolean) CharacterGauge constructor}: Initialize a character gauge with the given title, value, and type.</li>
+ *     <li>{@link #CharacterGauge(String, long) CharacterGauge constructor}: Initialize a date character gauge from epoch milliseconds.</li>
  *     <li>{@link #convertDateTimeFormat(String, boolean) convertDateTimeFormat}: Convert the date-time format if the value is a date.</li>
+ *     <li>{@link #convertDateTimeFormat(long) convertDateTimeFormat}: Format epoch milliseconds for display in the source offset.</li>
  *     <li>{@link #createCharacterTile() createCharacterTile}: Create the Tile for the character gauge.</li>
  * </ul>
  * </p>
  */
 
 public class CharacterGauge {
+    private static final DateTimeFormatter OUTPUT_FORMATTER = DateTimeFormatter.ofPattern("yy.MM.dd - HH.mm.ss.SS");
     private final Tile characterTile;
     private final String value;
     private final String title;
@@ -32,12 +37,24 @@ public class CharacterGauge {
         this.characterTile = createCharacterTile();
     }
 
+    public CharacterGauge(String title, long epochMillis) {
+        this(title, convertDateTimeFormat(epochMillis), false);
+    }
+
+    public static String convertDateTimeFormat(long epochMillis) {
+        try {
+            return Instant.ofEpochMilli(epochMillis).atOffset(Timestamps.sourceOffset()).format(OUTPUT_FORMATTER);
+        } catch (Exception e) {
+            Logs.error("Error occurred in CharacterGauge.convertDateTimeFormat() : " + e.getMessage());
+            return null;
+        }
+    }
+
     public static String convertDateTimeFormat(String value, boolean isDate) {
         try {
             if (isDate) {
                 ZonedDateTime inputDateTime = ZonedDateTime.parse(value);
-                DateTimeFormatter outputFormatter = DateTimeFormatter.ofPattern("yy.MM.dd - HH.mm.ss.SS");
-                return inputDateTime.format(outputFormatter);
+                return inputDateTime.format(OUTPUT_FORMATTER);
             } else {
                 return value;
             }
@@ -4,9 +4,8 @@ import javafx.scene.control.Label;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
-import main.java.util.Constants;
+import main.java.gui.controllers.DroneStatus;
 
-import java.util.Objects;
 import java.util.stream.IntStream;
 
 /**
@@ -14,11 +13,11 @@ import java.util.stream.IntStream;
  * <p>
  * This class provides methods to:
  * <ul>
- *     <li>{@link #CustomPanel(String, String) CustomPanel constructor}: Initialize a custom panel with the given drone ID and status.</li>
- *     <li>{@link #initializePanel(String, String) initializePanel}: Initialize the custom panel with the provided drone ID and status.</li>
+ *     <li>{@link #CustomPanel(String, DroneStatus.State) CustomPanel constructor}: Initialize a custom panel with the given drone ID and status.</li>
+ *     <li>{@link #initializePanel(String, DroneStatus.State) initializePanel}: Initialize the custom panel with the provided drone ID and status.</li>
  *     <li>{@link #createPanelNameLabel(String) createPanelNameLabel}: Create a label for the panel's name.</li>
- *     <li>{@link #createStatusLabel(String) createStatusLabel}: Create a label for the panel's status.</li>
- *     <li>{@link #createDivisions(String) createDivisions}: Create divisions based on the panel's status.</li>
+ *     <li>{@link #createStatusLabel(StyleStatus) createStatusLabel}: Create a label for the panel's status.</li>
+ *     <li>{@link #createDivisions(StyleStatus) createDivisions}: Create divisions based on the panel's status.</li>
  *     <li>An enum {@link StyleStatus} to handle different panel styles based on status.</li>
  * </ul>
  * </p>
@@ -26,26 +25,21 @@ import java.util.stream.IntStream;
 
 public class CustomPanel extends StackPane {
 
-    public CustomPanel(String droneId, String status) {
+    public CustomPanel(String droneId, DroneStatus.State status) {
         initializePanel(droneId, status);
     }
 
-    private void initializePanel(String droneId, String status) {
+    private void initializePanel(String droneId, DroneStatus.State status) {
+        StyleStatus styleStatus = StyleStatus.of(status);
 
         VBox vbox = new VBox(10);
         vbox.setMaxWidth(Double.MAX_VALUE);
-        vbox.getChildren().addAll(createPanelNameLabel(droneId), createStatusLabel(status), createDivisions(status));
+        vbox.getChildren().addAll(createPanelNameLabel(droneId), createStatusLabel(styleStatus), createDivisions(styleStatus));
         vbox.setFocusTraversable(false);
 
         getChildren().add(vbox);
         setPrefWidth(Region.USE_COMPUTED_SIZE);
 
-        StyleStatus styleStatus;
-        try {
-            styleStatus = StyleStatus.valueOf(status.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            styleStatus = StyleStatus.DEFAULT_STATUS;
-        }
         getStyleClass().setAll(styleStatus.getStyle().split(" "));
     }
 
@@ -55,26 +49,19 @@ public class CustomPanel extends StackPane {
         return droneLabel;
     }
 
-    private Label createStatusLabel(String status) {
-        String label = switch (status) {
-            case Constants.STATUS_OF -> "OFF";
-            case Constants.STATUS_IS -> "ISSUE";
-            case Constants.STATUS_ON -> "ON";
-            default -> "UNKNOWN";
-        };
-
-        Label statusLabel = new Label(label);
-        statusLabel.getStyleClass().addAll(status.toLowerCase(), "status-label");
+    private Label createStatusLabel(StyleStatus status) {
+        Label statusLabel = new Label(status.getLabel());
+        statusLabel.getStyleClass().addAll(status.getStatusClass(), "status-label");
         return statusLabel;
     }
 
-    private VBox createDivisions(String status) {
+    private VBox createDivisions(StyleStatus status) {
         VBox divisions = new VBox(10);
         divisions.setMaxWidth(Double.MAX_VALUE);
 
         IntStream.rangeClosed(1, 3).forEach(i -> {
             StackPane division = new StackPane();
-            division.getStyleClass().addAll("division", status.toLowerCase());
+            division.getStyleClass().addAll("division", status.getStatusClass());
             divisions.getChildren().add(division);
         });
 
@@ -82,19 +69,40 @@ public class CustomPanel extends StackPane {
     }
 
     private enum StyleStatus {
-        ON("panel on"),
-        OF("panel of"),
-        IS("panel is"),
-        DEFAULT_STATUS("panel unknown");
+        ON("panel on", "on", "ON"),
+        OF("panel of", "of", "OFF"),
+        IS("panel is", "is", "ISSUE"),
+        DEFAULT_STATUS("panel unknown", "unknown", "UNKNOWN");
 
         private final String style;
+        private final String statusClass;
+        private final String label;
 
-        StyleStatus(String style) {
+        StyleStatus(String style, String statusClass, String label) {
             this.style = style;
+            this.statusClass = statusClass;
+            this.label = label;
+        }
+
+        static StyleStatus of(DroneStatus.State status) {
+            return switch (status) {
+                case ON -> ON;
+                case OFF -> OF;
+                case ISSUE -> IS;
+                default -> DEFAULT_STATUS;
+            };
         }
 
         public String getStyle() {
             return this.style;
         }
+
+        public String getStatusClass() {
+            return this.statusClass;
+        }
+
+        public String getLabel() {
+            return this.label;
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package main.java.gui.controllers;
 
 import eu.hansolo.tilesfx.Tile;
 import javafx.scene.paint.Color;
+import main.java.model.CategoryDictionary;
 
 /**
  * Class for managing drone status.
@@ -10,6 +11,7 @@ import javafx.scene.paint.Color;
  * <ul>
  *     <li>{@link #updateStatus(Tile, State) updateStatus}: Update the status of a tile based on the provided state.</li>
  *     <li>{@link #getStatusColor(State) getStatusColor}: Get the color associated with a given state.</li>
+ *     <li>{@link State#fromCode(int) fromCode}: Get the state of a {@link CategoryDictionary#STATUS} code.</li>
  * </ul>
  * </p>
  */
@@ -46,6 +48,15 @@ public class DroneStatus {
             this.description = "UNKNOWN";
         }
 
+        public static State fromCode(int statusCode) {
+            return switch (statusCode) {
+                case CategoryDictionary.STATUS_ON -> ON;
+                case CategoryDictionary.STATUS_OF -> OFF;
+                case CategoryDictionary.STATUS_IS -> ISSUE;
+                default -> DEFAULT;
+            };
+        }
+
         public String getDescription() {
             return description;
         }
@@ -0,0 +1,66 @@
+package main.java.gui.controllers;
+
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import main.java.model.DroneBase;
+import main.java.storage.DynamicsExporter;
+import main.java.util.Logs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service class for exporting drone dynamics to a file.
+ * <p>
+ * The target file is chosen on the FX thread; the export itself is streamed by {@link DynamicsExporter}
+ * on a background thread, so the window stays responsive while large time ranges are written.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #exportDynamics(Stage, Collection, long, long) exportDynamics}: Asks for a CSV or binary file
+ *         and exports the dynamics of the drones in {@code [from, to)} to it.</li>
+ * </ul>
+ * </p>
+ */
+
+public class ExportService {
+    private static final ExecutorService exportExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dynamics-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public void exportDynamics(Stage primaryStage, Collection<DroneBase> drones, long fromMillis, long toMillis) {
+        try {
+            String timestamp = java.time.LocalDateTime.now().format(java.time.format.DateTimeFormatter.ofPattern("ddMMyyyyHHmmss"));
+
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("CSV files", "*.csv"),
+                    new FileChooser.ExtensionFilter("Binary columnar files", "*.dmx"));
+            fileChooser.setInitialFileName("dynamics-" + timestamp + ".csv");
+            File outputFile = fileChooser.showSaveDialog(primaryStage);
+            if (outputFile == null) {
+                return;
+            }
+
+            DynamicsExporter.Format format = outputFile.getName().toLowerCase().endsWith(".csv")
+                    ? DynamicsExporter.Format.CSV : DynamicsExporter.Format.BINARY;
+            List<DroneBase> exported = List.copyOf(drones);
+            exportExecutor.execute(() -> {
+                try {
+                    DynamicsExporter.export(exported, fromMillis, toMillis, List.of(), format, outputFile.toPath());
+                } catch (IOException | RuntimeException e) {
+                    Logs.error("Error in ExportService.exportDynamics() : " + e.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            Logs.error("Error in ExportService.exportDynamics() : " + e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package main.java.gui.views;
 
-import javafx.collections.ObservableList;
 import javafx.scene.Node;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Tab;
@@ -16,8 +15,7 @@ import main.java.gui.components.other.ScrollBar;
 import main.java.gui.controllers.DataRefresher;
 import main.java.gui.controllers.ScreenshotService;
 import main.java.model.DroneBase;
-
-import java.util.Comparator;
+import main.java.model.FleetSnapshot;
 
 /**
  * View class representing a tab for displaying drone catalogue information.
@@ -27,15 +25,15 @@ import java.util.Comparator;
  * <p>
  * Methods:
  * <ul>
- *     <li>{@link #DroneCatalogue(String, Stage, ButtonBar, ScreenshotService, DataRefresher, ObservableList) DroneCatalogue constructor}:
- *         Initializes the drone catalogue tab with the specified title, stage, button bar factory, screenshot service, data refresher, and drone models.</li>
- *     <li>{@link #initializeUI(String, ObservableList) initializeUI}:
+ *     <li>{@link #DroneCatalogue(String, Stage, ButtonBar, ScreenshotService, DataRefresher, FleetSnapshot) DroneCatalogue constructor}:
+ *         Initializes the drone catalogue tab with the specified title, stage, button bar factory, screenshot service, data refresher, and fleet snapshot.</li>
+ *     <li>{@link #initializeUI(String, FleetSnapshot) initializeUI}:
  *         Initializes the user interface components for the drone catalogue tab.</li>
  *     <li>{@link #initButtonBar() initButtonBar}:
  *         Initializes the button bar with refresh, screenshot, and quit buttons.</li>
- *     <li>{@link #initFilterNode(FlowPane, ObservableList) initFilterNode}:
+ *     <li>{@link #initFilterNode(FlowPane, FleetSnapshot) initFilterNode}:
  *         Initializes the filter node for filtering drone models.</li>
- *     <li>{@link #initScrollPane(FlowPane, ObservableList) initScrollPane}:
+ *     <li>{@link #initScrollPane(FlowPane, FleetSnapshot) initScrollPane}:
  *         Initializes the scroll pane for displaying drone profiles.</li>
  * </ul>
  * </p>
@@ -50,24 +48,24 @@ public class DroneCatalogue extends Tab {
 
     public DroneCatalogue(String tabTitle, Stage primaryStage, ButtonBar buttonBarFactory,
                           ScreenshotService screenshotService, DataRefresher dataRefresher,
-                          ObservableList<DroneBase> droneModels) {
+                          FleetSnapshot fleet) {
         this.buttonBarFactory = buttonBarFactory;
         this.screenshotService = screenshotService;
         this.dataRefresher = dataRefresher;
         this.primaryStage = primaryStage;
-        initializeUI(tabTitle, droneModels);
+        initializeUI(tabTitle, fleet);
 
     }
 
-    private void initializeUI(String tabTitle, ObservableList<DroneBase> droneModels) {
+    private void initializeUI(String tabTitle, FleetSnapshot fleet) {
         setText(tabTitle);
         getStyleClass().add("tabs");
         FlowPane contentPane = new FlowPane();
         contentPane.getStyleClass().add("catalogue-content");
         VBox topContainer = new VBox();
         Node buttonBar = initButtonBar();
-        Node filterNode = initFilterNode(contentPane, droneModels);
-        ScrollPane scrollPane = initScrollPane(contentPane, droneModels);
+        Node filterNode = initFilterNode(contentPane, fleet);
+        ScrollPane scrollPane = initScrollPane(contentPane, fleet);
         topContainer.getChildren().addAll(buttonBar, filterNode);
         VBox mainVBox = new VBox(topContainer, scrollPane);
         setContent(mainVBox);
@@ -87,14 +85,13 @@ public class DroneCatalogue extends Tab {
         return buttonBarFactory.createButtonBar(refreshButton, screenshotButton, quitButton);
     }
 
-    private Node initFilterNode(FlowPane contentPane, ObservableList<DroneBase> droneModels) {
-        CatalogueFilter catalogueFilter = new CatalogueFilter(contentPane, droneModels);
+    private Node initFilterNode(FlowPane contentPane, FleetSnapshot fleet) {
+        CatalogueFilter catalogueFilter = new CatalogueFilter(contentPane, fleet.getCatalogueIndex());
         return catalogueFilter.createFilter();
     }
 
-    private ScrollPane initScrollPane(FlowPane contentPane, ObservableList<DroneBase> droneModels) {
-        droneModels.sort(Comparator.comparing(d -> (Integer) d.getDroneDetails().get("id")));
-        for (DroneBase drone : droneModels) {
+    private ScrollPane initScrollPane(FlowPane contentPane, FleetSnapshot fleet) {
+        for (DroneBase drone : fleet.getDrones()) {
             DroneProfile droneProfile = new DroneProfile(drone);
             AnchorPane wrapperPane = new AnchorPane(droneProfile);
             contentPane.getChildren().add(wrapperPane);
@@ -1,8 +1,8 @@
 package main.java.gui.views;
 
-import javafx.collections.ObservableList;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.control.Tab;
@@ -16,13 +16,21 @@ import main.java.gui.components.buttons.CustomButton;
 import main.java.gui.components.factory.ButtonBar;
 import main.java.gui.components.factory.HistoryTable;
 import main.java.gui.controllers.DataRefresher;
+import main.java.gui.controllers.ExportService;
 import main.java.gui.controllers.ScreenshotService;
 import main.java.model.DroneBase;
-import main.java.util.Constants;
+import main.java.model.DynamicsQuery;
+import main.java.model.DynamicsView;
+import main.java.model.FleetSnapshot;
+import main.java.model.Resolution;
+import main.java.util.Logs;
+import main.java.util.Timestamps;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Stream;
 
 /**
  * View class representing a tab for displaying drone history information.
@@ -32,11 +40,11 @@ import java.util.stream.Stream;
  * <p>
  * Methods:
  * <ul>
- *     <li>{@link #DroneHistory(String, Stage, ButtonBar, ScreenshotService, DataRefresher, ObservableList) DroneHistory constructor}:
- *         Initializes the drone history tab with the specified title, stage, button bar factory, screenshot service, data refresher, and drone models.</li>
- *     <li>{@link #initializeUI(String, ObservableList) initializeUI}:
+ *     <li>{@link #DroneHistory(String, Stage, ButtonBar, ScreenshotService, DataRefresher, FleetSnapshot) DroneHistory constructor}:
+ *         Initializes the drone history tab with the specified title, stage, button bar factory, screenshot service, data refresher, and fleet snapshot.</li>
+ *     <li>{@link #initializeUI(String, FleetSnapshot) initializeUI}:
  *         Initializes the user interface components for the drone history tab.</li>
- *     <li>{@link #createDroneSearchNode(ObservableList) createDroneSearchNode}:
+ *     <li>{@link #createDroneSearchNode(FleetSnapshot) createDroneSearchNode}:
  *         Creates a search node containing input fields and a search button for filtering drone history.</li>
  *     <li>{@link #createDatePicker() createDatePicker}:
  *         Creates a date picker for selecting dates.</li>
@@ -44,10 +52,17 @@ import java.util.stream.Stream;
  *         Creates a time picker for selecting times.</li>
  *     <li>{@link #createDroneIdInput() createDroneIdInput}:
  *         Creates a text field for entering drone ID.</li>
- *     <li>{@link #createSearchButton(TextField, DatePicker, TextField, ObservableList, HistoryTable) createSearchButton}:
+ *     <li>{@link #createResolutionPicker() createResolutionPicker}:
+ *         Creates a combo box for choosing raw samples or a rollup resolution.</li>
+ *     <li>{@link #createFilterInput() createFilterInput}:
+ *         Creates a text field for a {@link DynamicsQuery} filter such as {@code speed>50 battery<20 status=IS}.</li>
+ *     <li>{@link #createSearchButton(TextField, DatePicker, TextField, ComboBox, TextField, FleetSnapshot, HistoryTable) createSearchButton}:
  *         Creates a search button with an event handler to perform a search based on user input.</li>
- *     <li>{@link #searchButtonBehaviour(TextField, DatePicker, TextField, ObservableList, HistoryTable) searchButtonBehaviour}:
+ *     <li>{@link #searchButtonBehaviour(TextField, DatePicker, TextField, ComboBox, TextField, FleetSnapshot, HistoryTable) searchButtonBehaviour}:
  *         Defines the behavior of the search button when clicked, filtering drone history based on user input.</li>
+ *     <li>{@link #createExportButton(TextField, DatePicker, TextField, FleetSnapshot) createExportButton}:
+ *         Creates an export button that streams the dynamics of the queried drone, or of the whole fleet
+ *         if no drone ID is entered, in the selected window to a CSV or binary file.</li>
  *         Creates a label for indicating the purpose of the input field.</li>
  * </ul>
  * </p>
@@ -55,7 +70,9 @@ import java.util.stream.Stream;
 
 
 public class DroneHistory extends Tab {
+    private static final int MAX_RAW_ROWS = 1_000;
     private final HistoryTable dynamicsTable = new HistoryTable();
+    private final ExportService exportService = new ExportService();
     private final ButtonBar buttonBarFactory;
     private final ScreenshotService screenshotService;
     private final DataRefresher dataRefresher;
@@ -63,7 +80,7 @@ public class DroneHistory extends Tab {
 
     public DroneHistory(String tabTitle, Stage primaryStage, ButtonBar buttonBarFactory,
                         ScreenshotService screenshotService, DataRefresher dataRefresher,
-                        ObservableList<DroneBase> droneModels) {
+                        FleetSnapshot fleet) {
         this.buttonBarFactory = buttonBarFactory;
         this.screenshotService = screenshotService;
         this.dataRefresher = dataRefresher;
@@ -71,29 +88,68 @@ public class DroneHistory extends Tab {
         FlowPane contentPane = new FlowPane();
         contentPane.getStyleClass().add("catalogue-content");
 
-        initializeUI(tabTitle, droneModels);
+        initializeUI(tabTitle, fleet);
     }
 
-    private static Stream<Map<String, Object>> getMapStream(List<Map<String, Object>> droneDynamicsInfo, String selectedDate, String selectedTime) {
-        Stream<Map<String, Object>> droneInfoStream = droneDynamicsInfo.stream();
-
-        if (!selectedDate.isBlank()) {
-            droneInfoStream = droneInfoStream.filter(d -> d.get(Constants.TIMESTAMP).toString().startsWith(selectedDate));
-
-            if (!selectedTime.isBlank()) {
-                droneInfoStream = droneInfoStream.filter(d -> d.get(Constants.TIMESTAMP).toString().startsWith(selectedDate + "T" + selectedTime));
+    /**
+     * Returns the selected day, or the hour, minute or second given by the time prefix (HH, HH:MM or HH:MM:SS),
+     * as {@code [from, to)} epoch milliseconds in the offset of the API timestamps, so the window matches the
+     * displayed times. The whole history if no date is selected, null if the time is invalid.
+     */
+    private static long[] selectWindow(LocalDate selectedDate, String selectedTime) {
+        if (selectedDate == null) {
+            return new long[]{Long.MIN_VALUE, Long.MAX_VALUE};
+        }
+        LocalDateTime from = selectedDate.atStartOfDay();
+        ChronoUnit window = ChronoUnit.DAYS;
+        if (!selectedTime.isBlank()) {
+            try {
+                String[] parts = selectedTime.trim().split(":");
+                from = from.withHour(Integer.parseInt(parts[0]));
+                window = ChronoUnit.HOURS;
+                if (parts.length > 1) {
+                    from = from.withMinute(Integer.parseInt(parts[1]));
+                    window = ChronoUnit.MINUTES;
+                }
+                if (parts.length > 2) {
+                    from = from.withSecond(Integer.parseInt(parts[2]));
+                    window = ChronoUnit.SECONDS;
+                }
+            } catch (RuntimeException e) {
+                return null;
             }
         }
-        return droneInfoStream;
+        ZoneId zone = Timestamps.sourceOffset();
+        long fromMillis = from.atZone(zone).toInstant().toEpochMilli();
+        long toMillis = from.plus(1, window).atZone(zone).toInstant().toEpochMilli();
+        return new long[]{fromMillis, toMillis};
+    }
+
+    /**
+     * Shows the window at the chosen resolution. Without a choice, raw samples are shown up to
+     * {@value #MAX_RAW_ROWS} rows, beyond that the coarsest rollup level that still gives about
+     * {@value #MAX_RAW_ROWS} rows over the covered time span.
+     */
+    private static void showWindow(DroneBase drone, long[] window, Resolution resolution, HistoryTable dynamicsTable) {
+        DynamicsView samples = drone.getDynamics().range(window[0], window[1]);
+        if (resolution == null && samples.size() > MAX_RAW_ROWS) {
+            long span = samples.timestampAt(samples.latestIndex()) - samples.timestampAt(0);
+            resolution = Resolution.coarsestFor(span / MAX_RAW_ROWS);
+        }
+        if (resolution == null || resolution == Resolution.RAW) {
+            dynamicsTable.showSamples(samples.asMaps(drone.getUrl()));
+        } else {
+            dynamicsTable.showRollups(drone.getRollups().buckets(resolution, window[0], window[1]));
+        }
     }
 
-    private void initializeUI(String tabTitle, ObservableList<DroneBase> droneModels) {
+    private void initializeUI(String tabTitle, FleetSnapshot fleet) {
         setText(tabTitle);
         getStyleClass().add("tabs");
 
         VBox topContainer = new VBox();
         topContainer.getChildren().add(initializeTopContainer());
-        VBox searchNode = (VBox) createDroneSearchNode(droneModels);
+        VBox searchNode = (VBox) createDroneSearchNode(fleet);
 
         VBox mainVBox = new VBox(topContainer, searchNode);
         VBox.setVgrow(searchNode, Priority.ALWAYS);
@@ -116,17 +172,20 @@ public class DroneHistory extends Tab {
         return button;
     }
 
-    private Node createDroneSearchNode(ObservableList<DroneBase> droneModels) {
+    private Node createDroneSearchNode(FleetSnapshot fleet) {
         Label droneNotFound = new Label("No data to display, please refine your query");
         droneNotFound.getStyleClass().add("message");
 
         TextField timePicker = createTimePicker();
         TextField droneIdInput = createDroneIdInput();
         DatePicker datePicker = createDatePicker();
+        ComboBox<Resolution> resolutionPicker = createResolutionPicker();
+        TextField filterInput = createFilterInput();
         dynamicsTable.setPlaceholder(droneNotFound);
 
-        CustomButton searchButton = createSearchButton(droneIdInput, datePicker, timePicker, droneModels, dynamicsTable);
-        HBox inputAndButton = new HBox(10, droneIdInput, datePicker, timePicker, searchButton);
+        CustomButton searchButton = createSearchButton(droneIdInput, datePicker, timePicker, resolutionPicker, filterInput, fleet, dynamicsTable);
+        CustomButton exportButton = createExportButton(droneIdInput, datePicker, timePicker, fleet);
+        HBox inputAndButton = new HBox(10, droneIdInput, datePicker, timePicker, resolutionPicker, filterInput, searchButton, exportButton);
         inputAndButton.setAlignment(Pos.CENTER);
         inputAndButton.getStyleClass().add("inputAndButton");
 
@@ -150,6 +209,21 @@ public class DroneHistory extends Tab {
         return timePicker;
     }
 
+    private ComboBox<Resolution> createResolutionPicker() {
+        ComboBox<Resolution> resolutionPicker = new ComboBox<>();
+        resolutionPicker.getItems().addAll(Resolution.values());
+        resolutionPicker.setPromptText("Resolution (auto)");
+        resolutionPicker.getStyleClass().add("timePicker");
+        return resolutionPicker;
+    }
+
+    private TextField createFilterInput() {
+        TextField filterInput = new TextField();
+        filterInput.setPromptText("Filter, e.g. speed>50 battery<20 status=IS");
+        filterInput.getStyleClass().add("droneIdInput");
+        return filterInput;
+    }
+
     private TextField createDroneIdInput() {
         TextField droneIdInput = new TextField();
         droneIdInput.getStyleClass().add("droneIdInput");
@@ -157,33 +231,64 @@ public class DroneHistory extends Tab {
         return droneIdInput;
     }
 
-    private CustomButton createSearchButton(TextField droneIdInput, DatePicker datePicker, TextField timePicker, ObservableList<DroneBase> droneModels, HistoryTable dynamicsTable) {
+    private CustomButton createSearchButton(TextField droneIdInput, DatePicker datePicker, TextField timePicker, ComboBox<Resolution> resolutionPicker, TextField filterInput, FleetSnapshot fleet, HistoryTable dynamicsTable) {
         CustomButton searchButton = new CustomButton("Search", "search.png");
-        searchButton.setOnAction(event -> searchButtonBehaviour(droneIdInput, datePicker, timePicker, droneModels, dynamicsTable));
+        searchButton.setOnAction(event -> searchButtonBehaviour(droneIdInput, datePicker, timePicker, resolutionPicker, filterInput, fleet, dynamicsTable));
         return searchButton;
     }
 
+    private CustomButton createExportButton(TextField droneIdInput, DatePicker datePicker, TextField timePicker, FleetSnapshot fleet) {
+        CustomButton exportButton = new CustomButton("Export", "screenshot.png");
+        exportButton.setOnAction(event -> {
+            long[] window = selectWindow(datePicker.getValue(), timePicker.getText());
+            if (window == null) {
+                return;
+            }
+            String droneId = droneIdInput.getText();
+            if (droneId == null || droneId.isBlank()) {
+                exportService.exportDynamics(primaryStage, fleet.getDrones(), window[0], window[1]);
+                return;
+            }
+            DroneBase drone = fleet.findDrone(droneId);
+            if (drone != null) {
+                exportService.exportDynamics(primaryStage, List.of(drone), window[0], window[1]);
+            }
+        });
+        return exportButton;
+    }
+
     private void searchButtonBehaviour(
             TextField droneIdInput,
             DatePicker datePicker,
             TextField timePicker,
-            ObservableList<DroneBase> droneModels,
+            ComboBox<Resolution> resolutionPicker,
+            TextField filterInput,
+            FleetSnapshot fleet,
             HistoryTable dynamicsTable
     ) {
         String droneId = droneIdInput.getText();
         dynamicsTable.getItems().clear();
-        String selectedDate = datePicker.getValue() != null ? datePicker.getValue().toString() : "";
+        LocalDate selectedDate = datePicker.getValue();
         String selectedTime = timePicker.getText();
+        long[] window = selectWindow(selectedDate, selectedTime);
+        if (window == null) {
+            return;
+        }
 
-        for (DroneBase drone : droneModels) {
-            if (String.valueOf(drone.getDroneDetails().get(Constants.DRONE_ID)).equals(droneId)) {
-                List<Map<String, Object>> droneDynamicsInfo = drone.getDroneDynamicsInfo();
-                if (droneDynamicsInfo != null) {
-                    Stream<Map<String, Object>> droneInfoStream = getMapStream(droneDynamicsInfo, selectedDate, selectedTime);
-                    droneInfoStream.forEach(dynamicsTable.getItems()::add);
-                }
-                break;
-            }
+        DroneBase drone = fleet.findDrone(droneId);
+        if (drone == null) {
+            return;
+        }
+        String filter = filterInput.getText();
+        if (filter == null || filter.isBlank()) {
+            showWindow(drone, window, resolutionPicker.getValue(), dynamicsTable);
+            return;
+        }
+        try {
+            DynamicsQuery query = DynamicsQuery.parse(filter, window[0], window[1]);
+            dynamicsTable.showSamples(query.select(drone).asView().asMaps(drone.getUrl()));
+        } catch (IllegalArgumentException e) {
+            Logs.warning("Invalid history filter '" + filter + "' : " + e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -1,9 +1,6 @@
 package main.java.gui.views;
 
 import eu.hansolo.tilesfx.Tile;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.Node;
@@ -13,30 +10,34 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import main.java.gui.components.buttons.CustomButton;
+import main.java.gui.components.factory.AsOfPicker;
 import main.java.gui.components.factory.ButtonBar;
 import main.java.gui.components.gauges.*;
 import main.java.gui.controllers.DataRefresher;
 import main.java.gui.controllers.DroneStatus;
 import main.java.gui.controllers.ScreenshotService;
 import main.java.model.DroneBase;
-import main.java.util.Constants;
+import main.java.model.DroneSearchIndex;
+import main.java.model.DynamicsView;
+import main.java.model.FleetAsOf;
+import main.java.model.FleetSnapshot;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * View class representing a tab for displaying flight dynamics information.
  * <p>
  * This class extends Tab and provides methods to initialize the user interface for the flight dynamics tab.
+ * The gauges show the latest sample of the selected drone, or, once a point in time is picked in the
+ * {@link AsOfPicker}, its latest sample at that time.
  * </p>
  * <p>
  * Methods:
  * <ul>
- *     <li>{@link #FlightDynamics(String, Stage, ButtonBar, ScreenshotService, DataRefresher, ObservableList) FlightDynamics constructor}:
- *         Initializes the flight dynamics tab with the specified title, stage, button bar factory, screenshot service, data refresher, and drone models.</li>
- *     <li>{@link #initializeUI(String, ObservableList) initializeUI}:
+ *     <li>{@link #FlightDynamics(String, Stage, ButtonBar, ScreenshotService, DataRefresher, FleetSnapshot) FlightDynamics constructor}:
+ *         Initializes the flight dynamics tab with the specified title, stage, button bar factory, screenshot service, data refresher, and fleet snapshot.</li>
+ *     <li>{@link #initializeUI(String, FleetSnapshot) initializeUI}:
  *         Initializes the user interface components for the flight dynamics tab.</li>
  *     <li>{@link #setupFilterField() setupFilterField}:
  *         Sets up the filter text field for filtering drone IDs.</li>
@@ -52,10 +53,16 @@ import java.util.stream.Collectors;
  *         Sets up the main VBox containing the button bar and content pane.</li>
  *     <li>{@link #setupButtonBar() setupButtonBar}:
  *         Sets up the button bar with refresh, screenshot, and quit buttons.</li>
+ *     <li>{@link #setupTopContainer(Node, FleetSnapshot) setupTopContainer}:
+ *         Sets up the button bar and the as-of picker.</li>
  *     <li>{@link #setupButton(String, String, EventHandler) setupButton}:
  *         Sets up a custom button with the specified text, icon, and event handler.</li>
- *     <li>{@link #setupListView(ObservableList, TextField) setupListView}:
- *         Sets up the list view for displaying drone IDs.</li>
+ *     <li>{@link #setupListView(FleetSnapshot, TextField) setupListView}:
+ *         Sets up the list view for displaying drone IDs, filtered by id or serial number through a {@link DroneSearchIndex}.</li>
+ *     <li>{@link #showDrone(String) showDrone}:
+ *         Shows the gauges of the drone with the given id, or a message if there is no data.</li>
+ *     <li>{@link #dynamicsOf(DroneBase) dynamicsOf}:
+ *         Returns the live dynamics of a drone, or its dynamics up to the picked point in time.</li>
  *     <li>{@link #resetDroneData(String) resetDroneData}:
  *         Clears the drone data container and sets a default message.</li>
  *     <li>{@link #setDroneData(DroneBase) setDroneData}:
@@ -91,30 +98,32 @@ public class FlightDynamics extends Tab {
     private final DataRefresher dataRefresher;
     private final Stage primaryStage;
     private GridPane droneDataContainer;
+    private DroneSearchIndex searchIndex;
+    private ListView<String> listView;
+    private FleetAsOf asOf;
 
     public FlightDynamics(String tabTitle, Stage primaryStage, ButtonBar buttonBarFactory,
                           ScreenshotService screenshotService, DataRefresher dataRefresher,
-                          ObservableList<DroneBase> droneModels) {
+                          FleetSnapshot fleet) {
         this.buttonBarFactory = buttonBarFactory;
         this.screenshotService = screenshotService;
         this.dataRefresher = dataRefresher;
         this.primaryStage = primaryStage;
-        initializeUI(tabTitle, droneModels);
+        initializeUI(tabTitle, fleet);
     }
 
-    private void initializeUI(String tabTitle, ObservableList<DroneBase> droneModels) {
+    private void initializeUI(String tabTitle, FleetSnapshot fleet) {
         setText(tabTitle);
         getStyleClass().add("tabs");
 
         TextField filterField = setupFilterField();
         ScrollPane droneDetailsPane = setupDroneDetailsPane();
-        ListView<String> listView = setupListView(droneModels, filterField);
-        VBox leftPane = setupLeftPane(filterField, listView);
+        VBox leftPane = setupLeftPane(filterField, setupListView(fleet, filterField));
         VBox rightPane = setupRightPane(droneDetailsPane);
         SplitPane contentPane = setupContentPane(leftPane, rightPane);
-        Node buttonBar = setupButtonBar();
+        Node topContainer = setupTopContainer(setupButtonBar(), fleet);
 
-        VBox mainVBox = setupMainVBox(buttonBar, contentPane);
+        VBox mainVBox = setupMainVBox(topContainer, contentPane);
 
         setContent(mainVBox);
         setClosable(false);
@@ -174,52 +183,63 @@ public class FlightDynamics extends Tab {
         return buttonBarFactory.createButtonBar(refreshButton, screenshotButton, quitButton);
     }
 
+    private Node setupTopContainer(Node buttonBar, FleetSnapshot fleet) {
+        Node asOfPicker = new AsOfPicker(fleet, selectedAsOf -> {
+            asOf = selectedAsOf;
+            showDrone(listView.getSelectionModel().getSelectedItem());
+        }).createPicker();
+        return new VBox(10, buttonBar, asOfPicker);
+    }
+
     private CustomButton setupButton(String text, String icon, EventHandler<ActionEvent> eventHandler) {
         CustomButton button = new CustomButton(text, icon);
         button.setOnAction(eventHandler);
         return button;
     }
 
-    private ListView<String> setupListView(ObservableList<DroneBase> droneModels, TextField filterField) {
-        ListView<String> listView = new ListView<>();
-        ObservableList<String> ids = FXCollections.observableArrayList(droneModels.stream()
-                .map(drone -> drone.getDroneDetails().get(Constants.DRONE_ID).toString())
-                .collect(Collectors.toList()));
+    private ListView<String> setupListView(FleetSnapshot fleet, TextField filterField) {
+        listView = new ListView<>();
+        searchIndex = fleet.getSearchIndex();
+        listView.getItems().setAll(searchIndex.search(null));
 
-        FilteredList<String> filteredIds = new FilteredList<>(ids, s -> true);
         filterField.textProperty().addListener(obs -> {
             String filter = filterField.getText();
-            if (filter == null || filter.isEmpty()) {
-                filteredIds.setPredicate(s -> true);
+            String selectedId = listView.getSelectionModel().getSelectedItem();
+            listView.getItems().setAll(searchIndex.search(filter));
+            if (selectedId != null && searchIndex.matches(selectedId, filter)) {
+                listView.getSelectionModel().select(selectedId);
             } else {
-                filteredIds.setPredicate(s -> s.contains(filter));
-            }
-            if (listView.getSelectionModel().getSelectedItem() == null || !listView.getSelectionModel().getSelectedItem().contains(Objects.requireNonNull(filter))) {
                 listView.getSelectionModel().selectFirst();
             }
         });
 
-        listView.setItems(filteredIds);
         listView.getSelectionModel().setSelectionMode(SelectionMode.SINGLE);
-        listView.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue != null) {
-                DroneBase selectedDrone = droneModels.stream()
-                        .filter(drone -> drone.getDroneDetails().get(Constants.DRONE_ID).toString().equals(newValue))
-                        .findFirst().orElse(null);
-                if (selectedDrone != null) {
-                    setDroneData(selectedDrone);
-                } else {
-                    resetDroneData("No drone information available");
-                }
-            } else {
-                resetDroneData("No data to display, please refine your query");
-            }
-        });
+        listView.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> showDrone(newValue));
         listView.getSelectionModel().selectFirst();
         listView.getStyleClass().add("drone-id-listview");
         return listView;
     }
 
+    private void showDrone(String droneId) {
+        if (droneId != null) {
+            DroneBase selectedDrone = searchIndex.findById(droneId);
+            if (selectedDrone != null && !dynamicsOf(selectedDrone).isEmpty()) {
+                setDroneData(selectedDrone);
+            } else {
+                resetDroneData(asOf != null ? "No drone information available at that time" : "No drone information available");
+            }
+        } else {
+            resetDroneData("No data to display, please refine your query");
+        }
+    }
+
+    /**
+     * @return the dynamics up to the picked point in time, the live dynamics if none is picked.
+     */
+    private DynamicsView dynamicsOf(DroneBase drone) {
+        return asOf != null ? asOf.getDynamics(drone) : drone.getDynamics();
+    }
+
     private void resetDroneData(String defaultMessage) {
         droneDataContainer.getChildren().clear();
         Label messageLabel = new Label(defaultMessage);
@@ -239,7 +259,9 @@ public class FlightDynamics extends Tab {
         Tile alignmentGauge = getAlignmentGauge(selectedDrone);
 
         Map<String, Tile> droneGauges = new LinkedHashMap<>();
-        droneGauges.put("atTime", new ClockGauge().getClockTile());
+        droneGauges.put("atTime", asOf != null
+                ? new CharacterGauge("As Of", asOf.getEpochMillis()).getCharacterTile()
+                : new ClockGauge().getClockTile());
         droneGauges.put("statusGauge", statusGauge);
         droneGauges.put("batteryLevel", batteryLevel);
         droneGauges.put("speedLevel", speedLevel);
@@ -263,15 +285,15 @@ public class FlightDynamics extends Tab {
     }
 
     private Tile getSpeedLevel(DroneBase selectedDrone) {
-        int speedValue = (int) selectedDrone.getDroneLatestData().get(Constants.SPEED);
+        DynamicsView dynamics = dynamicsOf(selectedDrone);
+        int speedValue = dynamics.speedAt(dynamics.latestIndex());
         return new SpeedGauge(speedValue).getSpeedTile();
     }
 
     private Tile getAlignmentGauge(DroneBase selectedDrone) {
-        String yawValue = (String) selectedDrone.getDroneLatestData().get(Constants.ALIGN_YAW);
-        String rollValue = (String) selectedDrone.getDroneLatestData().get(Constants.ALIGN_ROLL);
-        String pitchValue = (String) selectedDrone.getDroneLatestData().get(Constants.ALIGN_PITCH);
-        return new AlignmentGauge(yawValue, rollValue, pitchValue).getAlignmentTile();
+        DynamicsView dynamics = dynamicsOf(selectedDrone);
+        int latest = dynamics.latestIndex();
+        return new AlignmentGauge(dynamics.yawAt(latest), dynamics.rollAt(latest), dynamics.pitchAt(latest)).getAlignmentTile();
     }
 
     private Tile getBatteryLevel(DroneBase selectedDrone) {
@@ -279,38 +301,36 @@ public class FlightDynamics extends Tab {
     }
 
     private int calculateBatteryLevel(DroneBase drone) {
-        int batteryCapacity = (int) drone.getDroneTypeInfo().get(Constants.BATTERY_CAPACITY);
-        int currentLevel = (int) drone.getDroneLatestData().get(Constants.BATTERY_STATUS);
+        int batteryCapacity = drone.getType() != null ? drone.getType().batteryCapacity() : 0;
+        DynamicsView dynamics = dynamicsOf(drone);
+        int currentLevel = dynamics.batteryAt(dynamics.latestIndex());
         return batteryCapacity != 0 ? (currentLevel * 100 / batteryCapacity) : 0;
     }
 
     private Tile getTimeStampGauge(DroneBase selectedDrone) {
-        String timeStampValue = (String) selectedDrone.getDroneLatestData().get(Constants.TIMESTAMP);
-        return new CharacterGauge("Time Stamp", timeStampValue, true).getCharacterTile();
+        DynamicsView dynamics = dynamicsOf(selectedDrone);
+        return new CharacterGauge("Time Stamp", dynamics.timestampAt(dynamics.latestIndex())).getCharacterTile();
     }
 
     private Tile getLastSeenGauge(DroneBase selectedDrone) {
-        String lastSeenValue = (String) selectedDrone.getDroneLatestData().get(Constants.LAST_SEEN);
-        return new CharacterGauge("Last Seen", lastSeenValue, true).getCharacterTile();
+        DynamicsView dynamics = dynamicsOf(selectedDrone);
+        return new CharacterGauge("Last Seen", dynamics.lastSeenAt(dynamics.latestIndex())).getCharacterTile();
     }
 
     private Tile getLatitudeGauge(DroneBase selectedDrone) {
-        String latitudeValue = (String) selectedDrone.getDroneLatestData().get(Constants.LATITUDE);
+        DynamicsView dynamics = dynamicsOf(selectedDrone);
+        String latitudeValue = String.valueOf(dynamics.latitudeAt(dynamics.latestIndex()));
         return new CharacterGauge("Latitude", latitudeValue, false).getCharacterTile();
     }
 
     private Tile getLongitudeGauge(DroneBase selectedDrone) {
-        String longitudeValue = (String) selectedDrone.getDroneLatestData().get(Constants.LONGITUDE);
+        DynamicsView dynamics = dynamicsOf(selectedDrone);
+        String longitudeValue = String.valueOf(dynamics.longitudeAt(dynamics.latestIndex()));
         return new CharacterGauge("Longitude", longitudeValue, false).getCharacterTile();
     }
 
     private Tile getStatusGauge(DroneBase selectedDrone) {
-        String statusValue = (String) selectedDrone.getDroneLatestData().get(Constants.STATUS);
-        return switch (statusValue) {
-            case Constants.STATUS_ON -> new StatusGauge(DroneStatus.State.ON).getStatusTile();
-            case Constants.STATUS_OF -> new StatusGauge(DroneStatus.State.OFF).getStatusTile();
-            case Constants.STATUS_IS -> new StatusGauge(DroneStatus.State.ISSUE).getStatusTile();
-            default -> new StatusGauge(DroneStatus.State.DEFAULT).getStatusTile();
-        };
+        DynamicsView dynamics = dynamicsOf(selectedDrone);
+        return new StatusGauge(DroneStatus.State.fromCode(dynamics.statusAt(dynamics.latestIndex()))).getStatusTile();
     }
 }
\ No newline at end of file
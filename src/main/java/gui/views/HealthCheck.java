@@ -1,41 +1,67 @@
 package main.java.gui.views;
 
-import javafx.collections.ObservableList;
+import eu.hansolo.tilesfx.Tile;
+import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Tab;
 import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import main.java.gui.components.buttons.CustomButton;
+import main.java.gui.components.factory.AsOfPicker;
 import main.java.gui.components.factory.ButtonBar;
 import main.java.gui.components.factory.DronePanel;
+import main.java.gui.components.gauges.CharacterGauge;
 import main.java.gui.components.other.ScrollBar;
 import main.java.gui.controllers.DataRefresher;
+import main.java.gui.controllers.DroneStatus;
 import main.java.gui.controllers.ScreenshotService;
+import main.java.model.CategoryDictionary;
 import main.java.model.DroneBase;
+import main.java.model.DynamicsView;
+import main.java.model.FleetAsOf;
+import main.java.model.FleetCounters;
+import main.java.model.FleetOrderings;
+import main.java.model.FleetSnapshot;
 import main.java.util.Constants;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * The {@code HealthCheck} class extends from {@code Tab} and forms the primary user interface.
  * This class represents a tab for displaying health check information of drones.
  * <p>
+ * The status of every drone is that of its latest sample, or, once a point in time is picked in the
+ * {@link AsOfPicker}, of its latest sample at that time. The summary tiles above the panels always show the
+ * live fleet, read from the {@link FleetCounters} without walking the drones. The live panels are shown in the
+ * order and direction picked from the {@link FleetOrderings}, which are kept sorted as the fleet changes; an
+ * ordering is only used while it describes the shown fleet version, otherwise the drones are shown by id, as
+ * historic states are.
+ * </p>
+ * <p>
  * Methods:
  * <ul>
- *     <li>{@link #HealthCheck(String, Stage, DronePanel, ButtonBar, ScreenshotService, DataRefresher, ObservableList) HealthCheck constructor}:
+ *     <li>{@link #HealthCheck(String, Stage, DronePanel, ButtonBar, ScreenshotService, DataRefresher, FleetSnapshot, FleetCounters, FleetOrderings) HealthCheck constructor}:
  *         Initializes the health check tab with the specified title, primary stage, drone panel factory,
- *         button bar factory, screenshot service, data refresher, and drone models.</li>
- *     <li>{@link #initializeUI(String, ObservableList) initializeUI}:
+ *         button bar factory, screenshot service, data refresher, drone models, fleet counters, and orderings.</li>
+ *     <li>{@link #initializeUI(String, FleetSnapshot) initializeUI}:
  *         Initializes the user interface components for the health check tab.</li>
- *     <li>{@link #initializeTopContainer() initializeTopContainer}:
- *         Initializes the top container including buttons.</li>
- *     <li>{@link #initializeScrollBar(ObservableList) initializeScrollBar}:
+ *     <li>{@link #initializeTopContainer(FleetSnapshot) initializeTopContainer}:
+ *         Initializes the top container including buttons, the summary tiles, the as-of picker and the order picker.</li>
+ *     <li>{@link #initializeSummary() initializeSummary}:
+ *         Creates the tiles with the number of drones per status and with a low battery.</li>
+ *     <li>{@link #createOrderPicker(FleetSnapshot) createOrderPicker}:
+ *         Creates the combo boxes for the order and the direction of the live drone panels.</li>
+ *     <li>{@link #initializeScrollBar(FleetSnapshot) initializeScrollBar}:
  *         Initializes the scroll bar with drone panels.</li>
- *     <li>{@link #createDronePanel(DroneBase) createDronePanel}:
+ *     <li>{@link #showDronePanels(FleetSnapshot, FleetAsOf) showDronePanels}:
+ *         Shows the drone panels of the live fleet or of a historic state.</li>
+ *     <li>{@link #createDronePanel(DroneBase, FleetAsOf) createDronePanel}:
  *         Creates a drone panel for a specific drone.</li>
  *     <li>{@link #createButton(String, String, javafx.event.EventHandler) createButton}:
  *         Creates a custom button with the specified text, icon, and action.</li>
@@ -44,62 +70,119 @@ import java.util.List;
  */
 
 public class HealthCheck extends Tab {
+    private static final String ASCENDING = "Ascending";
+    private static final String DESCENDING = "Descending";
     private final Stage primaryStage;
     private final DataRefresher dataRefresher;
     private final ScreenshotService screenshotService;
     private final ButtonBar buttonBarFactory;
     private final DronePanel dronePanelFactory;
+    private final FleetCounters counters;
+    private final FleetOrderings orderings;
+    private final FlowPane contentPane = new FlowPane();
+    private final ComboBox<FleetOrderings.Order> orderPicker = new ComboBox<>();
+    private final ComboBox<String> directionPicker = new ComboBox<>();
+    private FleetAsOf shownAsOf;
 
     public HealthCheck(String tabTitle, Stage primaryStage, DronePanel dronePanelFactory,
                        ButtonBar buttonBarFactory, ScreenshotService screenshotService,
-                       DataRefresher dataRefresher, ObservableList<DroneBase> droneModels) {
+                       DataRefresher dataRefresher, FleetSnapshot fleet, FleetCounters counters,
+                       FleetOrderings orderings) {
 
         this.primaryStage = primaryStage;
         this.dataRefresher = dataRefresher;
         this.screenshotService = screenshotService;
         this.buttonBarFactory = buttonBarFactory;
         this.dronePanelFactory = dronePanelFactory;
+        this.counters = counters;
+        this.orderings = orderings;
 
-        initializeUI(tabTitle, droneModels);
+        initializeUI(tabTitle, fleet);
     }
 
-    private void initializeUI(String tabTitle, ObservableList<DroneBase> droneModels) {
+    private void initializeUI(String tabTitle, FleetSnapshot fleet) {
         setText(tabTitle);
         getStyleClass().add("tabs");
 
-        VBox topContainer = initializeTopContainer();
-        ScrollBar scrollBar = initializeScrollBar(droneModels);
+        VBox topContainer = initializeTopContainer(fleet);
+        ScrollBar scrollBar = initializeScrollBar(fleet);
 
         setContent(new VBox(topContainer, scrollBar));
         setClosable(false);
     }
 
-    private VBox initializeTopContainer() {
+    private VBox initializeTopContainer(FleetSnapshot fleet) {
         CustomButton refreshButton = createButton("Refresh Data", "refresh.png", event -> dataRefresher.refreshData());
         CustomButton screenshotButton = createButton("Take Screenshot", "screenshot.png", event -> screenshotService.takeScreenshot(primaryStage));
         CustomButton quitButton = createButton("Close Program", "power.png", event -> primaryStage.close());
         Node buttonBar = buttonBarFactory.createButtonBar(refreshButton, screenshotButton, quitButton);
-        return new VBox(buttonBar);
+        Node asOfPicker = new AsOfPicker(fleet, asOf -> showDronePanels(fleet, asOf)).createPicker();
+        HBox pickers = new HBox(10, asOfPicker, createOrderPicker(fleet));
+        pickers.setAlignment(Pos.CENTER);
+        return new VBox(10, buttonBar, initializeSummary(), pickers);
+    }
+
+    private HBox createOrderPicker(FleetSnapshot fleet) {
+        orderPicker.getItems().setAll(FleetOrderings.Order.values());
+        orderPicker.setValue(FleetOrderings.Order.ID);
+        orderPicker.getStyleClass().add("timePicker");
+        orderPicker.setOnAction(event -> showDronePanels(fleet, shownAsOf));
+        directionPicker.getItems().setAll(ASCENDING, DESCENDING);
+        directionPicker.setValue(ASCENDING);
+        directionPicker.getStyleClass().add("timePicker");
+        directionPicker.setOnAction(event -> showDronePanels(fleet, shownAsOf));
+        return new HBox(10, orderPicker, directionPicker);
+    }
+
+    private HBox initializeSummary() {
+        HBox summary = new HBox(10);
+        summary.setAlignment(Pos.CENTER);
+        addSummaryTile(summary, "Drones", counters.total());
+        addSummaryTile(summary, DroneStatus.State.ON.getDescription(), counters.status(CategoryDictionary.STATUS_ON));
+        addSummaryTile(summary, DroneStatus.State.OFF.getDescription(), counters.status(CategoryDictionary.STATUS_OF));
+        addSummaryTile(summary, DroneStatus.State.ISSUE.getDescription(), counters.status(CategoryDictionary.STATUS_IS));
+        addSummaryTile(summary, "Battery < 20 %", counters.batteryBand(FleetCounters.BAND_LOW));
+        return summary;
     }
 
-    private ScrollBar initializeScrollBar(ObservableList<DroneBase> droneModels) {
-        List<Pane> dronePanels = new ArrayList<>();
-        droneModels.sort(Comparator.comparing(d -> (int) d.getDroneDetails().get(Constants.DRONE_ID)));
-        for (DroneBase drone : droneModels) {
-            dronePanels.add(createDronePanel(drone));
+    private void addSummaryTile(HBox summary, String title, long count) {
+        Tile tile = new CharacterGauge(title, String.valueOf(count), false).getCharacterTile();
+        if (tile != null) {
+            summary.getChildren().add(tile);
         }
+    }
+
+    private ScrollBar initializeScrollBar(FleetSnapshot fleet) {
         ScrollBar scrollBar = new ScrollBar();
-        FlowPane contentPane = new FlowPane();
         contentPane.getStyleClass().add("tab-content");
-        contentPane.getChildren().addAll(dronePanels);
+        showDronePanels(fleet, null);
         scrollBar.setContent(contentPane);
         return scrollBar;
     }
 
-    private Pane createDronePanel(DroneBase drone) {
+    /**
+     * @param asOf historic state to show, null for the live fleet.
+     */
+    private void showDronePanels(FleetSnapshot fleet, FleetAsOf asOf) {
+        shownAsOf = asOf;
+        FleetOrderings.Order order = orderPicker.getValue();
+        Collection<DroneBase> drones = asOf != null || order == null ? null
+                : orderings.snapshot(order, DESCENDING.equals(directionPicker.getValue()), fleet.getVersion());
+        if (drones == null) {
+            drones = fleet.getDrones();
+        }
+        List<Pane> dronePanels = new ArrayList<>(drones.size());
+        for (DroneBase drone : drones) {
+            dronePanels.add(createDronePanel(drone, asOf));
+        }
+        contentPane.getChildren().setAll(dronePanels);
+    }
+
+    private Pane createDronePanel(DroneBase drone, FleetAsOf asOf) {
         String droneId = String.valueOf(drone.getDroneDetails().get(Constants.DRONE_ID));
-        String droneStatus = String.valueOf(drone.getDroneLatestData().get(Constants.STATUS));
-        return dronePanelFactory.createDronePanel(droneId, droneStatus);
+        DynamicsView dynamics = asOf != null ? asOf.getDynamics(drone) : drone.getDynamics();
+        int statusCode = dynamics.isEmpty() ? CategoryDictionary.NO_CODE : dynamics.statusAt(dynamics.latestIndex());
+        return dronePanelFactory.createDronePanel(droneId, DroneStatus.State.fromCode(statusCode));
     }
 
     private CustomButton createButton(String text, String iconName, javafx.event.EventHandler<javafx.event.ActionEvent> action) {
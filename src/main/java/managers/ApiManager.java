@@ -2,20 +2,33 @@ package main.java.managers;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import main.java.api.ResponseSources;
+import main.java.model.CategoryDictionary;
+import main.java.model.ChangeSet;
 import main.java.model.DroneBase;
+import main.java.model.DroneDetails;
+import main.java.model.FleetAggregation;
+import main.java.model.FleetCounters;
+import main.java.model.FleetOrderings;
+import main.java.model.FleetSnapshot;
 import main.java.services.ApiFetchers;
 import main.java.services.ApiWorkers;
-import main.java.services.ModelsHandler;
+import main.java.services.ModelStore;
+import main.java.storage.FleetCache;
+import main.java.storage.TelemetryStorage;
+import main.java.util.AllocationMeter;
 import main.java.util.ArgsHandler;
 import main.java.util.ConfigurationLoader;
 import main.java.util.Logs;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * The {@code ApiManager} class manages the retrieval and processing of drone data from the API.
@@ -23,17 +36,32 @@ import java.util.concurrent.TimeUnit;
  * <p>
  * Methods:
  * <ul>
+ *     <li>{@link #getFleet() getFleet}:
+ *         Retrieves the current immutable snapshot of the drone models.</li>
  *     <li>{@link #getDroneModels() getDroneModels}:
- *         Retrieves the observable list of drone models.</li>
+ *         Retrieves the drone models of the current snapshot as an observable list, without copying.</li>
+ *     <li>{@link #subscribeChanges(Consumer) subscribeChanges}, {@link #getChangesSince(long) getChangesSince}:
+ *         Give consumers the {@link ChangeSet} of each version instead of the whole list.</li>
+ *     <li>{@link #getFleetCounters() getFleetCounters}:
+ *         Retrieves the drone counts per status, type and battery band without walking the fleet.</li>
+ *     <li>{@link #getFleetOrderings() getFleetOrderings}:
+ *         Retrieves the drones sorted by id, battery, last seen or status without sorting the fleet.</li>
+ *     <li>{@link #aggregateFleet(List, List) aggregateFleet}:
+ *         Groups the drones of the current snapshot by categorical fields and aggregates numeric fields per group.</li>
+ *     <li>{@link #loadCachedFleet(String[]) loadCachedFleet}:
+ *         Publishes the fleet of the local {@link FleetCache} for a warm start.</li>
  *     <li>{@link #setupData(String[]) setupData}:
- *         Sets up the data for the application using the provided arguments.</li>
+ *         Sets up the data for the application using the provided arguments and saves it to the cache.
+ *         Logs the heap allocated by the poll, measured by the {@link AllocationMeter}.</li>
+ *     <li>{@link #shutdown() shutdown}:
+ *         Closes the recording log and the telemetry stores before the application exits.</li>
  *     <li>{@link #setupLogger(ArgsHandler) setupLogger}:
  *         Sets up the logger based on the provided arguments handler.</li>
  *     <li>{@link #setupConfiguration(ArgsHandler) setupConfiguration}:
  *         Sets up the configuration loader based on the provided arguments handler.</li>
  *     <li>{@link #executeDroneRequest(ConfigurationLoader) executeDroneRequest}:
  *         Executes the drone request and returns the list of drone information.</li>
- *     <li>{@link #startManager(List, ConfigurationLoader) startManager}:
+ *     <li>{@link #startManager(List, ConfigurationLoader, ModelStore.Refresh) startManager}:
  *         Starts the manager to process drone information.</li>
  *     <li>{@link #shutdownThreadPool(ExecutorService) shutdownThreadPool}:
  *         Shuts down the thread pool after a certain period of time.</li>
@@ -46,31 +74,141 @@ public class ApiManager {
     private static final int MAX_CONCURRENT_DRONE_REQUESTS = 8;
     private static final int AWAIT_TERMINATION_PERIOD_SECONDS = 30;
 
+    public static FleetSnapshot getFleet() {
+        return ModelStore.getInstance().snapshot();
+    }
+
+    /**
+     * @return read-only observable list backed by the drones of the current snapshot, ordered by id.
+     */
     public static ObservableList<DroneBase> getDroneModels() {
-        return FXCollections.observableArrayList(ModelsHandler.getInstance());
+        return FXCollections.unmodifiableObservableList(FXCollections.observableList(getFleet().getDrones()));
+    }
+
+    /**
+     * The consumer is called on the refreshing thread, not on the JavaFX application thread.
+     */
+    public static void subscribeChanges(Consumer<ChangeSet> consumer) {
+        ModelStore.getInstance().subscribe(consumer);
+    }
+
+    /**
+     * @return the change sets after {@code version}, null if the consumer has to start over from {@link #getFleet()}.
+     */
+    public static List<ChangeSet> getChangesSince(long version) {
+        return ModelStore.getInstance().changesSince(version);
+    }
+
+    public static FleetCounters getFleetCounters() {
+        return ModelStore.getInstance().counters();
+    }
+
+    public static FleetOrderings getFleetOrderings() {
+        return ModelStore.getInstance().orderings();
+    }
+
+    /**
+     * @param dimensions fields to group by, at most {@value FleetAggregation#MAX_DIMENSIONS}.
+     * @param measures   numeric fields to aggregate per group.
+     * @return the groups of the current snapshot ordered by key.
+     */
+    public static List<FleetAggregation.Group> aggregateFleet(List<FleetAggregation.Dimension> dimensions,
+                                                              List<FleetAggregation.Measure> measures) {
+        return FleetAggregation.of(dimensions, measures).run(getFleet());
+    }
+
+    /**
+     * Publishes the cached fleet, so the views can be shown before the API has answered.
+     * Known drones are then synced by {@link #setupData(String[])} with delta fetches.
+     */
+    public static void loadCachedFleet(String[] arguments) {
+        try {
+            ArgsHandler argsHandler = new ArgsHandler(arguments);
+            setupLogger(argsHandler);
+
+            ConfigurationLoader configLoader = setupConfiguration(argsHandler);
+            TelemetryStorage.configure(configLoader);
+            FleetCache.configure(configLoader);
+
+            List<DroneBase> cachedDrones = FleetCache.load();
+            if (!cachedDrones.isEmpty()) {
+                ModelStore.Refresh refresh = ModelStore.getInstance().beginRefresh();
+                cachedDrones.forEach(refresh::add);
+                refresh.publish();
+            }
+        } catch (Exception e) {
+            Logs.error("Error occurred in ApiManager.loadCachedFleet() : " + e.getMessage());
+        }
     }
 
     public static void setupData(String[] arguments) {
         try {
             ArgsHandler argsHandler = new ArgsHandler(arguments);
-            ModelsHandler.clearInstance();
             setupLogger(argsHandler);
 
             ConfigurationLoader configLoader = setupConfiguration(argsHandler);
+            TelemetryStorage.configure(configLoader);
+            FleetCache.configure(configLoader);
+            ResponseSources.configure(configLoader);
+            AllocationMeter.reset();
+            long allocation = AllocationMeter.start();
 
             List<Map<String, Object>> dronesInfo = executeDroneRequest(configLoader);
             Logs.info("Number of drones in droneSimulator : " + dronesInfo.size());
+            if (dronesInfo.isEmpty() && getFleet().size() > 0) {
+                Logs.warning("No drones received, keeping fleet version " + getFleet().getVersion());
+                return;
+            }
 
             long startTime = System.currentTimeMillis();
 
-            startManager(dronesInfo, configLoader);
+            ModelStore.Refresh refresh = ModelStore.getInstance().beginRefresh();
+            startManager(dronesInfo, configLoader, refresh);
+            refresh.publish(listedIds(dronesInfo));
+            FleetCache.save(getFleet());
+            AllocationMeter.stop(allocation);
 
             Logs.info("Total execution time: " + (System.currentTimeMillis() - startTime) + " ms");
+            logAllocation(dronesInfo.size());
+            Logs.info("Dictionary cardinality : " + CategoryDictionary.report());
         } catch (Exception e) {
             Logs.error("Error occurred in ApiManager.setupData() : " + e.getMessage());
         }
     }
 
+    /**
+     * Flushes and closes the API recording log and the mapped, LSM and retained telemetry stores, so their write-ahead
+     * logs and spilled samples are complete on disk. Failures are reported through {@link Logs#error(String)}; when
+     * called from a shutdown hook, the log handlers may already be closed and the reports lost.
+     */
+    public static void shutdown() {
+        ResponseSources.close();
+        TelemetryStorage.closeAll();
+    }
+
+    /**
+     * @return ids of the drones in the listing, so drones whose requests failed are kept instead of removed.
+     */
+    private static List<Integer> listedIds(List<Map<String, Object>> dronesInfo) {
+        List<Integer> ids = new ArrayList<>(dronesInfo.size());
+        for (Map<String, Object> droneInfo : dronesInfo) {
+            DroneDetails details = DroneDetails.fromMap(droneInfo);
+            if (details != null) {
+                ids.add(details.id());
+            }
+        }
+        return ids;
+    }
+
+    private static void logAllocation(int droneCount) {
+        if (!AllocationMeter.isSupported()) {
+            return;
+        }
+        long allocatedKiB = AllocationMeter.reset() / 1024;
+        Logs.info("Allocated per poll : " + allocatedKiB + " KiB, "
+                + (droneCount > 0 ? allocatedKiB / droneCount : 0) + " KiB per drone");
+    }
+
     private static void setupLogger(ArgsHandler argsHandler) {
         Logs.info("Setup Logging file");
         Logs.initialize(argsHandler.getLogPath());
@@ -87,13 +225,14 @@ public class ApiManager {
         return fetcher.executeDroneRequest(null);
     }
 
-    private static void startManager(List<Map<String, Object>> dronesInfo, ConfigurationLoader configLoader) {
+    private static void startManager(List<Map<String, Object>> dronesInfo, ConfigurationLoader configLoader,
+                                     ModelStore.Refresh refresh) {
         try {
             CountDownLatch completionLatch = new CountDownLatch(dronesInfo.size());
 
             ExecutorService droneRequestThreadPool = Executors.newFixedThreadPool(MAX_CONCURRENT_DRONE_REQUESTS);
             for (Map<String, Object> droneInfo : dronesInfo) {
-                ApiWorkers processor = new ApiWorkers(droneInfo, configLoader, completionLatch);
+                ApiWorkers processor = new ApiWorkers(droneInfo, configLoader, completionLatch, refresh);
                 droneRequestThreadPool.execute(processor);
             }
             shutdownThreadPool(droneRequestThreadPool);
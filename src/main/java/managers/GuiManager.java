@@ -1,6 +1,6 @@
 package main.java.managers;
 
-import javafx.collections.ObservableList;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
@@ -13,14 +13,18 @@ import main.java.gui.views.DroneCatalogue;
 import main.java.gui.views.DroneHistory;
 import main.java.gui.views.FlightDynamics;
 import main.java.gui.views.HealthCheck;
-import main.java.model.DroneBase;
+import main.java.model.FleetSnapshot;
 import main.java.util.Logs;
 
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The {@code GuiManager} class manages the GUI components of the application.
  * It initializes the main GUI and refreshes the views based on the drone data.
+ * The window opens with the cached fleet; fetching from the API runs in the background. The telemetry stores and
+ * the API recording log are closed by a shutdown hook, however the application exits.
  * <p>
  * Methods:
  * <ul>
@@ -46,12 +50,15 @@ public class GuiManager {
     private Stage primaryStage;
     private String[] applicationArgs;
 
-    private ObservableList<DroneBase> droneModels;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private FleetSnapshot fleet = FleetSnapshot.empty();
 
     public void startGui(Stage primaryStage, String[] args) {
         this.primaryStage = primaryStage;
         applicationArgs = args;
-        dataRefresher.refreshData();
+        Runtime.getRuntime().addShutdownHook(new Thread(ApiManager::shutdown));
+        ApiManager.loadCachedFleet(args);
+        fleet = ApiManager.getFleet();
 
         tabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
         Scene scene = new Scene(tabPane, 1000, 800);
@@ -63,6 +70,7 @@ public class GuiManager {
         primaryStage.show();
 
         refreshViews();
+        dataRefresher.refreshData();
     }
 
     private void refreshViews() {
@@ -73,23 +81,33 @@ public class GuiManager {
                 createViewInstance("Drone Catalogue", "DC"),
                 createViewInstance("Drone History", "DH")
         );
-    }    private final DataRefresher dataRefresher = new DataRefresher(ignored -> {
-        ApiManager.setupData(applicationArgs);
-        droneModels = ApiManager.getDroneModels();
-        refreshViews();
+    }    /**
+     * Fetches in the background, so the cached fleet stays usable, and swaps the views in on the FX thread.
+     */
+    private final DataRefresher dataRefresher = new DataRefresher(ignored -> {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> ApiManager.setupData(applicationArgs))
+                .whenComplete((result, error) -> Platform.runLater(() -> {
+                    refreshing.set(false);
+                    fleet = ApiManager.getFleet();
+                    refreshViews();
+                }));
     });
 
     private Tab createViewInstance(String title, String type) {
         try {
             return switch (type) {
                 case "DHC" ->
-                        new HealthCheck(title, primaryStage, dronePanelFactory, buttonBarFactory, screenshotService, dataRefresher, droneModels);
+                        new HealthCheck(title, primaryStage, dronePanelFactory, buttonBarFactory, screenshotService, dataRefresher, fleet,
+                                ApiManager.getFleetCounters(), ApiManager.getFleetOrderings());
                 case "DC" ->
-                        new DroneCatalogue(title, primaryStage, buttonBarFactory, screenshotService, dataRefresher, droneModels);
+                        new DroneCatalogue(title, primaryStage, buttonBarFactory, screenshotService, dataRefresher, fleet);
                 case "DFD" ->
-                        new FlightDynamics(title, primaryStage, buttonBarFactory, screenshotService, dataRefresher, droneModels);
+                        new FlightDynamics(title, primaryStage, buttonBarFactory, screenshotService, dataRefresher, fleet);
                 case "DH" ->
-                        new DroneHistory(title, primaryStage, buttonBarFactory, screenshotService, dataRefresher, droneModels);
+                        new DroneHistory(title, primaryStage, buttonBarFactory, screenshotService, dataRefresher, fleet);
                 default -> throw new IllegalArgumentException("Invalid Tab type: " + type);
             };
         } catch (Exception e) {
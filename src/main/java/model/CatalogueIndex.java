@@ -0,0 +1,297 @@
+package main.java.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code CatalogueIndex} class keeps inverted indexes over the catalogue fields of the drones of one
+ * {@link FleetSnapshot}: id, serial number, manufacturer, type name and carriage type.
+ * <p>
+ * Every drone id gets a dense ordinal and each field value maps to the set of ordinals having it, stored as a
+ * {@link BitSet}. Categorical fields are indexed by their {@link CategoryDictionary} code. A query intersects
+ * the bitmaps of the given fields, so its cost depends on the number of drones in the bitmaps, not on
+ * evaluating predicates per drone. Drones without details are not indexed. Drones without type information, and
+ * values that are missing, are indexed under {@link CategoryDictionary#NO_CODE}, so they match queries that leave
+ * those fields empty; a query value that was never encoded matches nothing.
+ * </p>
+ * <p>
+ * An index is immutable. The index of the next version is derived from the previous one and the
+ * {@link ChangeSet} between them: only added, removed and updated drones are re-indexed, the bitmaps they do not
+ * touch are shared, and the ordinals of the ids are shared by all versions. Drones that only got new samples keep
+ * their entries, and queries return the drones of the index's own version.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #of(Map) of}: Indexes all drones of a version.</li>
+ *     <li>{@link #derive(Map, ChangeSet) derive}: Returns the index of the next version, re-indexing only the changed drones.</li>
+ *     <li>{@link #query(String, String, String, String, String) query}: Returns the drones matching all non-empty fields.</li>
+ *     <li>{@link #size() size}: Returns the number of indexed drones.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class CatalogueIndex {
+    private final Ordinals ordinals;
+    private final int[] ids;
+    private final Map<Integer, DroneBase> dronesById;
+    private final BitSet live;
+    private final List<BitSet> byManufacturer;
+    private final List<BitSet> byTypeName;
+    private final List<BitSet> byCarriageType;
+
+    private CatalogueIndex(Ordinals ordinals, Map<Integer, DroneBase> dronesById, BitSet live,
+                           List<BitSet> byManufacturer, List<BitSet> byTypeName, List<BitSet> byCarriageType) {
+        this.ordinals = ordinals;
+        this.ids = ordinals.ids();
+        this.dronesById = dronesById;
+        this.live = live;
+        this.byManufacturer = byManufacturer;
+        this.byTypeName = byTypeName;
+        this.byCarriageType = byCarriageType;
+    }
+
+    /**
+     * @param dronesById the drones of a version keyed by id, which the index reads but does not copy.
+     */
+    public static CatalogueIndex of(Map<Integer, DroneBase> dronesById) {
+        Editor editor = new Editor(new Ordinals(), new BitSet(), new ArrayList<>(), new ArrayList<>(),
+                new ArrayList<>());
+        for (DroneBase drone : dronesById.values()) {
+            editor.index(drone);
+        }
+        return editor.build(dronesById);
+    }
+
+    /**
+     * Costs {@code O(changed drones)} bitmap updates plus copying the bitmaps of the live drones and of the field
+     * values the changes touch.
+     *
+     * @param dronesById the drones of the next version keyed by id.
+     * @param changes    the changes from the version of this index to the next one.
+     * @return the index of the next version; this index is left as it is.
+     */
+    public CatalogueIndex derive(Map<Integer, DroneBase> dronesById, ChangeSet changes) {
+        Editor editor = new Editor(ordinals, (BitSet) live.clone(), new ArrayList<>(byManufacturer),
+                new ArrayList<>(byTypeName), new ArrayList<>(byCarriageType));
+        for (DroneBase drone : changes.removed()) {
+            editor.unindex(this.dronesById.get(drone.getDetails().id()));
+        }
+        for (DroneBase drone : changes.updated()) {
+            editor.unindex(this.dronesById.get(drone.getDetails().id()));
+            editor.index(drone);
+        }
+        for (DroneBase drone : changes.added()) {
+            editor.index(drone);
+        }
+        return editor.build(dronesById);
+    }
+
+    /**
+     * Empty fields are ignored; the values of the other fields must match exactly.
+     *
+     * @return the matching drones ordered by id.
+     */
+    public List<DroneBase> query(String droneId, String serialNumber, String manufacturer,
+                                 String typeName, String carriageType) {
+        BitSet result = (BitSet) live.clone();
+        if (!droneId.isEmpty()) {
+            result.and(idPosting(droneId));
+        }
+        if (!serialNumber.isEmpty()) {
+            result.and(serialNumberPosting(serialNumber));
+        }
+        if (!manufacturer.isEmpty()) {
+            result.and(valuePosting(byManufacturer, CategoryDictionary.MANUFACTURER.lookup(manufacturer)));
+        }
+        if (!typeName.isEmpty()) {
+            result.and(valuePosting(byTypeName, CategoryDictionary.TYPE_NAME.lookup(typeName)));
+        }
+        if (!carriageType.isEmpty()) {
+            result.and(valuePosting(byCarriageType, CategoryDictionary.CARRIAGE_TYPE.lookup(carriageType)));
+        }
+
+        int[] matchingIds = new int[result.cardinality()];
+        int count = 0;
+        for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+            matchingIds[count++] = ids[ordinal];
+        }
+        Arrays.sort(matchingIds);
+        List<DroneBase> matches = new ArrayList<>(count);
+        for (int id : matchingIds) {
+            matches.add(dronesById.get(id));
+        }
+        return matches;
+    }
+
+    public int size() {
+        return live.cardinality();
+    }
+
+    private BitSet idPosting(String droneId) {
+        BitSet posting = new BitSet();
+        try {
+            int id = Integer.parseInt(droneId);
+            Integer ordinal = ordinals.byId.get(id);
+            if (ordinal != null && String.valueOf(id).equals(droneId)) {
+                posting.set(ordinal);
+            }
+        } catch (NumberFormatException e) {
+            // not an id, nothing matches
+        }
+        return posting;
+    }
+
+    /**
+     * The ordinals of a serial number are shared by all versions, so a candidate only matches if the drone of
+     * this version still has the serial number.
+     */
+    private BitSet serialNumberPosting(String serialNumber) {
+        BitSet posting = new BitSet();
+        for (int ordinal : ordinals.bySerialNumber.getOrDefault(serialNumber, new int[0])) {
+            if (live.get(ordinal) && serialNumber.equals(dronesById.get(ids[ordinal]).getDetails().serialNumber())) {
+                posting.set(ordinal);
+            }
+        }
+        return posting;
+    }
+
+    private static int manufacturerCode(DroneBase drone) {
+        return drone.getType() != null ? drone.getType().manufacturerCode() : CategoryDictionary.NO_CODE;
+    }
+
+    private static int typeNameCode(DroneBase drone) {
+        return drone.getType() != null ? drone.getType().typeNameCode() : CategoryDictionary.NO_CODE;
+    }
+
+    /**
+     * @return the bitmap of a query value's code; an empty bitmap for {@link CategoryDictionary#NO_CODE}, a value that
+     * was never encoded, so it does not match the drones without a value.
+     */
+    private static BitSet valuePosting(List<BitSet> postings, int code) {
+        int slot = code + 1;
+        return code != CategoryDictionary.NO_CODE && slot > 0 && slot < postings.size()
+                ? postings.get(slot) : new BitSet();
+    }
+
+    /**
+     * Ordinals of the drone ids and serial numbers, shared by the indexes of all versions. Entries are only
+     * added, so an older index ignores the ordinals it has no live bit for, and {@code ids} is written past
+     * the ordinals an older index can read, or copied when it grows.
+     */
+    private static final class Ordinals {
+        private final Map<Integer, Integer> byId = new ConcurrentHashMap<>();
+        private final Map<String, int[]> bySerialNumber = new ConcurrentHashMap<>();
+        private int[] ids = new int[16];
+        private int count;
+
+        synchronized int assign(DroneDetails details) {
+            Integer assigned = byId.get(details.id());
+            if (assigned == null) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count] = details.id();
+                assigned = count++;
+                byId.put(details.id(), assigned);
+            }
+            int ordinal = assigned;
+            if (details.serialNumber() != null) {
+                int[] listed = bySerialNumber.get(details.serialNumber());
+                if (listed == null) {
+                    bySerialNumber.put(details.serialNumber(), new int[]{ordinal});
+                } else if (Arrays.stream(listed).noneMatch(listedOrdinal -> listedOrdinal == ordinal)) {
+                    int[] grown = Arrays.copyOf(listed, listed.length + 1);
+                    grown[listed.length] = ordinal;
+                    bySerialNumber.put(details.serialNumber(), grown);
+                }
+            }
+            return ordinal;
+        }
+
+        synchronized int[] ids() {
+            return ids;
+        }
+    }
+
+    /**
+     * Builds one index. A bitmap shared with the previous index is copied before its first change.
+     */
+    private static final class Editor {
+        private final Ordinals ordinals;
+        private final BitSet live;
+        private final List<BitSet> byManufacturer;
+        private final List<BitSet> byTypeName;
+        private final List<BitSet> byCarriageType;
+        private final Set<BitSet> copied = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        Editor(Ordinals ordinals, BitSet live, List<BitSet> byManufacturer, List<BitSet> byTypeName,
+               List<BitSet> byCarriageType) {
+            this.ordinals = ordinals;
+            this.live = live;
+            this.byManufacturer = byManufacturer;
+            this.byTypeName = byTypeName;
+            this.byCarriageType = byCarriageType;
+        }
+
+        void index(DroneBase drone) {
+            if (drone == null || drone.getDetails() == null) {
+                return;
+            }
+            int ordinal = ordinals.assign(drone.getDetails());
+            live.set(ordinal);
+            posting(byManufacturer, manufacturerCode(drone)).set(ordinal);
+            posting(byTypeName, typeNameCode(drone)).set(ordinal);
+            posting(byCarriageType, drone.getDetails().carriageTypeCode()).set(ordinal);
+        }
+
+        void unindex(DroneBase drone) {
+            if (drone == null || drone.getDetails() == null) {
+                return;
+            }
+            Integer ordinal = ordinals.byId.get(drone.getDetails().id());
+            if (ordinal == null) {
+                return;
+            }
+            live.clear(ordinal);
+            posting(byManufacturer, manufacturerCode(drone)).clear(ordinal);
+            posting(byTypeName, typeNameCode(drone)).clear(ordinal);
+            posting(byCarriageType, drone.getDetails().carriageTypeCode()).clear(ordinal);
+        }
+
+        CatalogueIndex build(Map<Integer, DroneBase> dronesById) {
+            return new CatalogueIndex(ordinals, dronesById, live, byManufacturer, byTypeName, byCarriageType);
+        }
+
+        /**
+         * Codes are stored one slot up, so {@link CategoryDictionary#NO_CODE} has slot 0.
+         *
+         * @return the bitmap of a dictionary code owned by this editor; a detached bitmap for an invalid code.
+         */
+        private BitSet posting(List<BitSet> postings, int code) {
+            int slot = code + 1;
+            if (slot < 0) {
+                return new BitSet();
+            }
+            while (postings.size() <= slot) {
+                BitSet posting = new BitSet();
+                postings.add(posting);
+                copied.add(posting);
+            }
+            BitSet posting = postings.get(slot);
+            if (!copied.contains(posting)) {
+                posting = (BitSet) posting.clone();
+                postings.set(slot, posting);
+                copied.add(posting);
+            }
+            return posting;
+        }
+    }
+}
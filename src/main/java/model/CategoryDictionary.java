@@ -0,0 +1,134 @@
+package main.java.model;
+
+import main.java.util.Constants;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code CategoryDictionary} class maps the values of a categorical field to small integer codes.
+ * <p>
+ * Values are encoded once at ingest, so every drone and every dynamics sample stores a code instead of its own
+ * copy of the string, and filters compare integers. Codes are dense, start at 0 and are never reassigned.
+ * One global dictionary exists per field; the status dictionary is pre-seeded so the known states have fixed codes.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #encode(String) encode}: Returns the code of a value, assigning a new one if needed.</li>
+ *     <li>{@link #encode(CharSequence) encode}: Same for a parser view, matching known values without a String.</li>
+ *     <li>{@link #lookup(String) lookup}: Returns the code of a value without assigning one.</li>
+ *     <li>{@link #decode(int) decode}: Returns the value of a code.</li>
+ *     <li>{@link #cardinality() cardinality}: Returns the number of distinct values.</li>
+ *     <li>{@link #report() report}: Returns the cardinality of all dictionaries for logging.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class CategoryDictionary {
+    public static final int NO_CODE = -1;
+    public static final byte STATUS_ON = 0;
+    public static final byte STATUS_OF = 1;
+    public static final byte STATUS_IS = 2;
+
+    public static final CategoryDictionary STATUS = new CategoryDictionary(Constants.STATUS,
+            Constants.STATUS_ON, Constants.STATUS_OF, Constants.STATUS_IS);
+    public static final CategoryDictionary CARRIAGE_TYPE = new CategoryDictionary(Constants.CARRIAGE_TYPE);
+    public static final CategoryDictionary MANUFACTURER = new CategoryDictionary(Constants.MANUFACTURER);
+    public static final CategoryDictionary TYPE_NAME = new CategoryDictionary(Constants.TYPE_NAME);
+    private static final List<CategoryDictionary> ALL = List.of(STATUS, CARRIAGE_TYPE, MANUFACTURER, TYPE_NAME);
+
+    private final String field;
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[0];
+
+    private CategoryDictionary(String field, String... seed) {
+        this.field = field;
+        for (String value : seed) {
+            encode(value);
+        }
+    }
+
+    /**
+     * @return the code of the value, {@link #NO_CODE} for null.
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : assign(value);
+    }
+
+    /**
+     * Matches the known values by content, so a streaming parser does not need to create a String per sample.
+     * Meant for small dictionaries like {@link #STATUS}; unknown values are copied and assigned a new code.
+     *
+     * @return the code of the value, {@link #NO_CODE} for null.
+     */
+    public int encode(CharSequence value) {
+        if (value == null || value instanceof String) {
+            return encode((String) value);
+        }
+        String[] current = values;
+        for (int code = 0; code < current.length; code++) {
+            if (current[code].contentEquals(value)) {
+                return code;
+            }
+        }
+        return encode(value.toString());
+    }
+
+    /**
+     * @return the code of the value, {@link #NO_CODE} if the value has never been encoded.
+     */
+    public int lookup(String value) {
+        Integer code = value != null ? codes.get(value) : null;
+        return code != null ? code : NO_CODE;
+    }
+
+    /**
+     * @return the value of the code, null for {@link #NO_CODE} or an unknown code.
+     */
+    public String decode(int code) {
+        String[] current = values;
+        return code >= 0 && code < current.length ? current[code] : null;
+    }
+
+    public int cardinality() {
+        return values.length;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * @return e.g. {@code "status=3, carriage_type=4, manufacturer=7, typename=12"}.
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder();
+        for (CategoryDictionary dictionary : ALL) {
+            if (report.length() > 0) {
+                report.append(", ");
+            }
+            report.append(dictionary.field).append('=').append(dictionary.cardinality());
+        }
+        return report.toString();
+    }
+
+    private synchronized int assign(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        String[] grown = Arrays.copyOf(values, values.length + 1);
+        int code = grown.length - 1;
+        grown[code] = value;
+        values = grown;
+        codes.put(value, code);
+        return code;
+    }
+}
@@ -0,0 +1,106 @@
+package main.java.model;
+
+import java.util.List;
+
+/**
+ * The changes of the fleet from one published version to the next.
+ * <p>
+ * Change sets are computed once per version by a {@link ChangeTracker}, so consumers such as views, alerting or
+ * exports can update themselves with work proportional to the change instead of walking the whole fleet.
+ * Drones are compared by id: a drone that was fetched again as a new {@link DroneBase} is listed in
+ * {@code updated}, and its samples, status and battery are compared like those of a drone that was synced.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #isEmpty() isEmpty}: Returns whether nothing changed.</li>
+ *     <li>{@link #appendedSamples() appendedSamples}: Returns the number of samples added to all drones.</li>
+ *     <li>{@link #summary() summary}: Returns a short description for logging.</li>
+ * </ul>
+ * </p>
+ *
+ * @param fromVersion    version the changes apply to.
+ * @param version        version the changes lead to.
+ * @param added          drones that are new in {@code version}.
+ * @param removed        drones of {@code fromVersion} that are no longer in {@code version}.
+ * @param updated        drones that were replaced by a new model with the same id, other than a synced version.
+ * @param appended       drones that received new samples.
+ * @param statusChanges  drones whose latest status changed.
+ * @param batteryChanges drones whose latest battery status changed.
+ */
+
+public record ChangeSet(long fromVersion, long version, List<DroneBase> added, List<DroneBase> removed,
+                        List<DroneBase> updated, List<SamplesAppended> appended, List<StatusChanged> statusChanges,
+                        List<BatteryChanged> batteryChanges) {
+
+    public ChangeSet {
+        added = List.copyOf(added);
+        removed = List.copyOf(removed);
+        updated = List.copyOf(updated);
+        appended = List.copyOf(appended);
+        statusChanges = List.copyOf(statusChanges);
+        batteryChanges = List.copyOf(batteryChanges);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && updated.isEmpty() && appended.isEmpty()
+                && statusChanges.isEmpty() && batteryChanges.isEmpty();
+    }
+
+    public long appendedSamples() {
+        long samples = 0;
+        for (SamplesAppended append : appended) {
+            samples += append.count();
+        }
+        return samples;
+    }
+
+    /**
+     * @return e.g. {@code "+2 -0 ~5 drones, 120 samples, 3 status, 7 battery"}.
+     */
+    public String summary() {
+        return "+" + added.size() + " -" + removed.size() + " ~" + updated.size() + " drones, " + appendedSamples()
+                + " samples, " + statusChanges.size() + " status, " + batteryChanges.size() + " battery";
+    }
+
+    /**
+     * New samples of a drone.
+     *
+     * @param samples        a zero-copy view of the samples newer than {@code afterTimestamp}, taken from the dynamics
+     *                       of {@code version} when the change set was created.
+     * @param afterTimestamp latest timestamp before the change, {@link main.java.util.Timestamps#NONE} if there was none.
+     * @param count          number of samples the drone gained.
+     */
+    public record SamplesAppended(DroneBase drone, DynamicsView samples, long afterTimestamp, int count) {
+
+        /**
+         * @param dynamics the dynamics of the drone in the new version, sliced to the samples after
+         *                 {@code afterTimestamp}.
+         */
+        static SamplesAppended of(DroneBase drone, DynamicsView dynamics, long afterTimestamp, int count) {
+            long from = afterTimestamp == Long.MAX_VALUE ? afterTimestamp : afterTimestamp + 1;
+            return new SamplesAppended(drone, dynamics.slice(dynamics.lowerBound(from), dynamics.size()),
+                    afterTimestamp, count);
+        }
+    }
+
+    /**
+     * Status of the latest sample, as {@link CategoryDictionary#STATUS} codes.
+     */
+    public record StatusChanged(DroneBase drone, byte from, byte to) {
+
+        public String fromStatus() {
+            return DynamicsSeries.decodeStatus(from);
+        }
+
+        public String toStatus() {
+            return DynamicsSeries.decodeStatus(to);
+        }
+    }
+
+    /**
+     * Battery status of the latest sample.
+     */
+    public record BatteryChanged(DroneBase drone, int from, int to) {
+    }
+}
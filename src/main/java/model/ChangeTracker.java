@@ -0,0 +1,86 @@
+package main.java.model;
+
+import main.java.util.Timestamps;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code ChangeTracker} class computes the {@link ChangeSet} of every published {@link FleetSnapshot}.
+ * <p>
+ * A synced drone is a new version of the same {@link DroneBase}, sharing its store, so the snapshots alone do not
+ * show what changed without reading the samples. The tracker therefore keeps a small mark per drone of the last
+ * tracked version: the model, its number of samples, the latest timestamp and the status and battery of the latest
+ * sample. Each version is
+ * compared with these marks in {@code O(fleet)}, a constant amount of work per drone.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #track(FleetSnapshot) track}: Returns the changes from the last tracked snapshot to this one.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class ChangeTracker {
+    private Map<Integer, Mark> marks = new HashMap<>();
+    private long version;
+
+    public synchronized ChangeSet track(FleetSnapshot snapshot) {
+        List<DroneBase> added = new ArrayList<>();
+        List<DroneBase> updated = new ArrayList<>();
+        List<ChangeSet.SamplesAppended> appended = new ArrayList<>();
+        List<ChangeSet.StatusChanged> statusChanges = new ArrayList<>();
+        List<ChangeSet.BatteryChanged> batteryChanges = new ArrayList<>();
+        Map<Integer, Mark> nextMarks = new HashMap<>(snapshot.size() * 2);
+
+        for (DroneBase drone : snapshot.getDrones()) {
+            int id = drone.getDetails().id();
+            Mark next = Mark.of(drone);
+            Mark previous = marks.remove(id);
+            nextMarks.put(id, next);
+            if (previous == null) {
+                added.add(drone);
+                continue;
+            }
+            if (previous.drone() != drone && !drone.isVersionOf(previous.drone())) {
+                updated.add(drone);
+            }
+            if (next.samples() > previous.samples()) {
+                appended.add(ChangeSet.SamplesAppended.of(drone, next.dynamics(), previous.latestTimestamp(),
+                        next.samples() - previous.samples()));
+            }
+            if (next.status() != previous.status()) {
+                statusChanges.add(new ChangeSet.StatusChanged(drone, previous.status(), next.status()));
+            }
+            if (next.battery() != previous.battery()) {
+                batteryChanges.add(new ChangeSet.BatteryChanged(drone, previous.battery(), next.battery()));
+            }
+        }
+        List<DroneBase> removed = new ArrayList<>(marks.size());
+        for (Mark mark : marks.values()) {
+            removed.add(mark.drone());
+        }
+
+        ChangeSet changes = new ChangeSet(version, snapshot.getVersion(), added, removed, updated, appended,
+                statusChanges, batteryChanges);
+        marks = nextMarks;
+        version = snapshot.getVersion();
+        return changes;
+    }
+
+    private record Mark(DroneBase drone, DynamicsView dynamics, int samples, long latestTimestamp, byte status,
+                        int battery) {
+        static Mark of(DroneBase drone) {
+            DynamicsView dynamics = drone.getDynamics();
+            int latest = dynamics.latestIndex();
+            if (latest < 0) {
+                return new Mark(drone, dynamics, 0, Timestamps.NONE, DynamicsSeries.STATUS_UNKNOWN, -1);
+            }
+            return new Mark(drone, dynamics, dynamics.size(), dynamics.timestampAt(latest), dynamics.statusAt(latest),
+                    dynamics.batteryAt(latest));
+        }
+    }
+}
@@ -1,19 +1,40 @@
 package main.java.model;
 
-import main.java.util.Constants;
-
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.BiFunction;
 
 
 /**
  * The {@code DroneBase} class represents a base model of a drone with details, type information, dynamics information, and the latest data.
  * It encapsulates information related to a drone, including its details, type, dynamic information, and the latest data.
  * <p>
+ * Details and type are immutable records, the dynamics are held in a {@link DynamicsStore}
+ * (columnar {@link DynamicsSeries} on the heap by default) and handed out as read-only {@link DynamicsView}s.
+ * The map based getters are adapters over the typed model and keep the existing views working.
+ * </p>
+ * <p>
+ * A drone is immutable once it is published in a {@link FleetSnapshot}: it pins the view of its samples, and
+ * syncing new samples returns a new version that shares the store, details and type and derives its rollups and
+ * transition log from this one. Older snapshots, as-of queries and change sets keep seeing the samples of their
+ * version.
+ * </p>
+ * <p>
  * Methods:
  * <ul>
- *     <li>{@link #updateLatestData() updateLatestData}:
- *         Updates the latest data of the drone based on its dynamics information.</li>
+ *     <li>{@link #withDynamics(DynamicsSeries, int) withDynamics}:
+ *         Returns the next version of the drone with a page of newly fetched samples.</li>
+ *     <li>{@link #getDetails() getDetails}, {@link #getType() getType}, {@link #getDynamics() getDynamics}:
+ *         Return the typed model of the drone.</li>
+ *     <li>{@link #getRollups() getRollups}:
+ *         Returns the multi-resolution rollups of the dynamics.</li>
+ *     <li>{@link #getTransitions() getTransitions}:
+ *         Returns the log of status transitions, maintained at ingest.</li>
+ *     <li>{@link #getSyncOffset() getSyncOffset}, {@link #setSyncOffset(int) setSyncOffset}:
+ *         Number of API dynamics records already ingested, the offset of the next delta fetch.</li>
+ *     <li>{@link #getLatestIndex() getLatestIndex}:
+ *         Returns the index of the latest sample in the dynamics series.</li>
+ *     <li>{@link #getUrl() getUrl}:
+ *         Returns the API URL of the drone, as given in its dynamics samples.</li>
  *     <li>{@link #getDroneDetails() getDroneDetails}:
  *         Returns a map containing drone details.</li>
  *     <li>{@link #getDroneTypeInfo() getDroneTypeInfo}:
@@ -22,57 +43,183 @@ import java.util.stream.Collectors;
  *         Returns a list of maps containing drone dynamics information.</li>
  *     <li>{@link #getDroneLatestData() getDroneLatestData}:
  *         Returns a map containing the latest drone data.</li>
+ *     <li>{@link #getDroneDataAsOf(long) getDroneDataAsOf}:
+ *         Returns a map containing the latest drone data at or before a timestamp.</li>
  * </ul>
  * </p>
  */
 
 public class DroneBase {
-    private final Map<String, Object> droneDetails;
-    private final Map<String, Object> droneTypeInfo;
-    private final List<Map<String, Object>> droneDynamicsInfo;
-    private Map<String, Object> droneLatestData;
-
-    public DroneBase(Map<String, Object> droneDetails, Map<String, Object> droneTypeInfo, List<Map<String, Object>> droneDynamicsInfo) {
-        this.droneDetails = droneDetails;
-        this.droneTypeInfo = droneTypeInfo;
-        this.droneDynamicsInfo = droneDynamicsInfo;
-    }
-
-    public void updateLatestData() {
-        List<Map<String, Object>> dynamicsInfo = getDroneDynamicsInfo();
-        if (!dynamicsInfo.isEmpty()) {
-            dynamicsInfo.sort(Comparator.comparing(d -> (String) d.get(Constants.TIMESTAMP)));
-            Collections.reverse(dynamicsInfo);
-            this.droneLatestData = dynamicsInfo.get(0);
+    private final DroneDetails details;
+    private final DroneType type;
+    private final DynamicsStore dynamics;
+    private final DynamicsView view;
+    private final StatusTransitions transitions;
+    private volatile DynamicsRollups rollups;
+    private volatile int syncOffset;
+
+    public DroneBase(DroneDetails details, DroneType type, DynamicsSeries dynamics) {
+        this(details, type, new HeapDynamicsStore(dynamics));
+    }
+
+    public DroneBase(DroneDetails details, DroneType type, DynamicsStore dynamics) {
+        this(details, type, dynamics, null);
+    }
+
+    /**
+     * @param transitions the persisted transition log of the dynamics, null to build it from the samples.
+     */
+    public DroneBase(DroneDetails details, DroneType type, DynamicsStore dynamics, StatusTransitions transitions) {
+        this.details = details;
+        this.type = type;
+        this.dynamics = dynamics;
+        this.view = dynamics.view();
+        this.transitions = transitions != null ? transitions : StatusTransitions.of(view);
+    }
+
+    private DroneBase(DroneBase previous, DynamicsView view, DynamicsRollups rollups, StatusTransitions transitions,
+                      int syncOffset) {
+        this.details = previous.details;
+        this.type = previous.type;
+        this.dynamics = previous.dynamics;
+        this.view = view;
+        this.rollups = rollups;
+        this.transitions = transitions;
+        this.syncOffset = syncOffset;
+    }
+
+    /**
+     * Merges a page of newly fetched samples into the store and returns the next version of the drone, with the
+     * rollups and the transition log updated incrementally. This drone keeps its samples unchanged.
+     *
+     * @param syncOffset the sync offset of the next version.
+     */
+    public DroneBase withDynamics(DynamicsSeries page, int syncOffset) {
+        DynamicsView after = page.isEmpty() ? dynamics.view() : dynamics.append(page);
+        DynamicsRollups current = rollups;
+        StatusTransitions next = DynamicsRollups.isAppend(view, after)
+                ? transitions.append(after, view.size()) : StatusTransitions.of(after);
+        return new DroneBase(this, after, current != null ? current.update(view, after) : null, next, syncOffset);
+    }
+
+    /**
+     * @return whether this drone is a version of {@code other}, created by {@link #withDynamics(DynamicsSeries, int)}.
+     */
+    boolean isVersionOf(DroneBase other) {
+        return dynamics == other.dynamics && details == other.details && type == other.type;
+    }
+
+    /**
+     * Runs the reader on the dynamics and the rollups built from exactly these samples. Used by
+     * {@link DynamicsScan} to skip samples by their buckets.
+     */
+    <T> T readWithRollups(BiFunction<DynamicsView, DynamicsRollups, T> reader) {
+        return reader.apply(view, getRollups());
+    }
+
+    public DroneDetails getDetails() {
+        return details;
+    }
+
+    public DroneType getType() {
+        return type;
+    }
+
+    /**
+     * @return a zero-copy, read-only view of the samples of this version.
+     */
+    public DynamicsView getDynamics() {
+        return view;
+    }
+
+    /**
+     * @return the per-second, per-minute and per-hour rollups of the dynamics. Computed on first use, so drones whose
+     * rollups are never read do not pay for them; kept up to date incrementally from then on.
+     */
+    public DynamicsRollups getRollups() {
+        DynamicsRollups current = rollups;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (rollups == null) {
+                rollups = DynamicsRollups.of(view);
+            }
+            return rollups;
         }
     }
 
+    /**
+     * @return the status transitions of the dynamics, answering status questions without reading the samples.
+     */
+    public StatusTransitions getTransitions() {
+        return transitions;
+    }
+
+    public int getSyncOffset() {
+        return syncOffset;
+    }
+
+    /**
+     * Set before the drone is published; a synced version gets its offset from
+     * {@link #withDynamics(DynamicsSeries, int)}.
+     */
+    public void setSyncOffset(int syncOffset) {
+        this.syncOffset = syncOffset;
+    }
+
+    /**
+     * @return index of the latest sample in {@link #getDynamics()}, -1 if there is no data.
+     * Constant time, independent of the history length.
+     */
+    public int getLatestIndex() {
+        return view.latestIndex();
+    }
+
+    /**
+     * @return the {@link main.java.util.Constants#DRONE_URL} of the samples, null if unknown.
+     */
+    public String getUrl() {
+        return details != null ? details.url() : null;
+    }
+
     /**
      * @return a Map containing drone details. Returns Empty Map if there are no details.
      */
     public Map<String, Object> getDroneDetails() {
-        return droneDetails != null ? Collections.unmodifiableMap(droneDetails) : Collections.emptyMap();
+        return details != null ? details.asMap() : Collections.emptyMap();
     }
 
     /**
-     * @return a Map containing drone type information. Returns null if there is no type information.
+     * @return a Map containing drone type information. Returns Empty Map if there is no type information.
      */
     public Map<String, Object> getDroneTypeInfo() {
-        return droneTypeInfo != null ? Collections.unmodifiableMap(droneTypeInfo) : Collections.emptyMap();
+        return type != null ? type.asMap() : Collections.emptyMap();
     }
 
     /**
-     * @return List of Map objects containing drone dynamics.
+     * @return read-only List of Map views containing drone dynamics, backed by the series without copying.
      * Empty List if there is no dynamics.
      */
     public List<Map<String, Object>> getDroneDynamicsInfo() {
-        return droneDynamicsInfo != null ? droneDynamicsInfo.stream().map(HashMap::new).collect(Collectors.toList()) : Collections.emptyList();
+        return view.asMaps(getUrl());
     }
 
     /**
      * @return Map containing the latest drone data. Empty Map if there is no data.
      */
     public Map<String, Object> getDroneLatestData() {
-        return droneLatestData != null ? Collections.unmodifiableMap(droneLatestData) : Collections.emptyMap();
+        DynamicsView current = view;
+        return current.isEmpty() ? Collections.emptyMap() : current.sampleAt(current.latestIndex(), getUrl());
+    }
+
+    /**
+     * @return Map containing the drone data of the latest sample at or before {@code epochMillis}, found by binary
+     * search. Empty Map if there is no such sample.
+     */
+    public Map<String, Object> getDroneDataAsOf(long epochMillis) {
+        DynamicsView current = view;
+        int index = current.indexAsOf(epochMillis);
+        return index < 0 ? Collections.emptyMap() : current.sampleAt(index, getUrl());
     }
-}
\ No newline at end of file
+}
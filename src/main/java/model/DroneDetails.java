@@ -0,0 +1,61 @@
+package main.java.model;
+
+import main.java.util.Constants;
+
+import java.util.Map;
+
+/**
+ * Immutable drone details as returned by {@code api/drones/}.
+ * The carriage type is stored as a {@link CategoryDictionary} code.
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #fromMap(Map) fromMap}: Builds the record from a parsed API response map.</li>
+ *     <li>{@link #asMap() asMap}: Returns a read-only map view keyed by the {@link Constants#DRONE_KEYS}.</li>
+ *     <li>{@link #url() url}: Returns the API URL of the drone, the {@link Constants#DRONE_URL} of its dynamics.</li>
+ * </ul>
+ * </p>
+ */
+
+public record DroneDetails(int id, String droneType, String created, String serialNumber,
+                           int carriageWeight, int carriageTypeCode) {
+
+    public static DroneDetails fromMap(Map<String, Object> data) {
+        if (data == null || data.isEmpty()) {
+            return null;
+        }
+        return new DroneDetails(
+                Fields.asInt(data, Constants.DRONE_ID),
+                Fields.asString(data, Constants.DRONE_TYPE),
+                Fields.asString(data, Constants.CREATED),
+                Fields.asString(data, Constants.SERIAL_NUMBER),
+                Fields.asInt(data, Constants.CARRIAGE_WEIGHT),
+                CategoryDictionary.CARRIAGE_TYPE.encode(Fields.asString(data, Constants.CARRIAGE_TYPE))
+        );
+    }
+
+    /**
+     * @return e.g. {@code http://host/api/drones/71/}, on the host of the {@link #droneType()} URL; null if the type
+     * URL is missing.
+     */
+    public String url() {
+        int api = droneType != null ? droneType.indexOf("/api/") : -1;
+        return api < 0 ? null : droneType.substring(0, api) + "/api/drones/" + id + "/";
+    }
+
+    public String carriageType() {
+        return CategoryDictionary.CARRIAGE_TYPE.decode(carriageTypeCode);
+    }
+
+    public Map<String, Object> asMap() {
+        return new RecordMap(Constants.DRONE_KEYS, slot -> switch (slot) {
+            case 0 -> id;
+            case 1 -> droneType;
+            case 2 -> created;
+            case 3 -> serialNumber;
+            case 4 -> carriageWeight;
+            case 5 -> carriageType();
+            default -> null;
+        });
+    }
+}
@@ -0,0 +1,187 @@
+package main.java.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code DroneSearchIndex} class answers substring queries over drone ids and serial numbers without
+ * scanning every drone, and maps ids back to drones.
+ * <p>
+ * Every 1-, 2- and 3-character gram of the id and serial number of a drone is indexed with a sorted posting
+ * list of drone ordinals. A query of up to three characters is a single posting list; a longer query intersects
+ * the posting lists of its trigrams and only verifies the few remaining candidates with
+ * {@link String#contains(CharSequence)}. The index is immutable once built.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #of(Collection) of}: Builds the index over drones with details.</li>
+ *     <li>{@link #search(String) search}: Returns the ids of the drones whose id or serial number contains a text.</li>
+ *     <li>{@link #matches(String, String) matches}: Tells whether a drone id is in the result of a query.</li>
+ *     <li>{@link #findById(String) findById}: Returns the drone with an id.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class DroneSearchIndex {
+    private static final int MAX_GRAM = 3;
+
+    private final List<DroneBase> drones;
+    private final String[] ids;
+    private final Map<String, Integer> ordinalById;
+    private final Map<Long, int[]> postings;
+
+    private DroneSearchIndex(List<DroneBase> drones, String[] ids, Map<String, Integer> ordinalById,
+                             Map<Long, int[]> postings) {
+        this.drones = drones;
+        this.ids = ids;
+        this.ordinalById = ordinalById;
+        this.postings = postings;
+    }
+
+    public static DroneSearchIndex of(Collection<DroneBase> droneModels) {
+        List<DroneBase> drones = new ArrayList<>(droneModels.size());
+        for (DroneBase drone : droneModels) {
+            if (drone != null && drone.getDetails() != null) {
+                drones.add(drone);
+            }
+        }
+        String[] ids = new String[drones.size()];
+        Map<String, Integer> ordinalById = new HashMap<>(drones.size() * 2);
+        Map<Long, PostingBuilder> builders = new HashMap<>();
+        for (int ordinal = 0; ordinal < drones.size(); ordinal++) {
+            DroneDetails details = drones.get(ordinal).getDetails();
+            ids[ordinal] = String.valueOf(details.id());
+            ordinalById.put(ids[ordinal], ordinal);
+            addGrams(builders, ids[ordinal], ordinal);
+            if (details.serialNumber() != null) {
+                addGrams(builders, details.serialNumber(), ordinal);
+            }
+        }
+        Map<Long, int[]> postings = new HashMap<>(builders.size() * 2);
+        builders.forEach((gram, builder) -> postings.put(gram, builder.toArray()));
+        return new DroneSearchIndex(drones, ids, ordinalById, postings);
+    }
+
+    /**
+     * @return ids of the drones whose id or serial number contains {@code text}, in the order of the drone models.
+     * All ids for an empty text.
+     */
+    public List<String> search(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.unmodifiableList(Arrays.asList(ids));
+        }
+        int[] candidates = candidates(text);
+        List<String> result = new ArrayList<>(candidates.length);
+        for (int ordinal : candidates) {
+            if (text.length() <= MAX_GRAM || contains(ordinal, text)) {
+                result.add(ids[ordinal]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if the drone with the id is part of {@link #search(String) search(text)}.
+     */
+    public boolean matches(String droneId, String text) {
+        Integer ordinal = droneId != null ? ordinalById.get(droneId) : null;
+        return ordinal != null && (text == null || contains(ordinal, text));
+    }
+
+    /**
+     * @return the drone with the id, null if there is none.
+     */
+    public DroneBase findById(String droneId) {
+        Integer ordinal = droneId != null ? ordinalById.get(droneId) : null;
+        return ordinal != null ? drones.get(ordinal) : null;
+    }
+
+    private int[] candidates(String text) {
+        if (text.length() <= MAX_GRAM) {
+            return postings.getOrDefault(gram(text, 0, text.length()), new int[0]);
+        }
+        int[] result = null;
+        for (int start = 0; start + MAX_GRAM <= text.length(); start++) {
+            int[] posting = postings.get(gram(text, start, MAX_GRAM));
+            if (posting == null) {
+                return new int[0];
+            }
+            result = result == null ? posting : intersect(result, posting);
+            if (result.length == 0) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private boolean contains(int ordinal, String text) {
+        String serialNumber = drones.get(ordinal).getDetails().serialNumber();
+        return ids[ordinal].contains(text) || (serialNumber != null && serialNumber.contains(text));
+    }
+
+    private static void addGrams(Map<Long, PostingBuilder> builders, String text, int ordinal) {
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (int start = 0; start + length <= text.length(); start++) {
+                builders.computeIfAbsent(gram(text, start, length), gram -> new PostingBuilder()).add(ordinal);
+            }
+        }
+    }
+
+    /**
+     * Packs up to three UTF-16 chars and the gram length into one key.
+     */
+    private static long gram(String text, int start, int length) {
+        long key = length;
+        for (int i = start; i < start + length; i++) {
+            key = key << 16 | text.charAt(i);
+        }
+        return key;
+    }
+
+    private static int[] intersect(int[] left, int[] right) {
+        int[] result = new int[Math.min(left.length, right.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Ordinals are added in ascending order, so the posting list stays sorted and duplicates are adjacent.
+     */
+    private static final class PostingBuilder {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ordinals, size);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package main.java.model;
+
+import main.java.util.Constants;
+
+import java.util.Map;
+
+/**
+ * Immutable drone type information as returned by {@code api/dronetypes/id/}.
+ * Manufacturer and type name are stored as {@link CategoryDictionary} codes.
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #fromMap(Map) fromMap}: Builds the record from a parsed API response map.</li>
+ *     <li>{@link #asMap() asMap}: Returns a read-only map view keyed by the {@link Constants#DRONE_TYPE_KEYS}.</li>
+ * </ul>
+ * </p>
+ */
+
+public record DroneType(int id, int manufacturerCode, int typeNameCode, int weight, int maxSpeed,
+                        int batteryCapacity, int controlRange, int maxCarriage) {
+
+    public static DroneType fromMap(Map<String, Object> data) {
+        if (data == null || data.isEmpty()) {
+            return null;
+        }
+        return new DroneType(
+                Fields.asInt(data, Constants.TYPE_ID),
+                CategoryDictionary.MANUFACTURER.encode(Fields.asString(data, Constants.MANUFACTURER)),
+                CategoryDictionary.TYPE_NAME.encode(Fields.asString(data, Constants.TYPE_NAME)),
+                Fields.asInt(data, Constants.WEIGHT),
+                Fields.asInt(data, Constants.MAX_SPEED),
+                Fields.asInt(data, Constants.BATTERY_CAPACITY),
+                Fields.asInt(data, Constants.CONTROL_RANGE),
+                Fields.asInt(data, Constants.MAX_CARRIAGE)
+        );
+    }
+
+    public String manufacturer() {
+        return CategoryDictionary.MANUFACTURER.decode(manufacturerCode);
+    }
+
+    public String typeName() {
+        return CategoryDictionary.TYPE_NAME.decode(typeNameCode);
+    }
+
+    public Map<String, Object> asMap() {
+        return new RecordMap(Constants.DRONE_TYPE_KEYS, slot -> switch (slot) {
+            case 0 -> id;
+            case 1 -> manufacturer();
+            case 2 -> typeName();
+            case 3 -> weight;
+            case 4 -> maxSpeed;
+            case 5 -> batteryCapacity;
+            case 6 -> controlRange;
+            case 7 -> maxCarriage;
+            default -> null;
+        });
+    }
+}
@@ -0,0 +1,345 @@
+package main.java.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The {@code DynamicsQuery} class is an immutable set of range predicates over the dynamics of one or many drones.
+ * <p>
+ * Predicates: a time window, speed and battery ranges, a set of states and a latitude/longitude bounding box.
+ * All of them must hold for a sample to match. A query is evaluated by the {@link DynamicsScan}: the time window
+ * is located by binary search, whole hours and minutes are skipped when the min/max of their {@link RollupBucket}
+ * rule a match out, and the remaining rows are filtered by tight loops over the primitive columns.
+ * Matches come back as {@link DynamicsSelection}s of row indexes into the drone's view, nothing is copied.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #builder() builder}: Returns a builder for a query that matches every sample.</li>
+ *     <li>{@link #parse(String, long, long) parse}: Parses a filter such as {@code speed>50 battery<20 status=IS}.</li>
+ *     <li>{@link #select(DroneBase) select}: Returns the matching samples of one drone.</li>
+ *     <li>{@link #run(Collection) run}: Returns the matching samples of many drones with scan statistics.</li>
+ *     <li>{@link #matches(DynamicsView, int) matches}: Evaluates the predicates for one sample.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class DynamicsQuery {
+    private static final int STATUS_CODES = 256;
+
+    final long fromMillis;
+    final long toMillis;
+    final int speedMin;
+    final int speedMax;
+    final int batteryMin;
+    final int batteryMax;
+    final double latitudeMin;
+    final double latitudeMax;
+    final double longitudeMin;
+    final double longitudeMax;
+    final boolean[] statuses;
+
+    private DynamicsQuery(Builder builder) {
+        this.fromMillis = builder.fromMillis;
+        this.toMillis = builder.toMillis;
+        this.speedMin = builder.speedMin;
+        this.speedMax = builder.speedMax;
+        this.batteryMin = builder.batteryMin;
+        this.batteryMax = builder.batteryMax;
+        this.latitudeMin = builder.latitudeMin;
+        this.latitudeMax = builder.latitudeMax;
+        this.longitudeMin = builder.longitudeMin;
+        this.longitudeMax = builder.longitudeMax;
+        this.statuses = builder.statuses != null ? builder.statuses.clone() : null;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Parses whitespace separated predicates: {@code speed>50}, {@code speed<=10}, {@code battery<20},
+     * {@code status=IS} or {@code status=ON,IS}, {@code lat=50.0..50.2} and {@code lon=8.5..8.8}.
+     *
+     * @return the query over {@code [fromMillis, toMillis)}.
+     * @throws IllegalArgumentException if a predicate cannot be parsed.
+     */
+    public static DynamicsQuery parse(String filter, long fromMillis, long toMillis) {
+        Builder builder = builder().between(fromMillis, toMillis);
+        if (filter == null || filter.isBlank()) {
+            return builder.build();
+        }
+        for (String predicate : filter.trim().split("\\s+")) {
+            try {
+                parsePredicate(builder, predicate.toLowerCase(Locale.ROOT));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid number in '" + predicate + "'");
+            }
+        }
+        return builder.build();
+    }
+
+    private static void parsePredicate(Builder builder, String predicate) {
+        int operator = 0;
+        while (operator < predicate.length() && Character.isLetter(predicate.charAt(operator))) {
+            operator++;
+        }
+        String field = predicate.substring(0, operator);
+        String rest = predicate.substring(operator);
+        switch (field) {
+            case "speed", "battery" -> {
+                int[] range = parseIntRange(rest, predicate);
+                if (field.equals("speed")) {
+                    builder.speedBetween(range[0], range[1]);
+                } else {
+                    builder.batteryBetween(range[0], range[1]);
+                }
+            }
+            case "status" -> {
+                requireEquals(rest, predicate);
+                builder.status(rest.substring(1).toUpperCase(Locale.ROOT).split(","));
+            }
+            case "lat", "latitude", "lon", "longitude" -> {
+                requireEquals(rest, predicate);
+                String[] bounds = rest.substring(1).split("\\.\\.");
+                if (bounds.length != 2) {
+                    throw new IllegalArgumentException("Expected a range like " + field + "=50.0..50.2, got '" + predicate + "'");
+                }
+                double min = Double.parseDouble(bounds[0]);
+                double max = Double.parseDouble(bounds[1]);
+                if (field.startsWith("lat")) {
+                    builder.latitudeBetween(min, max);
+                } else {
+                    builder.longitudeBetween(min, max);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown field in '" + predicate + "'");
+        }
+    }
+
+    private static int[] parseIntRange(String rest, String predicate) {
+        if (rest.startsWith(">=")) {
+            return new int[]{Integer.parseInt(rest.substring(2)), Integer.MAX_VALUE};
+        }
+        if (rest.startsWith("<=")) {
+            return new int[]{Integer.MIN_VALUE, Integer.parseInt(rest.substring(2))};
+        }
+        if (rest.startsWith(">")) {
+            return new int[]{Math.addExact(Integer.parseInt(rest.substring(1)), 1), Integer.MAX_VALUE};
+        }
+        if (rest.startsWith("<")) {
+            return new int[]{Integer.MIN_VALUE, Math.subtractExact(Integer.parseInt(rest.substring(1)), 1)};
+        }
+        if (rest.startsWith("=")) {
+            int value = Integer.parseInt(rest.substring(1));
+            return new int[]{value, value};
+        }
+        throw new IllegalArgumentException("Expected >, >=, <, <= or = in '" + predicate + "'");
+    }
+
+    private static void requireEquals(String rest, String predicate) {
+        if (!rest.startsWith("=") || rest.length() == 1) {
+            throw new IllegalArgumentException("Expected = and a value in '" + predicate + "'");
+        }
+    }
+
+    /**
+     * @return the matching samples of the drone, in timestamp order.
+     */
+    public DynamicsSelection select(DroneBase drone) {
+        return DynamicsScan.scan(this, drone, new DynamicsScan.Statistics());
+    }
+
+    /**
+     * @return the drones with at least one matching sample, in the order given, and how many rows were
+     * scanned or skipped by their rollups.
+     */
+    public Result run(Collection<DroneBase> drones) {
+        DynamicsScan.Statistics statistics = new DynamicsScan.Statistics();
+        List<DynamicsSelection> selections = new ArrayList<>();
+        for (DroneBase drone : drones) {
+            DynamicsSelection selection = DynamicsScan.scan(this, drone, statistics);
+            if (!selection.isEmpty()) {
+                selections.add(selection);
+            }
+        }
+        return new Result(selections, statistics.rowsScanned, statistics.rowsSkipped);
+    }
+
+    /**
+     * @return whether the sample at {@code index} matches all predicates, time window included.
+     */
+    public boolean matches(DynamicsView view, int index) {
+        long timestamp = view.timestampAt(index);
+        int speed = view.speedAt(index);
+        int battery = view.batteryAt(index);
+        double latitude = view.latitudeAt(index);
+        double longitude = view.longitudeAt(index);
+        return timestamp >= fromMillis && timestamp < toMillis
+                && speed >= speedMin && speed <= speedMax
+                && battery >= batteryMin && battery <= batteryMax
+                && (statuses == null || statuses[view.statusAt(index) & 0xFF])
+                && latitude >= latitudeMin && latitude <= latitudeMax
+                && longitude >= longitudeMin && longitude <= longitudeMax;
+    }
+
+    /**
+     * @return false if no sample aggregated in the bucket can match, true if some may.
+     */
+    boolean mayMatch(RollupBucket bucket) {
+        if (bucket.speedMax() < speedMin || bucket.speedMin() > speedMax
+                || bucket.batteryMax() < batteryMin || bucket.batteryMin() > batteryMax
+                || bucket.latitudeMax() < latitudeMin || bucket.latitudeMin() > latitudeMax
+                || bucket.longitudeMax() < longitudeMin || bucket.longitudeMin() > longitudeMax) {
+            return false;
+        }
+        if (statuses == null || bucket.countOther() > 0) {
+            return true;
+        }
+        return (bucket.countOn() > 0 && statuses[CategoryDictionary.STATUS_ON])
+                || (bucket.countOf() > 0 && statuses[CategoryDictionary.STATUS_OF])
+                || (bucket.countIs() > 0 && statuses[CategoryDictionary.STATUS_IS]);
+    }
+
+    boolean filtersSpeed() {
+        return speedMin != Integer.MIN_VALUE || speedMax != Integer.MAX_VALUE;
+    }
+
+    boolean filtersBattery() {
+        return batteryMin != Integer.MIN_VALUE || batteryMax != Integer.MAX_VALUE;
+    }
+
+    boolean filtersLatitude() {
+        return latitudeMin != Double.NEGATIVE_INFINITY || latitudeMax != Double.POSITIVE_INFINITY;
+    }
+
+    boolean filtersLongitude() {
+        return longitudeMin != Double.NEGATIVE_INFINITY || longitudeMax != Double.POSITIVE_INFINITY;
+    }
+
+    boolean filtersRows() {
+        return filtersSpeed() || filtersBattery() || statuses != null || filtersLatitude() || filtersLongitude();
+    }
+
+    /**
+     * @param selections  drones with at least one match.
+     * @param rowsScanned rows of the time window evaluated by the column loops.
+     * @param rowsSkipped rows of the time window ruled out by the rollups without being read.
+     */
+    public record Result(List<DynamicsSelection> selections, long rowsScanned, long rowsSkipped) {
+
+        public Result {
+            selections = List.copyOf(selections);
+        }
+
+        public long matchCount() {
+            long matches = 0;
+            for (DynamicsSelection selection : selections) {
+                matches += selection.size();
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * Collects the predicates of a query; every predicate that is not set matches all samples.
+     */
+    public static final class Builder {
+        private long fromMillis = Long.MIN_VALUE;
+        private long toMillis = Long.MAX_VALUE;
+        private int speedMin = Integer.MIN_VALUE;
+        private int speedMax = Integer.MAX_VALUE;
+        private int batteryMin = Integer.MIN_VALUE;
+        private int batteryMax = Integer.MAX_VALUE;
+        private double latitudeMin = Double.NEGATIVE_INFINITY;
+        private double latitudeMax = Double.POSITIVE_INFINITY;
+        private double longitudeMin = Double.NEGATIVE_INFINITY;
+        private double longitudeMax = Double.POSITIVE_INFINITY;
+        private boolean[] statuses;
+
+        private Builder() {
+        }
+
+        /**
+         * Timestamps in {@code [fromMillis, toMillis)}.
+         */
+        public Builder between(long fromMillis, long toMillis) {
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            return this;
+        }
+
+        /**
+         * Speed in {@code [min, max]}, intersected with an earlier speed range.
+         */
+        public Builder speedBetween(int min, int max) {
+            speedMin = Math.max(speedMin, min);
+            speedMax = Math.min(speedMax, max);
+            return this;
+        }
+
+        public Builder speedAbove(int speed) {
+            return speedBetween(speed == Integer.MAX_VALUE ? speed : speed + 1, Integer.MAX_VALUE);
+        }
+
+        public Builder speedBelow(int speed) {
+            return speedBetween(Integer.MIN_VALUE, speed == Integer.MIN_VALUE ? speed : speed - 1);
+        }
+
+        /**
+         * Battery status in {@code [min, max]}, intersected with an earlier battery range.
+         */
+        public Builder batteryBetween(int min, int max) {
+            batteryMin = Math.max(batteryMin, min);
+            batteryMax = Math.min(batteryMax, max);
+            return this;
+        }
+
+        public Builder batteryAbove(int battery) {
+            return batteryBetween(battery == Integer.MAX_VALUE ? battery : battery + 1, Integer.MAX_VALUE);
+        }
+
+        public Builder batteryBelow(int battery) {
+            return batteryBetween(Integer.MIN_VALUE, battery == Integer.MIN_VALUE ? battery : battery - 1);
+        }
+
+        /**
+         * Status is one of the given states, e.g. {@code "IS"}. States that were never seen match nothing.
+         */
+        public Builder status(String... states) {
+            statuses = new boolean[STATUS_CODES];
+            for (String state : states) {
+                int code = CategoryDictionary.STATUS.lookup(state.trim());
+                if (code >= 0 && code <= Byte.MAX_VALUE) {
+                    statuses[code] = true;
+                }
+            }
+            return this;
+        }
+
+        public Builder latitudeBetween(double min, double max) {
+            latitudeMin = Math.max(latitudeMin, min);
+            latitudeMax = Math.min(latitudeMax, max);
+            return this;
+        }
+
+        public Builder longitudeBetween(double min, double max) {
+            longitudeMin = Math.max(longitudeMin, min);
+            longitudeMax = Math.min(longitudeMax, max);
+            return this;
+        }
+
+        /**
+         * Latitude and longitude within the bounding box, bounds included.
+         */
+        public Builder within(double latitudeMin, double latitudeMax, double longitudeMin, double longitudeMax) {
+            return latitudeBetween(latitudeMin, latitudeMax).longitudeBetween(longitudeMin, longitudeMax);
+        }
+
+        public DynamicsQuery build() {
+            return new DynamicsQuery(this);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package main.java.model;
+
+import main.java.util.Timestamps;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * The {@code DynamicsRollups} class keeps per-second, per-minute and per-hour {@link RollupBucket}s of the
+ * dynamics of one drone.
+ * <p>
+ * The rollups are maintained at ingest: newly appended samples only update the last bucket of each level,
+ * so reading a long time range costs one binary search plus one row per bucket instead of one per sample.
+ * Buckets are aligned to the epoch in UTC. Rollups are immutable: {@link #update(DynamicsView, DynamicsView) update}
+ * returns new rollups that share the closed buckets with the previous ones and only add the closed buckets behind
+ * them, while the open bucket of each level is replaced. Lists handed out by {@link #buckets(Resolution, long, long)
+ * buckets} therefore never change, whatever is appended later.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #of(DynamicsView) of}: Computes all levels from a snapshot.</li>
+ *     <li>{@link #update(DynamicsView, DynamicsView) update}: Returns the rollups extended by the samples appended
+ *         between two snapshots.</li>
+ *     <li>{@link #query(long, long, long) query}: Returns the buckets of the coarsest level satisfying a resolution.</li>
+ *     <li>{@link #buckets(Resolution, long, long) buckets}: Returns the buckets of one level in a time range.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class DynamicsRollups {
+    private static final Resolution[] LEVELS = {Resolution.SECOND, Resolution.MINUTE, Resolution.HOUR};
+    private static final DynamicsRollups EMPTY = new DynamicsRollups(emptyLevels());
+
+    private final Map<Resolution, Level> levels;
+
+    private DynamicsRollups(Map<Resolution, Level> levels) {
+        this.levels = levels;
+    }
+
+    public static DynamicsRollups of(DynamicsView samples) {
+        return EMPTY.add(samples, 0);
+    }
+
+    /**
+     * @return the rollups of {@code after}, built from these rollups of {@code before} by adding the new samples.
+     * Computed from scratch if the new samples were not appended behind the existing ones.
+     */
+    public DynamicsRollups update(DynamicsView before, DynamicsView after) {
+        return isAppend(before, after) ? add(after, before.size()) : of(after);
+    }
+
+    /**
+     * @return whether {@code after} holds the samples of {@code before} followed by newer ones only.
+     */
+    static boolean isAppend(DynamicsView before, DynamicsView after) {
+        int known = before.size();
+        return after.size() >= known && (known == 0
+                || (after.timestampAt(known - 1) == before.timestampAt(known - 1)
+                && (after.size() == known || after.timestampAt(known) > before.timestampAt(known - 1))));
+    }
+
+    /**
+     * @param resolutionMillis requested interval between rows.
+     * @return the buckets in {@code [fromMillis, toMillis)} of the coarsest level not wider than the resolution,
+     * or null if the resolution is finer than the finest level and raw samples should be used.
+     */
+    public List<RollupBucket> query(long fromMillis, long toMillis, long resolutionMillis) {
+        Resolution resolution = Resolution.coarsestFor(resolutionMillis);
+        return resolution == Resolution.RAW ? null : buckets(resolution, fromMillis, toMillis);
+    }
+
+    /**
+     * @return read-only list of the buckets of the level starting in {@code [fromMillis, toMillis)}.
+     */
+    public List<RollupBucket> buckets(Resolution resolution, long fromMillis, long toMillis) {
+        Level level = levels.get(resolution);
+        return level != null ? level.range(fromMillis, toMillis) : Collections.emptyList();
+    }
+
+    private DynamicsRollups add(DynamicsView samples, int from) {
+        if (from >= samples.size()) {
+            return this;
+        }
+        Map<Resolution, Level> next = new EnumMap<>(Resolution.class);
+        for (Map.Entry<Resolution, Level> entry : levels.entrySet()) {
+            next.put(entry.getKey(), entry.getValue().add(samples, from, samples.size()));
+        }
+        return new DynamicsRollups(next);
+    }
+
+    private static Map<Resolution, Level> emptyLevels() {
+        Map<Resolution, Level> levels = new EnumMap<>(Resolution.class);
+        for (Resolution resolution : LEVELS) {
+            levels.put(resolution, new Level(resolution.getBucketMillis(), new Buckets(0), 0, null));
+        }
+        return levels;
+    }
+
+    /**
+     * The closed buckets {@code [0, count)} of a level and its open bucket, null before the first sample.
+     */
+    private static final class Level {
+        private final long width;
+        private final Buckets closed;
+        private final int count;
+        private final RollupBucket open;
+
+        Level(long width, Buckets closed, int count, RollupBucket open) {
+            this.width = width;
+            this.closed = closed;
+            this.count = count;
+            this.open = open;
+        }
+
+        Level add(DynamicsView samples, int from, int to) {
+            Buckets target = closed;
+            int size = count;
+            RollupBucket tail = open;
+            for (int i = from; i < to; i++) {
+                long timestamp = samples.timestampAt(i);
+                if (timestamp == Timestamps.NONE) {
+                    continue;
+                }
+                long start = Math.floorDiv(timestamp, width) * width;
+                if (tail != null && tail.start() == start) {
+                    tail = tail.with(samples, i);
+                } else {
+                    if (tail != null) {
+                        target = target.with(size++, tail);
+                    }
+                    tail = RollupBucket.of(start, samples, i);
+                }
+            }
+            return new Level(width, target, size, tail);
+        }
+
+        List<RollupBucket> range(long fromMillis, long toMillis) {
+            long firstStart = fromMillis < Long.MIN_VALUE + width ? Long.MIN_VALUE : Math.floorDiv(fromMillis, width) * width;
+            int from = lowerBound(firstStart);
+            int to = Math.max(from, lowerBound(toMillis));
+            boolean withOpen = open != null && to == count && open.start() >= firstStart && open.start() < toMillis;
+            return new BucketList(closed.buckets, from, to, withOpen ? open : null);
+        }
+
+        private int lowerBound(long start) {
+            RollupBucket[] buckets = closed.buckets;
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (buckets[mid].start() < start) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Closed buckets shared by the levels of successive rollups. Slots below {@code committed} are never written
+     * again; a level that is not the latest one copies the array before adding to it.
+     */
+    private static final class Buckets {
+        private final RollupBucket[] buckets;
+        private int committed;
+
+        Buckets(int capacity) {
+            buckets = new RollupBucket[capacity];
+        }
+
+        Buckets with(int size, RollupBucket bucket) {
+            Buckets target = this;
+            synchronized (this) {
+                if (committed != size || size == buckets.length) {
+                    target = new Buckets(size + (size >> 1) + 16);
+                    System.arraycopy(buckets, 0, target.buckets, 0, size);
+                }
+                target.buckets[size] = bucket;
+                target.committed = size + 1;
+            }
+            return target;
+        }
+    }
+
+    /**
+     * Read-only list of closed buckets {@code [from, to)} followed by the open bucket, if any.
+     */
+    private static final class BucketList extends AbstractList<RollupBucket> implements RandomAccess {
+        private final RollupBucket[] buckets;
+        private final int from;
+        private final int to;
+        private final RollupBucket open;
+
+        BucketList(RollupBucket[] buckets, int from, int to, RollupBucket open) {
+            this.buckets = buckets;
+            this.from = from;
+            this.to = to;
+            this.open = open;
+        }
+
+        @Override
+        public RollupBucket get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return from + index < to ? buckets[from + index] : open;
+        }
+
+        @Override
+        public int size() {
+            return to - from + (open != null ? 1 : 0);
+        }
+    }
+}
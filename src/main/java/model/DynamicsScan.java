@@ -0,0 +1,272 @@
+package main.java.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Evaluates a {@link DynamicsQuery} over the dynamics of one drone.
+ * <p>
+ * The time window is located by binary search. Within it, the hour buckets of the {@link DynamicsRollups} are
+ * checked first: an hour whose min/max cannot match is skipped without reading its samples, otherwise its minute
+ * buckets are checked the same way. Samples that are not covered by a bucket are always read. The remaining rows
+ * are filtered in chunks of {@value #CHUNK}: the first predicate selects the matching positions of a chunk with a
+ * branch-free loop over one primitive column, each further predicate refines that selection. A
+ * {@link DynamicsSeries} is read from its column arrays directly, other views are copied into scratch columns
+ * one chunk at a time.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #scan(DynamicsQuery, DroneBase, Statistics) scan}: Returns the matching samples of a drone.</li>
+ * </ul>
+ * </p>
+ */
+
+final class DynamicsScan {
+    static final int CHUNK = 1024;
+
+    private final DynamicsQuery query;
+    private final DynamicsView view;
+    private final DynamicsRollups rollups;
+    private final DynamicsSeries series;
+    private final int[] selection = new int[CHUNK];
+    private int[] speed;
+    private int[] battery;
+    private byte[] status;
+    private double[] latitude;
+    private double[] longitude;
+    private int[] rows = new int[16];
+    private int count;
+    private int pendingFrom;
+    private int pendingTo;
+    private long rowsScanned;
+    private long rowsSkipped;
+
+    private DynamicsScan(DynamicsQuery query, DynamicsView view, DynamicsRollups rollups) {
+        this.query = query;
+        this.view = view;
+        this.rollups = rollups;
+        this.series = view instanceof DynamicsSeries columns ? columns : null;
+        if (series != null) {
+            speed = series.speedColumn();
+            battery = series.batteryColumn();
+            status = series.statusColumn();
+            latitude = series.latitudeColumn();
+            longitude = series.longitudeColumn();
+        }
+    }
+
+    /**
+     * Scans the drone while holding its lock, so the rollups describe exactly the samples of the view.
+     */
+    static DynamicsSelection scan(DynamicsQuery query, DroneBase drone, Statistics statistics) {
+        return drone.readWithRollups((view, rollups) -> {
+            DynamicsScan scan = new DynamicsScan(query, view, rollups);
+            int first = view.lowerBound(query.fromMillis);
+            int end = Math.max(first, view.lowerBound(query.toMillis));
+            if (query.filtersRows()) {
+                scan.zones(first, end);
+            } else {
+                scan.addRange(first, end);
+            }
+            statistics.rowsScanned += scan.rowsScanned;
+            statistics.rowsSkipped += scan.rowsSkipped;
+            return new DynamicsSelection(drone, view, Arrays.copyOf(scan.rows, scan.count));
+        });
+    }
+
+    private void zones(int first, int end) {
+        if (first >= end) {
+            return;
+        }
+        long from = view.timestampAt(first);
+        long last = view.timestampAt(end - 1);
+        long to = last == Long.MAX_VALUE ? last : last + 1;
+        int cursor = zones(rollups.buckets(Resolution.HOUR, from, to), Resolution.HOUR.getBucketMillis(),
+                true, first, end);
+        scan(cursor, end);
+        flush();
+    }
+
+    /**
+     * Skips or scans the rows of {@code [first, end)} covered by the buckets.
+     *
+     * @return the first row after the last covered one; rows before it that no bucket covers are scanned.
+     */
+    private int zones(List<RollupBucket> buckets, long width, boolean descend, int first, int end) {
+        int cursor = first;
+        for (RollupBucket bucket : buckets) {
+            long start = bucket.start();
+            int from = Math.max(cursor, view.lowerBound(start));
+            int to = Math.min(end, start > Long.MAX_VALUE - width ? end : view.lowerBound(start + width));
+            if (from >= to) {
+                continue;
+            }
+            scan(cursor, from);
+            if (!query.mayMatch(bucket)) {
+                rowsSkipped += to - from;
+            } else if (descend) {
+                int covered = zones(rollups.buckets(Resolution.MINUTE, start, start + width),
+                        Resolution.MINUTE.getBucketMillis(), false, from, to);
+                scan(covered, to);
+            } else {
+                scan(from, to);
+            }
+            cursor = to;
+        }
+        return cursor;
+    }
+
+    /**
+     * Queues {@code [from, to)} for evaluation, joined with the queued rows if adjacent so the loops stay long.
+     */
+    private void scan(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        if (from != pendingTo) {
+            flush();
+            pendingFrom = from;
+        }
+        pendingTo = to;
+    }
+
+    private void flush() {
+        for (int chunk = pendingFrom; chunk < pendingTo; chunk += CHUNK) {
+            evaluate(chunk, Math.min(CHUNK, pendingTo - chunk));
+        }
+        pendingFrom = pendingTo;
+    }
+
+    private void evaluate(int chunk, int length) {
+        int offset = chunk;
+        if (series == null) {
+            copyChunk(chunk, length);
+            offset = 0;
+        }
+        int selected = -1;
+        if (query.filtersSpeed()) {
+            selected = selectInt(speed, offset, length, selected, query.speedMin, query.speedMax);
+        }
+        if (query.filtersBattery() && selected != 0) {
+            selected = selectInt(battery, offset, length, selected, query.batteryMin, query.batteryMax);
+        }
+        if (query.statuses != null && selected != 0) {
+            selected = selectStatus(status, offset, length, selected, query.statuses);
+        }
+        if (query.filtersLatitude() && selected != 0) {
+            selected = selectDouble(latitude, offset, length, selected, query.latitudeMin, query.latitudeMax);
+        }
+        if (query.filtersLongitude() && selected != 0) {
+            selected = selectDouble(longitude, offset, length, selected, query.longitudeMin, query.longitudeMax);
+        }
+        rowsScanned += length;
+        ensureCapacity(selected);
+        for (int k = 0; k < selected; k++) {
+            rows[count++] = chunk + selection[k];
+        }
+    }
+
+    private void copyChunk(int chunk, int length) {
+        if (speed == null) {
+            speed = new int[CHUNK];
+            battery = new int[CHUNK];
+            status = new byte[CHUNK];
+            latitude = new double[CHUNK];
+            longitude = new double[CHUNK];
+        }
+        for (int i = 0; i < length; i++) {
+            int row = chunk + i;
+            speed[i] = view.speedAt(row);
+            battery[i] = view.batteryAt(row);
+            status[i] = view.statusAt(row);
+            latitude[i] = view.latitudeAt(row);
+            longitude[i] = view.longitudeAt(row);
+        }
+    }
+
+    /**
+     * Selects the positions of {@code column[offset, offset + length)} within {@code [min, max]}, or refines the
+     * first {@code selected} positions of the selection if one was made already ({@code selected >= 0}).
+     *
+     * @return the number of selected positions.
+     */
+    private int selectInt(int[] column, int offset, int length, int selected, int min, int max) {
+        int[] positions = selection;
+        int matches = 0;
+        if (selected < 0) {
+            for (int i = 0; i < length; i++) {
+                int value = column[offset + i];
+                positions[matches] = i;
+                matches += value >= min & value <= max ? 1 : 0;
+            }
+        } else {
+            for (int k = 0; k < selected; k++) {
+                int i = positions[k];
+                int value = column[offset + i];
+                positions[matches] = i;
+                matches += value >= min & value <= max ? 1 : 0;
+            }
+        }
+        return matches;
+    }
+
+    private int selectDouble(double[] column, int offset, int length, int selected, double min, double max) {
+        int[] positions = selection;
+        int matches = 0;
+        if (selected < 0) {
+            for (int i = 0; i < length; i++) {
+                double value = column[offset + i];
+                positions[matches] = i;
+                matches += value >= min & value <= max ? 1 : 0;
+            }
+        } else {
+            for (int k = 0; k < selected; k++) {
+                int i = positions[k];
+                double value = column[offset + i];
+                positions[matches] = i;
+                matches += value >= min & value <= max ? 1 : 0;
+            }
+        }
+        return matches;
+    }
+
+    private int selectStatus(byte[] column, int offset, int length, int selected, boolean[] accepted) {
+        int[] positions = selection;
+        int matches = 0;
+        if (selected < 0) {
+            for (int i = 0; i < length; i++) {
+                positions[matches] = i;
+                matches += accepted[column[offset + i] & 0xFF] ? 1 : 0;
+            }
+        } else {
+            for (int k = 0; k < selected; k++) {
+                int i = positions[k];
+                positions[matches] = i;
+                matches += accepted[column[offset + i] & 0xFF] ? 1 : 0;
+            }
+        }
+        return matches;
+    }
+
+    private void addRange(int from, int to) {
+        ensureCapacity(to - from);
+        for (int row = from; row < to; row++) {
+            rows[count++] = row;
+        }
+    }
+
+    private void ensureCapacity(int additional) {
+        if (count + additional > rows.length) {
+            rows = Arrays.copyOf(rows, Math.max(count + additional, rows.length + (rows.length >> 1)));
+        }
+    }
+
+    /**
+     * Rows of the time windows that were read or skipped, summed over the drones of a query.
+     */
+    static final class Statistics {
+        long rowsScanned;
+        long rowsSkipped;
+    }
+}
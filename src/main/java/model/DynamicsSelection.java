@@ -0,0 +1,120 @@
+package main.java.model;
+
+import java.util.Arrays;
+
+/**
+ * The samples of one drone matched by a {@link DynamicsQuery}, as ascending row indexes into the view that was
+ * scanned. The view is the snapshot of that moment, so the indexes stay valid while new samples arrive.
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #getDrone() getDrone}, {@link #getView() getView}: Return the drone and the scanned view.</li>
+ *     <li>{@link #size() size}, {@link #rowAt(int) rowAt}, {@link #rows() rows}: Return the selected row indexes.</li>
+ *     <li>{@link #asView() asView}: Returns a zero-copy view of only the selected samples.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class DynamicsSelection {
+    private final DroneBase drone;
+    private final DynamicsView view;
+    private final int[] rows;
+
+    DynamicsSelection(DroneBase drone, DynamicsView view, int[] rows) {
+        this.drone = drone;
+        this.view = view;
+        this.rows = rows;
+    }
+
+    public DroneBase getDrone() {
+        return drone;
+    }
+
+    public DynamicsView getView() {
+        return view;
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public boolean isEmpty() {
+        return rows.length == 0;
+    }
+
+    /**
+     * @return index into {@link #getView()} of the k-th selected sample.
+     */
+    public int rowAt(int k) {
+        return rows[k];
+    }
+
+    public int[] rows() {
+        return Arrays.copyOf(rows, rows.length);
+    }
+
+    /**
+     * @return the selected samples in timestamp order, read through from the scanned view.
+     */
+    public DynamicsView asView() {
+        return new SelectedView(view, rows);
+    }
+
+    private record SelectedView(DynamicsView source, int[] rows) implements DynamicsView {
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+
+        @Override
+        public long timestampAt(int index) {
+            return source.timestampAt(rows[index]);
+        }
+
+        @Override
+        public long lastSeenAt(int index) {
+            return source.lastSeenAt(rows[index]);
+        }
+
+        @Override
+        public int speedAt(int index) {
+            return source.speedAt(rows[index]);
+        }
+
+        @Override
+        public double latitudeAt(int index) {
+            return source.latitudeAt(rows[index]);
+        }
+
+        @Override
+        public double longitudeAt(int index) {
+            return source.longitudeAt(rows[index]);
+        }
+
+        @Override
+        public int batteryAt(int index) {
+            return source.batteryAt(rows[index]);
+        }
+
+        @Override
+        public float rollAt(int index) {
+            return source.rollAt(rows[index]);
+        }
+
+        @Override
+        public float pitchAt(int index) {
+            return source.pitchAt(rows[index]);
+        }
+
+        @Override
+        public float yawAt(int index) {
+            return source.yawAt(rows[index]);
+        }
+
+        @Override
+        public byte statusAt(int index) {
+            return source.statusAt(rows[index]);
+        }
+    }
+}
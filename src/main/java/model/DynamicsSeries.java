@@ -0,0 +1,440 @@
+package main.java.model;
+
+import main.java.util.Constants;
+import main.java.util.Timestamps;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@code DynamicsSeries} class stores the dynamics samples of one drone as a struct of primitive arrays.
+ * <p>
+ * Each sample costs 53 bytes spread over one slot per column instead of a {@code HashMap} with eleven boxed
+ * entries. Timestamps are kept as epoch milliseconds and the status as a one byte {@link CategoryDictionary} code.
+ * A series is immutable once built; use {@link Builder} to collect samples at ingest. Readers get zero-copy
+ * access through the {@link DynamicsView} methods, so no defensive copies are needed.
+ * </p>
+ * <p>
+ * Samples are always ordered by timestamp. A built page is sorted once, and {@link #merge(DynamicsSeries)}
+ * appends newer pages into the spare capacity of the columns (or merges older ones in linear time),
+ * so the latest sample is always the last one and time windows are found by binary search.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #fromMaps(List) fromMaps}: Builds a series from parsed API response maps.</li>
+ *     <li>{@link #merge(DynamicsSeries) merge}: Returns a new series containing the samples of both series.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class DynamicsSeries implements DynamicsView {
+    public static final byte STATUS_UNKNOWN = CategoryDictionary.NO_CODE;
+    private static final DynamicsSeries EMPTY = new DynamicsSeries(Columns.allocate(0), 0);
+
+    private final Columns columns;
+    private final int size;
+
+    private DynamicsSeries(Columns columns, int size) {
+        this.columns = columns;
+        this.size = size;
+    }
+
+    public static DynamicsSeries empty() {
+        return EMPTY;
+    }
+
+    public static DynamicsSeries fromMaps(List<Map<String, Object>> samples) {
+        if (samples == null || samples.isEmpty()) {
+            return EMPTY;
+        }
+        Builder builder = new Builder(samples.size());
+        for (Map<String, Object> sample : samples) {
+            builder.append(sample);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return the {@link CategoryDictionary#STATUS} code of the status, {@link #STATUS_UNKNOWN} if it does not fit a byte.
+     */
+    public static byte encodeStatus(CharSequence status) {
+        int code = CategoryDictionary.STATUS.encode(status);
+        return code <= Byte.MAX_VALUE ? (byte) code : STATUS_UNKNOWN;
+    }
+
+    public static String decodeStatus(byte code) {
+        return CategoryDictionary.STATUS.decode(code);
+    }
+
+    /**
+     * Merges a page of samples into this series. Samples whose timestamp is already present are skipped.
+     * <p>
+     * A page that starts after the latest sample is appended in place when this series is the newest one
+     * sharing its columns; otherwise both series are merged into new columns in {@code O(n + m)}.
+     * Neither input is modified.
+     * </p>
+     *
+     * @return the merged series, {@code this} if the page is empty.
+     */
+    public DynamicsSeries merge(DynamicsSeries page) {
+        if (page == null || page.size == 0) {
+            return this;
+        }
+        if (size == 0) {
+            return page;
+        }
+        if (page.timestampAt(0) > timestampAt(size - 1)) {
+            return append(page);
+        }
+        return mergeSorted(page);
+    }
+
+    private DynamicsSeries append(DynamicsSeries page) {
+        int mergedSize = size + page.size;
+        Columns target = columns;
+        if (mergedSize > target.capacity() || !target.committed.compareAndSet(size, mergedSize)) {
+            target = columns.copy(size, Columns.grownCapacity(mergedSize));
+            target.committed.set(mergedSize);
+        }
+        target.copyRange(page.columns, 0, size, page.size);
+        return new DynamicsSeries(target, mergedSize);
+    }
+
+    private DynamicsSeries mergeSorted(DynamicsSeries page) {
+        Columns target = Columns.allocate(Columns.grownCapacity(size + page.size));
+        int left = 0;
+        int right = 0;
+        int out = 0;
+        while (left < size || right < page.size) {
+            if (right >= page.size || (left < size && timestampAt(left) < page.timestampAt(right))) {
+                target.copyRange(columns, left++, out++, 1);
+            } else if (left < size && timestampAt(left) == page.timestampAt(right)) {
+                target.copyRange(columns, left++, out++, 1);
+                right++;
+            } else {
+                target.copyRange(page.columns, right++, out++, 1);
+            }
+        }
+        target.committed.set(out);
+        return new DynamicsSeries(target, out);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return index of the newest sample, -1 if the series is empty.
+     */
+    @Override
+    public int latestIndex() {
+        return size - 1;
+    }
+
+    @Override
+    public long timestampAt(int index) {
+        return columns.timestamps[checkIndex(index)];
+    }
+
+    @Override
+    public long lastSeenAt(int index) {
+        return columns.lastSeen[checkIndex(index)];
+    }
+
+    @Override
+    public int speedAt(int index) {
+        return columns.speed[checkIndex(index)];
+    }
+
+    @Override
+    public double latitudeAt(int index) {
+        return columns.latitude[checkIndex(index)];
+    }
+
+    @Override
+    public double longitudeAt(int index) {
+        return columns.longitude[checkIndex(index)];
+    }
+
+    @Override
+    public int batteryAt(int index) {
+        return columns.battery[checkIndex(index)];
+    }
+
+    @Override
+    public float rollAt(int index) {
+        return columns.roll[checkIndex(index)];
+    }
+
+    @Override
+    public float pitchAt(int index) {
+        return columns.pitch[checkIndex(index)];
+    }
+
+    @Override
+    public float yawAt(int index) {
+        return columns.yaw[checkIndex(index)];
+    }
+
+    @Override
+    public byte statusAt(int index) {
+        return columns.status[checkIndex(index)];
+    }
+
+    private int checkIndex(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return index;
+    }
+
+    /**
+     * Column arrays for the tight loops of {@link DynamicsScan}. Rows below {@link #size()} are never written
+     * again; callers must not modify the arrays.
+     */
+    int[] speedColumn() {
+        return columns.speed;
+    }
+
+    int[] batteryColumn() {
+        return columns.battery;
+    }
+
+    double[] latitudeColumn() {
+        return columns.latitude;
+    }
+
+    double[] longitudeColumn() {
+        return columns.longitude;
+    }
+
+    byte[] statusColumn() {
+        return columns.status;
+    }
+
+    static Object valueAt(DynamicsView view, int index, int slot, String droneUrl) {
+        return switch (slot) {
+            case 0 -> droneUrl;
+            case 1 -> Timestamps.format(view.timestampAt(index));
+            case 2 -> view.speedAt(index);
+            case 3 -> view.rollAt(index);
+            case 4 -> view.pitchAt(index);
+            case 5 -> view.yawAt(index);
+            case 6 -> view.longitudeAt(index);
+            case 7 -> view.latitudeAt(index);
+            case 8 -> view.batteryAt(index);
+            case 9 -> Timestamps.format(view.lastSeenAt(index));
+            case 10 -> decodeStatus(view.statusAt(index));
+            default -> null;
+        };
+    }
+
+    /**
+     * Column storage shared by the series that were appended onto each other.
+     * {@code committed} is the number of rows claimed by the newest series; rows below it are never written again.
+     */
+    private static final class Columns {
+        private final long[] timestamps;
+        private final long[] lastSeen;
+        private final int[] speed;
+        private final double[] latitude;
+        private final double[] longitude;
+        private final int[] battery;
+        private final float[] roll;
+        private final float[] pitch;
+        private final float[] yaw;
+        private final byte[] status;
+        private final AtomicInteger committed = new AtomicInteger();
+
+        private Columns(long[] timestamps, long[] lastSeen, int[] speed, double[] latitude, double[] longitude,
+                        int[] battery, float[] roll, float[] pitch, float[] yaw, byte[] status) {
+            this.timestamps = timestamps;
+            this.lastSeen = lastSeen;
+            this.speed = speed;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.battery = battery;
+            this.roll = roll;
+            this.pitch = pitch;
+            this.yaw = yaw;
+            this.status = status;
+        }
+
+        static Columns allocate(int capacity) {
+            return new Columns(new long[capacity], new long[capacity], new int[capacity], new double[capacity],
+                    new double[capacity], new int[capacity], new float[capacity], new float[capacity],
+                    new float[capacity], new byte[capacity]);
+        }
+
+        static int grownCapacity(int required) {
+            return required + (required >> 1) + 16;
+        }
+
+        int capacity() {
+            return timestamps.length;
+        }
+
+        Columns copy(int rows, int capacity) {
+            return new Columns(Arrays.copyOf(timestamps, capacity), Arrays.copyOf(lastSeen, capacity),
+                    Arrays.copyOf(speed, capacity), Arrays.copyOf(latitude, capacity), Arrays.copyOf(longitude, capacity),
+                    Arrays.copyOf(battery, capacity), Arrays.copyOf(roll, capacity), Arrays.copyOf(pitch, capacity),
+                    Arrays.copyOf(yaw, capacity), Arrays.copyOf(status, capacity));
+        }
+
+        void copyRange(Columns source, int sourcePos, int targetPos, int length) {
+            System.arraycopy(source.timestamps, sourcePos, timestamps, targetPos, length);
+            System.arraycopy(source.lastSeen, sourcePos, lastSeen, targetPos, length);
+            System.arraycopy(source.speed, sourcePos, speed, targetPos, length);
+            System.arraycopy(source.latitude, sourcePos, latitude, targetPos, length);
+            System.arraycopy(source.longitude, sourcePos, longitude, targetPos, length);
+            System.arraycopy(source.battery, sourcePos, battery, targetPos, length);
+            System.arraycopy(source.roll, sourcePos, roll, targetPos, length);
+            System.arraycopy(source.pitch, sourcePos, pitch, targetPos, length);
+            System.arraycopy(source.yaw, sourcePos, yaw, targetPos, length);
+            System.arraycopy(source.status, sourcePos, status, targetPos, length);
+        }
+    }
+
+    /**
+     * Collects samples column by column and freezes them into a time-ordered {@link DynamicsSeries}.
+     * The builder is reset by {@link #build()} and can be reused for the next page.
+     */
+    public static final class Builder {
+        private Columns columns;
+        private int size;
+
+        public Builder(int expectedSize) {
+            columns = Columns.allocate(Math.max(expectedSize, 0));
+        }
+
+        public Builder append(Map<String, Object> sample) {
+            return append(
+                    Timestamps.parse(Fields.asString(sample, Constants.TIMESTAMP)),
+                    Timestamps.parse(Fields.asString(sample, Constants.LAST_SEEN)),
+                    Fields.asInt(sample, Constants.SPEED),
+                    Fields.asDouble(sample, Constants.LATITUDE),
+                    Fields.asDouble(sample, Constants.LONGITUDE),
+                    Fields.asInt(sample, Constants.BATTERY_STATUS),
+                    (float) Fields.asDouble(sample, Constants.ALIGN_ROLL),
+                    (float) Fields.asDouble(sample, Constants.ALIGN_PITCH),
+                    (float) Fields.asDouble(sample, Constants.ALIGN_YAW),
+                    encodeStatus(Fields.asString(sample, Constants.STATUS))
+            );
+        }
+
+        public Builder append(long timestamp, long lastSeenAt, int speedValue, double latitudeValue, double longitudeValue,
+                              int batteryValue, float rollValue, float pitchValue, float yawValue, byte statusCode) {
+            if (size == columns.capacity()) {
+                columns = columns.copy(size, Columns.grownCapacity(size + 1));
+            }
+            columns.timestamps[size] = timestamp;
+            columns.lastSeen[size] = lastSeenAt;
+            columns.speed[size] = speedValue;
+            columns.latitude[size] = latitudeValue;
+            columns.longitude[size] = longitudeValue;
+            columns.battery[size] = batteryValue;
+            columns.roll[size] = rollValue;
+            columns.pitch[size] = pitchValue;
+            columns.yaw[size] = yawValue;
+            columns.status[size] = statusCode;
+            size++;
+            return this;
+        }
+
+        /**
+         * Copies the sample at {@code index} of another view.
+         */
+        public Builder append(DynamicsView view, int index) {
+            return append(view.timestampAt(index), view.lastSeenAt(index), view.speedAt(index),
+                    view.latitudeAt(index), view.longitudeAt(index), view.batteryAt(index),
+                    view.rollAt(index), view.pitchAt(index), view.yawAt(index), view.statusAt(index));
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Sorts the collected page by timestamp, unless it already is, and hands its columns to the new series.
+         * Of samples with the same timestamp only the first collected one is kept, as {@link #merge(DynamicsSeries)}
+         * keeps the sample already present.
+         */
+        public DynamicsSeries build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            Columns sorted = isSorted() ? columns : permute(sortedOrder());
+            int unique = dropDuplicates(sorted);
+            sorted.committed.set(unique);
+            DynamicsSeries series = new DynamicsSeries(sorted, unique);
+            columns = Columns.allocate(0);
+            size = 0;
+            return series;
+        }
+
+        private boolean isSorted() {
+            for (int i = 1; i < size; i++) {
+                if (columns.timestamps[i - 1] > columns.timestamps[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the number of samples left after moving each first sample of a timestamp behind the previous one.
+         */
+        private int dropDuplicates(Columns sorted) {
+            int unique = 1;
+            for (int i = 1; i < size; i++) {
+                if (sorted.timestamps[i] != sorted.timestamps[unique - 1]) {
+                    if (unique != i) {
+                        sorted.copyRange(sorted, i, unique, 1);
+                    }
+                    unique++;
+                }
+            }
+            return unique;
+        }
+
+        private int[] sortedOrder() {
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            mergeSort(order, new int[size], 0, size);
+            return order;
+        }
+
+        private void mergeSort(int[] order, int[] buffer, int from, int to) {
+            if (to - from < 2) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            mergeSort(order, buffer, from, mid);
+            mergeSort(order, buffer, mid, to);
+            System.arraycopy(order, from, buffer, from, to - from);
+            int left = from;
+            int right = mid;
+            for (int out = from; out < to; out++) {
+                if (right >= to || (left < mid && columns.timestamps[buffer[left]] <= columns.timestamps[buffer[right]])) {
+                    order[out] = buffer[left++];
+                } else {
+                    order[out] = buffer[right++];
+                }
+            }
+        }
+
+        private Columns permute(int[] order) {
+            Columns sorted = Columns.allocate(size);
+            for (int i = 0; i < size; i++) {
+                sorted.copyRange(columns, order[i], i, 1);
+            }
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package main.java.model;
+
+/**
+ * Zero-copy {@link DynamicsView} over the range {@code [offset, offset + size)} of another view.
+ */
+
+final class DynamicsSlice implements DynamicsView {
+    private final DynamicsView source;
+    private final int offset;
+    private final int size;
+
+    DynamicsSlice(DynamicsView source, int offset, int size) {
+        this.source = source;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    @Override
+    public DynamicsView slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Slice [" + from + ", " + to + ") of " + size);
+        }
+        return new DynamicsSlice(source, offset + from, to - from);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long timestampAt(int index) {
+        return source.timestampAt(checkIndex(index));
+    }
+
+    @Override
+    public long lastSeenAt(int index) {
+        return source.lastSeenAt(checkIndex(index));
+    }
+
+    @Override
+    public int speedAt(int index) {
+        return source.speedAt(checkIndex(index));
+    }
+
+    @Override
+    public double latitudeAt(int index) {
+        return source.latitudeAt(checkIndex(index));
+    }
+
+    @Override
+    public double longitudeAt(int index) {
+        return source.longitudeAt(checkIndex(index));
+    }
+
+    @Override
+    public int batteryAt(int index) {
+        return source.batteryAt(checkIndex(index));
+    }
+
+    @Override
+    public float rollAt(int index) {
+        return source.rollAt(checkIndex(index));
+    }
+
+    @Override
+    public float pitchAt(int index) {
+        return source.pitchAt(checkIndex(index));
+    }
+
+    @Override
+    public float yawAt(int index) {
+        return source.yawAt(checkIndex(index));
+    }
+
+    @Override
+    public byte statusAt(int index) {
+        return source.statusAt(checkIndex(index));
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return offset + index;
+    }
+}
@@ -0,0 +1,64 @@
+package main.java.model;
+
+/**
+ * Backing storage for the dynamics samples of one drone.
+ * <p>
+ * A store hands out immutable {@link DynamicsView} snapshots: appending never changes a view that was
+ * returned before, it only makes the next call to {@link #view()} see more samples.
+ * </p>
+ * <p>
+ * Implementations:
+ * <ul>
+ *     <li>{@link HeapDynamicsStore}: Columnar {@link DynamicsSeries} on the Java heap.</li>
+ *     <li>{@code main.java.storage.MappedDynamicsStore}: Append-only memory-mapped file per drone.</li>
+ *     <li>{@code main.java.storage.CompressedDynamicsStore}: Compressed blocks on the heap.</li>
+ *     <li>{@code main.java.storage.LsmDynamicsStore}: Write-ahead log, memtable and compacted segment files.</li>
+ * </ul>
+ * </p>
+ */
+
+public interface DynamicsStore {
+
+    /**
+     * @return the current time-ordered snapshot of the samples.
+     */
+    DynamicsView view();
+
+    /**
+     * Adds a time-ordered page of samples to the store.
+     *
+     * @return the snapshot including the page.
+     * @throws java.io.UncheckedIOException if a durable store cannot persist the page; the page is not added.
+     */
+    DynamicsView append(DynamicsSeries page);
+
+    /**
+     * Stores skip the samples of a page that are not newer than their latest stored one. When a page is fetched
+     * again, its prefix repeats samples that are already stored, so skipping them is expected. Only skipped samples
+     * that the store does not have are out of order. Samples older than the oldest stored one, e.g. removed by
+     * retention, are not counted.
+     *
+     * @param stored the samples the page was compared against.
+     * @param start  index of the first sample of {@code page} that is stored.
+     * @return the number of samples before {@code start} whose timestamp is missing from {@code stored}, found by
+     * one merge walk over the skipped samples and the stored ones they span.
+     */
+    static int outOfOrder(DynamicsView stored, DynamicsSeries page, int start) {
+        if (start == 0 || stored.isEmpty()) {
+            return 0;
+        }
+        int missing = 0;
+        int first = page.lowerBound(stored.timestampAt(0));
+        int row = first < start ? stored.lowerBound(page.timestampAt(first)) : stored.size();
+        for (int i = first; i < start; i++) {
+            long timestamp = page.timestampAt(i);
+            while (row < stored.size() && stored.timestampAt(row) < timestamp) {
+                row++;
+            }
+            if (row == stored.size() || stored.timestampAt(row) != timestamp) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+}
@@ -0,0 +1,163 @@
+package main.java.model;
+
+import main.java.util.Constants;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read-only, zero-copy access to the dynamics samples of a drone.
+ * <p>
+ * A view never copies sample data: slices share the columns of the series they were taken from, and every
+ * map returned by {@link #sampleAt(int)} resolves its values on access. Views are safe to share between threads
+ * because the underlying series is immutable once it has been built.
+ * </p>
+ * <p>
+ * Samples are ordered by timestamp, so the latest sample is the last one and time windows are located by
+ * binary search instead of scanning.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #latestIndex() latestIndex}: Returns the index of the newest sample in {@code O(1)}.</li>
+ *     <li>{@link #lowerBound(long) lowerBound}: Returns the first index at or after a timestamp in {@code O(log n)}.</li>
+ *     <li>{@link #indexAsOf(long) indexAsOf}: Returns the index of the latest sample at or before a timestamp in {@code O(log n)}.</li>
+ *     <li>{@link #asOf(long) asOf}: Returns a view of the samples up to a timestamp, as the history looked then.</li>
+ *     <li>{@link #range(long, long) range}: Returns a view of the samples with timestamps in {@code [from, to)}.</li>
+ *     <li>{@link #slice(int, int) slice}: Returns a view of the samples in {@code [from, to)}.</li>
+ *     <li>{@link #indexSpliterator() indexSpliterator}: Returns a splittable spliterator over the sample indexes.</li>
+ *     <li>{@link #indices(boolean) indices}: Returns the sample indexes as a, optionally parallel, {@link IntStream}.</li>
+ *     <li>{@link #samples() samples}: Returns a stream of map views, one per sample.</li>
+ *     <li>{@link #asMaps(String) asMaps}: Returns a read-only list of map views over all samples.</li>
+ * </ul>
+ * </p>
+ */
+
+public interface DynamicsView {
+
+    int size();
+
+    long timestampAt(int index);
+
+    long lastSeenAt(int index);
+
+    int speedAt(int index);
+
+    double latitudeAt(int index);
+
+    double longitudeAt(int index);
+
+    int batteryAt(int index);
+
+    float rollAt(int index);
+
+    float pitchAt(int index);
+
+    float yawAt(int index);
+
+    byte statusAt(int index);
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return index of the newest sample, -1 if the view is empty.
+     */
+    default int latestIndex() {
+        return size() - 1;
+    }
+
+    /**
+     * @return the first index whose timestamp is {@code >= epochMillis}, {@code size()} if there is none.
+     */
+    default int lowerBound(long epochMillis) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestampAt(mid) < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index of the latest sample with a timestamp {@code <= epochMillis}, -1 if there is none.
+     */
+    default int indexAsOf(long epochMillis) {
+        return epochMillis == Long.MAX_VALUE ? latestIndex() : lowerBound(epochMillis + 1) - 1;
+    }
+
+    /**
+     * @return a view of the samples with timestamps {@code <= epochMillis}; its latest sample is the one as of then.
+     */
+    default DynamicsView asOf(long epochMillis) {
+        return slice(0, indexAsOf(epochMillis) + 1);
+    }
+
+    /**
+     * @return a view of the samples with timestamps in {@code [fromMillis, toMillis)}.
+     */
+    default DynamicsView range(long fromMillis, long toMillis) {
+        int from = lowerBound(fromMillis);
+        return slice(from, Math.max(from, lowerBound(toMillis)));
+    }
+
+    /**
+     * @return a view of the samples in {@code [from, to)} sharing this view's data.
+     * @throws IndexOutOfBoundsException if the range is not within {@code [0, size()]}.
+     */
+    default DynamicsView slice(int from, int to) {
+        if (from < 0 || to > size() || from > to) {
+            throw new IndexOutOfBoundsException("Slice [" + from + ", " + to + ") of " + size());
+        }
+        return from == 0 && to == size() ? this : new DynamicsSlice(this, from, to - from);
+    }
+
+    /**
+     * @return a spliterator over {@code [0, size())} that splits in halves for parallel traversal.
+     */
+    default Spliterator.OfInt indexSpliterator() {
+        return new IndexSpliterator(0, size());
+    }
+
+    default IntStream indices(boolean parallel) {
+        return StreamSupport.intStream(indexSpliterator(), parallel);
+    }
+
+    default Stream<Map<String, Object>> samples() {
+        return indices(false).mapToObj(this::sampleAt);
+    }
+
+    default Map<String, Object> sampleAt(int index) {
+        return sampleAt(index, null);
+    }
+
+    /**
+     * @param droneUrl value of {@link Constants#DRONE_URL}, the same for all samples of a drone.
+     * @return a read-only map view of the sample keyed by the {@link Constants#DRONE_DYNAMIC_KEYS}.
+     */
+    default Map<String, Object> sampleAt(int index, String droneUrl) {
+        return new RecordMap(Constants.DRONE_DYNAMIC_KEYS, slot -> DynamicsSeries.valueAt(this, index, slot, droneUrl));
+    }
+
+    default List<Map<String, Object>> asMaps() {
+        return asMaps(null);
+    }
+
+    /**
+     * @param droneUrl value of {@link Constants#DRONE_URL}, the same for all samples of a drone.
+     * @return a read-only list of map views, one per sample, created on access.
+     */
+    default List<Map<String, Object>> asMaps(String droneUrl) {
+        return new SampleList(this, droneUrl);
+    }
+}
@@ -0,0 +1,45 @@
+package main.java.model;
+
+import java.util.Map;
+
+/**
+ * Package-private helpers for reading loosely typed API values into the typed model.
+ * <p>
+ * The simulator sends some numbers as JSON numbers and others as strings (e.g. {@code "50.110924"}),
+ * so every reader accepts both and falls back to a default value for missing or malformed input.
+ * </p>
+ */
+
+final class Fields {
+    private Fields() {
+    }
+
+    static int asInt(Map<String, Object> data, String key) {
+        Object value = data.get(key);
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        try {
+            return value != null ? (int) Double.parseDouble(value.toString()) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static double asDouble(Map<String, Object> data, String key) {
+        Object value = data.get(key);
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        try {
+            return value != null ? Double.parseDouble(value.toString()) : 0.0;
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
+    static String asString(Map<String, Object> data, String key) {
+        Object value = data.get(key);
+        return value != null ? value.toString() : null;
+    }
+}
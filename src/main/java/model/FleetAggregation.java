@@ -0,0 +1,336 @@
+package main.java.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The {@code FleetAggregation} class groups the drones of a fleet by categorical fields and aggregates numeric
+ * fields per group, e.g. the average speed and battery by manufacturer or the number of drones per status by type.
+ * <p>
+ * The drones are split into partitions of {@value #PARTITION} that are aggregated in parallel on the common
+ * fork/join pool; each partition builds its groups keyed by the {@link CategoryDictionary} codes packed into one
+ * long, and the groups of two halves are merged until one map remains. Speed, battery and status are those of the
+ * latest sample; drones without a value for a measure are counted in their group but not in that measure.
+ * Percentiles are exact: the values of a measure are kept per group and sorted once after the merge.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #of(List, List) of}: Creates an aggregation over up to {@value #MAX_DIMENSIONS} dimensions.</li>
+ *     <li>{@link #run(FleetSnapshot) run}: Returns the groups of a fleet ordered by their key.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class FleetAggregation {
+    public static final int MAX_DIMENSIONS = 4;
+    static final int PARTITION = 2048;
+    private static final int CODE_BITS = 16;
+    private static final int CODE_MASK = (1 << CODE_BITS) - 1;
+
+    private final List<Dimension> dimensions;
+    private final List<Measure> measures;
+
+    private FleetAggregation(List<Dimension> dimensions, List<Measure> measures) {
+        this.dimensions = dimensions;
+        this.measures = measures;
+    }
+
+    /**
+     * @param dimensions fields to group by, none for a single group of the whole fleet.
+     * @param measures   numeric fields to aggregate per group.
+     * @throws IllegalArgumentException if there are more than {@value #MAX_DIMENSIONS} dimensions.
+     */
+    public static FleetAggregation of(List<Dimension> dimensions, List<Measure> measures) {
+        if (dimensions.size() > MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("At most " + MAX_DIMENSIONS + " dimensions, got " + dimensions.size());
+        }
+        return new FleetAggregation(List.copyOf(dimensions), List.copyOf(measures));
+    }
+
+    public List<Dimension> getDimensions() {
+        return dimensions;
+    }
+
+    public List<Measure> getMeasures() {
+        return measures;
+    }
+
+    /**
+     * @return one group per combination of dimension values present in the fleet, ordered by key.
+     */
+    public List<Group> run(FleetSnapshot fleet) {
+        return run(fleet.getDrones());
+    }
+
+    public List<Group> run(List<DroneBase> drones) {
+        Map<Long, Accumulator> accumulators = new Partition(this, drones, 0, drones.size()).invoke();
+        List<Group> groups = new ArrayList<>(accumulators.size());
+        for (Map.Entry<Long, Accumulator> entry : accumulators.entrySet()) {
+            groups.add(entry.getValue().toGroup(decodeKey(entry.getKey()), measures));
+        }
+        groups.sort(Comparator.comparing(group -> String.join("\u0000", group.key())));
+        return Collections.unmodifiableList(groups);
+    }
+
+    private long encodeKey(DroneBase drone, DynamicsView dynamics, int latest) {
+        long key = 0;
+        for (Dimension dimension : dimensions) {
+            int code = dimension.code(drone, dynamics, latest) + 1;
+            if (code < 0 || code > CODE_MASK) {
+                throw new IllegalStateException("Code " + (code - 1) + " of " + dimension + " exceeds the group key");
+            }
+            key = key << CODE_BITS | code;
+        }
+        return key;
+    }
+
+    private List<String> decodeKey(long key) {
+        String[] values = new String[dimensions.size()];
+        for (int i = values.length - 1; i >= 0; i--) {
+            values[i] = dimensions.get(i).label((int) (key & CODE_MASK) - 1);
+            key >>>= CODE_BITS;
+        }
+        return List.of(values);
+    }
+
+    /**
+     * Categorical fields to group by, as {@link CategoryDictionary} codes.
+     */
+    public enum Dimension {
+        MANUFACTURER(CategoryDictionary.MANUFACTURER),
+        TYPE_NAME(CategoryDictionary.TYPE_NAME),
+        CARRIAGE_TYPE(CategoryDictionary.CARRIAGE_TYPE),
+        STATUS(CategoryDictionary.STATUS);
+
+        /**
+         * Label of the group of drones without a value.
+         */
+        public static final String UNKNOWN = "-";
+
+        private final CategoryDictionary dictionary;
+
+        Dimension(CategoryDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        int code(DroneBase drone, DynamicsView dynamics, int latest) {
+            DroneType type = drone.getType();
+            DroneDetails details = drone.getDetails();
+            return switch (this) {
+                case MANUFACTURER -> type != null ? type.manufacturerCode() : CategoryDictionary.NO_CODE;
+                case TYPE_NAME -> type != null ? type.typeNameCode() : CategoryDictionary.NO_CODE;
+                case CARRIAGE_TYPE -> details != null ? details.carriageTypeCode() : CategoryDictionary.NO_CODE;
+                case STATUS -> latest >= 0 ? Math.max(dynamics.statusAt(latest), CategoryDictionary.NO_CODE)
+                        : CategoryDictionary.NO_CODE;
+            };
+        }
+
+        String label(int code) {
+            String value = dictionary.decode(code);
+            return value != null ? value : UNKNOWN;
+        }
+    }
+
+    /**
+     * Numeric fields to aggregate.
+     */
+    public enum Measure {
+        SPEED,
+        BATTERY,
+        CARRIAGE_WEIGHT,
+        WEIGHT,
+        MAX_SPEED,
+        BATTERY_CAPACITY;
+
+        /**
+         * @return the value of the drone, NaN if it has none.
+         */
+        double value(DroneBase drone, DynamicsView dynamics, int latest) {
+            DroneType type = drone.getType();
+            return switch (this) {
+                case SPEED -> latest >= 0 ? dynamics.speedAt(latest) : Double.NaN;
+                case BATTERY -> latest >= 0 ? dynamics.batteryAt(latest) : Double.NaN;
+                case CARRIAGE_WEIGHT -> drone.getDetails() != null ? drone.getDetails().carriageWeight() : Double.NaN;
+                case WEIGHT -> type != null ? type.weight() : Double.NaN;
+                case MAX_SPEED -> type != null ? type.maxSpeed() : Double.NaN;
+                case BATTERY_CAPACITY -> type != null ? type.batteryCapacity() : Double.NaN;
+            };
+        }
+    }
+
+    /**
+     * The drones sharing one combination of dimension values.
+     *
+     * @param key        dimension values in the order of {@link #getDimensions()}, {@link Dimension#UNKNOWN} if missing.
+     * @param count      number of drones in the group.
+     * @param statistics statistics in the order of {@link #getMeasures()}.
+     */
+    public record Group(List<String> key, long count, List<Statistics> statistics) {
+
+        public Statistics statistics(Measure measure) {
+            for (Statistics candidate : statistics) {
+                if (candidate.measure() == measure) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Count, minimum, maximum, average and percentiles of one measure in a group. Minimum, maximum, average and
+     * percentiles are NaN if no drone of the group has a value.
+     */
+    public static final class Statistics {
+        private final Measure measure;
+        private final double[] sorted;
+        private final double sum;
+
+        Statistics(Measure measure, double[] sorted, double sum) {
+            this.measure = measure;
+            this.sorted = sorted;
+            this.sum = sum;
+        }
+
+        public Measure measure() {
+            return measure;
+        }
+
+        public int count() {
+            return sorted.length;
+        }
+
+        public double min() {
+            return sorted.length > 0 ? sorted[0] : Double.NaN;
+        }
+
+        public double max() {
+            return sorted.length > 0 ? sorted[sorted.length - 1] : Double.NaN;
+        }
+
+        public double average() {
+            return sorted.length > 0 ? sum / sorted.length : Double.NaN;
+        }
+
+        /**
+         * @param quantile in {@code [0, 1]}, e.g. 0.9 for the 90th percentile.
+         * @return the nearest-rank percentile.
+         */
+        public double percentile(double quantile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            int rank = (int) Math.ceil(Math.min(1, Math.max(0, quantile)) * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s n=%d min=%.1f avg=%.1f max=%.1f p50=%.1f p90=%.1f", measure, count(), min(),
+                    average(), max(), percentile(0.5), percentile(0.9));
+        }
+    }
+
+    private static final class Partition extends RecursiveTask<Map<Long, Accumulator>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FleetAggregation aggregation;
+        private final transient List<DroneBase> drones;
+        private final int from;
+        private final int to;
+
+        Partition(FleetAggregation aggregation, List<DroneBase> drones, int from, int to) {
+            this.aggregation = aggregation;
+            this.drones = drones;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Long, Accumulator> compute() {
+            if (to - from <= PARTITION) {
+                return aggregate();
+            }
+            int middle = (from + to) >>> 1;
+            Partition left = new Partition(aggregation, drones, from, middle);
+            left.fork();
+            Map<Long, Accumulator> right = new Partition(aggregation, drones, middle, to).compute();
+            Map<Long, Accumulator> merged = left.join();
+            for (Map.Entry<Long, Accumulator> entry : right.entrySet()) {
+                merged.merge(entry.getKey(), entry.getValue(), Accumulator::merge);
+            }
+            return merged;
+        }
+
+        private Map<Long, Accumulator> aggregate() {
+            List<Measure> measures = aggregation.measures;
+            Map<Long, Accumulator> groups = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                DroneBase drone = drones.get(i);
+                DynamicsView dynamics = drone.getDynamics();
+                int latest = dynamics.latestIndex();
+                Accumulator accumulator = groups.computeIfAbsent(aggregation.encodeKey(drone, dynamics, latest),
+                        key -> new Accumulator(measures.size()));
+                accumulator.count++;
+                for (int m = 0; m < measures.size(); m++) {
+                    accumulator.add(m, measures.get(m).value(drone, dynamics, latest));
+                }
+            }
+            return groups;
+        }
+    }
+
+    private static final class Accumulator {
+        private final double[][] values;
+        private final int[] sizes;
+        private final double[] sums;
+        private long count;
+
+        Accumulator(int measureCount) {
+            values = new double[measureCount][8];
+            sizes = new int[measureCount];
+            sums = new double[measureCount];
+        }
+
+        void add(int measure, double value) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            if (sizes[measure] == values[measure].length) {
+                values[measure] = Arrays.copyOf(values[measure], sizes[measure] * 2);
+            }
+            values[measure][sizes[measure]++] = value;
+            sums[measure] += value;
+        }
+
+        Accumulator merge(Accumulator other) {
+            count += other.count;
+            for (int m = 0; m < values.length; m++) {
+                if (sizes[m] + other.sizes[m] > values[m].length) {
+                    values[m] = Arrays.copyOf(values[m], sizes[m] + other.sizes[m]);
+                }
+                System.arraycopy(other.values[m], 0, values[m], sizes[m], other.sizes[m]);
+                sizes[m] += other.sizes[m];
+                sums[m] += other.sums[m];
+            }
+            return this;
+        }
+
+        Group toGroup(List<String> key, List<Measure> measures) {
+            List<Statistics> statistics = new ArrayList<>(values.length);
+            for (int m = 0; m < values.length; m++) {
+                double[] sorted = Arrays.copyOf(values[m], sizes[m]);
+                Arrays.sort(sorted);
+                statistics.add(new Statistics(measures.get(m), sorted, sums[m]));
+            }
+            return new Group(key, count, List.copyOf(statistics));
+        }
+    }
+}
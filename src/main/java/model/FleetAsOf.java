@@ -0,0 +1,85 @@
+package main.java.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The state of a {@link FleetSnapshot} as it was at a past point in time.
+ * <p>
+ * For every drone, the dynamics are cut off after the latest sample at or before the timestamp. The cut is found by
+ * a binary search over the time index of the drone's store and kept as a zero-copy slice, so building the state
+ * costs {@code O(drones * log samples)} and never scans a history. Views render a historic state the same way as the
+ * live one, since the latest sample of each sliced view is the sample as of then.
+ * </p>
+ * <p>
+ * The drones are those of the snapshot; a drone without samples at that time has empty dynamics.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #getEpochMillis() getEpochMillis}: Returns the point in time of the state.</li>
+ *     <li>{@link #getDrones() getDrones}: Returns the drones of the snapshot, ordered by id.</li>
+ *     <li>{@link #getDynamics(DroneBase) getDynamics}: Returns the dynamics of a drone up to the point in time.</li>
+ *     <li>{@link #getDroneData(DroneBase) getDroneData}: Returns the sample of a drone as of the point in time as a map.</li>
+ *     <li>{@link #reportingCount() reportingCount}: Returns the number of drones with a sample at that time.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class FleetAsOf {
+    private final FleetSnapshot fleet;
+    private final long epochMillis;
+    private final Map<Integer, DynamicsView> dynamicsById;
+    private final int reportingCount;
+
+    FleetAsOf(FleetSnapshot fleet, long epochMillis) {
+        this.fleet = fleet;
+        this.epochMillis = epochMillis;
+        Map<Integer, DynamicsView> views = new HashMap<>(fleet.size() * 2);
+        int reporting = 0;
+        for (DroneBase drone : fleet.getDrones()) {
+            DynamicsView view = drone.getDynamics().asOf(epochMillis);
+            views.put(drone.getDetails().id(), view);
+            if (!view.isEmpty()) {
+                reporting++;
+            }
+        }
+        this.dynamicsById = Collections.unmodifiableMap(views);
+        this.reportingCount = reporting;
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    public FleetSnapshot getFleet() {
+        return fleet;
+    }
+
+    public List<DroneBase> getDrones() {
+        return fleet.getDrones();
+    }
+
+    /**
+     * @return the samples of the drone with timestamps {@code <= getEpochMillis()}; also for a drone that is not
+     * part of the snapshot.
+     */
+    public DynamicsView getDynamics(DroneBase drone) {
+        DynamicsView view = drone.getDetails() != null ? dynamicsById.get(drone.getDetails().id()) : null;
+        return view != null ? view : drone.getDynamics().asOf(epochMillis);
+    }
+
+    /**
+     * @return Map containing the drone data as of the point in time. Empty Map if there is no such sample.
+     */
+    public Map<String, Object> getDroneData(DroneBase drone) {
+        DynamicsView view = getDynamics(drone);
+        return view.isEmpty() ? Collections.emptyMap() : view.sampleAt(view.latestIndex(), drone.getUrl());
+    }
+
+    public int reportingCount() {
+        return reportingCount;
+    }
+}
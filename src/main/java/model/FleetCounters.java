@@ -0,0 +1,199 @@
+package main.java.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * The {@code FleetCounters} class counts the drones of the current fleet per status, per type name and per
+ * battery band, maintained from the {@link ChangeSet} of every published version.
+ * <p>
+ * Only the drones named in a change set are looked at: each one moves from the counters of its previous state
+ * to those of its new state, so applying a version costs {@code O(1)} per changed drone and reading a counter
+ * never walks the fleet. Counters are {@link LongAdder}s, read without locking while the next change set is
+ * applied. Status and battery are those of the latest sample. The battery band is the battery level in percent of
+ * the type's battery capacity; drones without samples, or without type information, are counted as unknown.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #accept(ChangeSet) accept}: Applies the changes of a published version.</li>
+ *     <li>{@link #total() total}, {@link #status(int) status}, {@link #batteryBand(int) batteryBand}:
+ *         Return a single counter.</li>
+ *     <li>{@link #byStatus() byStatus}, {@link #byType() byType}, {@link #byBatteryBand() byBatteryBand}:
+ *         Return the counters keyed by label.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class FleetCounters implements Consumer<ChangeSet> {
+    public static final String UNKNOWN = "unknown";
+    /**
+     * Lower bounds of the battery bands in percent; the last band counts drones without a battery level.
+     */
+    private static final int[] BAND_FLOORS = {0, 20, 50, 80};
+    private static final String[] BAND_LABELS = {"< 20 %", "20 - 49 %", "50 - 79 %", ">= 80 %", UNKNOWN};
+    public static final int BAND_LOW = 0;
+    public static final int BAND_UNKNOWN = BAND_FLOORS.length;
+
+    private final LongAdder total = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> types = new ConcurrentHashMap<>();
+    private final LongAdder[] bands = new LongAdder[BAND_LABELS.length];
+    private final Map<Integer, State> states = new HashMap<>();
+    private volatile long version;
+
+    public FleetCounters() {
+        for (int band = 0; band < bands.length; band++) {
+            bands[band] = new LongAdder();
+        }
+    }
+
+    /**
+     * Change sets must be applied in version order, as {@link ChangeTracker} produces them.
+     */
+    @Override
+    public synchronized void accept(ChangeSet changes) {
+        for (DroneBase drone : changes.removed()) {
+            State previous = states.remove(drone.getDetails().id());
+            if (previous != null) {
+                count(previous, -1);
+            }
+        }
+        for (DroneBase drone : changes.added()) {
+            refresh(drone);
+        }
+        for (DroneBase drone : changes.updated()) {
+            refresh(drone);
+        }
+        for (ChangeSet.StatusChanged change : changes.statusChanges()) {
+            refresh(change.drone());
+        }
+        for (ChangeSet.BatteryChanged change : changes.batteryChanges()) {
+            refresh(change.drone());
+        }
+        version = changes.version();
+    }
+
+    /**
+     * @return the fleet version the counters describe.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public long total() {
+        return total.sum();
+    }
+
+    /**
+     * @param code a {@link CategoryDictionary#STATUS} code, {@link CategoryDictionary#NO_CODE} for drones without samples.
+     */
+    public long status(int code) {
+        LongAdder counter = statuses.get(code);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * @param band {@link #BAND_LOW} up to {@link #BAND_UNKNOWN}, in the order of {@link #byBatteryBand()}.
+     */
+    public long batteryBand(int band) {
+        return bands[band].sum();
+    }
+
+    /**
+     * @return drones per status value, {@value #UNKNOWN} for drones without samples.
+     */
+    public Map<String, Long> byStatus() {
+        return labelled(statuses, CategoryDictionary.STATUS);
+    }
+
+    /**
+     * @return drones per type name, {@value #UNKNOWN} for drones without type information.
+     */
+    public Map<String, Long> byType() {
+        return labelled(types, CategoryDictionary.TYPE_NAME);
+    }
+
+    /**
+     * @return drones per battery band, from low to high, then unknown.
+     */
+    public Map<String, Long> byBatteryBand() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int band = 0; band < bands.length; band++) {
+            counts.put(BAND_LABELS[band], bands[band].sum());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private void refresh(DroneBase drone) {
+        State next = State.of(drone);
+        State previous = states.put(drone.getDetails().id(), next);
+        if (next.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            count(previous, -1);
+        }
+        count(next, 1);
+    }
+
+    private void count(State state, int delta) {
+        total.add(delta);
+        statuses.computeIfAbsent(state.status(), code -> new LongAdder()).add(delta);
+        types.computeIfAbsent(state.type(), code -> new LongAdder()).add(delta);
+        bands[state.band()].add(delta);
+    }
+
+    private static Map<String, Long> labelled(Map<Integer, LongAdder> counters, CategoryDictionary dictionary) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counters.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    long count = entry.getValue().sum();
+                    if (count > 0) {
+                        String label = dictionary.decode(entry.getKey());
+                        counts.merge(label != null ? label : UNKNOWN, count, Long::sum);
+                    }
+                });
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * @param battery a battery value of the drone's samples.
+     * @return the battery level in percent of the type's battery capacity, -1 without type information.
+     */
+    static int batteryLevel(DroneBase drone, int battery) {
+        int batteryCapacity = drone.getType() != null ? drone.getType().batteryCapacity() : 0;
+        return batteryCapacity > 0 ? (int) ((long) battery * 100 / batteryCapacity) : -1;
+    }
+
+    private static int bandOf(int level) {
+        if (level < 0) {
+            return BAND_UNKNOWN;
+        }
+        for (int band = BAND_FLOORS.length - 1; band > 0; band--) {
+            if (level >= BAND_FLOORS[band]) {
+                return band;
+            }
+        }
+        return BAND_LOW;
+    }
+
+    private record State(int status, int type, int band) {
+        static State of(DroneBase drone) {
+            DynamicsView dynamics = drone.getDynamics();
+            int latest = dynamics.latestIndex();
+            int type = drone.getType() != null ? drone.getType().typeNameCode() : CategoryDictionary.NO_CODE;
+            if (latest < 0) {
+                return new State(CategoryDictionary.NO_CODE, type, BAND_UNKNOWN);
+            }
+            return new State(Math.max(dynamics.statusAt(latest), CategoryDictionary.NO_CODE), type,
+                    bandOf(batteryLevel(drone, dynamics.batteryAt(latest))));
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package main.java.model;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * The {@code FleetOrderings} class keeps the drones of the current fleet sorted by id, battery, last seen and
+ * status, maintained from the {@link ChangeSet} of every published version.
+ * <p>
+ * Each ordering is a skip list keyed by the sort value and the id. Only the drones named in a change set are
+ * moved: a drone whose value changed is removed under its old key and inserted under its new one in
+ * {@code O(log n)}, so no ordering is ever sorted as a whole. The views are read-only and live; iterating one
+ * walks the skip list in order without locking while the next change set is applied, so a drone that is moved
+ * meanwhile may be met at its old or its new position; {@link #snapshot(Order, boolean, long) snapshot} copies an
+ * ordering of a single fleet version instead. Values are those of the latest sample, the battery as its level in
+ * percent of the type's battery capacity; drones without samples, or without a battery level, come last.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #accept(ChangeSet) accept}: Applies the changes of a published version.</li>
+ *     <li>{@link #view(Order, boolean) view}: Returns the drones in an order.</li>
+ *     <li>{@link #snapshot(Order, boolean, long) snapshot}: Returns the drones of a fleet version in an order.</li>
+ *     <li>{@link #getVersion() getVersion}: Returns the fleet version the orderings describe.</li>
+ *     <li>{@link #size() size}: Returns the number of drones.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class FleetOrderings implements Consumer<ChangeSet> {
+    private final Map<Order, NavigableMap<Key, DroneBase>> orderings = new EnumMap<>(Order.class);
+    private final Map<Integer, long[]> values = new HashMap<>();
+    private volatile int size;
+    private volatile long applying;
+    private volatile long version;
+
+    public FleetOrderings() {
+        for (Order order : Order.values()) {
+            orderings.put(order, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * Change sets must be applied in version order, as {@link ChangeTracker} produces them.
+     */
+    @Override
+    public synchronized void accept(ChangeSet changes) {
+        applying = changes.version();
+        for (DroneBase drone : changes.removed()) {
+            int id = drone.getDetails().id();
+            long[] previous = values.remove(id);
+            if (previous != null) {
+                for (Order order : Order.values()) {
+                    orderings.get(order).remove(new Key(previous[order.ordinal()], id));
+                }
+            }
+        }
+        for (DroneBase drone : changes.added()) {
+            refresh(drone);
+        }
+        for (DroneBase drone : changes.updated()) {
+            refresh(drone);
+        }
+        for (ChangeSet.SamplesAppended append : changes.appended()) {
+            refresh(append.drone());
+        }
+        for (ChangeSet.StatusChanged change : changes.statusChanges()) {
+            refresh(change.drone());
+        }
+        for (ChangeSet.BatteryChanged change : changes.batteryChanges()) {
+            refresh(change.drone());
+        }
+        size = values.size();
+        version = changes.version();
+    }
+
+    /**
+     * @return the fleet version the orderings describe.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @param descending whether to reverse the order, highest value and id first; drones without samples, or
+     *                   without a battery level, come last either way, by id.
+     * @return a read-only, live view of the drones in the order.
+     */
+    public Collection<DroneBase> view(Order order, boolean descending) {
+        NavigableMap<Key, DroneBase> ordering = orderings.get(order);
+        if (!descending) {
+            return Collections.unmodifiableCollection(ordering.values());
+        }
+        Key firstUnknown = new Key(Order.UNKNOWN, Integer.MIN_VALUE);
+        NavigableMap<Key, DroneBase> known = ordering.headMap(firstUnknown, false).descendingMap();
+        NavigableMap<Key, DroneBase> unknown = ordering.tailMap(firstUnknown, true);
+        return Collections.unmodifiableCollection(new ConcatenatedValues(known, unknown));
+    }
+
+    /**
+     * @param version the {@link FleetSnapshot#getVersion() version} of the fleet shown with the drones.
+     * @return a copy of {@link #view(Order, boolean) view}, null if the orderings do not describe that version or
+     * the next change set was applied while copying.
+     */
+    public List<DroneBase> snapshot(Order order, boolean descending, long version) {
+        if (this.version != version || applying != version) {
+            return null;
+        }
+        List<DroneBase> drones = new ArrayList<>(view(order, descending));
+        return this.version == version && applying == version ? drones : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void refresh(DroneBase drone) {
+        int id = drone.getDetails().id();
+        long[] next = new long[Order.values().length];
+        for (Order order : Order.values()) {
+            next[order.ordinal()] = order.value(drone);
+        }
+        long[] previous = values.put(id, next);
+        for (Order order : Order.values()) {
+            NavigableMap<Key, DroneBase> ordering = orderings.get(order);
+            Key key = new Key(next[order.ordinal()], id);
+            if (previous != null && previous[order.ordinal()] != next[order.ordinal()]) {
+                ordering.remove(new Key(previous[order.ordinal()], id));
+            }
+            ordering.put(key, drone);
+        }
+    }
+
+    /**
+     * Orders of the drones, by a value of their latest sample or by id.
+     */
+    public enum Order {
+        ID,
+        BATTERY,
+        LAST_SEEN,
+        STATUS;
+
+        /**
+         * Sort value of drones without samples or without a battery level, after all others.
+         */
+        static final long UNKNOWN = Long.MAX_VALUE;
+
+        long value(DroneBase drone) {
+            if (this == ID) {
+                return drone.getDetails().id();
+            }
+            DynamicsView dynamics = drone.getDynamics();
+            int latest = dynamics.latestIndex();
+            if (latest < 0) {
+                return UNKNOWN;
+            }
+            return switch (this) {
+                case BATTERY -> {
+                    int level = FleetCounters.batteryLevel(drone, dynamics.batteryAt(latest));
+                    yield level >= 0 ? level : UNKNOWN;
+                }
+                case LAST_SEEN -> Math.min(dynamics.lastSeenAt(latest), UNKNOWN - 1);
+                case STATUS -> dynamics.statusAt(latest) & 0xFF;
+                default -> throw new IllegalStateException("Unexpected order " + this);
+            };
+        }
+    }
+
+    private record Key(long value, int id) implements Comparable<Key> {
+
+        @Override
+        public int compareTo(Key other) {
+            int byValue = Long.compare(value, other.value);
+            return byValue != 0 ? byValue : Integer.compare(id, other.id);
+        }
+    }
+
+    /**
+     * The values of the known drones in descending order followed by the drones without a value.
+     */
+    private static final class ConcatenatedValues extends AbstractCollection<DroneBase> {
+        private final NavigableMap<Key, DroneBase> first;
+        private final NavigableMap<Key, DroneBase> second;
+
+        ConcatenatedValues(NavigableMap<Key, DroneBase> first, NavigableMap<Key, DroneBase> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public Iterator<DroneBase> iterator() {
+            Iterator<DroneBase> head = first.values().iterator();
+            Iterator<DroneBase> tail = second.values().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return head.hasNext() || tail.hasNext();
+                }
+
+                @Override
+                public DroneBase next() {
+                    return head.hasNext() ? head.next() : tail.next();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return first.size() + second.size();
+        }
+    }
+}
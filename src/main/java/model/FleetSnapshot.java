@@ -0,0 +1,164 @@
+package main.java.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable version of the fleet: all drone models of one refresh, ordered and keyed by id.
+ * <p>
+ * A snapshot is built completely before it is published, so a reader holding one always sees a consistent
+ * fleet, even while the next version is being fetched. The catalogue index of a published version is derived
+ * from the index of the previous version before the snapshot is published; otherwise it is built on first use,
+ * like the search index.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #of(long, Collection) of}: Builds a snapshot from the drone models of a refresh.</li>
+ *     <li>{@link #getVersion() getVersion}: Returns the version number, increasing with every refresh.</li>
+ *     <li>{@link #getDrones() getDrones}: Returns the drones ordered by id.</li>
+ *     <li>{@link #getDrone(int) getDrone}, {@link #findDrone(String) findDrone}: Return the drone with an id in {@code O(1)}.</li>
+ *     <li>{@link #deriveCatalogueIndex(FleetSnapshot, ChangeSet) deriveCatalogueIndex}: Derives the catalogue index from the previous version.</li>
+ *     <li>{@link #getCatalogueIndex() getCatalogueIndex}: Returns the inverted indexes over the catalogue fields.</li>
+ *     <li>{@link #getSearchIndex() getSearchIndex}: Returns the substring index over ids and serial numbers.</li>
+ *     <li>{@link #asOf(long) asOf}: Returns the state of the fleet at a past point in time.</li>
+ *     <li>{@link #transitionsBetween(long, long) transitionsBetween}: Returns the status transitions of all drones in a time window.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class FleetSnapshot {
+    private static final FleetSnapshot EMPTY = of(0, Collections.emptyList());
+
+    private final long version;
+    private final List<DroneBase> drones;
+    private final Map<Integer, DroneBase> dronesById;
+    private volatile CatalogueIndex catalogueIndex;
+    private volatile DroneSearchIndex searchIndex;
+
+    private FleetSnapshot(long version, List<DroneBase> drones, Map<Integer, DroneBase> dronesById) {
+        this.version = version;
+        this.drones = drones;
+        this.dronesById = dronesById;
+    }
+
+    public static FleetSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Drones without details are skipped; of two drones with the same id the last one wins.
+     */
+    public static FleetSnapshot of(long version, Collection<DroneBase> droneModels) {
+        Map<Integer, DroneBase> dronesById = new HashMap<>(droneModels.size() * 2);
+        for (DroneBase drone : droneModels) {
+            if (drone != null && drone.getDetails() != null) {
+                dronesById.put(drone.getDetails().id(), drone);
+            }
+        }
+        List<DroneBase> drones = new ArrayList<>(dronesById.values());
+        drones.sort(Comparator.comparingInt(drone -> drone.getDetails().id()));
+        return new FleetSnapshot(version, Collections.unmodifiableList(drones),
+                Collections.unmodifiableMap(dronesById));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return read-only list of the drones ordered by id.
+     */
+    public List<DroneBase> getDrones() {
+        return drones;
+    }
+
+    public int size() {
+        return drones.size();
+    }
+
+    /**
+     * @return the drone with the id, null if there is none.
+     */
+    public DroneBase getDrone(int id) {
+        return dronesById.get(id);
+    }
+
+    /**
+     * @return the drone whose id is the given text, null if there is none or the text is not an id.
+     */
+    public DroneBase findDrone(String id) {
+        try {
+            DroneBase drone = dronesById.get(Integer.parseInt(id.trim()));
+            return drone != null && String.valueOf(drone.getDetails().id()).equals(id.trim()) ? drone : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Re-indexes only the drones in {@code changes}, see {@link CatalogueIndex#derive(Map, ChangeSet)}. Called
+     * once before the snapshot is published; the index is built from scratch if {@code changes} do not lead
+     * from {@code previous} to this version.
+     */
+    public void deriveCatalogueIndex(FleetSnapshot previous, ChangeSet changes) {
+        if (changes.fromVersion() == previous.getVersion() && changes.version() == version) {
+            catalogueIndex = previous.getCatalogueIndex().derive(dronesById, changes);
+        } else {
+            catalogueIndex = CatalogueIndex.of(dronesById);
+        }
+    }
+
+    public CatalogueIndex getCatalogueIndex() {
+        CatalogueIndex index = catalogueIndex;
+        if (index == null) {
+            index = CatalogueIndex.of(dronesById);
+            catalogueIndex = index;
+        }
+        return index;
+    }
+
+    public DroneSearchIndex getSearchIndex() {
+        DroneSearchIndex index = searchIndex;
+        if (index == null) {
+            index = DroneSearchIndex.of(drones);
+            searchIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * @return the latest sample of every drone at or before {@code epochMillis}, in {@code O(drones * log samples)}.
+     */
+    public FleetAsOf asOf(long epochMillis) {
+        return new FleetAsOf(this, epochMillis);
+    }
+
+    /**
+     * Reads the {@link StatusTransitions} of the drones, not their samples, e.g. to list the drones that changed
+     * status in the last ten minutes. Transitions out of {@link DynamicsSeries#STATUS_UNKNOWN}, which log the
+     * first sample of a drone, are not status changes and are left out.
+     *
+     * @return the transitions with {@code from <= timestamp < to}, ordered by timestamp and drone id.
+     */
+    public List<StatusTransitions.DroneTransition> transitionsBetween(long from, long to) {
+        List<StatusTransitions.DroneTransition> result = new ArrayList<>();
+        for (DroneBase drone : drones) {
+            StatusTransitions transitions = drone.getTransitions();
+            int end = transitions.lowerBound(to);
+            for (int i = transitions.lowerBound(from); i < end; i++) {
+                StatusTransitions.Transition transition = transitions.get(i);
+                if (transition.from() != DynamicsSeries.STATUS_UNKNOWN) {
+                    result.add(new StatusTransitions.DroneTransition(drone, transition));
+                }
+            }
+        }
+        result.sort(Comparator.comparingLong(StatusTransitions.DroneTransition::timestamp));
+        return result;
+    }
+}
@@ -0,0 +1,25 @@
+package main.java.model;
+
+/**
+ * {@link DynamicsStore} keeping the samples in a columnar {@link DynamicsSeries} on the heap.
+ * Pages are merged with {@link DynamicsSeries#merge(DynamicsSeries)}, so out-of-order pages are supported.
+ */
+
+public class HeapDynamicsStore implements DynamicsStore {
+    private volatile DynamicsSeries series;
+
+    public HeapDynamicsStore(DynamicsSeries series) {
+        this.series = series != null ? series : DynamicsSeries.empty();
+    }
+
+    @Override
+    public DynamicsView view() {
+        return series;
+    }
+
+    @Override
+    public synchronized DynamicsView append(DynamicsSeries page) {
+        series = series.merge(page);
+        return series;
+    }
+}
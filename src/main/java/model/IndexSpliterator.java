@@ -0,0 +1,67 @@
+package main.java.model;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Spliterator over the sample indexes {@code [origin, fence)} of a {@link DynamicsView}.
+ * <p>
+ * Splits in halves down to {@value #MIN_SPLIT} indexes so parallel streams get balanced, cache friendly chunks.
+ * </p>
+ */
+
+final class IndexSpliterator implements Spliterator.OfInt {
+    private static final int MIN_SPLIT = 1024;
+    private final int fence;
+    private int index;
+
+    IndexSpliterator(int origin, int fence) {
+        this.index = origin;
+        this.fence = fence;
+    }
+
+    @Override
+    public OfInt trySplit() {
+        int mid = (index + fence) >>> 1;
+        if (mid - index < MIN_SPLIT) {
+            return null;
+        }
+        IndexSpliterator prefix = new IndexSpliterator(index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+        if (index < fence) {
+            action.accept(index++);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer action) {
+        int end = fence;
+        for (int i = index; i < end; i++) {
+            action.accept(i);
+        }
+        index = end;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL | DISTINCT | SORTED;
+    }
+
+    @Override
+    public Comparator<? super Integer> getComparator() {
+        return null;
+    }
+}
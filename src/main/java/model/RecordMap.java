@@ -0,0 +1,87 @@
+package main.java.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Read-only {@code Map<String, Object>} adapter over a typed record.
+ * <p>
+ * Values are resolved on access through the slot function, so wrapping a record or a single dynamics
+ * sample costs one small object instead of a hash table. Keys whose value is {@code null} are reported
+ * as absent, which keeps {@code containsKey} checks in the views working as they did with parsed JSON maps.
+ * </p>
+ */
+
+final class RecordMap extends AbstractMap<String, Object> {
+    private final String[] keys;
+    private final IntFunction<Object> values;
+
+    RecordMap(String[] keys, IntFunction<Object> values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    @Override
+    public Object get(Object key) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot].equals(key)) {
+                return values.apply(slot);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int slot = advance(0);
+
+                    private int advance(int from) {
+                        while (from < keys.length && values.apply(from) == null) {
+                            from++;
+                        }
+                        return from;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return slot < keys.length;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, Object> entry = new SimpleImmutableEntry<>(keys[slot], values.apply(slot));
+                        slot = advance(slot + 1);
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int count = 0;
+                for (int slot = 0; slot < keys.length; slot++) {
+                    if (values.apply(slot) != null) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package main.java.model;
+
+/**
+ * Time resolutions at which dynamics can be read: the raw samples or one of the rollup levels kept by
+ * {@link DynamicsRollups}.
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #coarsestFor(long) coarsestFor}: Returns the coarsest level that still resolves a given interval.</li>
+ * </ul>
+ * </p>
+ */
+
+public enum Resolution {
+    RAW(0, "Raw"),
+    SECOND(1_000L, "1 s"),
+    MINUTE(60_000L, "1 min"),
+    HOUR(3_600_000L, "1 h");
+
+    private final long bucketMillis;
+    private final String label;
+
+    Resolution(long bucketMillis, String label) {
+        this.bucketMillis = bucketMillis;
+        this.label = label;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    /**
+     * @return the coarsest level whose buckets are not wider than {@code intervalMillis},
+     * {@link #RAW} if the interval is below one second.
+     */
+    public static Resolution coarsestFor(long intervalMillis) {
+        Resolution coarsest = RAW;
+        for (Resolution resolution : values()) {
+            if (resolution.bucketMillis <= intervalMillis) {
+                coarsest = resolution;
+            }
+        }
+        return coarsest;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,72 @@
+package main.java.model;
+
+import main.java.util.Constants;
+import main.java.util.Timestamps;
+
+import java.util.Map;
+
+/**
+ * Immutable aggregate of the dynamics samples whose timestamps fall into {@code [start, start + width)}.
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #of(long, DynamicsView, int) of}: Creates a bucket from its first sample.</li>
+ *     <li>{@link #with(DynamicsView, int) with}: Returns the bucket extended by the next sample.</li>
+ *     <li>{@link #asMap() asMap}: Returns a read-only map view keyed by the {@link Constants#ROLLUP_KEYS}.</li>
+ * </ul>
+ * </p>
+ */
+
+public record RollupBucket(long start, int count, int speedMin, int speedMax, long speedSum,
+                           int batteryFirst, int batteryLast, int batteryMin, int batteryMax,
+                           int countOn, int countOf, int countIs, int countOther,
+                           double latitudeMin, double latitudeMax, double longitudeMin, double longitudeMax) {
+
+    public static RollupBucket of(long start, DynamicsView samples, int index) {
+        byte status = samples.statusAt(index);
+        return new RollupBucket(start, 1, samples.speedAt(index), samples.speedAt(index), samples.speedAt(index),
+                samples.batteryAt(index), samples.batteryAt(index), samples.batteryAt(index), samples.batteryAt(index),
+                status == CategoryDictionary.STATUS_ON ? 1 : 0,
+                status == CategoryDictionary.STATUS_OF ? 1 : 0,
+                status == CategoryDictionary.STATUS_IS ? 1 : 0,
+                status > CategoryDictionary.STATUS_IS || status < 0 ? 1 : 0,
+                samples.latitudeAt(index), samples.latitudeAt(index), samples.longitudeAt(index), samples.longitudeAt(index));
+    }
+
+    /**
+     * @return this bucket extended by a sample that is not older than the samples already aggregated.
+     */
+    public RollupBucket with(DynamicsView samples, int index) {
+        int speed = samples.speedAt(index);
+        int battery = samples.batteryAt(index);
+        byte status = samples.statusAt(index);
+        double latitude = samples.latitudeAt(index);
+        double longitude = samples.longitudeAt(index);
+        return new RollupBucket(start, count + 1, Math.min(speedMin, speed), Math.max(speedMax, speed), speedSum + speed,
+                batteryFirst, battery, Math.min(batteryMin, battery), Math.max(batteryMax, battery),
+                countOn + (status == CategoryDictionary.STATUS_ON ? 1 : 0),
+                countOf + (status == CategoryDictionary.STATUS_OF ? 1 : 0),
+                countIs + (status == CategoryDictionary.STATUS_IS ? 1 : 0),
+                countOther + (status > CategoryDictionary.STATUS_IS || status < 0 ? 1 : 0),
+                Math.min(latitudeMin, latitude), Math.max(latitudeMax, latitude),
+                Math.min(longitudeMin, longitude), Math.max(longitudeMax, longitude));
+    }
+
+    public double speedAverage() {
+        return count > 0 ? (double) speedSum / count : 0;
+    }
+
+    public Map<String, Object> asMap() {
+        return new RecordMap(Constants.ROLLUP_KEYS, slot -> switch (slot) {
+            case 0 -> Timestamps.format(start);
+            case 1 -> count;
+            case 2 -> String.format("%d / %.1f / %d", speedMin, speedAverage(), speedMax);
+            case 3 -> batteryFirst + " -> " + batteryLast + " (min " + batteryMin + ", max " + batteryMax + ")";
+            case 4 -> Constants.STATUS_ON + " " + countOn + ", " + Constants.STATUS_OF + " " + countOf + ", "
+                    + Constants.STATUS_IS + " " + countIs + (countOther > 0 ? ", other " + countOther : "");
+            case 5 -> latitudeMin + " .. " + latitudeMax;
+            case 6 -> longitudeMin + " .. " + longitudeMax;
+            default -> null;
+        });
+    }
+}
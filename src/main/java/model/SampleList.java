@@ -0,0 +1,32 @@
+package main.java.model;
+
+import java.util.AbstractList;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list of map views over a {@link DynamicsView}, creating each map on access.
+ */
+
+final class SampleList extends AbstractList<Map<String, Object>> implements RandomAccess {
+    private final DynamicsView view;
+    private final String droneUrl;
+
+    SampleList(DynamicsView view, String droneUrl) {
+        this.view = view;
+        this.droneUrl = droneUrl;
+    }
+
+    @Override
+    public Map<String, Object> get(int index) {
+        if (index < 0 || index >= view.size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return view.sampleAt(index, droneUrl);
+    }
+
+    @Override
+    public int size() {
+        return view.size();
+    }
+}
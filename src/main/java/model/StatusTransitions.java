@@ -0,0 +1,216 @@
+package main.java.model;
+
+import main.java.util.Timestamps;
+
+/**
+ * Immutable, time-ordered log of the status transitions of one drone: the timestamp of the first sample with a
+ * new status, the status before and the status after, as {@link CategoryDictionary#STATUS} codes.
+ * <p>
+ * The log is built at ingest from the samples that are appended, so questions about status changes are answered
+ * from the few transitions instead of the samples. The first sample of a drone is logged as a transition from
+ * {@link DynamicsSeries#STATUS_UNKNOWN}. Appending shares the columns with the previous log, so it costs
+ * {@code O(1)} amortized; a log never sees rows written after it was created, and appending to a log that is
+ * not the latest one copies the columns first.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #of(DynamicsView) of}: Builds the log of all samples.</li>
+ *     <li>{@link #append(DynamicsView, int) append}: Returns the log extended by the transitions of new samples.</li>
+ *     <li>{@link #with(long, byte, byte) with}: Returns the log extended by one transition.</li>
+ *     <li>{@link #lowerBound(long) lowerBound}: Returns the first transition at or after a timestamp.</li>
+ *     <li>{@link #lastInto(byte) lastInto}: Returns the latest transition into a status.</li>
+ *     <li>{@link #extendsLog(StatusTransitions) extendsLog}: Returns whether this log was appended to another one.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class StatusTransitions {
+    private static final StatusTransitions EMPTY = new StatusTransitions(new Columns(0, new Object()), 0);
+
+    private final Columns columns;
+    private final int size;
+
+    private StatusTransitions(Columns columns, int size) {
+        this.columns = columns;
+        this.size = size;
+    }
+
+    public static StatusTransitions empty() {
+        return EMPTY;
+    }
+
+    public static StatusTransitions of(DynamicsView samples) {
+        return EMPTY.append(samples, 0);
+    }
+
+    /**
+     * @param from first new sample; the samples before it are the ones this log was built from.
+     * @return this log extended by the transitions among the samples from {@code from} on.
+     */
+    public StatusTransitions append(DynamicsView samples, int from) {
+        StatusTransitions log = this;
+        byte previous = from > 0 ? samples.statusAt(from - 1) : DynamicsSeries.STATUS_UNKNOWN;
+        for (int i = from; i < samples.size(); i++) {
+            byte status = samples.statusAt(i);
+            if (status != previous) {
+                log = log.with(samples.timestampAt(i), previous, status);
+                previous = status;
+            }
+        }
+        return log;
+    }
+
+    /**
+     * @return this log extended by a transition that is not older than the logged ones.
+     */
+    public StatusTransitions with(long timestamp, byte from, byte to) {
+        Columns target = size == 0 ? new Columns(8, new Object()) : columns;
+        synchronized (target) {
+            if (target.committed != size || size == target.timestamps.length) {
+                target = target.copy(size, size + (size >> 1) + 1);
+            }
+            target.timestamps[size] = timestamp;
+            target.from[size] = from;
+            target.to[size] = to;
+            target.committed = size + 1;
+        }
+        return new StatusTransitions(target, size + 1);
+    }
+
+    /**
+     * @return whether this log holds the transitions of {@code earlier} followed by the ones appended since,
+     * rather than a log that was started anew.
+     */
+    public boolean extendsLog(StatusTransitions earlier) {
+        return earlier.size <= size && (earlier.size == 0 || earlier.columns.lineage == columns.lineage);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long timestampAt(int index) {
+        return columns.timestamps[checkIndex(index)];
+    }
+
+    public byte fromAt(int index) {
+        return columns.from[checkIndex(index)];
+    }
+
+    public byte toAt(int index) {
+        return columns.to[checkIndex(index)];
+    }
+
+    public Transition get(int index) {
+        return new Transition(timestampAt(index), fromAt(index), toAt(index));
+    }
+
+    /**
+     * @return the first index whose timestamp is {@code >= epochMillis}, {@link #size()} if there is none.
+     */
+    public int lowerBound(long epochMillis) {
+        long[] timestamps = columns.timestamps;
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of the latest transition into the status, -1 if the drone never entered it.
+     */
+    public int lastInto(byte status) {
+        byte[] to = columns.to;
+        for (int i = size - 1; i >= 0; i--) {
+            if (to[i] == status) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the status in effect at {@code epochMillis}, {@link DynamicsSeries#STATUS_UNKNOWN} before the first sample.
+     */
+    public byte statusAsOf(long epochMillis) {
+        int index = epochMillis == Long.MAX_VALUE ? size - 1 : lowerBound(epochMillis + 1) - 1;
+        return index >= 0 ? columns.to[index] : DynamicsSeries.STATUS_UNKNOWN;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return index;
+    }
+
+    /**
+     * One status transition.
+     */
+    public record Transition(long timestamp, byte from, byte to) {
+
+        public String fromStatus() {
+            return DynamicsSeries.decodeStatus(from);
+        }
+
+        public String toStatus() {
+            return DynamicsSeries.decodeStatus(to);
+        }
+
+        @Override
+        public String toString() {
+            return Timestamps.format(timestamp) + " " + fromStatus() + " -> " + toStatus();
+        }
+    }
+
+    /**
+     * A status transition of a drone of the fleet.
+     */
+    public record DroneTransition(DroneBase drone, Transition transition) {
+
+        public long timestamp() {
+            return transition.timestamp();
+        }
+
+        @Override
+        public String toString() {
+            return drone.getDetails().id() + ": " + transition;
+        }
+    }
+
+    private static final class Columns {
+        private final long[] timestamps;
+        private final byte[] from;
+        private final byte[] to;
+        private final Object lineage;
+        private int committed;
+
+        Columns(int capacity, Object lineage) {
+            this.lineage = lineage;
+            timestamps = new long[capacity];
+            from = new byte[capacity];
+            to = new byte[capacity];
+        }
+
+        Columns copy(int size, int capacity) {
+            Columns copy = new Columns(capacity, lineage);
+            System.arraycopy(timestamps, 0, copy.timestamps, 0, size);
+            System.arraycopy(from, 0, copy.from, 0, size);
+            System.arraycopy(to, 0, copy.to, 0, size);
+            copy.committed = size;
+            return copy;
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package main.java.services;
 
 import main.java.api.DroneAPI;
+import main.java.api.ResponseSource;
 import main.java.model.DroneBase;
+import main.java.model.DroneDetails;
+import main.java.model.DroneType;
+import main.java.model.DynamicsSeries;
+import main.java.storage.TelemetryStorage;
 import main.java.util.ConfigurationLoader;
 import main.java.util.Constants;
 import main.java.util.Logs;
@@ -14,6 +19,8 @@ import java.util.Map;
 /**
  * The {@code ApiFetchers} class extends {@link ApiOperations} and is responsible for fetching data from the API.
  * It retrieves drone details, type information, and dynamics information.
+ * Dynamics responses are parsed by the {@link DynamicsParser} straight into a {@link DynamicsSeries}, and count
+ * requests ask for a single record, since only the {@code count} of the response is read.
  * <p>
  * Methods:
  * <ul>
@@ -23,9 +30,11 @@ import java.util.Map;
  *         Fetches drone type data and returns the response.</li>
  *     <li>{@link #fetchDroneDynamicsData(Map, boolean) fetchDroneDynamicsData}:
  *         Fetches drone dynamics data and returns the response.</li>
+ *     <li>{@link #fetchDroneDynamicsSince(Map, int) fetchDroneDynamicsSince}:
+ *         Fetches only the drone dynamics records after a sync offset.</li>
  *     <li>{@link #fetchCount(Map, boolean) fetchCount}:
  *         Fetches the count of drones or drone dynamics and returns it.</li>
- *     <li>{@link #processDroneData(Map, Map, List) processDroneData}:
+ *     <li>{@link #processDroneData(Map, Map, DynamicsSeries) processDroneData}:
  *         Processes drone data and returns a {@link DroneBase} object.</li>
  * </ul>
  * </p>
@@ -36,13 +45,17 @@ public class ApiFetchers extends ApiOperations {
         super(configLoader);
     }
 
+    public ApiFetchers(ConfigurationLoader configLoader, ResponseSource responseSource) {
+        super(configLoader, responseSource);
+    }
+
     @Override
     public List<Map<String, Object>> executeDroneRequest(Map<String, Object> droneInfo) {
         try {
             int droneCount = fetchCount(droneInfo, false);
             String endpoint = droneEndpoint + "?limit=" + droneCount;
             DroneAPI dronesDataAPI = new DroneAPI(apiUrl, endpoint, authenticationToken, userAgentHeader);
-            return ResponseHandler.handle(Constants.DETAILS, dronesDataAPI.retrieveResponse());
+            return ResponseHandler.handle(Constants.DETAILS, responseSource.retrieveResponse(dronesDataAPI));
         } catch (Exception e) {
             Logs.error("Error occurred in Fetchers.executeDroneRequest() : " + e.getMessage());
             return Collections.emptyList();
@@ -54,7 +67,7 @@ public class ApiFetchers extends ApiOperations {
         try {
             String typeUrl = (String) droneInfo.get(Constants.DRONE_TYPE);
             DroneAPI droneTypeAPI = new DroneAPI(typeUrl, "", authenticationToken, userAgentHeader);
-            List<Map<String, Object>> typeInfo = ResponseHandler.handle(Constants.TYPES, droneTypeAPI.retrieveResponse());
+            List<Map<String, Object>> typeInfo = ResponseHandler.handle(Constants.TYPES, responseSource.retrieveResponse(droneTypeAPI));
             return !typeInfo.isEmpty() ? typeInfo.get(0) : null;
         } catch (Exception e) {
             Logs.error("Error occurred in Fetchers.fetchDroneTypeData() : " + e.getMessage());
@@ -63,7 +76,7 @@ public class ApiFetchers extends ApiOperations {
     }
 
     @Override
-    public List<Map<String, Object>> fetchDroneDynamicsData(Map<String, Object> droneInfo, boolean isLast) {
+    public DynamicsSeries fetchDroneDynamicsData(Map<String, Object> droneInfo, boolean isLast) {
         try {
             int dynamicsCount = fetchCount(droneInfo, true);
             String endpoint = "/api/" + droneInfo.get(Constants.DRONE_ID) + "/dynamics?limit=" + dynamicsCount;
@@ -71,22 +84,46 @@ public class ApiFetchers extends ApiOperations {
                 endpoint = "/api/" + droneInfo.get(Constants.DRONE_ID) + "/dynamics?limit=1&offset=" + (dynamicsCount - 1);
             }
             DroneAPI droneDynamicsDataAPI = new DroneAPI(apiUrl, endpoint, authenticationToken, userAgentHeader);
-            return ResponseHandler.handle(Constants.DYNAMICS, droneDynamicsDataAPI.retrieveResponse());
+            return DynamicsParser.parse(responseSource.retrieveResponse(droneDynamicsDataAPI), isLast ? 1 : dynamicsCount);
         } catch (Exception e) {
             Logs.error("Error occurred in Fetchers.fetchDroneDynamicsData() : " + e.getMessage());
-            return Collections.emptyList();
+            return DynamicsSeries.empty();
+        }
+    }
+
+    /**
+     * @return the dynamics records from {@code offset} on, empty if there are none,
+     * null if the API holds fewer records than the offset or the request failed and a full fetch is needed.
+     */
+    @Override
+    public DynamicsSeries fetchDroneDynamicsSince(Map<String, Object> droneInfo, int offset) {
+        try {
+            int dynamicsCount = fetchCount(droneInfo, true);
+            if (dynamicsCount < offset) {
+                return null;
+            }
+            if (dynamicsCount == offset) {
+                return DynamicsSeries.empty();
+            }
+            String endpoint = "/api/" + droneInfo.get(Constants.DRONE_ID) + "/dynamics?limit=" + (dynamicsCount - offset)
+                    + "&offset=" + offset;
+            DroneAPI droneDynamicsDataAPI = new DroneAPI(apiUrl, endpoint, authenticationToken, userAgentHeader);
+            return DynamicsParser.parse(responseSource.retrieveResponse(droneDynamicsDataAPI), dynamicsCount - offset);
+        } catch (Exception e) {
+            Logs.error("Error occurred in Fetchers.fetchDroneDynamicsSince() : " + e.getMessage());
+            return null;
         }
     }
 
     @Override
     public int fetchCount(Map<String, Object> droneInfo, boolean isDynamics) {
         try {
-            String endpoint = droneEndpoint;
+            String endpoint = droneEndpoint + "?limit=1";
             if (isDynamics) {
-                endpoint = "/api/" + droneInfo.get(Constants.DRONE_ID) + "/dynamics";
+                endpoint = "/api/" + droneInfo.get(Constants.DRONE_ID) + "/dynamics?limit=1";
             }
             DroneAPI dronesAPI = new DroneAPI(apiUrl, endpoint, authenticationToken, userAgentHeader);
-            return ResponseHandler.extractCount(dronesAPI.retrieveResponse());
+            return ResponseHandler.extractCount(responseSource.retrieveResponse(dronesAPI));
         } catch (Exception e) {
             Logs.error("Error occurred in Fetchers.fetchCount() : " + e.getMessage());
             return -1;
@@ -94,11 +131,14 @@ public class ApiFetchers extends ApiOperations {
     }
 
     @Override
-    public DroneBase processDroneData(Map<String, Object> droneInfo, Map<String, Object> typeInfo, List<Map<String, Object>> dynamicsInfo) {
+    public DroneBase processDroneData(Map<String, Object> droneInfo, Map<String, Object> typeInfo, DynamicsSeries dynamics) {
         try {
-            DroneBase droneObject = new DroneBase(droneInfo, typeInfo, dynamicsInfo);
-            droneObject.updateLatestData();
-            return droneObject;
+            DroneDetails details = DroneDetails.fromMap(droneInfo);
+            int droneId = details != null ? details.id() : 0;
+            DroneBase drone = new DroneBase(details, DroneType.fromMap(typeInfo),
+                    TelemetryStorage.createStore(droneId, dynamics));
+            drone.setSyncOffset(dynamics.size());
+            return drone;
         } catch (Exception e) {
             Logs.error("Error occurred in Fetchers.processDroneData() : " + e.getMessage());
             return null;
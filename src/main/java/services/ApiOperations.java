@@ -1,7 +1,10 @@
 package main.java.services;
 
 
+import main.java.api.ResponseSource;
+import main.java.api.ResponseSources;
 import main.java.model.DroneBase;
+import main.java.model.DynamicsSeries;
 import main.java.util.Coding;
 import main.java.util.ConfigurationLoader;
 
@@ -12,6 +15,9 @@ import java.util.Map;
  * The {@code ApiOperations} class is an abstract class representing operations related to API interactions.
  * It contains methods for executing drone requests, fetching drone count, fetching drone type data,
  * fetching drone dynamics data, and processing drone data.
+ * Responses come from a pluggable {@link ResponseSource}: the configured one of {@link ResponseSources} by default,
+ * or any source given to the constructor, e.g. a replay of recorded exchanges.
+ * Dynamics are returned as {@link DynamicsSeries} parsed straight from the response, without per-sample maps.
  * <p>
  * Subclasses:
  * <ul>
@@ -27,12 +33,18 @@ public abstract class ApiOperations {
     protected final String authenticationToken;
     protected final String userAgentHeader;
     protected final String droneEndpoint;
+    protected final ResponseSource responseSource;
 
     public ApiOperations(ConfigurationLoader configLoader) {
+        this(configLoader, ResponseSources.current());
+    }
+
+    public ApiOperations(ConfigurationLoader configLoader, ResponseSource responseSource) {
         this.apiUrl = configLoader.read("client", "domain");
         this.authenticationToken = Coding.decode(configLoader.read("client", "token"));
         this.userAgentHeader = configLoader.read("client", "agent");
         this.droneEndpoint = configLoader.read("client", "endpoints.drones");
+        this.responseSource = responseSource;
     }
 
     public abstract List<Map<String, Object>> executeDroneRequest(Map<String, Object> droneInfo);
@@ -41,7 +53,9 @@ public abstract class ApiOperations {
 
     public abstract Map<String, Object> fetchDroneTypeData(Map<String, Object> droneInfo);
 
-    public abstract List<Map<String, Object>> fetchDroneDynamicsData(Map<String, Object> droneInfo, boolean isLast);
+    public abstract DynamicsSeries fetchDroneDynamicsData(Map<String, Object> droneInfo, boolean isLast);
+
+    public abstract DynamicsSeries fetchDroneDynamicsSince(Map<String, Object> droneInfo, int offset);
 
-    public abstract DroneBase processDroneData(Map<String, Object> droneInfo, Map<String, Object> typeInfo, List<Map<String, Object>> dynamicsInfo);
+    public abstract DroneBase processDroneData(Map<String, Object> droneInfo, Map<String, Object> typeInfo, DynamicsSeries dynamics);
 }
\ No newline at end of file
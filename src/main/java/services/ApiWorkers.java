@@ -1,11 +1,13 @@
 package main.java.services;
 
 import main.java.model.DroneBase;
+import main.java.model.DroneDetails;
+import main.java.model.DynamicsSeries;
+import main.java.util.AllocationMeter;
 import main.java.util.ConfigurationLoader;
-import main.java.util.Constants;
 import main.java.util.Logs;
 
-import java.util.List;
+import java.io.UncheckedIOException;
 import java.util.Map;
 import java.util.concurrent.*;
 
@@ -15,40 +17,91 @@ import java.util.concurrent.*;
  * <p>
  * It overrides the {@code run} method, which is called when the thread is started. The worker thread fetches
  * drone type data and drone dynamics data concurrently using CompletableFuture. It then processes the
- * drone data and adds the resulting {@code DroneBase} object to the shared {@code ConcurrentLinkedQueue}.
+ * drone data and adds the resulting {@code DroneBase} object to the next version of the {@link ModelStore}.
+ * </p>
+ * <p>
+ * If the current fleet, e.g. loaded from the {@link main.java.storage.FleetCache}, already holds the drone with
+ * unchanged details, only the dynamics after its sync offset are fetched, and a new version of the drone holding
+ * them is added; the published drone is not changed.
+ * </p>
+ * <p>
+ * Type and dynamics are fetched on a shared pool of daemon threads, so the threads and their pooled parsers are
+ * reused across drones and polls. The heap allocated by each worker is added to the {@link AllocationMeter}.
  * </p>
  */
 
 
 public class ApiWorkers extends ApiFetchers implements Runnable {
-    private final ConcurrentLinkedQueue<DroneBase> droneModels;
+    private static final ExecutorService FETCH_EXECUTOR = createFetchExecutor();
     private final Map<String, Object> droneInfo;
     private final CountDownLatch completionLatch;
+    private final ModelStore.Refresh refresh;
 
-    public ApiWorkers(Map<String, Object> droneInfo, ConfigurationLoader configLoader, CountDownLatch completionLatch) {
+    public ApiWorkers(Map<String, Object> droneInfo, ConfigurationLoader configLoader, CountDownLatch completionLatch,
+                      ModelStore.Refresh refresh) {
         super(configLoader);
         this.completionLatch = completionLatch;
-        this.droneModels = ModelsHandler.getInstance();
         this.droneInfo = droneInfo;
+        this.refresh = refresh;
     }
 
     @Override
     public void run() {
-        ExecutorService executorService = Executors.newCachedThreadPool();
+        long allocation = AllocationMeter.start();
+        try {
+            if (!syncKnownDrone()) {
+                fetchDrone();
+            }
+        } finally {
+            AllocationMeter.stop(allocation);
+            completionLatch.countDown();
+        }
+    }
+
+    private boolean syncKnownDrone() {
+        DroneDetails details = DroneDetails.fromMap(droneInfo);
+        DroneBase known = details != null ? ModelStore.getInstance().snapshot().getDrone(details.id()) : null;
+        if (known == null || known.getType() == null || !details.equals(known.getDetails())) {
+            return false;
+        }
+        DynamicsSeries delta = fetchDroneDynamicsSince(droneInfo, known.getSyncOffset());
+        if (delta == null) {
+            return false;
+        }
+        try {
+            refresh.add(delta.isEmpty() ? known : known.withDynamics(delta, known.getSyncOffset() + delta.size()));
+        } catch (UncheckedIOException e) {
+            Logs.error("Error occurred in ApiWorkers.syncKnownDrone() : " + e.getMessage());
+            // Not added: the refresh keeps the previous version and the delta is fetched again next time.
+            return true;
+        }
+        Logs.info("Drone data synced, id: " + details.id() + ", new dynamics: " + delta.size());
+        return true;
+    }
+
+    private void fetchDrone() {
         CompletableFuture<Map<String, Object>> droneTypeFuture = CompletableFuture.supplyAsync(
-                () -> fetchDroneTypeData(droneInfo), executorService
+                () -> AllocationMeter.measure(() -> fetchDroneTypeData(droneInfo)), FETCH_EXECUTOR
         );
 
-        CompletableFuture<List<Map<String, Object>>> droneDynamicsFuture = CompletableFuture.supplyAsync(
-                () -> fetchDroneDynamicsData(droneInfo, false), executorService
+        CompletableFuture<DynamicsSeries> droneDynamicsFuture = CompletableFuture.supplyAsync(
+                () -> AllocationMeter.measure(() -> fetchDroneDynamicsData(droneInfo, false)), FETCH_EXECUTOR
         );
 
         CompletableFuture.allOf(droneTypeFuture, droneDynamicsFuture).join();
 
         DroneBase droneObject = processDroneData(droneInfo, droneTypeFuture.join(), droneDynamicsFuture.join());
-        droneModels.add(droneObject);
-        Logs.info("Drone data added to droneModels, id: " + droneObject.getDroneDetails().get(Constants.DRONE_ID));
-        completionLatch.countDown();
-        executorService.shutdown();
+        refresh.add(droneObject);
+        if (droneObject != null && droneObject.getDetails() != null) {
+            Logs.info("Drone data added to droneModels, id: " + droneObject.getDetails().id());
+        }
+    }
+
+    private static ExecutorService createFetchExecutor() {
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "drone-fetch");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package main.java.services;
+
+import main.java.model.DynamicsSeries;
+import main.java.util.Constants;
+import main.java.util.JsonScanner;
+import main.java.util.Timestamps;
+
+/**
+ * The {@code DynamicsParser} class reads a dynamics response straight into the columns of a {@link DynamicsSeries}.
+ * <p>
+ * Unlike {@link main.java.util.ResponseHandler}, it builds no {@code JSONObject} tree and no {@code HashMap} per
+ * sample: the {@link JsonScanner} walks the text once and every field is written into one mutable sample slot,
+ * which is appended to the builder and cleared for the next record. The only allocations are the columns of the
+ * resulting series, sized by the expected record count. One parser is kept per thread.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #parse(CharSequence, int) parse}: Parses a paged response, or a single record, into a series.</li>
+ * </ul>
+ * </p>
+ */
+
+final class DynamicsParser {
+    private static final ThreadLocal<DynamicsParser> PARSERS = ThreadLocal.withInitial(DynamicsParser::new);
+    private static final String[] KEYS = Constants.DRONE_DYNAMIC_KEYS;
+
+    private final JsonScanner scanner = new JsonScanner();
+    private final Sample sample = new Sample();
+
+    private DynamicsParser() {
+    }
+
+    /**
+     * @param response       body of a dynamics request, with a {@code results} array or a single record.
+     * @param expectedSize   expected number of records, used to size the columns.
+     * @return the records of the response in timestamp order, one sample per record.
+     * @throws IllegalArgumentException if the response is null or not well-formed JSON.
+     */
+    static DynamicsSeries parse(CharSequence response, int expectedSize) {
+        if (response == null) {
+            throw new IllegalArgumentException("No dynamics response");
+        }
+        return PARSERS.get().read(response, expectedSize);
+    }
+
+    private DynamicsSeries read(CharSequence response, int expectedSize) {
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(expectedSize);
+        scanner.reset(response);
+        sample.clear();
+        if (!scanner.beginObject()) {
+            return builder.build();
+        }
+        boolean paged = false;
+        while (scanner.nextKey()) {
+            if (scanner.keyEquals(Constants.RESULTS) && scanner.peek() == '[') {
+                paged = true;
+                readResults(builder);
+            } else {
+                readField();
+            }
+        }
+        if (!paged) {
+            sample.appendTo(builder);
+        }
+        return builder.build();
+    }
+
+    private void readResults(DynamicsSeries.Builder builder) {
+        scanner.beginArray();
+        while (scanner.nextElement()) {
+            if (!scanner.beginObject()) {
+                continue;
+            }
+            sample.clear();
+            while (scanner.nextKey()) {
+                readField();
+            }
+            sample.appendTo(builder);
+        }
+        sample.clear();
+    }
+
+    /**
+     * Reads the value of the current key into the sample slot, using the slots of {@link Constants#DRONE_DYNAMIC_KEYS}.
+     */
+    private void readField() {
+        switch (slotOfKey()) {
+            case 1 -> sample.timestamp = Timestamps.parse(scanner.stringValue());
+            case 2 -> sample.speed = (int) scanner.doubleValue();
+            case 3 -> sample.roll = (float) scanner.doubleValue();
+            case 4 -> sample.pitch = (float) scanner.doubleValue();
+            case 5 -> sample.yaw = (float) scanner.doubleValue();
+            case 6 -> sample.longitude = scanner.doubleValue();
+            case 7 -> sample.latitude = scanner.doubleValue();
+            case 8 -> sample.battery = (int) scanner.doubleValue();
+            case 9 -> sample.lastSeen = Timestamps.parse(scanner.stringValue());
+            case 10 -> sample.status = DynamicsSeries.encodeStatus(scanner.stringValue());
+            default -> scanner.skipValue();
+        }
+    }
+
+    private int slotOfKey() {
+        for (int slot = 1; slot < KEYS.length; slot++) {
+            if (scanner.keyEquals(KEYS[slot])) {
+                return slot;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Mutable slot for the record being parsed, with the same defaults as a missing field in the map based path.
+     */
+    private static final class Sample {
+        long timestamp;
+        long lastSeen;
+        int speed;
+        double latitude;
+        double longitude;
+        int battery;
+        float roll;
+        float pitch;
+        float yaw;
+        byte status;
+
+        void clear() {
+            timestamp = Timestamps.NONE;
+            lastSeen = Timestamps.NONE;
+            speed = 0;
+            latitude = 0.0;
+            longitude = 0.0;
+            battery = 0;
+            roll = 0f;
+            pitch = 0f;
+            yaw = 0f;
+            status = DynamicsSeries.STATUS_UNKNOWN;
+        }
+
+        void appendTo(DynamicsSeries.Builder builder) {
+            builder.append(timestamp, lastSeen, speed, latitude, longitude, battery, roll, pitch, yaw, status);
+        }
+    }
+}
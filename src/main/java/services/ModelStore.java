@@ -0,0 +1,203 @@
+package main.java.services;
+
+import main.java.model.ChangeSet;
+import main.java.model.ChangeTracker;
+import main.java.model.DroneBase;
+import main.java.model.FleetCounters;
+import main.java.model.FleetOrderings;
+import main.java.model.FleetSnapshot;
+import main.java.util.Logs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * The {@code ModelStore} class holds the current version of the drone models as an immutable {@link FleetSnapshot}.
+ * <p>
+ * A refresh collects the drones of the next version in a {@link Refresh} while readers keep using the current
+ * snapshot. {@link Refresh#publish()} swaps the finished version in atomically, so readers never see a
+ * half-refreshed fleet, and a reader holding an old snapshot keeps a consistent view of it. A refresh against the
+ * API listing is published with {@link Refresh#publish(Collection)}, which keeps the previous version of every
+ * listed drone the refresh did not get, e.g. because its request failed or timed out, instead of removing it.
+ * </p>
+ * <p>
+ * Every published version also yields a {@link ChangeSet} against the previous one. Consumers either subscribe
+ * and are notified on the publishing thread in version order, or ask for the changes since a version they have
+ * seen. The change sets of the last {@value #HISTORY_VERSIONS} versions are kept for that. The
+ * {@link FleetCounters} and {@link FleetOrderings} are updated from each change set before the subscribers are
+ * notified.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #getInstance() getInstance}: Returns the store of the application.</li>
+ *     <li>{@link #snapshot() snapshot}: Returns the current snapshot without locking.</li>
+ *     <li>{@link #beginRefresh() beginRefresh}: Starts collecting the next version.</li>
+ *     <li>{@link #subscribe(Consumer) subscribe}, {@link #unsubscribe(Consumer) unsubscribe}:
+ *         Register a consumer of the change set of every published version.</li>
+ *     <li>{@link #changesSince(long) changesSince}: Returns the change sets published after a version.</li>
+ *     <li>{@link #counters() counters}: Returns the drone counts per status, type and battery band.</li>
+ *     <li>{@link #orderings() orderings}: Returns the drones sorted by id, battery, last seen and status.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class ModelStore {
+    private static final ModelStore INSTANCE = new ModelStore();
+    static final int HISTORY_VERSIONS = 64;
+
+    private final AtomicReference<FleetSnapshot> current = new AtomicReference<>(FleetSnapshot.empty());
+    private final ChangeTracker tracker = new ChangeTracker();
+    private final Deque<ChangeSet> history = new ArrayDeque<>();
+    private final List<Consumer<ChangeSet>> subscribers = new CopyOnWriteArrayList<>();
+    private final FleetCounters counters = new FleetCounters();
+    private final FleetOrderings orderings = new FleetOrderings();
+
+    private ModelStore() {
+    }
+
+    public static ModelStore getInstance() {
+        return INSTANCE;
+    }
+
+    public FleetSnapshot snapshot() {
+        return current.get();
+    }
+
+    public Refresh beginRefresh() {
+        return new Refresh();
+    }
+
+    /**
+     * @return counters of the current snapshot, read in constant time.
+     */
+    public FleetCounters counters() {
+        return counters;
+    }
+
+    /**
+     * @return orderings of the current snapshot, maintained without sorting the fleet.
+     */
+    public FleetOrderings orderings() {
+        return orderings;
+    }
+
+    /**
+     * The subscriber is called on the publishing thread while the next version waits; hand off long work.
+     */
+    public void subscribe(Consumer<ChangeSet> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void unsubscribe(Consumer<ChangeSet> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * @return the change sets of the versions after {@code version} in order, empty if it is the current one,
+     * null if they are no longer kept and the consumer has to start over from {@link #snapshot()}.
+     */
+    public synchronized List<ChangeSet> changesSince(long version) {
+        List<ChangeSet> changes = new ArrayList<>();
+        for (ChangeSet changeSet : history) {
+            if (changeSet.version() > version) {
+                changes.add(changeSet);
+            }
+        }
+        if (!changes.isEmpty() && changes.get(0).fromVersion() > version) {
+            return null;
+        }
+        return changes;
+    }
+
+    /**
+     * @param listed ids of the drones that are still in the fleet, null if {@code drones} is the whole fleet.
+     */
+    private synchronized FleetSnapshot publish(Map<Integer, DroneBase> drones, Collection<Integer> listed) {
+        if (listed != null) {
+            drones = keepMissing(drones, listed);
+        }
+        FleetSnapshot previous = current.get();
+        FleetSnapshot next = FleetSnapshot.of(previous.getVersion() + 1, drones.values());
+        ChangeSet changes = tracker.track(next);
+        next.deriveCatalogueIndex(previous, changes);
+        current.set(next);
+        history.addLast(changes);
+        if (history.size() > HISTORY_VERSIONS) {
+            history.removeFirst();
+        }
+        Logs.info("Published fleet version " + next.getVersion() + " with " + next.size() + " drones : "
+                + changes.summary());
+        counters.accept(changes);
+        orderings.accept(changes);
+        for (Consumer<ChangeSet> subscriber : subscribers) {
+            try {
+                subscriber.accept(changes);
+            } catch (Exception e) {
+                Logs.error("Error occurred in ModelStore.publish() : " + e.getMessage());
+            }
+        }
+        return next;
+    }
+
+    private Map<Integer, DroneBase> keepMissing(Map<Integer, DroneBase> drones, Collection<Integer> listed) {
+        FleetSnapshot previous = current.get();
+        Map<Integer, DroneBase> merged = new HashMap<>(drones);
+        int kept = 0;
+        for (Integer id : listed) {
+            DroneBase known = id != null && !merged.containsKey(id) ? previous.getDrone(id) : null;
+            if (known != null) {
+                merged.put(id, known);
+                kept++;
+            }
+        }
+        if (kept > 0) {
+            Logs.warning("Kept the previous version of " + kept + " drones that were not refreshed");
+        }
+        return merged;
+    }
+
+    /**
+     * The drones of the next version. Workers may add drones concurrently.
+     */
+    public final class Refresh {
+        private final Map<Integer, DroneBase> drones = new ConcurrentHashMap<>();
+
+        private Refresh() {
+        }
+
+        public void add(DroneBase drone) {
+            if (drone == null || drone.getDetails() == null) {
+                Logs.warning("Drone without details not added to the fleet");
+                return;
+            }
+            drones.put(drone.getDetails().id(), drone);
+        }
+
+        /**
+         * Makes the collected drones the current version; drones that were not added are removed.
+         */
+        public FleetSnapshot publish() {
+            return ModelStore.this.publish(drones, null);
+        }
+
+        /**
+         * Makes the collected drones the current version. A listed drone that was not added keeps its previous
+         * version; only drones that are neither added nor listed are removed.
+         *
+         * @param listed ids of the drones in the API listing the refresh was started from.
+         */
+        public FleetSnapshot publish(Collection<Integer> listed) {
+            return ModelStore.this.publish(drones, listed);
+        }
+    }
+}
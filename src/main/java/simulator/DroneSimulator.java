@@ -0,0 +1,70 @@
+package main.java.simulator;
+
+import com.sun.net.httpserver.HttpServer;
+import main.java.util.Logs;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The {@code DroneSimulator} class is a local stand-in for the drone simulator API, used to load test the client
+ * against an upstream with a known fleet size, sample count, latency and payload size.
+ * <p>
+ * Start it with e.g. {@code java main.java.simulator.DroneSimulator --drones 10000 --samples 100 --latency 20}
+ * (options in {@link SimulatorSettings}) and point {@code client.domain} of the configuration to
+ * {@code http://localhost:8000}. The token is accepted but not checked.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #main(String[]) main}: Starts a simulator with the settings of the command line.</li>
+ *     <li>{@link #start() start}: Starts serving requests.</li>
+ *     <li>{@link #stop() stop}: Stops the server and its threads.</li>
+ *     <li>{@link #getPort() getPort}: Returns the bound port, useful when started on port 0.</li>
+ * </ul>
+ * </p>
+ */
+
+public class DroneSimulator {
+    private final SimulatorSettings settings;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SimulatorHandler handler;
+
+    public DroneSimulator(SimulatorSettings settings) throws IOException {
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress(settings.port()), 0);
+        this.executor = Executors.newFixedThreadPool(settings.threads());
+        this.handler = new SimulatorHandler(new SyntheticFleet(settings, System.currentTimeMillis()), settings.latencyMillis());
+        server.createContext("/api/", handler);
+        server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) {
+        try {
+            DroneSimulator simulator = new DroneSimulator(SimulatorSettings.parse(args));
+            simulator.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(simulator::stop));
+        } catch (IOException | IllegalArgumentException e) {
+            Logs.error("Error occurred in DroneSimulator.main() : " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    public void start() {
+        server.start();
+        Logs.info("Drone simulator listening on port " + getPort() + " : " + settings);
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        Logs.info("Drone simulator stopped after " + handler.requestCount() + " requests");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,171 @@
+package main.java.simulator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import main.java.util.Constants;
+import main.java.util.Logs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves the endpoints of the drone simulator API used by the client from a {@link SyntheticFleet}.
+ * <p>
+ * Endpoints (trailing slash optional):
+ * <ul>
+ *     <li>{@code /api/drones}, {@code /api/drones/{id}}</li>
+ *     <li>{@code /api/dronetypes}, {@code /api/dronetypes/{id}}</li>
+ *     <li>{@code /api/{id}/dynamics}: Dynamics of one drone in time order.</li>
+ *     <li>{@code /api/dronedynamics}: Dynamics of all drones, ordered by sample index and drone id.</li>
+ * </ul>
+ * Lists are paginated with {@code limit} (default {@value #DEFAULT_LIMIT}) and {@code offset} and answered as
+ * {@code {"count", "next", "previous", "results"}}; single records are answered as plain objects.
+ * Responses are streamed with chunked encoding, so large pages are never held in memory.
+ * </p>
+ */
+
+final class SimulatorHandler implements HttpHandler {
+    static final int DEFAULT_LIMIT = 100;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final SyntheticFleet fleet;
+    private final int latencyMillis;
+    private final LongAdder requests = new LongAdder();
+
+    SimulatorHandler(SyntheticFleet fleet, int latencyMillis) {
+        this.fleet = fleet;
+        this.latencyMillis = latencyMillis;
+    }
+
+    long requestCount() {
+        return requests.sum();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        try (exchange) {
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_BAD_METHOD, -1);
+                return;
+            }
+            route(exchange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            Logs.error("Error occurred in SimulatorHandler.handle() : " + e.getMessage());
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String baseUrl = "http://" + exchange.getRequestHeaders().getFirst("Host");
+        long now = System.currentTimeMillis();
+        if (path.length < 2 || !"api".equals(path[0])) {
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1);
+            return;
+        }
+        if (path.length == 2 && "drones".equals(path[1])) {
+            writePage(exchange, baseUrl, query, fleet.droneCount(),
+                    (out, index) -> fleet.writeDrone(out, baseUrl, (int) index + 1));
+        } else if (path.length == 3 && "drones".equals(path[1]) && inRange(path[2], fleet.droneCount())) {
+            writeRecord(exchange, out -> fleet.writeDrone(out, baseUrl, Integer.parseInt(path[2])));
+        } else if (path.length == 2 && "dronetypes".equals(path[1])) {
+            writePage(exchange, baseUrl, query, fleet.typeCount(), (out, index) -> fleet.writeType(out, (int) index + 1));
+        } else if (path.length == 3 && "dronetypes".equals(path[1]) && inRange(path[2], fleet.typeCount())) {
+            writeRecord(exchange, out -> fleet.writeType(out, Integer.parseInt(path[2])));
+        } else if (path.length == 3 && "dynamics".equals(path[2]) && inRange(path[1], fleet.droneCount())) {
+            int droneId = Integer.parseInt(path[1]);
+            writePage(exchange, baseUrl, query, fleet.sampleCount(now),
+                    (out, index) -> fleet.writeSample(out, baseUrl, droneId, (int) index));
+        } else if (path.length == 2 && "dronedynamics".equals(path[1])) {
+            int drones = fleet.droneCount();
+            writePage(exchange, baseUrl, query, (long) fleet.sampleCount(now) * drones,
+                    (out, index) -> fleet.writeSample(out, baseUrl, (int) (index % drones) + 1, (int) (index / drones)));
+        } else {
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1);
+        }
+    }
+
+    private void writePage(HttpExchange exchange, String baseUrl, Map<String, String> query, long count,
+                           RecordWriter records) throws IOException {
+        long limit = Math.max(0, parseLong(query.get("limit"), DEFAULT_LIMIT));
+        long offset = Math.max(0, parseLong(query.get("offset"), 0));
+        long end = Math.min(count, offset + limit);
+        String pageUrl = baseUrl + exchange.getRequestURI().getPath() + "?limit=" + limit + "&offset=";
+        try (Writer out = open(exchange)) {
+            out.write("{\"" + Constants.COUNT + "\":" + count);
+            out.write(",\"next\":" + (end < count ? "\"" + pageUrl + end + "\"" : "null"));
+            out.write(",\"previous\":" + (offset > 0 ? "\"" + pageUrl + Math.max(0, offset - limit) + "\"" : "null"));
+            out.write(",\"" + Constants.RESULTS + "\":[");
+            for (long index = offset; index < end; index++) {
+                if (index > offset) {
+                    out.write(',');
+                }
+                records.write(out, index);
+            }
+            out.write("]}");
+        }
+    }
+
+    private void writeRecord(HttpExchange exchange, SingleWriter record) throws IOException {
+        try (Writer out = open(exchange)) {
+            record.write(out);
+        }
+    }
+
+    private Writer open(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+        return new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+
+    private static boolean inRange(String id, int max) {
+        long value = parseLong(id, -1);
+        return value >= 1 && value <= max;
+    }
+
+    private static long parseLong(String value, long fallback) {
+        try {
+            return value != null ? Long.parseLong(value) : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(parameter.substring(0, separator), parameter.substring(separator + 1));
+            }
+        }
+        return parameters;
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(Writer out, long index) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface SingleWriter {
+        void write(Writer out) throws IOException;
+    }
+}
@@ -0,0 +1,58 @@
+package main.java.simulator;
+
+/**
+ * Settings of the {@link DroneSimulator}, parsed from its command line.
+ * <p>
+ * Options (all optional):
+ * <ul>
+ *     <li>{@code --port} Port to listen on, default 8000.</li>
+ *     <li>{@code --drones} Number of drones, default 25.</li>
+ *     <li>{@code --types} Number of drone types, default 10.</li>
+ *     <li>{@code --samples} Dynamics samples per drone at start, default 1000.</li>
+ *     <li>{@code --interval} Seconds between two samples of a drone, default 10.</li>
+ *     <li>{@code --grow} Add a sample per drone every interval while running, default off.</li>
+ *     <li>{@code --latency} Milliseconds to wait before every response, default 0.</li>
+ *     <li>{@code --padding} Characters of filler added to every record to enlarge payloads, default 0.</li>
+ *     <li>{@code --threads} Request handler threads, default 32.</li>
+ * </ul>
+ * </p>
+ */
+
+public record SimulatorSettings(int port, int drones, int types, int samples, int intervalSeconds, boolean grow,
+                                int latencyMillis, int paddingBytes, int threads) {
+
+    public static SimulatorSettings parse(String[] args) {
+        int port = 8000;
+        int drones = 25;
+        int types = 10;
+        int samples = 1000;
+        int interval = 10;
+        boolean grow = false;
+        int latency = 0;
+        int padding = 0;
+        int threads = 32;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--grow" -> grow = true;
+                case "--port" -> port = value(args, ++i);
+                case "--drones" -> drones = value(args, ++i);
+                case "--types" -> types = value(args, ++i);
+                case "--samples" -> samples = value(args, ++i);
+                case "--interval" -> interval = value(args, ++i);
+                case "--latency" -> latency = value(args, ++i);
+                case "--padding" -> padding = value(args, ++i);
+                case "--threads" -> threads = value(args, ++i);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        return new SimulatorSettings(port, Math.max(0, drones), Math.max(1, types), Math.max(0, samples),
+                Math.max(1, interval), grow, Math.max(0, latency), Math.max(0, padding), Math.max(1, threads));
+    }
+
+    private static int value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        }
+        return Integer.parseInt(args[index]);
+    }
+}
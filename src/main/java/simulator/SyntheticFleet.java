@@ -0,0 +1,191 @@
+package main.java.simulator;
+
+import main.java.util.Constants;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Deterministic synthetic fleet served by the {@link DroneSimulator}.
+ * <p>
+ * Nothing is stored: every drone, type and sample is computed from its id and index when it is written, so
+ * memory use does not depend on the fleet size. Records have the fields and JSON types of the drone simulator
+ * API and are written straight to the response.
+ * </p>
+ * <p>
+ * Sample {@code j} of every drone is taken {@code interval} seconds after sample {@code j - 1}; the last initial
+ * sample is taken at server start. With {@code grow}, one sample per drone is added every interval.
+ * </p>
+ */
+
+final class SyntheticFleet {
+    private static final String[] CARRIAGE_TYPES = {"ACT", "SEN", "NOT"};
+    private static final String[] MANUFACTURERS = {"DJI", "Parrot", "Autel Robotics", "Skydio", "Yuneec", "Ehang"};
+    private static final String[] STATUSES = {"ON", "OF", "IS"};
+    private static final double BASE_LATITUDE = 50.1109;
+    private static final double BASE_LONGITUDE = 8.6821;
+
+    private final SimulatorSettings settings;
+    private final long startMillis;
+    private final String padding;
+
+    SyntheticFleet(SimulatorSettings settings, long startMillis) {
+        this.settings = settings;
+        this.startMillis = startMillis;
+        this.padding = "x".repeat(settings.paddingBytes());
+    }
+
+    int droneCount() {
+        return settings.drones();
+    }
+
+    int typeCount() {
+        return settings.types();
+    }
+
+    /**
+     * @return samples per drone at {@code nowMillis}.
+     */
+    int sampleCount(long nowMillis) {
+        if (!settings.grow() || nowMillis <= startMillis) {
+            return settings.samples();
+        }
+        long grown = (nowMillis - startMillis) / (settings.intervalSeconds() * 1_000L);
+        return (int) Math.min(Integer.MAX_VALUE, settings.samples() + grown);
+    }
+
+    void writeDrone(Writer out, String baseUrl, int id) throws IOException {
+        long hash = mix(id);
+        out.write("{\"" + Constants.DRONE_ID + "\":" + id
+                + ",\"" + Constants.DRONE_TYPE + "\":\"" + baseUrl + "/api/dronetypes/" + typeOf(id) + "/\""
+                + ",\"" + Constants.CREATED + "\":\"" + format(startMillis - (hash & 0x3FFFFFFFFL)) + "\""
+                + ",\"" + Constants.SERIAL_NUMBER + "\":\"SN-" + Long.toHexString(hash >>> 24).toUpperCase() + "-" + id + "\""
+                + ",\"" + Constants.CARRIAGE_WEIGHT + "\":" + (hash >>> 40) % 500
+                + ",\"" + Constants.CARRIAGE_TYPE + "\":\"" + CARRIAGE_TYPES[(int) ((hash >>> 8) % CARRIAGE_TYPES.length)] + "\"");
+        writePadding(out);
+    }
+
+    void writeType(Writer out, int id) throws IOException {
+        long hash = mix(-id);
+        String manufacturer = MANUFACTURERS[(int) ((hash >>> 8) % MANUFACTURERS.length)];
+        out.write("{\"" + Constants.TYPE_ID + "\":" + id
+                + ",\"" + Constants.MANUFACTURER + "\":\"" + manufacturer + "\""
+                + ",\"" + Constants.TYPE_NAME + "\":\"" + manufacturer + " Model " + id + "\""
+                + ",\"" + Constants.WEIGHT + "\":" + (200 + (hash >>> 16) % 3000)
+                + ",\"" + Constants.MAX_SPEED + "\":" + (30 + (hash >>> 24) % 90)
+                + ",\"" + Constants.BATTERY_CAPACITY + "\":" + (1000 + (hash >>> 32) % 9000)
+                + ",\"" + Constants.CONTROL_RANGE + "\":" + (500 + (hash >>> 40) % 9500)
+                + ",\"" + Constants.MAX_CARRIAGE + "\":" + (hash >>> 48) % 1000);
+        writePadding(out);
+    }
+
+    /**
+     * Writes sample {@code index} of drone {@code id}: the drone circles around its own center,
+     * its battery drains and recharges, and it is mostly on.
+     */
+    void writeSample(Writer out, String baseUrl, int id, int index) throws IOException {
+        long hash = mix(((long) id << 32) | index);
+        long timestamp = startMillis - (settings.samples() - 1L - index) * settings.intervalSeconds() * 1_000L
+                + (hash & 0x1FF);
+        double angle = index * 0.05 + (id % 360) * Math.PI / 180;
+        double radius = 0.01 + (id % 17) * 0.002;
+        int statusRoll = (int) ((hash >>> 12) % 100);
+        StringBuilder record = new StringBuilder(320 + padding.length());
+        record.append("{\"").append(Constants.DRONE_URL).append("\":\"").append(baseUrl).append("/api/drones/").append(id)
+                .append("/\",\"").append(Constants.TIMESTAMP).append("\":\"");
+        appendTimestamp(record, timestamp);
+        record.append("\",\"").append(Constants.SPEED).append("\":").append((hash >>> 20) % 80)
+                .append(",\"").append(Constants.ALIGN_ROLL).append("\":\"");
+        appendDecimal(record, ((hash >>> 24) % 2000 - 1000) / 20.0);
+        record.append("\",\"").append(Constants.ALIGN_PITCH).append("\":\"");
+        appendDecimal(record, ((hash >>> 34) % 2000 - 1000) / 20.0);
+        record.append("\",\"").append(Constants.ALIGN_YAW).append("\":\"");
+        appendDecimal(record, ((hash >>> 44) % 3600) / 10.0);
+        record.append("\",\"").append(Constants.LONGITUDE).append("\":\"");
+        appendDecimal(record, BASE_LONGITUDE + (id % 50) * 0.01 + radius * Math.cos(angle));
+        record.append("\",\"").append(Constants.LATITUDE).append("\":\"");
+        appendDecimal(record, BASE_LATITUDE + (id % 30) * 0.01 + radius * Math.sin(angle));
+        record.append("\",\"").append(Constants.BATTERY_STATUS).append("\":").append(100 - index % 100)
+                .append(",\"").append(Constants.LAST_SEEN).append("\":\"");
+        appendTimestamp(record, timestamp + (hash >>> 54));
+        record.append("\",\"").append(Constants.STATUS).append("\":\"")
+                .append(STATUSES[statusRoll < 85 ? 0 : statusRoll < 95 ? 2 : 1]).append('"');
+        out.append(record);
+        writePadding(out);
+    }
+
+    private int typeOf(int droneId) {
+        return (int) (mix(droneId) % settings.types()) + 1;
+    }
+
+    private void writePadding(Writer out) throws IOException {
+        if (!padding.isEmpty()) {
+            out.write(",\"padding\":\"");
+            out.write(padding);
+            out.write('"');
+        }
+        out.write('}');
+    }
+
+    private static String format(long epochMillis) {
+        StringBuilder text = new StringBuilder(24);
+        appendTimestamp(text, epochMillis);
+        return text.toString();
+    }
+
+    /**
+     * Appends {@code yyyy-MM-ddTHH:mm:ss.SSSZ} in UTC (civil-from-days), without going through {@code java.time}.
+     */
+    private static void appendTimestamp(StringBuilder out, long epochMillis) {
+        long days = Math.floorDiv(epochMillis, 86_400_000L);
+        int millisOfDay = (int) Math.floorMod(epochMillis, 86_400_000L);
+        long shifted = days + 719_468;
+        long era = (shifted >= 0 ? shifted : shifted - 146_096) / 146_097;
+        long dayOfEra = shifted - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        appendPadded(out, year, 4).append('-');
+        appendPadded(out, month, 2).append('-');
+        appendPadded(out, day, 2).append('T');
+        appendPadded(out, millisOfDay / 3_600_000, 2).append(':');
+        appendPadded(out, millisOfDay / 60_000 % 60, 2).append(':');
+        appendPadded(out, millisOfDay / 1_000 % 60, 2).append('.');
+        appendPadded(out, millisOfDay % 1_000, 3).append('Z');
+    }
+
+    /**
+     * Appends the value with six decimals, like the decimal fields of the API.
+     */
+    private static void appendDecimal(StringBuilder out, double value) {
+        long micros = Math.round(value * 1_000_000);
+        if (micros < 0) {
+            out.append('-');
+            micros = -micros;
+        }
+        out.append(micros / 1_000_000).append('.');
+        appendPadded(out, micros % 1_000_000, 6);
+    }
+
+    private static StringBuilder appendPadded(StringBuilder out, long value, int width) {
+        for (long limit = 10, digits = 1; digits < width; limit *= 10, digits++) {
+            if (value < limit) {
+                out.append('0');
+            }
+        }
+        return out.append(value);
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads consecutive ids and indexes over all bits.
+     */
+    private static long mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) & Long.MAX_VALUE;
+    }
+}
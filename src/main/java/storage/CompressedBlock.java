@@ -0,0 +1,352 @@
+package main.java.storage;
+
+import main.java.model.DynamicsSeries;
+import main.java.model.DynamicsView;
+
+import java.util.Arrays;
+
+/**
+ * A sealed, compressed block of consecutive dynamics samples.
+ * <p>
+ * Samples are encoded row by row into one bit stream:
+ * <ul>
+ *     <li>Timestamps and last-seen times: delta-of-delta, a single {@code 0} bit for a regular interval.</li>
+ *     <li>Latitude, longitude, roll, pitch and yaw: XOR with the previous value, storing only the meaningful bits.</li>
+ *     <li>Speed and battery: zig-zag varint of the delta to the previous value.</li>
+ *     <li>Status: a single {@code 0} bit while it does not change.</li>
+ * </ul>
+ * A block is immutable and decoded as a whole into a {@link DynamicsSeries}.
+ * </p>
+ */
+
+final class CompressedBlock {
+    private final int count;
+    private final long firstTimestamp;
+    private final long lastTimestamp;
+    private final byte[] data;
+
+    private CompressedBlock(int count, long firstTimestamp, long lastTimestamp, byte[] data) {
+        this.count = count;
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = lastTimestamp;
+        this.data = data;
+    }
+
+    /**
+     * Encodes the samples {@code [from, to)} of a time-ordered view. An empty range gives an empty block whose
+     * first and last timestamps are {@link Long#MIN_VALUE}.
+     */
+    static CompressedBlock encode(DynamicsView source, int from, int to) {
+        BitWriter writer = new BitWriter((to - from) * 8);
+        DeltaOfDelta timestamps = new DeltaOfDelta();
+        DeltaOfDelta lastSeen = new DeltaOfDelta();
+        Xor latitude = new Xor(Long.SIZE);
+        Xor longitude = new Xor(Long.SIZE);
+        Xor roll = new Xor(Integer.SIZE);
+        Xor pitch = new Xor(Integer.SIZE);
+        Xor yaw = new Xor(Integer.SIZE);
+        int speed = 0;
+        int battery = 0;
+        int status = 0;
+        for (int i = from; i < to; i++) {
+            timestamps.write(writer, source.timestampAt(i));
+            lastSeen.write(writer, source.lastSeenAt(i));
+            latitude.write(writer, Double.doubleToRawLongBits(source.latitudeAt(i)));
+            longitude.write(writer, Double.doubleToRawLongBits(source.longitudeAt(i)));
+            roll.write(writer, Float.floatToRawIntBits(source.rollAt(i)));
+            pitch.write(writer, Float.floatToRawIntBits(source.pitchAt(i)));
+            yaw.write(writer, Float.floatToRawIntBits(source.yawAt(i)));
+            writer.writeVarint(zigZag(source.speedAt(i) - speed));
+            writer.writeVarint(zigZag(source.batteryAt(i) - battery));
+            speed = source.speedAt(i);
+            battery = source.batteryAt(i);
+            if (source.statusAt(i) == status) {
+                writer.writeBit(false);
+            } else {
+                writer.writeBit(true);
+                writer.writeBits(source.statusAt(i) & 0xFF, 8);
+                status = source.statusAt(i);
+            }
+        }
+        if (to <= from) {
+            return new CompressedBlock(0, Long.MIN_VALUE, Long.MIN_VALUE, writer.toByteArray());
+        }
+        return new CompressedBlock(to - from, source.timestampAt(from), source.timestampAt(to - 1), writer.toByteArray());
+    }
+
+    DynamicsSeries decode() {
+        BitReader reader = new BitReader(data);
+        DeltaOfDelta timestamps = new DeltaOfDelta();
+        DeltaOfDelta lastSeen = new DeltaOfDelta();
+        Xor latitude = new Xor(Long.SIZE);
+        Xor longitude = new Xor(Long.SIZE);
+        Xor roll = new Xor(Integer.SIZE);
+        Xor pitch = new Xor(Integer.SIZE);
+        Xor yaw = new Xor(Integer.SIZE);
+        int speed = 0;
+        int battery = 0;
+        byte status = 0;
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(count);
+        for (int i = 0; i < count; i++) {
+            long timestamp = timestamps.read(reader);
+            long lastSeenAt = lastSeen.read(reader);
+            double latitudeValue = Double.longBitsToDouble(latitude.read(reader));
+            double longitudeValue = Double.longBitsToDouble(longitude.read(reader));
+            float rollValue = Float.intBitsToFloat((int) roll.read(reader));
+            float pitchValue = Float.intBitsToFloat((int) pitch.read(reader));
+            float yawValue = Float.intBitsToFloat((int) yaw.read(reader));
+            speed += unZigZag(reader.readVarint());
+            battery += unZigZag(reader.readVarint());
+            if (reader.readBit()) {
+                status = (byte) reader.readBits(8);
+            }
+            builder.append(timestamp, lastSeenAt, speed, latitudeValue, longitudeValue, battery,
+                    rollValue, pitchValue, yawValue, status);
+        }
+        return builder.build();
+    }
+
+    int count() {
+        return count;
+    }
+
+    long firstTimestamp() {
+        return firstTimestamp;
+    }
+
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    int sizeInBytes() {
+        return data.length;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Delta-of-delta state of a timestamp column. The first value is stored raw, the first delta as varint and
+     * every further delta as its difference to the previous one in a 1, 9, 12, 16 or 68 bit bucket. The zig-zag
+     * encoded difference is compared unsigned, so differences of {@code 2^62} and more take the 68 bit bucket.
+     */
+    private static final class DeltaOfDelta {
+        private int index;
+        private long previous;
+        private long previousDelta;
+
+        void write(BitWriter writer, long value) {
+            if (index == 0) {
+                writer.writeBits(value, 64);
+            } else if (index == 1) {
+                previousDelta = value - previous;
+                writer.writeVarint(zigZag(previousDelta));
+            } else {
+                long delta = value - previous;
+                long encoded = zigZag(delta - previousDelta);
+                if (encoded == 0) {
+                    writer.writeBit(false);
+                } else if (encoded >>> 7 == 0) {
+                    writer.writeBits(0b10, 2);
+                    writer.writeBits(encoded, 7);
+                } else if (encoded >>> 9 == 0) {
+                    writer.writeBits(0b110, 3);
+                    writer.writeBits(encoded, 9);
+                } else if (encoded >>> 12 == 0) {
+                    writer.writeBits(0b1110, 4);
+                    writer.writeBits(encoded, 12);
+                } else {
+                    writer.writeBits(0b1111, 4);
+                    writer.writeBits(encoded, 64);
+                }
+                previousDelta = delta;
+            }
+            previous = value;
+            index++;
+        }
+
+        long read(BitReader reader) {
+            long value;
+            if (index == 0) {
+                value = reader.readBits(64);
+            } else if (index == 1) {
+                previousDelta = unZigZag(reader.readVarint());
+                value = previous + previousDelta;
+            } else {
+                long encoded;
+                if (!reader.readBit()) {
+                    encoded = 0;
+                } else if (!reader.readBit()) {
+                    encoded = reader.readBits(7);
+                } else if (!reader.readBit()) {
+                    encoded = reader.readBits(9);
+                } else if (!reader.readBit()) {
+                    encoded = reader.readBits(12);
+                } else {
+                    encoded = reader.readBits(64);
+                }
+                previousDelta += unZigZag(encoded);
+                value = previous + previousDelta;
+            }
+            previous = value;
+            index++;
+            return value;
+        }
+    }
+
+    /**
+     * XOR state of a 64 or 32 bit floating point column. An unchanged value costs one bit; otherwise the
+     * meaningful bits are stored either within the previous leading/trailing zero window or with a new one.
+     */
+    private static final class Xor {
+        private final int width;
+        private final int lengthBits;
+        private boolean first = true;
+        private long previous;
+        private int previousLeading = -1;
+        private int previousTrailing;
+
+        Xor(int width) {
+            this.width = width;
+            this.lengthBits = width == Long.SIZE ? 6 : 5;
+        }
+
+        void write(BitWriter writer, long bits) {
+            bits &= mask(width);
+            if (first) {
+                writer.writeBits(bits, width);
+                first = false;
+                previous = bits;
+                return;
+            }
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                writer.writeBit(false);
+                return;
+            }
+            writer.writeBit(true);
+            int leading = Math.min(31, Long.numberOfLeadingZeros(xor) - (Long.SIZE - width));
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                writer.writeBit(false);
+                writer.writeBits(xor >>> previousTrailing, width - previousLeading - previousTrailing);
+            } else {
+                int length = width - leading - trailing;
+                writer.writeBit(true);
+                writer.writeBits(leading, 5);
+                writer.writeBits(length - 1, lengthBits);
+                writer.writeBits(xor >>> trailing, length);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+
+        long read(BitReader reader) {
+            if (first) {
+                first = false;
+                previous = reader.readBits(width);
+                return previous;
+            }
+            if (!reader.readBit()) {
+                return previous;
+            }
+            if (reader.readBit()) {
+                previousLeading = (int) reader.readBits(5);
+                int length = (int) reader.readBits(lengthBits) + 1;
+                previousTrailing = width - previousLeading - length;
+            }
+            long meaningful = reader.readBits(width - previousLeading - previousTrailing);
+            previous ^= meaningful << previousTrailing;
+            return previous;
+        }
+
+        private static long mask(int width) {
+            return width == Long.SIZE ? -1L : (1L << width) - 1;
+        }
+    }
+
+    private static final class BitWriter {
+        private byte[] buffer;
+        private long position;
+
+        BitWriter(int expectedBytes) {
+            buffer = new byte[Math.max(16, expectedBytes)];
+        }
+
+        void writeBit(boolean bit) {
+            writeBits(bit ? 1 : 0, 1);
+        }
+
+        void writeBits(long value, int bits) {
+            while (bits > 0) {
+                int index = (int) (position >>> 3);
+                if (index == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int free = 8 - (int) (position & 7);
+                int take = Math.min(free, bits);
+                int chunk = (int) (value >>> (bits - take)) & ((1 << take) - 1);
+                buffer[index] |= (byte) (chunk << (free - take));
+                position += take;
+                bits -= take;
+            }
+        }
+
+        void writeVarint(long value) {
+            do {
+                long group = value & 0x7F;
+                value >>>= 7;
+                writeBit(value != 0);
+                writeBits(group, 7);
+            } while (value != 0);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, (int) ((position + 7) >>> 3));
+        }
+    }
+
+    private static final class BitReader {
+        private final byte[] buffer;
+        private long position;
+
+        BitReader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        boolean readBit() {
+            return readBits(1) != 0;
+        }
+
+        long readBits(int bits) {
+            long result = 0;
+            while (bits > 0) {
+                int free = 8 - (int) (position & 7);
+                int take = Math.min(free, bits);
+                int chunk = ((buffer[(int) (position >>> 3)] & 0xFF) >>> (free - take)) & ((1 << take) - 1);
+                result = (result << take) | chunk;
+                position += take;
+                bits -= take;
+            }
+            return result;
+        }
+
+        long readVarint() {
+            long result = 0;
+            int shift = 0;
+            boolean more;
+            do {
+                more = readBit();
+                result |= readBits(7) << shift;
+                shift += 7;
+            } while (more);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package main.java.storage;
+
+import main.java.model.DynamicsSeries;
+import main.java.model.DynamicsStore;
+import main.java.model.DynamicsView;
+import main.java.util.Logs;
+
+import java.util.Arrays;
+
+/**
+ * The {@code CompressedDynamicsStore} class keeps the dynamics of one drone in compressed blocks on the heap.
+ * <p>
+ * New samples are merged into an uncompressed head {@link DynamicsSeries}, so appends and reads of recent
+ * samples cost the same as with the heap backend. Every {@value #BLOCK_SIZE} samples the head is sealed into an
+ * immutable {@link CompressedBlock}, which typically needs a few bytes per sample instead of 53.
+ * Sealed blocks are append-only: samples that are not newer than the last sealed sample are dropped.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #view() view}: Returns the current snapshot.</li>
+ *     <li>{@link #append(DynamicsSeries) append}: Merges a page into the head and seals full blocks.</li>
+ *     <li>{@link #sizeInBytes() sizeInBytes}: Returns the size of the sealed blocks.</li>
+ * </ul>
+ * </p>
+ */
+
+public class CompressedDynamicsStore implements DynamicsStore {
+    static final int BLOCK_SIZE = 1024;
+
+    private CompressedBlock[] blocks = new CompressedBlock[16];
+    private int blockCount;
+    private DynamicsSeries head = DynamicsSeries.empty();
+    private volatile CompressedDynamicsView snapshot = new CompressedDynamicsView(blocks, 0, head);
+
+    @Override
+    public DynamicsView view() {
+        return snapshot;
+    }
+
+    @Override
+    public synchronized DynamicsView append(DynamicsSeries page) {
+        int start = blockCount == 0 ? 0 : page.lowerBound(blocks[blockCount - 1].lastTimestamp() + 1);
+        int outOfOrder = DynamicsStore.outOfOrder(snapshot, page, start);
+        if (outOfOrder > 0) {
+            Logs.warning("Dropped " + outOfOrder + " samples older than the latest compressed block");
+        }
+        if (start == page.size()) {
+            return snapshot;
+        }
+        head = head.merge(start == 0 ? page : copy(page, start, page.size()));
+
+        int sealed = 0;
+        while (head.size() - sealed >= BLOCK_SIZE) {
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blocks.length * 2);
+            }
+            blocks[blockCount++] = CompressedBlock.encode(head, sealed, sealed + BLOCK_SIZE);
+            sealed += BLOCK_SIZE;
+        }
+        if (sealed > 0) {
+            head = copy(head, sealed, head.size());
+        }
+        snapshot = new CompressedDynamicsView(blocks, blockCount, head);
+        return snapshot;
+    }
+
+    public synchronized long sizeInBytes() {
+        long bytes = 0;
+        for (int i = 0; i < blockCount; i++) {
+            bytes += blocks[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private static DynamicsSeries copy(DynamicsView source, int from, int to) {
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(to - from);
+        for (int i = from; i < to; i++) {
+            builder.append(source, i);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,153 @@
+package main.java.storage;
+
+import main.java.model.DynamicsSeries;
+import main.java.model.DynamicsView;
+
+import static main.java.storage.CompressedDynamicsStore.BLOCK_SIZE;
+
+/**
+ * Immutable snapshot of a {@link CompressedDynamicsStore}: the first {@code blockCount} sealed blocks followed
+ * by the head series.
+ * <p>
+ * A sealed sample is read by decoding its block. The last {@value #CACHED_BLOCKS} decoded blocks are cached per
+ * view, least recently used first out, so sequential scans decode every block once and reads that alternate
+ * between a few blocks, such as a binary search followed by a scan or two windows compared side by side, do not
+ * decode them again. {@link #lowerBound(long)} uses the first and last timestamp of each block and only decodes
+ * the block containing the result.
+ * </p>
+ */
+
+final class CompressedDynamicsView implements DynamicsView {
+    static final int CACHED_BLOCKS = 4;
+    private final CompressedBlock[] blocks;
+    private final int blockCount;
+    private final DynamicsSeries head;
+    private final int sealedSize;
+    /**
+     * Most recently used first; replaced as a whole, so readers on other threads never see a partial update.
+     */
+    private volatile DecodedBlock[] decoded = new DecodedBlock[0];
+
+    CompressedDynamicsView(CompressedBlock[] blocks, int blockCount, DynamicsSeries head) {
+        this.blocks = blocks;
+        this.blockCount = blockCount;
+        this.head = head;
+        this.sealedSize = blockCount * BLOCK_SIZE;
+    }
+
+    @Override
+    public int size() {
+        return sealedSize + head.size();
+    }
+
+    @Override
+    public int lowerBound(long epochMillis) {
+        if (blockCount == 0 || blocks[blockCount - 1].lastTimestamp() < epochMillis) {
+            return sealedSize + head.lowerBound(epochMillis);
+        }
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blocks[mid].lastTimestamp() < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (blocks[low].firstTimestamp() >= epochMillis) {
+            return low * BLOCK_SIZE;
+        }
+        return low * BLOCK_SIZE + block(low).lowerBound(epochMillis);
+    }
+
+    @Override
+    public long timestampAt(int index) {
+        return index >= sealedSize ? head.timestampAt(index - sealedSize) : sealed(index).timestampAt(index % BLOCK_SIZE);
+    }
+
+    @Override
+    public long lastSeenAt(int index) {
+        return index >= sealedSize ? head.lastSeenAt(index - sealedSize) : sealed(index).lastSeenAt(index % BLOCK_SIZE);
+    }
+
+    @Override
+    public int speedAt(int index) {
+        return index >= sealedSize ? head.speedAt(index - sealedSize) : sealed(index).speedAt(index % BLOCK_SIZE);
+    }
+
+    @Override
+    public double latitudeAt(int index) {
+        return index >= sealedSize ? head.latitudeAt(index - sealedSize) : sealed(index).latitudeAt(index % BLOCK_SIZE);
+    }
+
+    @Override
+    public double longitudeAt(int index) {
+        return index >= sealedSize ? head.longitudeAt(index - sealedSize) : sealed(index).longitudeAt(index % BLOCK_SIZE);
+    }
+
+    @Override
+    public int batteryAt(int index) {
+        return index >= sealedSize ? head.batteryAt(index - sealedSize) : sealed(index).batteryAt(index % BLOCK_SIZE);
+    }
+
+    @Override
+    public float rollAt(int index) {
+        return index >= sealedSize ? head.rollAt(index - sealedSize) : sealed(index).rollAt(index % BLOCK_SIZE);
+    }
+
+    @Override
+    public float pitchAt(int index) {
+        return index >= sealedSize ? head.pitchAt(index - sealedSize) : sealed(index).pitchAt(index % BLOCK_SIZE);
+    }
+
+    @Override
+    public float yawAt(int index) {
+        return index >= sealedSize ? head.yawAt(index - sealedSize) : sealed(index).yawAt(index % BLOCK_SIZE);
+    }
+
+    @Override
+    public byte statusAt(int index) {
+        return index >= sealedSize ? head.statusAt(index - sealedSize) : sealed(index).statusAt(index % BLOCK_SIZE);
+    }
+
+    private DynamicsSeries sealed(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return block(index / BLOCK_SIZE);
+    }
+
+    private DynamicsSeries block(int block) {
+        DecodedBlock[] cached = decoded;
+        for (int i = 0; i < cached.length; i++) {
+            if (cached[i].block() == block) {
+                if (i > 0) {
+                    decoded = moveToFront(cached, i, cached[i]);
+                }
+                return cached[i].series();
+            }
+        }
+        DynamicsSeries series = blocks[block].decode();
+        decoded = moveToFront(cached, Math.min(cached.length, CACHED_BLOCKS - 1), new DecodedBlock(block, series));
+        return series;
+    }
+
+    /**
+     * @return a copy of {@code cached} with {@code entry} first, followed by the entries before {@code index} and
+     * those after it.
+     */
+    private static DecodedBlock[] moveToFront(DecodedBlock[] cached, int index, DecodedBlock entry) {
+        int length = index < cached.length ? cached.length : Math.min(cached.length + 1, CACHED_BLOCKS);
+        DecodedBlock[] updated = new DecodedBlock[length];
+        updated[0] = entry;
+        System.arraycopy(cached, 0, updated, 1, Math.min(index, length - 1));
+        if (index + 1 < cached.length) {
+            System.arraycopy(cached, index + 1, updated, index + 1, cached.length - index - 1);
+        }
+        return updated;
+    }
+
+    private record DecodedBlock(int block, DynamicsSeries series) {
+    }
+}
@@ -0,0 +1,340 @@
+package main.java.storage;
+
+import main.java.model.CategoryDictionary;
+import main.java.model.DroneBase;
+import main.java.model.DynamicsSeries;
+import main.java.model.DynamicsView;
+import main.java.util.Constants;
+import main.java.util.Logs;
+import main.java.util.Timestamps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The {@code DynamicsExporter} class streams the dynamics of drones in a time range to a file.
+ * <p>
+ * Samples are read from zero-copy {@link DynamicsView} ranges and encoded into one fixed size direct buffer
+ * that is written to a {@link FileChannel} whenever it is full, so memory use does not depend on the size of
+ * the export. Exports should run off the FX thread.
+ * </p>
+ * <p>
+ * Formats:
+ * <ul>
+ *     <li>{@link Format#CSV CSV}: A header line, then one line per sample starting with the drone id.
+ *         Timestamps are ISO-8601 with milliseconds in the {@link Timestamps#sourceOffset() source offset}, as the
+ *         views show them, e.g. {@code 2024-01-05T13:39:39.917+01:00}.</li>
+ *     <li>{@link Format#BINARY BINARY}: Little endian. Magic, version, the field names and types and the status
+ *         texts, followed by blocks {@code [drone id:int][rows:int]} of at most {@value #BLOCK_ROWS} samples
+ *         that hold one contiguous column per field. Timestamps are epoch milliseconds, statuses codes into the
+ *         status texts.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #export(Collection, long, long, List, Format, Path) export}: Writes the samples and returns their number.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class DynamicsExporter {
+    public static final List<String> FIELDS = List.of(Arrays.copyOfRange(Constants.DRONE_DYNAMIC_KEYS, 1, Constants.DRONE_DYNAMIC_KEYS.length));
+    static final int MAGIC = 0x444D5845;
+    static final int VERSION = 1;
+    static final int BLOCK_ROWS = 4_096;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final byte INT64 = 1;
+    private static final byte INT32 = 2;
+    private static final byte FLOAT64 = 3;
+    private static final byte FLOAT32 = 4;
+    private static final byte INT8 = 5;
+
+    public enum Format {
+        CSV,
+        BINARY
+    }
+
+    private DynamicsExporter() {
+    }
+
+    /**
+     * @param fields subset of {@link #FIELDS}, in output order; all fields if empty.
+     * @return number of exported samples.
+     */
+    public static long export(Collection<DroneBase> drones, long fromMillis, long toMillis, List<String> fields,
+                              Format format, Path target) throws IOException {
+        int[] slots = slotsOf(fields.isEmpty() ? FIELDS : fields);
+        List<DroneBase> exported = new ArrayList<>(drones.size());
+        List<DynamicsView> ranges = new ArrayList<>(drones.size());
+        for (DroneBase drone : drones) {
+            if (drone != null && drone.getDetails() != null) {
+                exported.add(drone);
+                ranges.add(drone.getDynamics().range(fromMillis, toMillis));
+            }
+        }
+        long startTime = System.currentTimeMillis();
+        long rows = 0;
+        try (Output out = new Output(target)) {
+            if (format == Format.CSV) {
+                writeCsvHeader(out, slots);
+            } else {
+                writeBinaryHeader(out, slots);
+            }
+            for (int i = 0; i < exported.size(); i++) {
+                int droneId = exported.get(i).getDetails().id();
+                DynamicsView range = ranges.get(i);
+                if (format == Format.CSV) {
+                    writeCsvRows(out, droneId, range, slots);
+                } else {
+                    writeBinaryBlocks(out, droneId, range, slots);
+                }
+                rows += range.size();
+            }
+        }
+        Logs.info("Exported " + rows + " samples of " + exported.size() + " drones as " + format + " to " + target
+                + " in " + (System.currentTimeMillis() - startTime) + " ms");
+        return rows;
+    }
+
+    private static int[] slotsOf(List<String> fields) {
+        int[] slots = new int[fields.size()];
+        for (int i = 0; i < slots.length; i++) {
+            int slot = FIELDS.indexOf(fields.get(i));
+            if (slot < 0) {
+                throw new IllegalArgumentException("Unknown dynamics field: " + fields.get(i));
+            }
+            slots[i] = slot + 1;
+        }
+        return slots;
+    }
+
+    private static void writeCsvHeader(Output out, int[] slots) throws IOException {
+        out.text(Constants.DRONE_ID);
+        for (int slot : slots) {
+            out.ascii(',');
+            out.text(Constants.DRONE_DYNAMIC_KEYS[slot]);
+        }
+        out.ascii('\n');
+    }
+
+    private static void writeCsvRows(Output out, int droneId, DynamicsView range, int[] slots) throws IOException {
+        for (int row = 0; row < range.size(); row++) {
+            out.number(droneId);
+            for (int slot : slots) {
+                out.ascii(',');
+                switch (slot) {
+                    case 1 -> out.timestamp(range.timestampAt(row));
+                    case 2 -> out.number(range.speedAt(row));
+                    case 3 -> out.text(Float.toString(range.rollAt(row)));
+                    case 4 -> out.text(Float.toString(range.pitchAt(row)));
+                    case 5 -> out.text(Float.toString(range.yawAt(row)));
+                    case 6 -> out.text(Double.toString(range.longitudeAt(row)));
+                    case 7 -> out.text(Double.toString(range.latitudeAt(row)));
+                    case 8 -> out.number(range.batteryAt(row));
+                    case 9 -> out.timestamp(range.lastSeenAt(row));
+                    default -> out.text(DynamicsSeries.decodeStatus(range.statusAt(row)));
+                }
+            }
+            out.ascii('\n');
+        }
+    }
+
+    private static void writeBinaryHeader(Output out, int[] slots) throws IOException {
+        out.buffer(8).putInt(MAGIC).putInt(VERSION);
+        out.buffer(2).putShort((short) slots.length);
+        for (int slot : slots) {
+            out.string(Constants.DRONE_DYNAMIC_KEYS[slot]);
+            out.buffer(1).put(typeOf(slot));
+        }
+        int statusCount = CategoryDictionary.STATUS.cardinality();
+        out.buffer(2).putShort((short) statusCount);
+        for (int code = 0; code < statusCount; code++) {
+            out.string(CategoryDictionary.STATUS.decode(code));
+        }
+    }
+
+    private static void writeBinaryBlocks(Output out, int droneId, DynamicsView range, int[] slots) throws IOException {
+        for (int from = 0; from < range.size(); from += BLOCK_ROWS) {
+            int to = Math.min(range.size(), from + BLOCK_ROWS);
+            out.buffer(8).putInt(droneId).putInt(to - from);
+            for (int slot : slots) {
+                for (int row = from; row < to; row++) {
+                    switch (slot) {
+                        case 1 -> out.buffer(8).putLong(range.timestampAt(row));
+                        case 2 -> out.buffer(4).putInt(range.speedAt(row));
+                        case 3 -> out.buffer(4).putFloat(range.rollAt(row));
+                        case 4 -> out.buffer(4).putFloat(range.pitchAt(row));
+                        case 5 -> out.buffer(4).putFloat(range.yawAt(row));
+                        case 6 -> out.buffer(8).putDouble(range.longitudeAt(row));
+                        case 7 -> out.buffer(8).putDouble(range.latitudeAt(row));
+                        case 8 -> out.buffer(4).putInt(range.batteryAt(row));
+                        case 9 -> out.buffer(8).putLong(range.lastSeenAt(row));
+                        default -> out.buffer(1).put(range.statusAt(row));
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte typeOf(int slot) {
+        return switch (slot) {
+            case 1, 9 -> INT64;
+            case 2, 8 -> INT32;
+            case 3, 4, 5 -> FLOAT32;
+            case 6, 7 -> FLOAT64;
+            default -> INT8;
+        };
+    }
+
+    /**
+     * Direct buffer in front of the file channel, written out whenever the next value does not fit.
+     */
+    private static final class Output implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final byte[] digits = new byte[20];
+        private final ZoneRules zoneRules = Timestamps.sourceOffset().getRules();
+        private long validFrom = Long.MAX_VALUE;
+        private long validTo = Long.MIN_VALUE;
+        private long localHourStart;
+        private long offsetMillis;
+        private byte[] hourPrefix;
+        private byte[] hourOffset;
+
+        Output(Path target) throws IOException {
+            channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        ByteBuffer buffer(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+            return buffer;
+        }
+
+        void ascii(char c) throws IOException {
+            buffer(1).put((byte) c);
+        }
+
+        void number(long value) throws IOException {
+            if (value == Long.MIN_VALUE) {
+                text(Long.toString(value));
+                return;
+            }
+            ByteBuffer target = buffer(20);
+            if (value < 0) {
+                target.put((byte) '-');
+                value = -value;
+            }
+            int length = 0;
+            do {
+                digits[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            while (length > 0) {
+                target.put(digits[--length]);
+            }
+        }
+
+        /**
+         * Writes {@code yyyy-MM-ddTHH:mm:ss.SSS} and the offset. Date, hour and offset are formatted once per
+         * local hour; the cached hour ends early at a time zone transition.
+         */
+        void timestamp(long epochMillis) throws IOException {
+            if (epochMillis == Timestamps.NONE) {
+                return;
+            }
+            if (epochMillis < validFrom || epochMillis >= validTo) {
+                formatHour(epochMillis);
+            }
+            int withinHour = (int) (epochMillis + offsetMillis - localHourStart);
+            ByteBuffer target = buffer(hourPrefix.length + 10 + hourOffset.length);
+            target.put(hourPrefix);
+            int minute = withinHour / 60_000;
+            int second = withinHour / 1_000 % 60;
+            int millis = withinHour % 1_000;
+            target.put((byte) ('0' + minute / 10)).put((byte) ('0' + minute % 10)).put((byte) ':')
+                    .put((byte) ('0' + second / 10)).put((byte) ('0' + second % 10)).put((byte) '.')
+                    .put((byte) ('0' + millis / 100)).put((byte) ('0' + millis / 10 % 10)).put((byte) ('0' + millis % 10));
+            target.put(hourOffset);
+        }
+
+        private void formatHour(long epochMillis) {
+            Instant instant = Instant.ofEpochMilli(epochMillis);
+            ZoneOffset offset = zoneRules.getOffset(instant);
+            offsetMillis = offset.getTotalSeconds() * 1_000L;
+            localHourStart = Math.floorDiv(epochMillis + offsetMillis, HOUR_MILLIS) * HOUR_MILLIS;
+            validFrom = localHourStart - offsetMillis;
+            validTo = validFrom + HOUR_MILLIS;
+            ZoneOffsetTransition previous = zoneRules.previousTransition(instant);
+            ZoneOffsetTransition next = zoneRules.nextTransition(instant);
+            if (previous != null) {
+                validFrom = Math.max(validFrom, previous.toEpochSecond() * 1_000L);
+            }
+            if (next != null) {
+                validTo = Math.min(validTo, next.toEpochSecond() * 1_000L);
+            }
+            LocalDateTime local = LocalDateTime.ofEpochSecond(Math.floorDiv(localHourStart, 1_000L), 0, ZoneOffset.UTC);
+            hourPrefix = String.format("%04d-%02d-%02dT%02d:", local.getYear(), local.getMonthValue(),
+                    local.getDayOfMonth(), local.getHour()).getBytes(StandardCharsets.US_ASCII);
+            hourOffset = offset.getId().getBytes(StandardCharsets.US_ASCII);
+        }
+
+        void text(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) >= 0x80) {
+                    byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                    buffer(encoded.length).put(encoded);
+                    return;
+                }
+            }
+            ByteBuffer target = buffer(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                target.put((byte) value.charAt(i));
+            }
+        }
+
+        void string(String value) throws IOException {
+            byte[] encoded = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            buffer(2).putShort((short) encoded.length);
+            buffer(encoded.length).put(encoded);
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
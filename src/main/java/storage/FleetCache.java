@@ -0,0 +1,558 @@
+package main.java.storage;
+
+import main.java.model.CategoryDictionary;
+import main.java.model.DroneBase;
+import main.java.model.DroneDetails;
+import main.java.model.DroneType;
+import main.java.model.DynamicsSeries;
+import main.java.model.DynamicsView;
+import main.java.model.FleetSnapshot;
+import main.java.model.StatusTransitions;
+import main.java.util.ConfigurationLoader;
+import main.java.util.Logs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code FleetCache} class persists the fleet in a local, append-only segment file, so the application can
+ * show the last known fleet right after start and then only fetch the dynamics added since.
+ * <p>
+ * File layout (big endian): magic and version, followed by records of
+ * {@code [type:byte][length:int][payload][crc32:int]}. Record types:
+ * <ul>
+ *     <li>{@code DRONE}: Details and type information of a drone, categorical values as text.</li>
+ *     <li>{@code DYNAMICS}: Samples appended to a drone since the previous save, with their status texts.</li>
+ *     <li>{@code OFFSET}: Number of API dynamics records of a drone already ingested.</li>
+ *     <li>{@code TRANSITIONS}: Status transitions of a drone logged since the previous save, with their status texts.</li>
+ *     <li>{@code REMOVED}: Id of a drone that left the fleet; it drops the drone's earlier records.</li>
+ * </ul>
+ * Later records extend or replace earlier ones. The file is read through a read-only memory mapping; a record
+ * with a wrong checksum ends the log and the file is truncated there, so an interrupted save loses only its own tail.
+ * Once the file is more than {@value #COMPACTION_RATIO} times the size of the live fleet, it is rewritten with the
+ * live records only, to a temporary file that then replaces it.
+ * A transition log that does not end in the status of the latest cached sample is rebuilt from the samples.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #configure(ConfigurationLoader) configure}: Reads {@code cache.enabled} and {@code cache.directory}.</li>
+ *     <li>{@link #load() load}: Returns the cached drones.</li>
+ *     <li>{@link #save(FleetSnapshot) save}: Appends what changed since the last load or save.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class FleetCache {
+    private static final int MAGIC = 0x444D4331;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final byte DRONE = 1;
+    private static final byte DYNAMICS = 2;
+    private static final byte OFFSET = 3;
+    private static final byte TRANSITIONS = 4;
+    private static final byte REMOVED = 5;
+    private static final String FILE_NAME = "fleet.seg";
+    private static final int SAMPLE_BYTES = 53;
+    private static final int TRANSITION_BYTES = 10;
+    private static final int DRONE_BYTES = 256;
+    private static final int COMPACTION_RATIO = 2;
+    private static final long COMPACTION_MIN_BYTES = 1 << 20;
+
+    private static final Map<Integer, DroneDetails> persistedDetails = new HashMap<>();
+    private static final Map<Integer, Integer> persistedRows = new HashMap<>();
+    private static final Map<Integer, Long> persistedLatest = new HashMap<>();
+    private static final Map<Integer, Integer> persistedOffsets = new HashMap<>();
+    private static final Map<Integer, StatusTransitions> persistedTransitions = new HashMap<>();
+    private static volatile boolean enabled;
+    private static volatile Path file = Paths.get("cache", FILE_NAME);
+
+    private FleetCache() {
+    }
+
+    public static void configure(ConfigurationLoader configLoader) {
+        String configuredEnabled = configLoader.read("cache", "enabled");
+        String configuredDirectory = configLoader.read("cache", "directory");
+        enabled = configuredEnabled == null || Boolean.parseBoolean(configuredEnabled);
+        file = Paths.get(configuredDirectory != null ? configuredDirectory : "cache", FILE_NAME);
+    }
+
+    /**
+     * @return the cached drones, empty if the cache is disabled, missing or unreadable.
+     */
+    public static synchronized List<DroneBase> load() {
+        clearPersisted();
+        if (!enabled || !Files.exists(file)) {
+            return new ArrayList<>();
+        }
+        long startTime = System.currentTimeMillis();
+        Map<Integer, CachedDrone> drones = new LinkedHashMap<>();
+        long valid;
+        long length;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            length = channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.remaining() < FILE_HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                Logs.warning("Ignoring unreadable fleet cache " + file);
+                return new ArrayList<>();
+            }
+            valid = readRecords(buffer, drones);
+        } catch (IOException | RuntimeException e) {
+            Logs.error("Error occurred in FleetCache.load() : " + e.getMessage());
+            return new ArrayList<>();
+        }
+        if (valid < length) {
+            Logs.warning("Fleet cache truncated at " + valid + " of " + length + " bytes");
+            truncate(valid);
+        }
+
+        List<DroneBase> result = new ArrayList<>(drones.size());
+        for (CachedDrone cached : drones.values()) {
+            DynamicsSeries dynamics = cached.dynamics.build();
+            StatusTransitions transitions = matches(cached.transitions, dynamics) ? cached.transitions : null;
+            DroneBase drone = new DroneBase(cached.details, cached.type,
+                    TelemetryStorage.createStore(cached.details.id(), dynamics), transitions);
+            drone.setSyncOffset(cached.offset);
+            result.add(drone);
+            persistedDetails.put(cached.details.id(), cached.details);
+            persistedRows.put(cached.details.id(), dynamics.size());
+            if (dynamics.size() > 0) {
+                persistedLatest.put(cached.details.id(), dynamics.timestampAt(dynamics.size() - 1));
+            }
+            persistedOffsets.put(cached.details.id(), cached.offset);
+            if (transitions != null) {
+                persistedTransitions.put(cached.details.id(), transitions);
+            }
+        }
+        Logs.info("Loaded " + result.size() + " drones from fleet cache in " + (System.currentTimeMillis() - startTime) + " ms");
+        return result;
+    }
+
+    /**
+     * Appends the drones that are new or changed, the samples added since the last save, changed offsets, and
+     * removal records for the drones that left the fleet.
+     * Dynamics are expected to grow at the end; a drone whose dynamics shrank or were merged out of order is
+     * written again. Compacts the file if it holds mostly replaced records.
+     */
+    public static synchronized void save(FleetSnapshot fleet) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            boolean newFile = !Files.exists(file) || Files.size(file) < FILE_HEADER_SIZE;
+            if (newFile) {
+                clearPersisted();
+            }
+            byte[] segment = segment(fleet, newFile);
+            if (segment.length == 0) {
+                return;
+            }
+            StandardOpenOption mode = newFile ? StandardOpenOption.TRUNCATE_EXISTING : StandardOpenOption.APPEND;
+            write(file, segment, mode);
+            Logs.info("Appended " + segment.length + " bytes to fleet cache " + file);
+            long size = Files.size(file);
+            if (size > COMPACTION_MIN_BYTES && size > COMPACTION_RATIO * liveBytes(fleet)) {
+                compact(fleet, size);
+            }
+        } catch (IOException e) {
+            Logs.error("Error occurred in FleetCache.save() : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the file with the records of the fleet only. If that fails the old file is kept and the next save
+     * appends complete records to it, which replace the earlier ones.
+     */
+    private static void compact(FleetSnapshot fleet, long size) {
+        Path temporary = file.resolveSibling(FILE_NAME + ".tmp");
+        try {
+            clearPersisted();
+            byte[] segment = segment(fleet, true);
+            write(temporary, segment, StandardOpenOption.TRUNCATE_EXISTING);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Logs.info("Compacted fleet cache " + file + " from " + size + " to " + segment.length + " bytes");
+        } catch (IOException e) {
+            clearPersisted();
+            Logs.error("Error occurred in FleetCache.compact() : " + e.getMessage());
+        }
+    }
+
+    private static byte[] segment(FleetSnapshot fleet, boolean header) throws IOException {
+        ByteArrayOutputStream segment = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(segment);
+        if (header) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+        for (DroneBase drone : fleet.getDrones()) {
+            appendDrone(out, drone);
+        }
+        List<Integer> removed = new ArrayList<>();
+        for (Integer id : persistedDetails.keySet()) {
+            if (fleet.getDrone(id) == null) {
+                removed.add(id);
+            }
+        }
+        removed.sort(null);
+        for (int id : removed) {
+            appendRemoval(out, id);
+        }
+        out.flush();
+        return segment.toByteArray();
+    }
+
+    private static void write(Path target, byte[] segment, StandardOpenOption mode) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+            ByteBuffer bytes = ByteBuffer.wrap(segment);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * @return an estimate of the size of a file holding only the records of the fleet.
+     */
+    private static long liveBytes(FleetSnapshot fleet) {
+        long bytes = FILE_HEADER_SIZE;
+        for (DroneBase drone : fleet.getDrones()) {
+            bytes += DRONE_BYTES + (long) drone.getDynamics().size() * SAMPLE_BYTES
+                    + (long) drone.getTransitions().size() * TRANSITION_BYTES;
+        }
+        return bytes;
+    }
+
+    private static void clearPersisted() {
+        persistedDetails.clear();
+        persistedRows.clear();
+        persistedLatest.clear();
+        persistedOffsets.clear();
+        persistedTransitions.clear();
+    }
+
+    /**
+     * @return whether the log ends in the status of the latest sample, so it was saved with the samples.
+     */
+    private static boolean matches(StatusTransitions transitions, DynamicsView dynamics) {
+        if (transitions == null) {
+            return false;
+        }
+        int latest = dynamics.latestIndex();
+        if (latest < 0 || transitions.isEmpty()) {
+            return latest < 0 && transitions.isEmpty();
+        }
+        int last = transitions.size() - 1;
+        return transitions.toAt(last) == dynamics.statusAt(latest)
+                && transitions.timestampAt(last) <= dynamics.timestampAt(latest);
+    }
+
+    private static void truncate(long valid) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(valid);
+        } catch (IOException e) {
+            Logs.error("Error occurred in FleetCache.truncate() : " + e.getMessage());
+        }
+    }
+
+    private static void appendDrone(DataOutputStream out, DroneBase drone) throws IOException {
+        DroneDetails details = drone.getDetails();
+        int id = details.id();
+        DynamicsView dynamics = drone.getDynamics();
+        int rows = persistedRows.getOrDefault(id, 0);
+        if (!details.equals(persistedDetails.get(id)) || rows > dynamics.size()) {
+            writeRecord(out, DRONE, droneRecord(details, drone.getType()));
+            persistedDetails.put(id, details);
+            persistedLatest.remove(id);
+            persistedOffsets.remove(id);
+            persistedTransitions.remove(id);
+            rows = 0;
+        } else if (rows > 0 && !isAppend(dynamics, rows, persistedLatest.get(id))) {
+            rows = 0;
+        }
+        if (rows < dynamics.size()) {
+            writeRecord(out, DYNAMICS, dynamicsRecord(id, dynamics, rows, rows > 0));
+            persistedRows.put(id, dynamics.size());
+            persistedLatest.put(id, dynamics.timestampAt(dynamics.size() - 1));
+        }
+        if (persistedOffsets.getOrDefault(id, -1) != drone.getSyncOffset()) {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(8);
+            DataOutputStream data = new DataOutputStream(payload);
+            data.writeInt(id);
+            data.writeInt(drone.getSyncOffset());
+            writeRecord(out, OFFSET, payload.toByteArray());
+            persistedOffsets.put(id, drone.getSyncOffset());
+        }
+        StatusTransitions transitions = drone.getTransitions();
+        StatusTransitions persisted = persistedTransitions.get(id);
+        if (persisted == transitions) {
+            return;
+        }
+        if (persisted == null || !transitions.extendsLog(persisted)) {
+            writeRecord(out, TRANSITIONS, transitionsRecord(id, transitions, 0, false));
+        } else if (persisted.size() < transitions.size()) {
+            writeRecord(out, TRANSITIONS, transitionsRecord(id, transitions, persisted.size(), true));
+        }
+        persistedTransitions.put(id, transitions);
+    }
+
+    private static void appendRemoval(DataOutputStream out, int id) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(4);
+        new DataOutputStream(payload).writeInt(id);
+        writeRecord(out, REMOVED, payload.toByteArray());
+        persistedDetails.remove(id);
+        persistedRows.remove(id);
+        persistedLatest.remove(id);
+        persistedOffsets.remove(id);
+        persistedTransitions.remove(id);
+    }
+
+    /**
+     * @return whether the samples are the persisted ones followed by newer ones, so only the new ones are written;
+     * a merge that inserted samples between persisted ones rewrites all of them.
+     */
+    private static boolean isAppend(DynamicsView dynamics, int rows, Long latest) {
+        return latest != null && dynamics.timestampAt(rows - 1) == latest
+                && (rows == dynamics.size() || dynamics.timestampAt(rows) > latest);
+    }
+
+    private static byte[] droneRecord(DroneDetails details, DroneType type) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(128);
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeInt(details.id());
+        writeString(data, details.droneType());
+        writeString(data, details.created());
+        writeString(data, details.serialNumber());
+        data.writeInt(details.carriageWeight());
+        writeString(data, details.carriageType());
+        data.writeBoolean(type != null);
+        if (type != null) {
+            data.writeInt(type.id());
+            writeString(data, type.manufacturer());
+            writeString(data, type.typeName());
+            data.writeInt(type.weight());
+            data.writeInt(type.maxSpeed());
+            data.writeInt(type.batteryCapacity());
+            data.writeInt(type.controlRange());
+            data.writeInt(type.maxCarriage());
+        }
+        return payload.toByteArray();
+    }
+
+    private static byte[] dynamicsRecord(int droneId, DynamicsView dynamics, int from, boolean append) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream((dynamics.size() - from) * SAMPLE_BYTES + 64);
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeInt(droneId);
+        data.writeBoolean(append);
+        writeStatusTexts(data);
+        data.writeInt(dynamics.size() - from);
+        for (int i = from; i < dynamics.size(); i++) {
+            data.writeLong(dynamics.timestampAt(i));
+            data.writeLong(dynamics.lastSeenAt(i));
+            data.writeInt(dynamics.speedAt(i));
+            data.writeDouble(dynamics.latitudeAt(i));
+            data.writeDouble(dynamics.longitudeAt(i));
+            data.writeInt(dynamics.batteryAt(i));
+            data.writeFloat(dynamics.rollAt(i));
+            data.writeFloat(dynamics.pitchAt(i));
+            data.writeFloat(dynamics.yawAt(i));
+            data.writeByte(dynamics.statusAt(i));
+        }
+        return payload.toByteArray();
+    }
+
+    private static byte[] transitionsRecord(int droneId, StatusTransitions transitions, int from, boolean append)
+            throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream((transitions.size() - from) * TRANSITION_BYTES + 64);
+        DataOutputStream data = new DataOutputStream(payload);
+        data.writeInt(droneId);
+        data.writeBoolean(append);
+        writeStatusTexts(data);
+        data.writeInt(transitions.size() - from);
+        for (int i = from; i < transitions.size(); i++) {
+            data.writeLong(transitions.timestampAt(i));
+            data.writeByte(transitions.fromAt(i));
+            data.writeByte(transitions.toAt(i));
+        }
+        return payload.toByteArray();
+    }
+
+    private static void writeStatusTexts(DataOutputStream data) throws IOException {
+        int statusCount = CategoryDictionary.STATUS.cardinality();
+        data.writeShort(statusCount);
+        for (int code = 0; code < statusCount; code++) {
+            writeString(data, CategoryDictionary.STATUS.decode(code));
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, byte type, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        out.writeByte(type);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * @return the position after the last valid record.
+     */
+    private static long readRecords(ByteBuffer buffer, Map<Integer, CachedDrone> drones) {
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= 9) {
+            int start = buffer.position();
+            byte type = buffer.get();
+            int length = buffer.getInt();
+            if (length < 0 || buffer.remaining() < length + 4) {
+                return start;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            crc.reset();
+            crc.update(type);
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != buffer.getInt()) {
+                return start;
+            }
+            switch (type) {
+                case DRONE -> readDrone(payload, drones);
+                case DYNAMICS -> readDynamics(payload, drones);
+                case TRANSITIONS -> readTransitions(payload, drones);
+                case REMOVED -> drones.remove(payload.getInt());
+                case OFFSET -> {
+                    CachedDrone cached = drones.get(payload.getInt());
+                    int offset = payload.getInt();
+                    if (cached != null) {
+                        cached.offset = offset;
+                    }
+                }
+                default -> Logs.warning("Skipping unknown fleet cache record type " + type);
+            }
+        }
+        return buffer.position();
+    }
+
+    private static void readDrone(ByteBuffer payload, Map<Integer, CachedDrone> drones) {
+        DroneDetails details = new DroneDetails(payload.getInt(), readString(payload), readString(payload),
+                readString(payload), payload.getInt(), CategoryDictionary.CARRIAGE_TYPE.encode(readString(payload)));
+        DroneType type = null;
+        if (payload.get() != 0) {
+            type = new DroneType(payload.getInt(),
+                    CategoryDictionary.MANUFACTURER.encode(readString(payload)),
+                    CategoryDictionary.TYPE_NAME.encode(readString(payload)),
+                    payload.getInt(), payload.getInt(), payload.getInt(), payload.getInt(), payload.getInt());
+        }
+        drones.put(details.id(), new CachedDrone(details, type));
+    }
+
+    private static void readDynamics(ByteBuffer payload, Map<Integer, CachedDrone> drones) {
+        CachedDrone cached = drones.get(payload.getInt());
+        boolean append = payload.get() != 0;
+        byte[] statusCodes = readStatusTexts(payload);
+        if (cached == null) {
+            return;
+        }
+        if (!append) {
+            cached.dynamics = new DynamicsSeries.Builder(0);
+        }
+        int rows = payload.getInt();
+        for (int i = 0; i < rows; i++) {
+            long timestamp = payload.getLong();
+            long lastSeen = payload.getLong();
+            int speed = payload.getInt();
+            double latitude = payload.getDouble();
+            double longitude = payload.getDouble();
+            int battery = payload.getInt();
+            float roll = payload.getFloat();
+            float pitch = payload.getFloat();
+            float yaw = payload.getFloat();
+            byte status = payload.get();
+            cached.dynamics.append(timestamp, lastSeen, speed, latitude, longitude, battery, roll, pitch, yaw,
+                    statusCode(statusCodes, status));
+        }
+    }
+
+    private static void readTransitions(ByteBuffer payload, Map<Integer, CachedDrone> drones) {
+        CachedDrone cached = drones.get(payload.getInt());
+        boolean append = payload.get() != 0;
+        byte[] statusCodes = readStatusTexts(payload);
+        if (cached == null) {
+            return;
+        }
+        StatusTransitions transitions = append && cached.transitions != null ? cached.transitions : StatusTransitions.empty();
+        int rows = payload.getInt();
+        for (int i = 0; i < rows; i++) {
+            long timestamp = payload.getLong();
+            byte from = payload.get();
+            byte to = payload.get();
+            transitions = transitions.with(timestamp, statusCode(statusCodes, from), statusCode(statusCodes, to));
+        }
+        cached.transitions = transitions;
+    }
+
+    /**
+     * @return the current status codes of the status texts saved with a record, indexed by the saved codes.
+     */
+    private static byte[] readStatusTexts(ByteBuffer payload) {
+        byte[] statusCodes = new byte[payload.getShort()];
+        for (int i = 0; i < statusCodes.length; i++) {
+            statusCodes[i] = DynamicsSeries.encodeStatus(readString(payload));
+        }
+        return statusCodes;
+    }
+
+    private static byte statusCode(byte[] statusCodes, byte saved) {
+        return saved >= 0 && saved < statusCodes.length ? statusCodes[saved] : DynamicsSeries.STATUS_UNKNOWN;
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        if (value == null) {
+            data.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String readString(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class CachedDrone {
+        private final DroneDetails details;
+        private final DroneType type;
+        private DynamicsSeries.Builder dynamics = new DynamicsSeries.Builder(0);
+        private StatusTransitions transitions;
+        private int offset;
+
+        CachedDrone(DroneDetails details, DroneType type) {
+            this.details = details;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package main.java.storage;
+
+import main.java.model.DynamicsSeries;
+import main.java.model.DynamicsStore;
+import main.java.model.DynamicsView;
+import main.java.util.Logs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The {@code LsmDynamicsStore} class keeps the dynamics of one drone in a log-structured merge tree in its own
+ * directory, so the key of every sample is (drone id, timestamp).
+ * <p>
+ * Appended samples are written to a {@link WriteAheadLog} and merged into an in-memory memtable. A full memtable
+ * is frozen and a new log is started; a background thread writes the frozen memtable as an immutable, sorted,
+ * columnar {@link SegmentFile} and deletes its log. Runs of small segments are compacted into one larger segment
+ * in the background as well.
+ * </p>
+ * <p>
+ * Readers get an immutable {@link LsmView} over the segments and memtables, so range scans never wait for
+ * ingest, flushes or compactions. Segments are append-only in time: samples that are not newer than the latest
+ * frozen sample are dropped, like in the other file backed stores.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #view() view}: Returns the current snapshot.</li>
+ *     <li>{@link #append(DynamicsSeries) append}: Logs and merges a page into the memtable.</li>
+ *     <li>{@link #segmentCount() segmentCount}: Returns the number of segment files.</li>
+ *     <li>{@link #close() close}: Closes the log; the memtable is recovered from it on the next open.</li>
+ * </ul>
+ * </p>
+ */
+
+public class LsmDynamicsStore implements DynamicsStore, Closeable {
+    static final int MEMTABLE_ROWS = 8_192;
+    static final int COMPACTION_TRIGGER = 4;
+    static final int TARGET_SEGMENT_ROWS = 262_144;
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String LOG_PREFIX = "wal-";
+    private static final String LOG_SUFFIX = ".log";
+
+    private static final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lsm-background");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path directory;
+    private final int memtableRows;
+    private final List<SegmentFile> segments = new ArrayList<>();
+    private final List<Frozen> frozen = new ArrayList<>();
+    private DynamicsSeries memtable = DynamicsSeries.empty();
+    private WriteAheadLog log;
+    private long sequence;
+    private boolean closed;
+    private volatile LsmView snapshot;
+
+    public LsmDynamicsStore(Path directory) throws IOException {
+        this(directory, MEMTABLE_ROWS);
+    }
+
+    /**
+     * @param memtableRows samples at which the memtable is frozen and flushed; 1 flushes every append.
+     */
+    public LsmDynamicsStore(Path directory, int memtableRows) throws IOException {
+        this.directory = directory;
+        this.memtableRows = Math.max(1, memtableRows);
+        Files.createDirectories(directory);
+        List<Path> logs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    sequence = Math.max(sequence, sequenceOf(name, SEGMENT_PREFIX, SEGMENT_SUFFIX));
+                    openSegment(file);
+                } else if (name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX)) {
+                    sequence = Math.max(sequence, sequenceOf(name, LOG_PREFIX, LOG_SUFFIX));
+                    logs.add(file);
+                }
+            }
+        }
+        removeOverlappingSegments();
+        logs.sort(Comparator.comparingLong(file -> sequenceOf(file.getFileName().toString(), LOG_PREFIX, LOG_SUFFIX)));
+        recover(logs);
+        publish();
+        scheduleCompaction();
+    }
+
+    @Override
+    public DynamicsView view() {
+        return snapshot;
+    }
+
+    /**
+     * @throws UncheckedIOException if the page cannot be written to the log; the snapshot is left unchanged, so
+     * no sample is shown that would be lost in a crash.
+     */
+    @Override
+    public synchronized DynamicsView append(DynamicsSeries page) {
+        if (closed || page == null || page.isEmpty()) {
+            return snapshot;
+        }
+        long latestFrozen = latestFrozenTimestamp();
+        int start = latestFrozen == Long.MIN_VALUE ? 0 : page.lowerBound(latestFrozen + 1);
+        int outOfOrder = DynamicsStore.outOfOrder(snapshot, page, start);
+        if (outOfOrder > 0) {
+            Logs.warning("Dropped " + outOfOrder + " samples older than the latest stored one in "
+                    + directory.getFileName());
+        }
+        if (start == page.size()) {
+            return snapshot;
+        }
+        DynamicsSeries accepted = start == 0 ? page : copy(page, start);
+        try {
+            log.append(accepted);
+        } catch (IOException e) {
+            Logs.error("Error occurred in LsmDynamicsStore.append() : " + e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+        memtable = memtable.merge(accepted);
+        if (memtable.size() >= memtableRows) {
+            freeze();
+        }
+        publish();
+        return snapshot;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        log.close();
+    }
+
+    private void freeze() {
+        try {
+            WriteAheadLog next = new WriteAheadLog(directory.resolve(LOG_PREFIX + (++sequence) + LOG_SUFFIX));
+            log.close();
+            frozen.add(new Frozen(memtable, log.path(), ++sequence));
+            log = next;
+            memtable = DynamicsSeries.empty();
+            background.execute(this::flush);
+        } catch (IOException e) {
+            Logs.error("Error occurred in LsmDynamicsStore.freeze() : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the oldest frozen memtable as a segment, runs on the background thread.
+     */
+    private void flush() {
+        Frozen oldest;
+        synchronized (this) {
+            if (frozen.isEmpty()) {
+                return;
+            }
+            oldest = frozen.get(0);
+        }
+        try {
+            SegmentFile segment = SegmentFile.write(segmentPath(oldest.sequence()), oldest.memtable(), 0, oldest.memtable().size());
+            synchronized (this) {
+                frozen.remove(0);
+                segments.add(segment);
+                publish();
+            }
+            Files.deleteIfExists(oldest.log());
+        } catch (IOException e) {
+            Logs.error("Error occurred in LsmDynamicsStore.flush() : " + e.getMessage());
+            return;
+        }
+        scheduleCompaction();
+    }
+
+    private void scheduleCompaction() {
+        background.execute(this::compact);
+    }
+
+    /**
+     * Merges the first run of at least {@value #COMPACTION_TRIGGER} adjacent small segments into one,
+     * runs on the background thread. Segments only change on this thread, so the run stays valid while it is written.
+     */
+    private void compact() {
+        List<SegmentFile> run;
+        long target;
+        synchronized (this) {
+            run = smallSegmentRun();
+            if (run.isEmpty()) {
+                return;
+            }
+            target = ++sequence;
+        }
+        try {
+            LsmView merged = new LsmView(run);
+            SegmentFile compacted = SegmentFile.write(segmentPath(target), merged, 0, merged.size());
+            synchronized (this) {
+                int first = segments.indexOf(run.get(0));
+                segments.subList(first, first + run.size()).clear();
+                segments.add(first, compacted);
+                publish();
+            }
+            for (SegmentFile segment : run) {
+                deleteSegment(segment);
+            }
+            Logs.info("Compacted " + run.size() + " segments into " + compacted.path().getFileName()
+                    + " (" + compacted.size() + " rows)");
+        } catch (IOException e) {
+            Logs.error("Error occurred in LsmDynamicsStore.compact() : " + e.getMessage());
+            return;
+        }
+        scheduleCompaction();
+    }
+
+    private List<SegmentFile> smallSegmentRun() {
+        int runStart = 0;
+        int rows = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            int size = segments.get(i).size();
+            if (size >= TARGET_SEGMENT_ROWS || rows + size > TARGET_SEGMENT_ROWS) {
+                if (i - runStart >= COMPACTION_TRIGGER) {
+                    return new ArrayList<>(segments.subList(runStart, i));
+                }
+                runStart = size >= TARGET_SEGMENT_ROWS ? i + 1 : i;
+                rows = size >= TARGET_SEGMENT_ROWS ? 0 : size;
+            } else {
+                rows += size;
+            }
+        }
+        return segments.size() - runStart >= COMPACTION_TRIGGER
+                ? new ArrayList<>(segments.subList(runStart, segments.size())) : List.of();
+    }
+
+    /**
+     * Replays the logs left by the previous run into the memtable and moves it into a fresh log.
+     */
+    private void recover(List<Path> logs) throws IOException {
+        long latestFrozen = latestFrozenTimestamp();
+        for (Path file : logs) {
+            DynamicsSeries replayed = WriteAheadLog.replay(file);
+            int start = latestFrozen == Long.MIN_VALUE ? 0 : replayed.lowerBound(latestFrozen + 1);
+            memtable = memtable.merge(start == 0 ? replayed : copy(replayed, start));
+        }
+        log = new WriteAheadLog(directory.resolve(LOG_PREFIX + (++sequence) + LOG_SUFFIX));
+        if (!memtable.isEmpty()) {
+            log.append(memtable);
+            Logs.info("Recovered " + memtable.size() + " samples from the write-ahead log in " + directory.getFileName());
+        }
+        for (Path file : logs) {
+            Files.deleteIfExists(file);
+        }
+        if (memtable.size() >= memtableRows) {
+            freeze();
+        }
+    }
+
+    private void openSegment(Path file) {
+        try {
+            segments.add(SegmentFile.open(file));
+        } catch (IOException e) {
+            Logs.error("Error occurred in LsmDynamicsStore.openSegment() : " + e.getMessage());
+        }
+    }
+
+    /**
+     * A compaction interrupted after its output was moved into place leaves its inputs behind.
+     * The compacted segment sorts first among segments starting at the same time, the inputs it covers are deleted.
+     */
+    private void removeOverlappingSegments() {
+        segments.sort(Comparator.comparingLong(SegmentFile::firstTimestamp)
+                .thenComparing(Comparator.comparingInt(SegmentFile::size).reversed()));
+        List<SegmentFile> kept = new ArrayList<>(segments.size());
+        for (SegmentFile segment : segments) {
+            if (segment.isEmpty()) {
+                deleteSegment(segment);
+            } else if (!kept.isEmpty() && segment.firstTimestamp() <= kept.get(kept.size() - 1).lastTimestamp()) {
+                Logs.warning("Removing segment overlapping a compacted one: " + segment.path().getFileName());
+                deleteSegment(segment);
+            } else {
+                kept.add(segment);
+            }
+        }
+        segments.clear();
+        segments.addAll(kept);
+    }
+
+    private void deleteSegment(SegmentFile segment) {
+        try {
+            Files.deleteIfExists(segment.path());
+        } catch (IOException e) {
+            Logs.error("Error occurred in LsmDynamicsStore.deleteSegment() : " + e.getMessage());
+        }
+    }
+
+    private long latestFrozenTimestamp() {
+        if (!frozen.isEmpty()) {
+            DynamicsSeries latest = frozen.get(frozen.size() - 1).memtable();
+            return latest.timestampAt(latest.size() - 1);
+        }
+        return segments.isEmpty() ? Long.MIN_VALUE : segments.get(segments.size() - 1).lastTimestamp();
+    }
+
+    private void publish() {
+        List<DynamicsView> parts = new ArrayList<>(segments.size() + frozen.size() + 1);
+        parts.addAll(segments);
+        for (Frozen table : frozen) {
+            parts.add(table.memtable());
+        }
+        parts.add(memtable);
+        snapshot = new LsmView(parts);
+    }
+
+    private Path segmentPath(long segmentSequence) {
+        return directory.resolve(SEGMENT_PREFIX + segmentSequence + SEGMENT_SUFFIX);
+    }
+
+    private static DynamicsSeries copy(DynamicsView source, int from) {
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(source.size() - from);
+        for (int i = from; i < source.size(); i++) {
+            builder.append(source, i);
+        }
+        return builder.build();
+    }
+
+    private static long sequenceOf(String name, String prefix, String suffix) {
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private record Frozen(DynamicsSeries memtable, Path log, long sequence) {
+    }
+}
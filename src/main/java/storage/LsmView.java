@@ -0,0 +1,132 @@
+package main.java.storage;
+
+import main.java.model.DynamicsView;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of an {@link LsmDynamicsStore}: its segments, the memtables waiting to be flushed and the
+ * active memtable, concatenated in time order.
+ * <p>
+ * The parts never overlap in time, so an index is resolved by a binary search over the part boundaries, and
+ * {@link #lowerBound(long)} binary-searches the last timestamps of the parts, kept when the view is created, and
+ * then searches only the first part whose last timestamp reaches the bound.
+ * </p>
+ */
+
+final class LsmView implements DynamicsView {
+    private final DynamicsView[] parts;
+    private final int[] starts;
+    private final long[] lastTimestamps;
+
+    LsmView(List<? extends DynamicsView> views) {
+        List<? extends DynamicsView> nonEmpty = views.stream().filter(view -> !view.isEmpty()).toList();
+        this.parts = nonEmpty.toArray(new DynamicsView[0]);
+        this.starts = new int[parts.length + 1];
+        this.lastTimestamps = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            starts[i + 1] = starts[i] + parts[i].size();
+            lastTimestamps[i] = parts[i].timestampAt(parts[i].size() - 1);
+        }
+    }
+
+    @Override
+    public int size() {
+        return starts[parts.length];
+    }
+
+    @Override
+    public int lowerBound(long epochMillis) {
+        if (parts.length == 0 || lastTimestamps[parts.length - 1] < epochMillis) {
+            return size();
+        }
+        int low = 0;
+        int high = parts.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lastTimestamps[mid] < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return starts[low] + parts[low].lowerBound(epochMillis);
+    }
+
+    @Override
+    public long timestampAt(int index) {
+        int part = part(index);
+        return parts[part].timestampAt(index - starts[part]);
+    }
+
+    @Override
+    public long lastSeenAt(int index) {
+        int part = part(index);
+        return parts[part].lastSeenAt(index - starts[part]);
+    }
+
+    @Override
+    public int speedAt(int index) {
+        int part = part(index);
+        return parts[part].speedAt(index - starts[part]);
+    }
+
+    @Override
+    public double latitudeAt(int index) {
+        int part = part(index);
+        return parts[part].latitudeAt(index - starts[part]);
+    }
+
+    @Override
+    public double longitudeAt(int index) {
+        int part = part(index);
+        return parts[part].longitudeAt(index - starts[part]);
+    }
+
+    @Override
+    public int batteryAt(int index) {
+        int part = part(index);
+        return parts[part].batteryAt(index - starts[part]);
+    }
+
+    @Override
+    public float rollAt(int index) {
+        int part = part(index);
+        return parts[part].rollAt(index - starts[part]);
+    }
+
+    @Override
+    public float pitchAt(int index) {
+        int part = part(index);
+        return parts[part].pitchAt(index - starts[part]);
+    }
+
+    @Override
+    public float yawAt(int index) {
+        int part = part(index);
+        return parts[part].yawAt(index - starts[part]);
+    }
+
+    @Override
+    public byte statusAt(int index) {
+        int part = part(index);
+        return parts[part].statusAt(index - starts[part]);
+    }
+
+    private int part(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int low = 0;
+        int high = parts.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,188 @@
+package main.java.storage;
+
+import main.java.model.DynamicsSeries;
+import main.java.model.DynamicsStore;
+import main.java.model.DynamicsView;
+import main.java.util.Logs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The {@code MappedDynamicsStore} class keeps the dynamics of one drone off-heap in an append-only,
+ * memory-mapped file.
+ * <p>
+ * File layout (little endian): a {@value #HEADER_SIZE} byte header holding magic, version, record size and
+ * the committed record count, followed by fixed {@value #RECORD_SIZE} byte records in timestamp order.
+ * The count is written after the records, so a crash never exposes a half written record.
+ * </p>
+ * <p>
+ * The heap only holds a sparse time index (every {@value #INDEX_STRIDE}th timestamp) and the current snapshot.
+ * Samples are read through {@link java.nio.ByteBuffer} views of the mapping. Since the file is append-only,
+ * samples that are not newer than the latest stored sample are dropped.
+ * </p>
+ * <p>
+ * The file is only open while it is mapped, since a mapping stays valid after its channel is closed, so a
+ * fleet of thousands of drones does not hold a file descriptor per drone.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #view() view}: Returns the current snapshot.</li>
+ *     <li>{@link #append(DynamicsSeries) append}: Appends the samples of a page that are newer than the latest one.</li>
+ *     <li>{@link #close() close}: Flushes the mapping.</li>
+ * </ul>
+ * </p>
+ */
+
+public class MappedDynamicsStore implements DynamicsStore, Closeable {
+    static final int MAGIC = 0x444D5344;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 56;
+    static final int INDEX_STRIDE = 1024;
+    static final int COUNT_OFFSET = 16;
+
+    static final int TIMESTAMP = 0;
+    static final int LAST_SEEN = 8;
+    static final int LATITUDE = 16;
+    static final int LONGITUDE = 24;
+    static final int SPEED = 32;
+    static final int BATTERY = 36;
+    static final int ROLL = 40;
+    static final int PITCH = 44;
+    static final int YAW = 48;
+    static final int STATUS = 52;
+
+    private static final int GROWTH_RECORDS = 16_384;
+    private static final int MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    private final Path file;
+    private MappedByteBuffer buffer;
+    private long[] sparseIndex;
+    private volatile MappedDynamicsView snapshot;
+
+    public MappedDynamicsStore(Path file) throws IOException {
+        this.file = file;
+        int count;
+        try (FileChannel channel = open()) {
+            count = channel.size() < HEADER_SIZE ? initializeHeader(channel) : readHeader(channel);
+        }
+        this.sparseIndex = new long[Math.max(16, count / INDEX_STRIDE + 1)];
+        for (int i = 0; i < count; i += INDEX_STRIDE) {
+            sparseIndex[i / INDEX_STRIDE] = buffer.getLong(HEADER_SIZE + i * RECORD_SIZE + TIMESTAMP);
+        }
+        this.snapshot = new MappedDynamicsView(buffer, count, sparseIndex);
+    }
+
+    @Override
+    public DynamicsView view() {
+        return snapshot;
+    }
+
+    @Override
+    public synchronized DynamicsView append(DynamicsSeries page) {
+        MappedDynamicsView current = snapshot;
+        int count = current.size();
+        int start = count == 0 ? 0 : page.lowerBound(current.timestampAt(count - 1) + 1);
+        int added = page.size() - start;
+        int outOfOrder = DynamicsStore.outOfOrder(current, page, start);
+        if (outOfOrder > 0) {
+            Logs.warning("Dropped " + outOfOrder + " samples older than the latest stored one in " + file.getFileName());
+        }
+        if (added <= 0) {
+            return current;
+        }
+        try {
+            ensureCapacity(count + added);
+        } catch (IOException e) {
+            Logs.error("Error occurred in MappedDynamicsStore.append() : " + e.getMessage());
+            return current;
+        }
+        for (int i = 0; i < added; i++) {
+            int row = count + i;
+            writeRecord(row, page, start + i);
+            if (row % INDEX_STRIDE == 0) {
+                indexTimestamp(row / INDEX_STRIDE, page.timestampAt(start + i));
+            }
+        }
+        buffer.putLong(COUNT_OFFSET, count + added);
+        snapshot = new MappedDynamicsView(buffer, count + added, sparseIndex);
+        return snapshot;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private int initializeHeader(FileChannel channel) throws IOException {
+        map(channel, GROWTH_RECORDS);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, RECORD_SIZE);
+        buffer.putLong(COUNT_OFFSET, 0);
+        return 0;
+    }
+
+    private int readHeader(FileChannel channel) throws IOException {
+        map(channel, (int) Math.min(MAX_RECORDS, (channel.size() - HEADER_SIZE) / RECORD_SIZE));
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+            throw new IOException("Not a dynamics file or unsupported version: " + file);
+        }
+        long count = buffer.getLong(COUNT_OFFSET);
+        if (count < 0 || HEADER_SIZE + count * RECORD_SIZE > channel.size()) {
+            throw new IOException("Corrupt record count " + count + " in " + file);
+        }
+        return (int) count;
+    }
+
+    private void ensureCapacity(int records) throws IOException {
+        int capacity = (buffer.capacity() - HEADER_SIZE) / RECORD_SIZE;
+        if (records <= capacity) {
+            return;
+        }
+        if (records > MAX_RECORDS) {
+            throw new IOException("Dynamics file is full: " + file);
+        }
+        try (FileChannel channel = open()) {
+            map(channel, (int) Math.min(MAX_RECORDS, Math.max((long) records, (long) capacity * 2)));
+        }
+    }
+
+    private void map(FileChannel channel, int records) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) records * RECORD_SIZE);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private void indexTimestamp(int slot, long timestamp) {
+        if (slot >= sparseIndex.length) {
+            sparseIndex = Arrays.copyOf(sparseIndex, sparseIndex.length * 2);
+        }
+        sparseIndex[slot] = timestamp;
+    }
+
+    private void writeRecord(int row, DynamicsView page, int index) {
+        int position = HEADER_SIZE + row * RECORD_SIZE;
+        buffer.putLong(position + TIMESTAMP, page.timestampAt(index));
+        buffer.putLong(position + LAST_SEEN, page.lastSeenAt(index));
+        buffer.putDouble(position + LATITUDE, page.latitudeAt(index));
+        buffer.putDouble(position + LONGITUDE, page.longitudeAt(index));
+        buffer.putInt(position + SPEED, page.speedAt(index));
+        buffer.putInt(position + BATTERY, page.batteryAt(index));
+        buffer.putFloat(position + ROLL, page.rollAt(index));
+        buffer.putFloat(position + PITCH, page.pitchAt(index));
+        buffer.putFloat(position + YAW, page.yawAt(index));
+        buffer.put(position + STATUS, page.statusAt(index));
+    }
+}
@@ -0,0 +1,115 @@
+package main.java.storage;
+
+import main.java.model.DynamicsView;
+
+import java.nio.ByteBuffer;
+
+import static main.java.storage.MappedDynamicsStore.*;
+
+/**
+ * Immutable snapshot of the first {@code count} records of a {@link MappedDynamicsStore}.
+ * <p>
+ * Reads go straight to the mapped buffer with absolute gets. {@link #lowerBound(long)} first searches the
+ * on-heap sparse index and then only the {@value MappedDynamicsStore#INDEX_STRIDE} records of one block.
+ * </p>
+ */
+
+final class MappedDynamicsView implements DynamicsView {
+    private final ByteBuffer buffer;
+    private final int count;
+    private final long[] sparseIndex;
+
+    MappedDynamicsView(ByteBuffer buffer, int count, long[] sparseIndex) {
+        this.buffer = buffer;
+        this.count = count;
+        this.sparseIndex = sparseIndex;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int lowerBound(long epochMillis) {
+        int blocks = (count + INDEX_STRIDE - 1) / INDEX_STRIDE;
+        int low = 0;
+        int high = blocks;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sparseIndex[mid] < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int from = Math.max(0, (low - 1) * INDEX_STRIDE);
+        int to = Math.min(count, low * INDEX_STRIDE);
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (timestampAt(mid) < epochMillis) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    @Override
+    public long timestampAt(int index) {
+        return buffer.getLong(position(index) + TIMESTAMP);
+    }
+
+    @Override
+    public long lastSeenAt(int index) {
+        return buffer.getLong(position(index) + LAST_SEEN);
+    }
+
+    @Override
+    public int speedAt(int index) {
+        return buffer.getInt(position(index) + SPEED);
+    }
+
+    @Override
+    public double latitudeAt(int index) {
+        return buffer.getDouble(position(index) + LATITUDE);
+    }
+
+    @Override
+    public double longitudeAt(int index) {
+        return buffer.getDouble(position(index) + LONGITUDE);
+    }
+
+    @Override
+    public int batteryAt(int index) {
+        return buffer.getInt(position(index) + BATTERY);
+    }
+
+    @Override
+    public float rollAt(int index) {
+        return buffer.getFloat(position(index) + ROLL);
+    }
+
+    @Override
+    public float pitchAt(int index) {
+        return buffer.getFloat(position(index) + PITCH);
+    }
+
+    @Override
+    public float yawAt(int index) {
+        return buffer.getFloat(position(index) + YAW);
+    }
+
+    @Override
+    public byte statusAt(int index) {
+        return buffer.get(position(index) + STATUS);
+    }
+
+    private int position(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,113 @@
+package main.java.storage;
+
+import main.java.model.DynamicsSeries;
+import main.java.model.DynamicsStore;
+import main.java.model.DynamicsView;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The {@code RetainedDynamicsStore} class keeps a bounded hot window of the dynamics of one drone on the heap and
+ * spills older samples to segment files on disk.
+ * <p>
+ * The hot window is a {@link DynamicsSeries} that new pages are merged into. Whenever it exceeds the
+ * {@link RetentionPolicy}, its oldest samples are appended to an {@link LsmDynamicsStore} and the rest is copied
+ * into a new, compact series, so heap use per drone stays below the limits. Readers get one time-ordered
+ * {@link LsmView} over the spilled and the hot samples and do not see where the boundary is.
+ * </p>
+ * <p>
+ * Samples of a page that are not newer than the latest spilled sample are skipped when the spill store already has
+ * them, as after a full refetch. If some of them are missing, they are out of order: the skipped samples are passed
+ * to the spill store, which drops and reports those it cannot place.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #view() view}: Returns the current snapshot over spilled and hot samples.</li>
+ *     <li>{@link #append(DynamicsSeries) append}: Merges a page into the hot window and spills if needed.</li>
+ *     <li>{@link #hotSize() hotSize}: Returns the number of samples on the heap.</li>
+ *     <li>{@link #close() close}: Closes the spill store.</li>
+ * </ul>
+ * </p>
+ */
+
+public class RetainedDynamicsStore implements DynamicsStore, Closeable {
+    private final RetentionPolicy policy;
+    private final LsmDynamicsStore spilled;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * @param spilled store receiving the spilled samples, best with a memtable of 1 row, so spilled samples
+     *                leave the heap as soon as they are flushed.
+     */
+    public RetainedDynamicsStore(RetentionPolicy policy, LsmDynamicsStore spilled) {
+        this.policy = policy;
+        this.spilled = spilled;
+        snapshot.set(Snapshot.of(spilled.view(), DynamicsSeries.empty()));
+    }
+
+    /**
+     * @return the current snapshot; refreshed when the spill store has flushed, so flushed samples are read
+     * from their segment instead of being kept alive on the heap.
+     */
+    @Override
+    public DynamicsView view() {
+        Snapshot current = snapshot.get();
+        DynamicsView cold = spilled.view();
+        if (current.cold() != cold) {
+            Snapshot refreshed = Snapshot.of(cold, current.hot());
+            current = snapshot.compareAndSet(current, refreshed) ? refreshed : snapshot.get();
+        }
+        return current.view();
+    }
+
+    @Override
+    public synchronized DynamicsView append(DynamicsSeries page) {
+        DynamicsSeries hot = snapshot.get().hot();
+        DynamicsView cold = spilled.view();
+        if (!cold.isEmpty() && page != null && !page.isEmpty()) {
+            int start = page.lowerBound(cold.timestampAt(cold.size() - 1) + 1);
+            if (start > 0) {
+                if (DynamicsStore.outOfOrder(cold, page, start) > 0) {
+                    spilled.append(copy(page, 0, start));
+                }
+                page = copy(page, start, page.size());
+            }
+        }
+        hot = hot.merge(page);
+        int spill = policy.spillCount(hot);
+        if (spill > 0) {
+            spilled.append(copy(hot, 0, spill));
+            hot = copy(hot, spill, hot.size());
+        }
+        Snapshot updated = Snapshot.of(spilled.view(), hot);
+        snapshot.set(updated);
+        return updated.view();
+    }
+
+    public int hotSize() {
+        return snapshot.get().hot().size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        spilled.close();
+    }
+
+    private static DynamicsSeries copy(DynamicsView source, int from, int to) {
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(to - from);
+        for (int i = from; i < to; i++) {
+            builder.append(source, i);
+        }
+        return builder.build();
+    }
+
+    private record Snapshot(DynamicsView cold, DynamicsSeries hot, LsmView view) {
+        static Snapshot of(DynamicsView cold, DynamicsSeries hot) {
+            return new Snapshot(cold, hot, new LsmView(List.of(cold, hot)));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package main.java.storage;
+
+import main.java.model.DynamicsView;
+import main.java.util.ConfigurationLoader;
+import main.java.util.Logs;
+
+/**
+ * Limits of the in-memory hot window of a {@link RetainedDynamicsStore}, read from {@code storage.retention}.
+ * <p>
+ * A limit of 0 is not set. When the hot window exceeds a limit, its oldest samples are spilled until it is
+ * back at {@value #SPILL_TARGET_PERCENT} percent of the limit, so spills happen in chunks rather than on every append.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #fromConfig(ConfigurationLoader) fromConfig}: Reads {@code samples}, {@code age} (seconds) and {@code bytes}.</li>
+ *     <li>{@link #isBounded() isBounded}: Returns whether any limit is set.</li>
+ *     <li>{@link #spillCount(DynamicsView) spillCount}: Returns how many of the oldest samples to spill.</li>
+ * </ul>
+ * </p>
+ *
+ * @param maxSamples   samples kept in memory per drone.
+ * @param maxAgeMillis age of the oldest sample kept in memory, relative to the newest one.
+ * @param maxBytes     heap bytes of the samples kept in memory per drone.
+ */
+
+public record RetentionPolicy(int maxSamples, long maxAgeMillis, long maxBytes) {
+    public static final RetentionPolicy UNBOUNDED = new RetentionPolicy(0, 0, 0);
+    static final int SAMPLE_BYTES = 53;
+    static final int SPILL_TARGET_PERCENT = 75;
+
+    public static RetentionPolicy fromConfig(ConfigurationLoader configLoader) {
+        return new RetentionPolicy(
+                (int) Math.min(Integer.MAX_VALUE, readLimit(configLoader, "retention.samples")),
+                readLimit(configLoader, "retention.age") * 1_000L,
+                readLimit(configLoader, "retention.bytes"));
+    }
+
+    public boolean isBounded() {
+        return maxSamples > 0 || maxAgeMillis > 0 || maxBytes > 0;
+    }
+
+    /**
+     * @return number of samples kept by the sample and byte limits, {@code Integer.MAX_VALUE} if neither is set.
+     */
+    public int sampleLimit() {
+        long limit = maxSamples > 0 ? maxSamples : Integer.MAX_VALUE;
+        if (maxBytes > 0) {
+            limit = Math.min(limit, Math.max(1, maxBytes / SAMPLE_BYTES));
+        }
+        return (int) limit;
+    }
+
+    /**
+     * @return number of the oldest samples of {@code hot} to spill, 0 while it is within all limits.
+     */
+    public int spillCount(DynamicsView hot) {
+        int size = hot.size();
+        if (size == 0) {
+            return 0;
+        }
+        int spill = 0;
+        int limit = sampleLimit();
+        if (size > limit) {
+            spill = size - (int) ((long) limit * SPILL_TARGET_PERCENT / 100);
+        }
+        if (maxAgeMillis > 0) {
+            long newest = hot.timestampAt(size - 1);
+            if (newest - hot.timestampAt(0) > maxAgeMillis) {
+                spill = Math.max(spill, hot.lowerBound(newest - maxAgeMillis * SPILL_TARGET_PERCENT / 100));
+            }
+        }
+        return Math.min(spill, size);
+    }
+
+    private static long readLimit(ConfigurationLoader configLoader, String key) {
+        String value = configLoader.read("storage", key);
+        try {
+            return value != null ? Math.max(0, Long.parseLong(value.trim())) : 0;
+        } catch (NumberFormatException e) {
+            Logs.warning("Invalid storage." + key + " '" + value + "', no limit");
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package main.java.storage;
+
+import main.java.model.DynamicsView;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Immutable, sorted, columnar segment of an {@link LsmDynamicsStore}, read through a memory mapping.
+ * <p>
+ * File layout (little endian): a {@value #HEADER_SIZE} byte header holding magic, version, row count, block size,
+ * block count, a CRC32 of everything after the header and the first and last timestamp. It is followed by the
+ * block index, the minimum and maximum timestamp of every {@value #BLOCK_SIZE} rows, and by one contiguous
+ * column per field.
+ * </p>
+ * <p>
+ * Segments are written to a temporary file and moved into place, so a segment file is either complete or absent.
+ * {@link #lowerBound(long)} skips blocks by their maximum timestamp and searches a single block.
+ * </p>
+ */
+
+final class SegmentFile implements DynamicsView {
+    static final int BLOCK_SIZE = 512;
+    private static final int MAGIC = 0x444D5347;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int CRC_OFFSET = 20;
+    private static final int ROW_SIZE = 53;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final int count;
+    private final long[] blockMax;
+    private final int timestamps;
+    private final int lastSeen;
+    private final int latitude;
+    private final int longitude;
+    private final int speed;
+    private final int battery;
+    private final int roll;
+    private final int pitch;
+    private final int yaw;
+    private final int status;
+
+    private SegmentFile(Path path, ByteBuffer buffer, int count) {
+        this.path = path;
+        this.buffer = buffer;
+        this.count = count;
+        int blocks = blockCount(count);
+        this.blockMax = new long[blocks];
+        for (int block = 0; block < blocks; block++) {
+            blockMax[block] = buffer.getLong(HEADER_SIZE + block * 16 + 8);
+        }
+        this.timestamps = HEADER_SIZE + blocks * 16;
+        this.lastSeen = timestamps + count * 8;
+        this.latitude = lastSeen + count * 8;
+        this.longitude = latitude + count * 8;
+        this.speed = longitude + count * 8;
+        this.battery = speed + count * 4;
+        this.roll = battery + count * 4;
+        this.pitch = roll + count * 4;
+        this.yaw = pitch + count * 4;
+        this.status = yaw + count * 4;
+    }
+
+    /**
+     * Writes the samples {@code [from, to)} of a view as a new segment at {@code path}.
+     */
+    static SegmentFile write(Path path, DynamicsView source, int from, int to) throws IOException {
+        int rows = to - from;
+        int blocks = blockCount(rows);
+        long fileSize = HEADER_SIZE + blocks * 16L + (long) rows * ROW_SIZE;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Segment too large: " + rows + " rows");
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, rows);
+            buffer.putInt(12, BLOCK_SIZE);
+            buffer.putInt(16, blocks);
+            buffer.putLong(24, rows > 0 ? source.timestampAt(from) : Long.MIN_VALUE);
+            buffer.putLong(32, rows > 0 ? source.timestampAt(to - 1) : Long.MIN_VALUE);
+            for (int block = 0; block < blocks; block++) {
+                int first = from + block * BLOCK_SIZE;
+                int last = Math.min(to, first + BLOCK_SIZE) - 1;
+                buffer.putLong(HEADER_SIZE + block * 16, source.timestampAt(first));
+                buffer.putLong(HEADER_SIZE + block * 16 + 8, source.timestampAt(last));
+            }
+            buffer.position(HEADER_SIZE + blocks * 16);
+            for (int i = from; i < to; i++) {
+                buffer.putLong(source.timestampAt(i));
+            }
+            for (int i = from; i < to; i++) {
+                buffer.putLong(source.lastSeenAt(i));
+            }
+            for (int i = from; i < to; i++) {
+                buffer.putDouble(source.latitudeAt(i));
+            }
+            for (int i = from; i < to; i++) {
+                buffer.putDouble(source.longitudeAt(i));
+            }
+            for (int i = from; i < to; i++) {
+                buffer.putInt(source.speedAt(i));
+            }
+            for (int i = from; i < to; i++) {
+                buffer.putInt(source.batteryAt(i));
+            }
+            for (int i = from; i < to; i++) {
+                buffer.putFloat(source.rollAt(i));
+            }
+            for (int i = from; i < to; i++) {
+                buffer.putFloat(source.pitchAt(i));
+            }
+            for (int i = from; i < to; i++) {
+                buffer.putFloat(source.yawAt(i));
+            }
+            for (int i = from; i < to; i++) {
+                buffer.put(source.statusAt(i));
+            }
+            buffer.putInt(CRC_OFFSET, checksum(buffer));
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return open(path);
+    }
+
+    /**
+     * @throws IOException if the file is not a complete segment.
+     */
+    static SegmentFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Invalid segment size " + channel.size() + ": " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            int rows = buffer.getInt(8);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(12) != BLOCK_SIZE
+                    || rows < 0 || buffer.getInt(16) != blockCount(rows)
+                    || channel.size() != HEADER_SIZE + blockCount(rows) * 16L + (long) rows * ROW_SIZE) {
+                throw new IOException("Not a segment file or unsupported version: " + path);
+            }
+            if (buffer.getInt(CRC_OFFSET) != checksum(buffer)) {
+                throw new IOException("Segment checksum mismatch: " + path);
+            }
+            return new SegmentFile(path, buffer, rows);
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long firstTimestamp() {
+        return buffer.getLong(24);
+    }
+
+    long lastTimestamp() {
+        return buffer.getLong(32);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int lowerBound(long epochMillis) {
+        int low = 0;
+        int high = blockMax.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blockMax[mid] < epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int from = low * BLOCK_SIZE;
+        int to = Math.min(count, from + BLOCK_SIZE);
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (timestampAt(mid) < epochMillis) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return from;
+    }
+
+    @Override
+    public long timestampAt(int index) {
+        return buffer.getLong(timestamps + checked(index) * 8);
+    }
+
+    @Override
+    public long lastSeenAt(int index) {
+        return buffer.getLong(lastSeen + checked(index) * 8);
+    }
+
+    @Override
+    public int speedAt(int index) {
+        return buffer.getInt(speed + checked(index) * 4);
+    }
+
+    @Override
+    public double latitudeAt(int index) {
+        return buffer.getDouble(latitude + checked(index) * 8);
+    }
+
+    @Override
+    public double longitudeAt(int index) {
+        return buffer.getDouble(longitude + checked(index) * 8);
+    }
+
+    @Override
+    public int batteryAt(int index) {
+        return buffer.getInt(battery + checked(index) * 4);
+    }
+
+    @Override
+    public float rollAt(int index) {
+        return buffer.getFloat(roll + checked(index) * 4);
+    }
+
+    @Override
+    public float pitchAt(int index) {
+        return buffer.getFloat(pitch + checked(index) * 4);
+    }
+
+    @Override
+    public float yawAt(int index) {
+        return buffer.getFloat(yaw + checked(index) * 4);
+    }
+
+    @Override
+    public byte statusAt(int index) {
+        return buffer.get(status + checked(index));
+    }
+
+    private int checked(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return index;
+    }
+
+    private static int blockCount(int rows) {
+        return (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    private static int checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+        return (int) crc.getValue();
+    }
+}
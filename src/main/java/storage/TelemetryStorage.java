@@ -0,0 +1,175 @@
+package main.java.storage;
+
+import main.java.model.DynamicsSeries;
+import main.java.model.DynamicsStore;
+import main.java.model.HeapDynamicsStore;
+import main.java.util.ConfigurationLoader;
+import main.java.util.Logs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code TelemetryStorage} class creates the {@link DynamicsStore} of each drone according to the
+ * {@code storage} section of the configuration.
+ * <p>
+ * Backends:
+ * <ul>
+ *     <li>{@code heap}: Columnar arrays on the Java heap (default).</li>
+ *     <li>{@code mapped}: One append-only, memory-mapped file per drone in {@code storage.directory}.
+ *         Stores are kept open and reused when the data is fetched again.</li>
+ *     <li>{@code compressed}: Compressed blocks on the Java heap with an uncompressed head for recent samples.</li>
+ *     <li>{@code lsm}: Log-structured merge tree per drone in {@code storage.directory}: write-ahead log, memtable
+ *         and compacted, columnar segment files. Stores are kept open and reused like the mapped ones.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * With a bounded {@code storage.retention}, the heap backend keeps only a hot window per drone in memory and spills
+ * older samples to {@code storage.directory/spill}, see {@link RetainedDynamicsStore}.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #configure(ConfigurationLoader) configure}: Reads the backend and directory from the configuration.</li>
+ *     <li>{@link #createStore(int, DynamicsSeries) createStore}: Returns the store of a drone holding the initial samples.</li>
+ *     <li>{@link #closeAll() closeAll}: Flushes and closes all open mapped, LSM and retained stores.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class TelemetryStorage {
+    public static final String HEAP = "heap";
+    public static final String MAPPED = "mapped";
+    public static final String COMPRESSED = "compressed";
+    public static final String LSM = "lsm";
+    private static final String DEFAULT_DIRECTORY = "data";
+
+    private static final Map<Integer, MappedDynamicsStore> mappedStores = new ConcurrentHashMap<>();
+    private static final Map<Integer, LsmDynamicsStore> lsmStores = new ConcurrentHashMap<>();
+    private static final Map<Integer, RetainedDynamicsStore> retainedStores = new ConcurrentHashMap<>();
+    private static volatile String backend = HEAP;
+    private static volatile Path directory = Paths.get(DEFAULT_DIRECTORY);
+    private static volatile RetentionPolicy retention = RetentionPolicy.UNBOUNDED;
+
+    private TelemetryStorage() {
+    }
+
+    public static void configure(ConfigurationLoader configLoader) {
+        String configuredBackend = configLoader.read("storage", "backend");
+        String configuredDirectory = configLoader.read("storage", "directory");
+        backend = configuredBackend != null ? configuredBackend.trim().toLowerCase() : HEAP;
+        directory = Paths.get(configuredDirectory != null ? configuredDirectory : DEFAULT_DIRECTORY);
+        if (!HEAP.equals(backend) && !MAPPED.equals(backend) && !COMPRESSED.equals(backend)
+                && !LSM.equals(backend)) {
+            Logs.warning("Unknown storage backend '" + backend + "', using " + HEAP);
+            backend = HEAP;
+        }
+        retention = RetentionPolicy.fromConfig(configLoader);
+        Logs.info("Telemetry storage backend : " + backend);
+        if (retention.isBounded()) {
+            if (HEAP.equals(backend)) {
+                Logs.info("Telemetry retention : " + retention);
+            } else {
+                Logs.warning("storage.retention only applies to the " + HEAP + " backend, ignored");
+            }
+        }
+    }
+
+    /**
+     * @return the store of the drone with the initial samples appended.
+     * Falls back to the heap if the mapped file, the LSM directory or the spill directory cannot be opened.
+     */
+    public static DynamicsStore createStore(int droneId, DynamicsSeries initial) {
+        if (MAPPED.equals(backend)) {
+            try {
+                MappedDynamicsStore store = mappedStores.computeIfAbsent(droneId, TelemetryStorage::openMapped);
+                store.append(initial);
+                return store;
+            } catch (UncheckedIOException e) {
+                Logs.error("Error occurred in TelemetryStorage.createStore() : " + e.getMessage());
+            }
+        }
+        if (LSM.equals(backend)) {
+            try {
+                LsmDynamicsStore store = lsmStores.computeIfAbsent(droneId, TelemetryStorage::openLsm);
+                store.append(initial);
+                return store;
+            } catch (UncheckedIOException e) {
+                Logs.error("Error occurred in TelemetryStorage.createStore() : " + e.getMessage());
+            }
+        }
+        if (HEAP.equals(backend) && retention.isBounded()) {
+            try {
+                RetainedDynamicsStore store = retainedStores.computeIfAbsent(droneId, TelemetryStorage::openRetained);
+                store.append(initial);
+                return store;
+            } catch (UncheckedIOException e) {
+                Logs.error("Error occurred in TelemetryStorage.createStore() : " + e.getMessage());
+            }
+        }
+        if (COMPRESSED.equals(backend)) {
+            CompressedDynamicsStore store = new CompressedDynamicsStore();
+            store.append(initial);
+            return store;
+        }
+        return new HeapDynamicsStore(initial);
+    }
+
+    public static void closeAll() {
+        for (MappedDynamicsStore store : mappedStores.values()) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                Logs.error("Error occurred in TelemetryStorage.closeAll() : " + e.getMessage());
+            }
+        }
+        mappedStores.clear();
+        for (LsmDynamicsStore store : lsmStores.values()) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                Logs.error("Error occurred in TelemetryStorage.closeAll() : " + e.getMessage());
+            }
+        }
+        lsmStores.clear();
+        for (RetainedDynamicsStore store : retainedStores.values()) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                Logs.error("Error occurred in TelemetryStorage.closeAll() : " + e.getMessage());
+            }
+        }
+        retainedStores.clear();
+    }
+
+    private static MappedDynamicsStore openMapped(int droneId) {
+        try {
+            Files.createDirectories(directory);
+            return new MappedDynamicsStore(directory.resolve("drone-" + droneId + ".dyn"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LsmDynamicsStore openLsm(int droneId) {
+        try {
+            return new LsmDynamicsStore(directory.resolve("drone-" + droneId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static RetainedDynamicsStore openRetained(int droneId) {
+        try {
+            Path spill = directory.resolve("spill").resolve("drone-" + droneId);
+            return new RetainedDynamicsStore(retention, new LsmDynamicsStore(spill, 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package main.java.storage;
+
+import main.java.model.DynamicsSeries;
+import main.java.model.DynamicsView;
+import main.java.util.Logs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of the memtable of an {@link LsmDynamicsStore}.
+ * <p>
+ * Every appended page is written as one record {@code [rows:int][rows * }{@value #ROW_SIZE}{@code  bytes][crc32:int]}
+ * (little endian) and forced to disk before it becomes visible in the memtable. A record that fails to be written
+ * is truncated away again, so the records appended after it can still be replayed. {@link #replay(Path)} reads the
+ * records back after a restart and stops at the first incomplete or corrupt one.
+ * </p>
+ * <p>
+ * The file is only open while a record is appended, so a fleet of thousands of drones does not hold a file
+ * descriptor per drone. Opening it costs far less than forcing the record to disk.
+ * </p>
+ */
+
+final class WriteAheadLog implements Closeable {
+    private static final int ROW_SIZE = 53;
+
+    private final Path path;
+    private boolean closed;
+
+    WriteAheadLog(Path path) throws IOException {
+        this.path = path;
+        FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE).close();
+    }
+
+    Path path() {
+        return path;
+    }
+
+    synchronized void append(DynamicsView page) throws IOException {
+        if (closed) {
+            throw new IOException("Write-ahead log is closed: " + path.getFileName());
+        }
+        ByteBuffer record = ByteBuffer.allocate(8 + page.size() * ROW_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        record.putInt(page.size());
+        for (int i = 0; i < page.size(); i++) {
+            record.putLong(page.timestampAt(i));
+            record.putLong(page.lastSeenAt(i));
+            record.putDouble(page.latitudeAt(i));
+            record.putDouble(page.longitudeAt(i));
+            record.putInt(page.speedAt(i));
+            record.putInt(page.batteryAt(i));
+            record.putFloat(page.rollAt(i));
+            record.putFloat(page.pitchAt(i));
+            record.putFloat(page.yawAt(i));
+            record.put(page.statusAt(i));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long size = channel.size();
+            try {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                try {
+                    channel.truncate(size);
+                } catch (IOException truncation) {
+                    e.addSuppressed(truncation);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Refuses further appends; the file is not held open between them.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+    }
+
+    /**
+     * @return the samples of all complete records, merged in the order they were appended.
+     */
+    static DynamicsSeries replay(Path path) throws IOException {
+        DynamicsSeries memtable = DynamicsSeries.empty();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= 8) {
+                int start = buffer.position();
+                int rows = buffer.getInt();
+                if (rows < 0 || (long) rows * ROW_SIZE + 4 > buffer.remaining()) {
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(start, 4 + rows * ROW_SIZE));
+                if ((int) crc.getValue() != buffer.getInt(start + 4 + rows * ROW_SIZE)) {
+                    break;
+                }
+                DynamicsSeries.Builder page = new DynamicsSeries.Builder(rows);
+                for (int i = 0; i < rows; i++) {
+                    long timestamp = buffer.getLong();
+                    long lastSeen = buffer.getLong();
+                    double latitude = buffer.getDouble();
+                    double longitude = buffer.getDouble();
+                    int speed = buffer.getInt();
+                    int battery = buffer.getInt();
+                    float roll = buffer.getFloat();
+                    float pitch = buffer.getFloat();
+                    float yaw = buffer.getFloat();
+                    page.append(timestamp, lastSeen, speed, latitude, longitude, battery, roll, pitch, yaw, buffer.get());
+                }
+                memtable = memtable.merge(page.build());
+                buffer.position(start + 8 + rows * ROW_SIZE);
+            }
+            if (buffer.position() < channel.size()) {
+                Logs.warning("Ignoring " + (channel.size() - buffer.position()) + " trailing bytes of " + path.getFileName());
+            }
+        }
+        return memtable;
+    }
+}
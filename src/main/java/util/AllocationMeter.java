@@ -0,0 +1,74 @@
+package main.java.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The {@code AllocationMeter} class measures the heap allocated by the threads of a poll cycle.
+ * <p>
+ * It reads the per-thread allocation counter of the HotSpot {@code ThreadMXBean}, so every task measures the
+ * bytes its own thread allocated between {@link #start()} and {@link #stop(long)}, and the measurements of all
+ * threads are summed until the next {@link #reset()}. On a JVM without the counter every measurement is 0.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #start() start}, {@link #stop(long) stop}: Measure the allocations of the current thread.</li>
+ *     <li>{@link #measure(Supplier) measure}: Runs a task and adds its allocations.</li>
+ *     <li>{@link #reset() reset}: Returns the bytes allocated since the last reset and starts over.</li>
+ *     <li>{@link #isSupported() isSupported}: Returns whether allocations can be measured on this JVM.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+    private static final LongAdder allocated = new LongAdder();
+
+    private AllocationMeter() {
+    }
+
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, the argument of {@link #stop(long)}.
+     */
+    public static long start() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    public static void stop(long start) {
+        if (THREADS != null) {
+            allocated.add(THREADS.getCurrentThreadAllocatedBytes() - start);
+        }
+    }
+
+    public static <T> T measure(Supplier<T> task) {
+        long start = start();
+        try {
+            return task.get();
+        } finally {
+            stop(start);
+        }
+    }
+
+    public static long reset() {
+        return allocated.sumThenReset();
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+                return threads;
+            }
+        } catch (UnsupportedOperationException e) {
+            Logs.warning("Allocation measurement unavailable : " + e.getMessage());
+        }
+        return null;
+    }
+}
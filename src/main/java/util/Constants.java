@@ -46,6 +46,17 @@ public final class Constants {
     public static final String[] DRONE_DYNAMIC_KEYS = {DRONE_URL, TIMESTAMP, SPEED, ALIGN_ROLL, ALIGN_PITCH, ALIGN_YAW,
             LONGITUDE, LATITUDE, BATTERY_STATUS, LAST_SEEN, STATUS};
 
+    // Dynamics rollups (DroneHistory) :
+    public static final String BUCKET_START = "bucket_start";
+    public static final String SAMPLE_COUNT = "sample_count";
+    public static final String SPEED_SUMMARY = "speed_summary";
+    public static final String BATTERY_SUMMARY = "battery_summary";
+    public static final String STATUS_COUNTS = "status_counts";
+    public static final String LATITUDE_RANGE = "latitude_range";
+    public static final String LONGITUDE_RANGE = "longitude_range";
+    public static final String[] ROLLUP_KEYS = {BUCKET_START, SAMPLE_COUNT, SPEED_SUMMARY, BATTERY_SUMMARY,
+            STATUS_COUNTS, LATITUDE_RANGE, LONGITUDE_RANGE};
+
     // Drone intern vars :
     public static final String STATUS_ON = "ON";
     public static final String STATUS_OF = "OF";
@@ -0,0 +1,406 @@
+package main.java.util;
+
+/**
+ * The {@code JsonScanner} class walks a JSON document token by token without building a tree.
+ * <p>
+ * It is the streaming counterpart of {@code org.json} for the hot ingest path: objects and arrays are entered and
+ * left explicitly, keys are compared in place, numbers are parsed straight from the text and strings are handed
+ * out as a reused {@link CharSequence} view, so reading a response allocates nothing per value.
+ * A scanner is not thread-safe; reuse one per thread with {@link #reset(CharSequence)}.
+ * </p>
+ * <p>
+ * Like the simulator, the scanner accepts numbers given as strings (e.g. {@code "50.110924"}) wherever a number
+ * is read, and falls back to 0 for {@code null} or malformed numbers. Structural errors throw an
+ * {@link IllegalArgumentException} with the position in the text.
+ * </p>
+ * <p>
+ * Methods:
+ * <ul>
+ *     <li>{@link #reset(CharSequence) reset}: Starts scanning a new document.</li>
+ *     <li>{@link #beginObject() beginObject}, {@link #beginArray() beginArray}: Enter an object or array, false for {@code null}.</li>
+ *     <li>{@link #nextKey() nextKey}: Moves to the value of the next key of the current object.</li>
+ *     <li>{@link #nextElement() nextElement}: Moves to the next element of the current array.</li>
+ *     <li>{@link #keyEquals(String) keyEquals}: Compares the current key without creating a String.</li>
+ *     <li>{@link #stringValue() stringValue}: Reads a string value as a reused view.</li>
+ *     <li>{@link #doubleValue() doubleValue}, {@link #longValue() longValue}: Read a number or numeric string.</li>
+ *     <li>{@link #skipValue() skipValue}: Skips a value of any type, including nested objects and arrays.</li>
+ *     <li>{@link #findCount(CharSequence, String) findCount}: Reads one top-level number of a document.</li>
+ * </ul>
+ * </p>
+ */
+
+public final class JsonScanner {
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private final Region region = new Region();
+    private final StringBuilder decoded = new StringBuilder();
+    private CharSequence text = "";
+    private int position;
+    private int keyStart;
+    private int keyEnd;
+
+    public JsonScanner reset(CharSequence document) {
+        text = document;
+        position = 0;
+        keyStart = 0;
+        keyEnd = 0;
+        return this;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    /**
+     * @return the top-level number stored under {@code key}, -1 if the document has no such key.
+     * @throws IllegalArgumentException if the document is not a JSON object.
+     */
+    public static long findCount(CharSequence document, String key) {
+        JsonScanner scanner = new JsonScanner().reset(document);
+        if (!scanner.beginObject()) {
+            return -1;
+        }
+        while (scanner.nextKey()) {
+            if (scanner.keyEquals(key)) {
+                return scanner.longValue();
+            }
+            scanner.skipValue();
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if an object was entered, false if the value is {@code null}.
+     */
+    public boolean beginObject() {
+        return begin('{');
+    }
+
+    /**
+     * @return true if an array was entered, false if the value is {@code null}.
+     */
+    public boolean beginArray() {
+        return begin('[');
+    }
+
+    /**
+     * @return the next non-whitespace character without consuming it, 0 at the end of the text.
+     */
+    public char peek() {
+        skipWhitespace();
+        return position < text.length() ? text.charAt(position) : 0;
+    }
+
+    /**
+     * Reads the next key of the current object and moves to its value.
+     *
+     * @return false if the object ended; the closing brace is consumed.
+     */
+    public boolean nextKey() {
+        if (!nextMember('}')) {
+            return false;
+        }
+        expect('"');
+        keyStart = position;
+        keyEnd = skipString();
+        skipWhitespace();
+        expect(':');
+        return true;
+    }
+
+    /**
+     * @return false if the array ended; the closing bracket is consumed.
+     */
+    public boolean nextElement() {
+        return nextMember(']');
+    }
+
+    public boolean keyEquals(String key) {
+        int length = keyEnd - keyStart;
+        if (length != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(keyStart + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the string value as a view that is only valid until the next read, null for {@code null} or a
+     * value that is not a string (which is skipped).
+     */
+    public CharSequence stringValue() {
+        char next = peek();
+        if (next != '"') {
+            skipValue();
+            return null;
+        }
+        position++;
+        int start = position;
+        int end = skipString();
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\\') {
+                return decode(start, end);
+            }
+        }
+        return region.of(text, start, end);
+    }
+
+    /**
+     * @return the number, also if given as a string, 0 for {@code null} or a malformed number.
+     */
+    public double doubleValue() {
+        char next = peek();
+        if (next == '"') {
+            position++;
+            int start = position;
+            return parseDouble(start, skipString());
+        }
+        if (next == '-' || (next >= '0' && next <= '9')) {
+            int start = position;
+            while (position < text.length() && isNumberChar(text.charAt(position))) {
+                position++;
+            }
+            return parseDouble(start, position);
+        }
+        skipValue();
+        return 0.0;
+    }
+
+    public long longValue() {
+        return (long) doubleValue();
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no value, e.g. at a closing bracket that does not match, so a
+     *                                  loop over the members of a malformed document cannot get stuck.
+     */
+    public void skipValue() {
+        char next = peek();
+        switch (next) {
+            case '"' -> {
+                position++;
+                skipString();
+            }
+            case '{', '[' -> skipNested();
+            case 0 -> throw malformed("value expected");
+            default -> {
+                int start = position;
+                while (position < text.length() && isLiteralChar(text.charAt(position))) {
+                    position++;
+                }
+                if (position == start) {
+                    throw malformed("value expected");
+                }
+            }
+        }
+    }
+
+    private boolean begin(char open) {
+        char next = peek();
+        if (next == open) {
+            position++;
+            return true;
+        }
+        if (next == 'n') {
+            skipValue();
+            return false;
+        }
+        throw malformed("'" + open + "' expected");
+    }
+
+    private boolean nextMember(char close) {
+        char next = peek();
+        if (next == ',') {
+            position++;
+            next = peek();
+        }
+        if (next == close) {
+            position++;
+            return false;
+        }
+        if (next == 0) {
+            throw malformed("'" + close + "' expected");
+        }
+        return true;
+    }
+
+    private void expect(char expected) {
+        if (peek() != expected) {
+            throw malformed("'" + expected + "' expected");
+        }
+        position++;
+    }
+
+    /**
+     * Moves past the closing quote of a string whose opening quote was consumed.
+     *
+     * @return the end of the string content.
+     */
+    private int skipString() {
+        int length = text.length();
+        while (position < length) {
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return position - 1;
+            }
+            if (c == '\\') {
+                position++;
+            }
+        }
+        throw malformed("unterminated string");
+    }
+
+    private void skipNested() {
+        int depth = 0;
+        int length = text.length();
+        while (position < length) {
+            char c = text.charAt(position++);
+            if (c == '"') {
+                skipString();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if ((c == '}' || c == ']') && --depth == 0) {
+                return;
+            }
+        }
+        throw malformed("unterminated object or array");
+    }
+
+    private void skipWhitespace() {
+        int length = text.length();
+        while (position < length) {
+            char c = text.charAt(position);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Plain decimals with up to 15 significant digits are computed as an exact mantissa divided by an exact
+     * power of ten, which rounds the same way as {@link Double#parseDouble(String)}. Anything else falls back to it.
+     */
+    private double parseDouble(int start, int end) {
+        int index = start;
+        boolean negative = index < end && text.charAt(index) == '-';
+        if (negative) {
+            index++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; index < end; index++) {
+            char c = text.charAt(index);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa > 0 || fractionDigits >= 0) {
+                    digits++;
+                }
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return parseFallback(start, end);
+            }
+        }
+        if (digits > 15 || index == start + (negative ? 1 : 0) || fractionDigits == 0
+                || fractionDigits >= POWERS_OF_TEN.length || mantissa >= MAX_EXACT_MANTISSA) {
+            return parseFallback(start, end);
+        }
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private double parseFallback(int start, int end) {
+        try {
+            return start < end ? Double.parseDouble(text.subSequence(start, end).toString()) : 0.0;
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
+    private CharSequence decode(int start, int end) {
+        decoded.setLength(0);
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c != '\\' || i + 1 >= end) {
+                decoded.append(c);
+                continue;
+            }
+            char escaped = text.charAt(++i);
+            switch (escaped) {
+                case 'b' -> decoded.append('\b');
+                case 'f' -> decoded.append('\f');
+                case 'n' -> decoded.append('\n');
+                case 'r' -> decoded.append('\r');
+                case 't' -> decoded.append('\t');
+                case 'u' -> {
+                    if (i + 4 >= end) {
+                        throw malformed("invalid unicode escape");
+                    }
+                    decoded.append((char) Integer.parseInt(text.subSequence(i + 1, i + 5).toString(), 16));
+                    i += 4;
+                }
+                default -> decoded.append(escaped);
+            }
+        }
+        return decoded;
+    }
+
+    private static boolean isNumberChar(char c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    private static boolean isLiteralChar(char c) {
+        return c != ',' && c != '}' && c != ']' && c != ' ' && c != '\n' && c != '\r' && c != '\t';
+    }
+
+    private IllegalArgumentException malformed(String reason) {
+        return new IllegalArgumentException("Malformed JSON at position " + position + ": " + reason);
+    }
+
+    /**
+     * Reused view of a range of the scanned text.
+     */
+    private static final class Region implements CharSequence {
+        private CharSequence source;
+        private int start;
+        private int end;
+
+        Region of(CharSequence text, int from, int to) {
+            source = text;
+            start = from;
+            end = to;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return source.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return source.subSequence(start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return source.subSequence(start, end).toString();
+        }
+    }
+}
@@ -14,7 +14,7 @@ import java.util.*;
  * <ul>
  *   <li>{@link #handle(String, String)} - Processes the JSON API response based on the provided category and retrieves relevant data.
  *   <li>{@link #extractData(String, String[])} - Extracts specific keys from the JSON response and organizes them into a list of maps.
- *   <li>{@link #extractCount(String)} - Extracts the count information from the JSON response.
+ *   <li>{@link #extractCount(String)} - Extracts the count information from the JSON response with a {@link JsonScanner}.
  * </ul></p>
  *
  * <p>This class utilizes the standard Java libraries, {@code org.json}, and a custom {@code Logs} class for error logging.
@@ -74,8 +74,12 @@ public class ResponseHandler {
 
     public static int extractCount(String response) {
         try {
-            JSONObject jsonObject = new JSONObject(response);
-            return jsonObject.getInt(Constants.COUNT);
+            long count = JsonScanner.findCount(response, Constants.COUNT);
+            if (count < 0) {
+                Logs.error("Error occurred in ResponseProcessor.extractData() : no " + Constants.COUNT + " in response");
+                return 0;
+            }
+            return (int) count;
         } catch (Exception e) {
             Logs.error("Error occurred in ResponseProcessor.extractData() : " + e.getMessage());
             return 0;
@@ -0,0 +1,205 @@
+package main.java.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * The {@code Timestamps} class converts the simulator's ISO-8601 timestamps to epoch milliseconds and back.
+ * <p>
+ * Timestamps are parsed once when a response is ingested and kept as primitive {@code long} values in the model,
+ * so sorting and filtering are plain {@code long} comparisons. They are only turned back into text when a view
+ * displays them.
+ * </p>
+ * <p>
+ * The simulator always sends {@code yyyy-MM-ddTHH:mm:ss[.fraction](Z|+HH:MM)}. That layout is parsed by hand
+ * without allocating; anything else falls back to {@code java.time}. The offset of the latest parsed value is kept
+ * as the source offset, so timestamps are displayed and entered in the offset the API uses, not in the zone of the
+ * machine. The model keeps milliseconds; digits beyond them are not stored.
+ * </p>
+ * <ul>
+ *     <li>{@link #parse(CharSequence)}: Parses an ISO-8601 date-time into epoch milliseconds.</li>
+ *     <li>{@link #format(long)}: Formats epoch milliseconds as an ISO-8601 date-time in the source offset, cached.</li>
+ *     <li>{@link #sourceOffset()}: Returns the offset of the parsed timestamps, UTC before the first one.</li>
+ * </ul>
+ */
+public final class Timestamps {
+    /**
+     * Marker for a missing or unparsable timestamp.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final int FORMAT_CACHE_SIZE = 1024;
+    private static final FormattedTimestamp[] FORMAT_CACHE = new FormattedTimestamp[FORMAT_CACHE_SIZE];
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final DateTimeFormatter OUTPUT_FORMATTER = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSXXX");
+    private static volatile ZoneOffset sourceOffset = ZoneOffset.UTC;
+
+    private Timestamps() {
+    }
+
+    /**
+     * @param value ISO-8601 date-time, e.g. {@code 2024-01-05T13:39:39.917402+01:00}.
+     * @return epoch milliseconds, or {@link #NONE} if the value is null or cannot be parsed.
+     */
+    public static long parse(CharSequence value) {
+        if (value == null || value.length() == 0) {
+            return NONE;
+        }
+        long epochMillis = parseFixedLayout(value);
+        return epochMillis != NONE ? epochMillis : parseFallback(value);
+    }
+
+    /**
+     * @param epochMillis epoch milliseconds.
+     * @return ISO-8601 date-time with milliseconds in the {@link #sourceOffset()}, e.g.
+     * {@code 2024-01-05T13:39:39.917+01:00}, or null for {@link #NONE}.
+     */
+    public static String format(long epochMillis) {
+        if (epochMillis == NONE) {
+            return null;
+        }
+        ZoneOffset offset = sourceOffset;
+        int slot = (int) (epochMillis ^ (epochMillis >>> 17)) & (FORMAT_CACHE_SIZE - 1);
+        FormattedTimestamp cached = FORMAT_CACHE[slot];
+        if (cached != null && cached.epochMillis() == epochMillis && cached.offset().equals(offset)) {
+            return cached.text();
+        }
+        String text = Instant.ofEpochMilli(epochMillis).atOffset(offset).format(OUTPUT_FORMATTER);
+        FORMAT_CACHE[slot] = new FormattedTimestamp(epochMillis, offset, text);
+        return text;
+    }
+
+    /**
+     * @return the offset of the latest timestamp parsed with an offset, UTC if there was none yet.
+     */
+    public static ZoneOffset sourceOffset() {
+        return sourceOffset;
+    }
+
+    private static void rememberOffset(int offsetSeconds) {
+        if (sourceOffset.getTotalSeconds() != offsetSeconds) {
+            sourceOffset = ZoneOffset.ofTotalSeconds(offsetSeconds);
+        }
+    }
+
+    private static long parseFixedLayout(CharSequence value) {
+        int length = value.length();
+        if (length < 20 || value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != 'T'
+                || value.charAt(13) != ':' || value.charAt(16) != ':') {
+            return NONE;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        int second = digits(value, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return NONE;
+        }
+
+        int position = 19;
+        long nanos = 0;
+        if (value.charAt(position) == '.') {
+            int start = ++position;
+            while (position < length && isDigit(value.charAt(position))) {
+                if (position - start < 9) {
+                    nanos = nanos * 10 + (value.charAt(position) - '0');
+                }
+                position++;
+            }
+            int fractionDigits = position - start;
+            if (fractionDigits == 0) {
+                return NONE;
+            }
+            for (int i = fractionDigits; i < 9; i++) {
+                nanos *= 10;
+            }
+        }
+
+        int offsetSeconds = parseOffset(value, position);
+        if (offsetSeconds == Integer.MIN_VALUE) {
+            return NONE;
+        }
+        rememberOffset(offsetSeconds);
+        long epochSeconds = epochDay(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second - offsetSeconds;
+        return epochSeconds * 1_000L + nanos / 1_000_000L;
+    }
+
+    private static int parseOffset(CharSequence value, int position) {
+        int length = value.length();
+        if (position >= length) {
+            return Integer.MIN_VALUE;
+        }
+        char sign = value.charAt(position);
+        if (sign == 'Z') {
+            return position + 1 == length ? 0 : Integer.MIN_VALUE;
+        }
+        if ((sign != '+' && sign != '-') || position + 6 != length || value.charAt(position + 3) != ':') {
+            return Integer.MIN_VALUE;
+        }
+        int hours = digits(value, position + 1, 2);
+        int minutes = digits(value, position + 4, 2);
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+            return Integer.MIN_VALUE;
+        }
+        int seconds = hours * 3_600 + minutes * 60;
+        return sign == '-' ? -seconds : seconds;
+    }
+
+    private static long parseFallback(CharSequence value) {
+        try {
+            TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(value, OffsetDateTime::from, LocalDateTime::from);
+            if (parsed instanceof OffsetDateTime offsetDateTime) {
+                rememberOffset(offsetDateTime.getOffset().getTotalSeconds());
+                return offsetDateTime.toInstant().toEpochMilli();
+            }
+            return ((LocalDateTime) parsed).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (Exception e) {
+            Logs.warning("Unparsable timestamp in Timestamps.parse() : " + value);
+            return NONE;
+        }
+    }
+
+    private static int digits(CharSequence value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int daysInMonth(int year, int month) {
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return month == 2 && leap ? 29 : DAYS_IN_MONTH[month - 1];
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date (civil-from-days inverse).
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private record FormattedTimestamp(long epochMillis, ZoneOffset offset, String text) {
+    }
+}
@@ -14,6 +14,9 @@ module drone.monitoring.system {
     requires eu.hansolo.toolbox;
     requires eu.hansolo.toolboxfx;
     requires java.logging;
+    requires java.management;
+    requires jdk.management;
+    requires jdk.httpserver;
 
     exports main;
     exports main.java.api;
@@ -28,6 +31,8 @@ module drone.monitoring.system {
     exports main.java.managers;
     exports main.java.model;
     exports main.java.services;
+    exports main.java.simulator;
+    exports main.java.storage;
     exports main.java.util;
 
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package main.java.storage;
+
+import main.java.model.DynamicsSeries;
+import main.java.model.DynamicsView;
+
+import java.util.Random;
+
+/**
+ * Round-trip tests of {@link CompressedBlock}: every sample must decode to exactly the bits it was encoded from.
+ * <p>
+ * Run with {@code java -cp <classes> main.java.storage.CompressedBlockTest}; a failed check throws an
+ * {@link AssertionError}.
+ * </p>
+ */
+
+public final class CompressedBlockTest {
+
+    public static void main(String[] args) {
+        emptyBlock();
+        singleSample();
+        regularInterval();
+        negativeDeltas();
+        specialFloats();
+        equalValues();
+        extremeValues();
+        randomSamples();
+        System.out.println("CompressedBlockTest passed");
+    }
+
+    private static void emptyBlock() {
+        DynamicsSeries samples = new DynamicsSeries.Builder(0).build();
+        assertRoundTrip("empty", samples, 0, 0);
+
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(2);
+        builder.append(1_000, 1_000, 1, 1, 1, 1, 1, 1, 1, (byte) 1);
+        builder.append(2_000, 2_000, 1, 1, 1, 1, 1, 1, 1, (byte) 1);
+        assertRoundTrip("empty range", builder.build(), 1, 1);
+    }
+
+    private static void singleSample() {
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(1);
+        builder.append(1_704_461_979_917L, 1_704_461_979_000L, 42, 50.110924, 8.682127, 77, 1.5f, -2.5f, 359.9f, (byte) 3);
+        CompressedBlock block = assertRoundTrip("single", builder.build(), 0, 1);
+        check(block.firstTimestamp() == 1_704_461_979_917L && block.lastTimestamp() == 1_704_461_979_917L,
+                "single: first and last timestamp");
+    }
+
+    private static void regularInterval() {
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(1_000);
+        for (int i = 0; i < 1_000; i++) {
+            builder.append(1_000_000L + i * 1_000L, 1_000_000L + i * 1_000L + 5, 30, 50.0, 8.0, 90, 0f, 0f, 0f, (byte) 0);
+        }
+        CompressedBlock block = assertRoundTrip("regular", builder.build(), 0, 1_000);
+        check(block.sizeInBytes() <= 4 * 1_000, "regular: " + block.sizeInBytes() + " bytes for 1000 unchanged samples");
+    }
+
+    private static void negativeDeltas() {
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(6);
+        builder.append(10_000, 50_000, 100, 50.0, 8.0, 100, 0f, 0f, 0f, (byte) 2);
+        builder.append(10_001, 40_000, 0, 49.0, 7.0, 0, 0f, 0f, 0f, (byte) 0);
+        builder.append(10_002, -5_000, -80, -49.0, -7.0, -20, 0f, 0f, 0f, (byte) -1);
+        builder.append(10_500, -5_001, 80, 49.0, 7.0, 20, 0f, 0f, 0f, (byte) 1);
+        builder.append(10_501, Long.MIN_VALUE / 2, Integer.MIN_VALUE, 0.0, 0.0, Integer.MIN_VALUE, 0f, 0f, 0f, (byte) 0);
+        builder.append(10_502, Long.MAX_VALUE / 2, Integer.MAX_VALUE, 0.0, 0.0, Integer.MAX_VALUE, 0f, 0f, 0f, (byte) 0);
+        assertRoundTrip("negative deltas", builder.build(), 0, 6);
+    }
+
+    private static void specialFloats() {
+        double[] doubles = {Double.NaN, Double.longBitsToDouble(0x7FF8_0000_0000_0001L), 0.0, -0.0,
+                Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN};
+        float[] floats = {Float.NaN, Float.intBitsToFloat(0x7FC0_0001), 0f, -0f,
+                Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.MIN_VALUE, Float.MAX_VALUE, Float.NaN};
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(doubles.length);
+        for (int i = 0; i < doubles.length; i++) {
+            builder.append(i, i, i, doubles[i], doubles[doubles.length - 1 - i], i,
+                    floats[i], floats[floats.length - 1 - i], floats[i], (byte) 0);
+        }
+        assertRoundTrip("special floats", builder.build(), 0, doubles.length);
+    }
+
+    private static void equalValues() {
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(100);
+        for (int i = 0; i < 100; i++) {
+            builder.append(5_000 + i, 5_000, 12, 50.110924, 8.682127, 64, 0.25f, 0.25f, 0.25f, (byte) 4);
+        }
+        assertRoundTrip("equal values", builder.build(), 0, 100);
+    }
+
+    private static void extremeValues() {
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(4);
+        builder.append(Long.MIN_VALUE, Long.MAX_VALUE, 0, 0.0, 0.0, 0, 0f, 0f, 0f, Byte.MIN_VALUE);
+        builder.append(Long.MIN_VALUE + 1, Long.MIN_VALUE, 0, 0.0, 0.0, 0, 0f, 0f, 0f, Byte.MAX_VALUE);
+        builder.append(Long.MAX_VALUE - 1, Long.MAX_VALUE, 0, 0.0, 0.0, 0, 0f, 0f, 0f, (byte) 0);
+        builder.append(Long.MAX_VALUE, 0, 0, 0.0, 0.0, 0, 0f, 0f, 0f, (byte) 0);
+        assertRoundTrip("extreme values", builder.build(), 0, 4);
+    }
+
+    private static void randomSamples() {
+        Random random = new Random(20_240_105L);
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(5_000);
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < 5_000; i++) {
+            timestamp += random.nextInt(10) == 0 ? random.nextInt(100_000) : 1_000;
+            builder.append(timestamp, timestamp - random.nextInt(2_000), random.nextInt(120),
+                    50 + random.nextGaussian(), 8 + random.nextGaussian(), 100 - i / 50,
+                    random.nextFloat() * 360, random.nextFloat() - 0.5f, random.nextFloat() * 360,
+                    (byte) (random.nextInt(20) == 0 ? random.nextInt(4) : 1));
+        }
+        DynamicsSeries samples = builder.build();
+        assertRoundTrip("random", samples, 0, samples.size());
+        assertRoundTrip("random range", samples, 1_234, 4_321);
+    }
+
+    private static CompressedBlock assertRoundTrip(String name, DynamicsView source, int from, int to) {
+        CompressedBlock block = CompressedBlock.encode(source, from, to);
+        DynamicsSeries decoded = block.decode();
+        check(block.count() == to - from && decoded.size() == to - from,
+                name + ": " + decoded.size() + " samples decoded, " + (to - from) + " encoded");
+        for (int i = 0; i < decoded.size(); i++) {
+            int row = from + i;
+            String sample = name + ": sample " + row + " ";
+            check(decoded.timestampAt(i) == source.timestampAt(row), sample + "timestamp");
+            check(decoded.lastSeenAt(i) == source.lastSeenAt(row), sample + "last seen");
+            check(decoded.speedAt(i) == source.speedAt(row), sample + "speed");
+            check(decoded.batteryAt(i) == source.batteryAt(row), sample + "battery");
+            check(decoded.statusAt(i) == source.statusAt(row), sample + "status");
+            check(Double.doubleToRawLongBits(decoded.latitudeAt(i)) == Double.doubleToRawLongBits(source.latitudeAt(row)),
+                    sample + "latitude");
+            check(Double.doubleToRawLongBits(decoded.longitudeAt(i)) == Double.doubleToRawLongBits(source.longitudeAt(row)),
+                    sample + "longitude");
+            check(Float.floatToRawIntBits(decoded.rollAt(i)) == Float.floatToRawIntBits(source.rollAt(row)), sample + "roll");
+            check(Float.floatToRawIntBits(decoded.pitchAt(i)) == Float.floatToRawIntBits(source.pitchAt(row)), sample + "pitch");
+            check(Float.floatToRawIntBits(decoded.yawAt(i)) == Float.floatToRawIntBits(source.yawAt(row)), sample + "yaw");
+        }
+        if (to > from) {
+            check(block.firstTimestamp() == source.timestampAt(from) && block.lastTimestamp() == source.timestampAt(to - 1),
+                    name + ": first and last timestamp");
+        }
+        return block;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
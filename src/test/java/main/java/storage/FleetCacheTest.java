@@ -0,0 +1,226 @@
+package main.java.storage;
+
+import main.java.model.CategoryDictionary;
+import main.java.model.DroneBase;
+import main.java.model.DroneDetails;
+import main.java.model.DroneType;
+import main.java.model.DynamicsSeries;
+import main.java.model.DynamicsView;
+import main.java.model.FleetSnapshot;
+import main.java.model.StatusTransitions;
+import main.java.util.ConfigurationLoader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Round-trip tests of the {@link FleetCache} record format: saved fleets must load back unchanged, removed
+ * drones must stay removed, and a truncated or corrupt tail must only lose the records it cuts.
+ * <p>
+ * Run with {@code java -cp <classes> main.java.storage.FleetCacheTest}; a failed check throws an
+ * {@link AssertionError}. Every case works in its own temporary cache directory.
+ * </p>
+ */
+
+public final class FleetCacheTest {
+    private static final byte ON = DynamicsSeries.encodeStatus("ON");
+    private static final byte OFF = DynamicsSeries.encodeStatus("OF");
+    private static final byte ISSUE = DynamicsSeries.encodeStatus("IS");
+
+    public static void main(String[] args) throws IOException {
+        roundTrip();
+        appendedSamples();
+        removedDrones();
+        truncatedTail();
+        badChecksumTail();
+        unreadableFile();
+        System.out.println("FleetCacheTest passed");
+    }
+
+    private static void roundTrip() throws IOException {
+        Path file = useDirectory();
+        List<DroneBase> fleet = List.of(drone(1, "SN-1", true, 0, 50), drone(2, null, false, 0, 1),
+                drone(3, "SN-3", true, -10_000, 0));
+        FleetCache.save(FleetSnapshot.of(1, fleet));
+        check(Files.size(file) > 0, "round trip: nothing written");
+        assertLoaded("round trip", fleet);
+        FleetCache.save(FleetSnapshot.of(2, fleet));
+        assertLoaded("unchanged save", fleet);
+    }
+
+    private static void appendedSamples() throws IOException {
+        Path file = useDirectory();
+        List<DroneBase> fleet = new ArrayList<>(List.of(drone(1, "SN-1", true, 0, 20), drone(2, "SN-2", true, 0, 20)));
+        FleetCache.save(FleetSnapshot.of(1, fleet));
+        long saved = Files.size(file);
+        fleet.set(0, fleet.get(0).withDynamics(samples(100_000, 5, ISSUE), 25));
+        FleetCache.save(FleetSnapshot.of(2, fleet));
+        check(Files.size(file) - saved < 1_000, "appended samples: the whole drone was written again");
+        assertLoaded("appended samples", fleet);
+    }
+
+    private static void removedDrones() throws IOException {
+        useDirectory();
+        DroneBase first = drone(1, "SN-1", true, 0, 10);
+        DroneBase second = drone(2, "SN-2", true, 0, 10);
+        DroneBase third = drone(3, "SN-3", false, 0, 10);
+        FleetCache.save(FleetSnapshot.of(1, List.of(first, second, third)));
+        FleetCache.save(FleetSnapshot.of(2, List.of(first, third)));
+        assertLoaded("removed drone", List.of(first, third));
+        FleetCache.save(FleetSnapshot.of(3, List.of(third)));
+        assertLoaded("removed after load", List.of(third));
+        FleetCache.save(FleetSnapshot.of(4, List.of(second, third)));
+        assertLoaded("returned drone", List.of(second, third));
+        FleetCache.save(FleetSnapshot.of(5, List.of()));
+        assertLoaded("empty fleet", List.of());
+    }
+
+    /**
+     * The second save only changes an offset, so its segment is a single record; every cut into it must load the
+     * first save and truncate the file back to it.
+     */
+    private static void truncatedTail() throws IOException {
+        Path file = useDirectory();
+        List<DroneBase> fleet = List.of(drone(1, "SN-1", true, 0, 10), drone(2, "SN-2", true, 0, 10));
+        FleetCache.save(FleetSnapshot.of(1, fleet));
+        long saved = Files.size(file);
+        byte[] complete = Files.readAllBytes(file);
+        DroneBase moved = fleet.get(0).withDynamics(DynamicsSeries.empty(), 99);
+        FleetCache.save(FleetSnapshot.of(2, List.of(moved, fleet.get(1))));
+        byte[] extended = Files.readAllBytes(file);
+        check(extended.length > saved, "truncated tail: offset record missing");
+
+        for (long cut = saved; cut < extended.length; cut++) {
+            Files.write(file, extended);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(cut);
+            }
+            assertLoaded("cut at " + cut, fleet);
+            check(Files.size(file) == saved, "cut at " + cut + ": file not truncated to " + saved);
+        }
+        Files.write(file, extended);
+        assertLoaded("complete tail", List.of(moved, fleet.get(1)));
+
+        for (long cut = 1; cut < complete.length; cut += 97) {
+            Files.write(file, complete);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(cut);
+            }
+            List<DroneBase> loaded = FleetCache.load();
+            check(loaded.size() <= fleet.size(), "cut at " + cut + ": " + loaded.size() + " drones");
+        }
+    }
+
+    private static void badChecksumTail() throws IOException {
+        Path file = useDirectory();
+        List<DroneBase> fleet = List.of(drone(1, "SN-1", true, 0, 10));
+        FleetCache.save(FleetSnapshot.of(1, fleet));
+        long saved = Files.size(file);
+        DroneBase moved = fleet.get(0).withDynamics(DynamicsSeries.empty(), 7);
+        FleetCache.save(FleetSnapshot.of(2, List.of(moved)));
+        long extended = Files.size(file);
+
+        for (long position : new long[]{saved + 5, extended - 1}) {
+            FleetCache.save(FleetSnapshot.of(3, List.of(moved)));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer value = ByteBuffer.allocate(1);
+                channel.read(value, position);
+                value.put(0, (byte) (value.get(0) ^ 0x40)).rewind();
+                channel.write(value, position);
+            }
+            assertLoaded("bad checksum at " + position, fleet);
+            check(Files.size(file) == saved, "bad checksum at " + position + ": file not truncated to " + saved);
+            FleetCache.save(FleetSnapshot.of(4, List.of(moved)));
+            assertLoaded("save after bad checksum at " + position, List.of(moved));
+        }
+    }
+
+    private static void unreadableFile() throws IOException {
+        Path file = useDirectory();
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        check(FleetCache.load().isEmpty(), "unreadable file: drones loaded");
+        Files.write(file, new byte[3]);
+        check(FleetCache.load().isEmpty(), "short file: drones loaded");
+    }
+
+    private static Path useDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("fleet-cache-test");
+        Path config = directory.resolve("config.yaml");
+        Files.writeString(config, "cache:\n  enabled: true\n  directory: '" + directory + "'\n");
+        FleetCache.configure(new ConfigurationLoader(config.toString()));
+        FleetCache.load();
+        return directory.resolve("fleet.seg");
+    }
+
+    private static DroneBase drone(int id, String serialNumber, boolean typed, long from, int count) {
+        DroneDetails details = new DroneDetails(id, "http://localhost/api/dronetypes/" + id + "/", "2024-01-05T13:39:39.917+01:00",
+                serialNumber, 100 * id, CategoryDictionary.CARRIAGE_TYPE.encode(id % 2 == 0 ? "SEN" : "ACT"));
+        DroneType type = typed ? new DroneType(id, CategoryDictionary.MANUFACTURER.encode("Maker " + id),
+                CategoryDictionary.TYPE_NAME.encode("Type " + id), 1_000, 60, 4_000, 2_000, 500) : null;
+        DroneBase drone = new DroneBase(details, type, samples(from, count, ON));
+        drone.setSyncOffset(count);
+        return drone;
+    }
+
+    private static DynamicsSeries samples(long from, int count, byte lastStatus) {
+        DynamicsSeries.Builder builder = new DynamicsSeries.Builder(count);
+        for (int i = 0; i < count; i++) {
+            byte status = i == count - 1 ? lastStatus : i % 3 == 0 ? OFF : ON;
+            builder.append(from + i * 1_000L, from + i * 1_000L - 1, i - 5, i == 1 ? Double.NaN : 50.1 - i, -8.6 + i,
+                    100 - i, i == 2 ? Float.NaN : -i / 4f, i, -0f, status);
+        }
+        return builder.build();
+    }
+
+    private static void assertLoaded(String name, List<DroneBase> expected) {
+        List<DroneBase> loaded = FleetCache.load();
+        check(loaded.size() == expected.size(), name + ": " + loaded.size() + " drones loaded, " + expected.size() + " saved");
+        for (DroneBase drone : expected) {
+            DroneBase cached = loaded.stream()
+                    .filter(candidate -> candidate.getDetails().id() == drone.getDetails().id())
+                    .findFirst().orElse(null);
+            String prefix = name + ": drone " + drone.getDetails().id() + " ";
+            check(cached != null, prefix + "missing");
+            check(drone.getDetails().equals(cached.getDetails()), prefix + "details");
+            check(Objects.equals(drone.getType(), cached.getType()), prefix + "type");
+            check(drone.getSyncOffset() == cached.getSyncOffset(), prefix + "offset");
+            assertSamples(prefix, drone.getDynamics(), cached.getDynamics());
+            assertTransitions(prefix, drone.getTransitions(), cached.getTransitions());
+        }
+    }
+
+    private static void assertSamples(String prefix, DynamicsView expected, DynamicsView loaded) {
+        check(expected.size() == loaded.size(), prefix + loaded.size() + " samples loaded, " + expected.size() + " saved");
+        for (int i = 0; i < expected.size(); i++) {
+            check(expected.timestampAt(i) == loaded.timestampAt(i) && expected.lastSeenAt(i) == loaded.lastSeenAt(i)
+                            && expected.speedAt(i) == loaded.speedAt(i) && expected.batteryAt(i) == loaded.batteryAt(i)
+                            && expected.statusAt(i) == loaded.statusAt(i)
+                            && Double.compare(expected.latitudeAt(i), loaded.latitudeAt(i)) == 0
+                            && Double.compare(expected.longitudeAt(i), loaded.longitudeAt(i)) == 0
+                            && Float.compare(expected.rollAt(i), loaded.rollAt(i)) == 0
+                            && Float.compare(expected.pitchAt(i), loaded.pitchAt(i)) == 0
+                            && Float.compare(expected.yawAt(i), loaded.yawAt(i)) == 0,
+                    prefix + "sample " + i);
+        }
+    }
+
+    private static void assertTransitions(String prefix, StatusTransitions expected, StatusTransitions loaded) {
+        check(expected.size() == loaded.size(), prefix + loaded.size() + " transitions loaded, " + expected.size() + " saved");
+        for (int i = 0; i < expected.size(); i++) {
+            check(expected.get(i).equals(loaded.get(i)), prefix + "transition " + i);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package main.java.util;
+
+import java.util.Random;
+
+/**
+ * Tests of {@link JsonScanner}: numbers must parse to the same bits as {@link Double#parseDouble(String)}, strings
+ * must decode their escapes, skipped values must leave the scanner on the next member, and malformed documents must
+ * fail with an {@link IllegalArgumentException}.
+ * <p>
+ * Run with {@code java -cp <classes> main.java.util.JsonScannerTest}; a failed check throws an
+ * {@link AssertionError}.
+ * </p>
+ */
+
+public final class JsonScannerTest {
+
+    public static void main(String[] args) {
+        numbers();
+        randomNumbers();
+        numericStrings();
+        strings();
+        nestedValues();
+        nullValues();
+        counts();
+        malformedDocuments();
+        System.out.println("JsonScannerTest passed");
+    }
+
+    private static void numbers() {
+        String[] values = {"0", "-0", "1", "-1", "0.5", "-0.5", "50.110924", "8.682127", "-179.999999", "1.0",
+                "123456789012345", "1234567890123456", "12345678901234567890", "0.1", "0.000000000000000000001",
+                "9007199254740993", "1e5", "-2.5E-3", "1.7976931348623157e308", "4.9e-324", "0.30000000000000004",
+                "100.00000000000001", "2147483648", "-9223372036854775808"};
+        for (String value : values) {
+            assertNumber(value, Double.parseDouble(value));
+        }
+    }
+
+    private static void randomNumbers() {
+        Random random = new Random(20_240_105L);
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder value = new StringBuilder();
+            if (random.nextBoolean()) {
+                value.append('-');
+            }
+            value.append(random.nextInt(4) == 0 ? 0 : random.nextInt(1_000_000));
+            if (random.nextInt(4) != 0) {
+                value.append('.');
+                int fractionDigits = 1 + random.nextInt(20);
+                for (int digit = 0; digit < fractionDigits; digit++) {
+                    value.append((char) ('0' + random.nextInt(10)));
+                }
+            }
+            assertNumber(value.toString(), Double.parseDouble(value.toString()));
+        }
+    }
+
+    private static void numericStrings() {
+        JsonScanner scanner = new JsonScanner().reset("{\"latitude\":\"50.110924\",\"speed\":\"42\",\"bad\":\"fast\","
+                + "\"empty\":\"\",\"missing\":null,\"flag\":true}");
+        check(scanner.beginObject(), "numeric strings: object expected");
+        check(scanner.nextKey() && scanner.keyEquals("latitude"), "numeric strings: latitude key");
+        check(Double.compare(scanner.doubleValue(), 50.110924) == 0, "numeric strings: latitude");
+        check(scanner.nextKey() && scanner.keyEquals("speed") && scanner.longValue() == 42, "numeric strings: speed");
+        check(scanner.nextKey() && scanner.doubleValue() == 0.0, "numeric strings: malformed number");
+        check(scanner.nextKey() && scanner.doubleValue() == 0.0, "numeric strings: empty string");
+        check(scanner.nextKey() && scanner.doubleValue() == 0.0, "numeric strings: null");
+        check(scanner.nextKey() && scanner.doubleValue() == 0.0, "numeric strings: literal");
+        check(!scanner.nextKey(), "numeric strings: end of object");
+    }
+
+    private static void strings() {
+        JsonScanner scanner = new JsonScanner().reset(" { \"plain\" : \"ON\" , \"escaped\":\"a\\\"b\\\\c\\/d\\n\\t\\u00e9\\u20AC\","
+                + "\"empty\":\"\", \"number\": 12, \"key\\\"quoted\": \"x\" } ");
+        check(scanner.beginObject(), "strings: object expected");
+        check(scanner.nextKey() && scanner.keyEquals("plain") && !scanner.keyEquals("plai") && !scanner.keyEquals("plainer"),
+                "strings: plain key");
+        check("ON".contentEquals(scanner.stringValue()), "strings: plain value");
+        check(scanner.nextKey() && "a\"b\\c/d\n\t\u00e9\u20ac".contentEquals(scanner.stringValue()), "strings: escapes");
+        check(scanner.nextKey() && "".contentEquals(scanner.stringValue()), "strings: empty value");
+        check(scanner.nextKey() && scanner.stringValue() == null, "strings: number read as string");
+        check(scanner.nextKey() && "x".contentEquals(scanner.stringValue()), "strings: value after quoted key");
+        check(!scanner.nextKey() && scanner.peek() == 0, "strings: end of document");
+
+        CharSequence view = new JsonScanner().reset("\"status\"").stringValue();
+        check(view.length() == 6 && view.charAt(0) == 's' && "tat".contentEquals(view.subSequence(1, 4))
+                && "status".equals(view.toString()), "strings: view");
+    }
+
+    private static void nestedValues() {
+        JsonScanner scanner = new JsonScanner().reset("{\"count\":2,\"next\":null,\"results\":[{\"skip\":{\"a\":[1,{\"b\":\"]}\"}],"
+                + "\"c\":\"{[\"},\"id\":71},{\"id\":-3,\"extra\":[[],{}]}],\"after\":true}");
+        check(scanner.beginObject(), "nested: object expected");
+        check(scanner.nextKey() && scanner.keyEquals("count"), "nested: count key");
+        scanner.skipValue();
+        check(scanner.nextKey() && scanner.keyEquals("next"), "nested: next key");
+        scanner.skipValue();
+        check(scanner.nextKey() && scanner.keyEquals("results") && scanner.beginArray(), "nested: results array");
+        long sum = 0;
+        int elements = 0;
+        while (scanner.nextElement()) {
+            check(scanner.beginObject(), "nested: element object");
+            while (scanner.nextKey()) {
+                if (scanner.keyEquals("id")) {
+                    sum += scanner.longValue();
+                } else {
+                    scanner.skipValue();
+                }
+            }
+            elements++;
+        }
+        check(elements == 2 && sum == 68, "nested: " + elements + " elements with id sum " + sum);
+        check(scanner.nextKey() && scanner.keyEquals("after"), "nested: key after array");
+        scanner.skipValue();
+        check(!scanner.nextKey(), "nested: end of object");
+
+        JsonScanner empty = new JsonScanner().reset("[]");
+        check(empty.beginArray() && !empty.nextElement(), "nested: empty array");
+    }
+
+    private static void nullValues() {
+        JsonScanner scanner = new JsonScanner().reset("{\"object\":null,\"array\":null,\"string\":null}");
+        check(scanner.beginObject(), "null: object expected");
+        check(scanner.nextKey() && !scanner.beginObject(), "null: object");
+        check(scanner.nextKey() && !scanner.beginArray(), "null: array");
+        check(scanner.nextKey() && scanner.stringValue() == null, "null: string");
+        check(!scanner.nextKey(), "null: end of object");
+    }
+
+    private static void counts() {
+        check(JsonScanner.findCount("{\"count\": 1500, \"results\": []}", "count") == 1500, "count: first key");
+        check(JsonScanner.findCount("{\"results\":[{\"count\":7}],\"count\":\"12\"}", "count") == 12,
+                "count: nested key ignored");
+        check(JsonScanner.findCount("{\"results\":[]}", "count") == -1, "count: missing key");
+        check(JsonScanner.findCount("null", "count") == -1, "count: null document");
+    }
+
+    private static void malformedDocuments() {
+        String[] documents = {"", "[1,2", "{\"a\":1", "{\"a\" 1}", "{a:1}", "{\"a\":\"unterminated}", "{\"a\":{\"b\":[1,2}",
+                "[1,}", "{\"a\":}", "{\"a\":\"\\u12\"}"};
+        for (String document : documents) {
+            try {
+                walk(new JsonScanner().reset(document));
+                throw new AssertionError("malformed: no error for " + document);
+            } catch (IllegalArgumentException e) {
+                check(e.getMessage() != null, "malformed: message for " + document);
+            }
+        }
+        walk(new JsonScanner().reset("{\"a\":[1,{\"b\":null},\"c\",true,[]],\"d\":-1.5e3}"));
+    }
+
+    /**
+     * Reads a value and everything nested in it, as a parser of an unknown document would.
+     */
+    private static void walk(JsonScanner scanner) {
+        switch (scanner.peek()) {
+            case '{' -> {
+                scanner.beginObject();
+                while (scanner.nextKey()) {
+                    walk(scanner);
+                }
+            }
+            case '[' -> {
+                scanner.beginArray();
+                while (scanner.nextElement()) {
+                    walk(scanner);
+                }
+            }
+            case '"' -> scanner.stringValue();
+            default -> scanner.skipValue();
+        }
+    }
+
+    private static void assertNumber(String value, double expected) {
+        JsonScanner scanner = new JsonScanner();
+        double plain = scanner.reset("[" + value + "]").beginArray() && scanner.nextElement() ? scanner.doubleValue() : Double.NaN;
+        double quoted = scanner.reset("\"" + value + "\"").doubleValue();
+        check(Double.doubleToRawLongBits(plain) == Double.doubleToRawLongBits(expected),
+                "number " + value + ": " + plain + " instead of " + expected);
+        check(Double.doubleToRawLongBits(quoted) == Double.doubleToRawLongBits(expected),
+                "quoted number " + value + ": " + quoted + " instead of " + expected);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
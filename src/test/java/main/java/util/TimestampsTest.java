@@ -0,0 +1,124 @@
+package main.java.util;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+/**
+ * Tests of {@link Timestamps}: the hand-written parser must agree with {@code java.time} on every valid layout,
+ * including the offsets {@code Z} and {@code -05:30}, remember the source offset, and reject invalid dates.
+ * <p>
+ * Run with {@code java -cp <classes> main.java.util.TimestampsTest}; a failed check throws an
+ * {@link AssertionError}.
+ * </p>
+ */
+
+public final class TimestampsTest {
+    private static final String[] OFFSETS = {"Z", "+00:00", "+01:00", "-05:30", "+05:45", "-12:00", "+14:00", "-00:30"};
+
+    public static void main(String[] args) {
+        offsets();
+        fractions();
+        calendarEdges();
+        randomTimestamps();
+        fallbackLayouts();
+        invalidTimestamps();
+        formatRoundTrip();
+        System.out.println("TimestampsTest passed");
+    }
+
+    private static void offsets() {
+        assertParsed("2024-01-05T13:39:39Z", 1_704_461_979_000L, ZoneOffset.UTC);
+        assertParsed("2024-01-05T13:39:39.917402+01:00", 1_704_458_379_917L, ZoneOffset.ofHours(1));
+        assertParsed("2024-01-05T13:39:39.917-05:30", 1_704_481_779_917L, ZoneOffset.ofHoursMinutes(-5, -30));
+        assertParsed("2024-01-05T13:39:39.917+00:00", 1_704_461_979_917L, ZoneOffset.UTC);
+        for (String offset : OFFSETS) {
+            assertAsJavaTime("2024-06-30T23:59:59.999" + offset);
+        }
+    }
+
+    private static void fractions() {
+        String[] fractions = {"", ".0", ".9", ".12", ".123", ".1234", ".999999", ".000000001", ".999999999"};
+        for (String fraction : fractions) {
+            assertAsJavaTime("2024-01-05T13:39:39" + fraction + "-05:30");
+            assertAsJavaTime("1969-12-31T23:59:59" + fraction + "Z");
+        }
+        check(Timestamps.parse("2024-01-05T13:39:39.9999999999Z") == 1_704_461_979_999L, "digits beyond nanoseconds");
+    }
+
+    private static void calendarEdges() {
+        String[] values = {"1970-01-01T00:00:00Z", "1969-12-31T23:59:59.999Z", "1900-03-01T00:00:00Z",
+                "2000-02-29T12:00:00+01:00", "2024-02-29T23:59:59-05:30", "2100-02-28T00:00:00Z", "2023-12-31T23:59:59+14:00",
+                "0001-01-01T00:00:00Z", "9999-12-31T23:59:59.999-12:00", "2024-01-01T00:00:00-00:30"};
+        for (String value : values) {
+            assertAsJavaTime(value);
+        }
+    }
+
+    private static void randomTimestamps() {
+        Random random = new Random(20_240_105L);
+        for (int i = 0; i < 100_000; i++) {
+            OffsetDateTime time = OffsetDateTime.of(1900 + random.nextInt(300), 1 + random.nextInt(12), 1,
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1_000_000) * 1_000,
+                    ZoneOffset.UTC);
+            time = time.plusDays(random.nextInt(31));
+            String offset = OFFSETS[random.nextInt(OFFSETS.length)];
+            String text = String.format("%04d-%02d-%02dT%02d:%02d:%02d.%06d%s", time.getYear(), time.getMonthValue(),
+                    time.getDayOfMonth(), time.getHour(), time.getMinute(), time.getSecond(), time.getNano() / 1_000, offset);
+            assertAsJavaTime(text);
+        }
+    }
+
+    private static void fallbackLayouts() {
+        assertParsed("2024-01-05T13:39Z", 1_704_461_940_000L, ZoneOffset.UTC);
+        assertParsed("2024-01-05T13:39:39.917+01:00[Europe/Berlin]", 1_704_458_379_917L, ZoneOffset.ofHours(1));
+        long local = LocalDateTime.of(2024, 1, 5, 13, 39, 39).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        check(Timestamps.parse("2024-01-05T13:39:39") == local, "local date-time in the system zone");
+    }
+
+    private static void invalidTimestamps() {
+        String[] values = {null, "", "garbage", "2024-01-05", "2024-02-30T00:00:00Z", "2023-02-29T00:00:00Z",
+                "2024-13-01T00:00:00Z", "2024-01-05T24:00:00Z", "2024-01-05T13:60:00Z", "2024-01-05T13:39:61Z",
+                "2024-01-05T13:39:39+25:00", "2024-01-05T13:39:39+01:60",
+                "2024-01-05T13:39:39Zjunk", "2024-01-05 13:39:39Z", "2024-1-05T13:39:39Z"};
+        for (String value : values) {
+            ZoneOffset before = Timestamps.sourceOffset();
+            check(Timestamps.parse(value) == Timestamps.NONE, "invalid " + value + " parsed");
+            check(Timestamps.sourceOffset().equals(before), "invalid " + value + " changed the source offset");
+        }
+    }
+
+    private static void formatRoundTrip() {
+        check(Timestamps.format(Timestamps.NONE) == null, "format of NONE");
+        for (String value : new String[]{"2024-01-05T13:39:39.917-05:30", "2024-01-05T13:39:39.917Z",
+                "1969-12-31T23:59:59.001+05:45"}) {
+            long parsed = Timestamps.parse(value);
+            String formatted = Timestamps.format(parsed);
+            check(value.equals(formatted), "format of " + value + ": " + formatted);
+            check(Timestamps.parse(formatted) == parsed, "parse of formatted " + formatted);
+        }
+        long parsed = Timestamps.parse("2024-01-05T13:39:39.917402+01:00");
+        check("2024-01-05T13:39:39.917+01:00".equals(Timestamps.format(parsed)), "format drops microseconds");
+        Timestamps.parse("2024-01-05T07:39:39Z");
+        check("2024-01-05T12:39:39.917Z".equals(Timestamps.format(parsed)), "format follows the source offset");
+    }
+
+    private static void assertAsJavaTime(String value) {
+        OffsetDateTime expected = OffsetDateTime.parse(value);
+        assertParsed(value, expected.toInstant().toEpochMilli(), expected.getOffset());
+    }
+
+    private static void assertParsed(String value, long epochMillis, ZoneOffset offset) {
+        long parsed = Timestamps.parse(value);
+        check(parsed == epochMillis, value + ": " + parsed + " instead of " + epochMillis);
+        check(Timestamps.sourceOffset().equals(offset), value + ": source offset " + Timestamps.sourceOffset());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}